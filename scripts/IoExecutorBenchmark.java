@@ -0,0 +1,104 @@
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependency;
+import jact.utils.IoExecutors;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jact.utils.FileSystemUtils.copyDirectoryTree;
+import static jact.utils.FileSystemUtils.removeDirectory;
+
+/**
+ * Benchmark of the I/O executor, run by io-executor-benchmark.sh.
+ * <p>
+ * {@code modes} prints the I/O executor modes supported by the JVM,
+ * {@code setup <dir>} writes 400 dependency jars and a report tree of 4000
+ * pages, {@code run <dir> <mode> <cache>} indexes the jars and copies the
+ * report tree on the given I/O executor mode and prints the durations.
+ */
+public class IoExecutorBenchmark {
+    private static final int DEPENDENCIES = 400;
+    private static final int PAGES = 4000;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1 && args[0].equals("modes")) {
+            if (IoExecutors.supportsVirtualThreads()) {
+                System.out.println(IoExecutors.VIRTUAL);
+            }
+            System.out.println(IoExecutors.PLATFORM);
+        } else if (args.length == 2 && args[0].equals("setup")) {
+            setup(args[1]);
+        } else if (args.length == 4 && args[0].equals("run")) {
+            run(args[1], args[2], args[3]);
+        } else {
+            System.err.println("Usage: IoExecutorBenchmark modes | setup <dir> | run <dir> <virtual|platform> <cold|warm>");
+            System.exit(2);
+        }
+    }
+
+    private static void setup(String directory) throws IOException {
+        removeDirectory(new File(directory));
+        for (ProjectDependency dependency : dependencies().values()) {
+            String artifactId = dependency.getArtifactId();
+            File jarFile = new File(directory + "/repo/com/example/" + artifactId + "/1.0/" + artifactId + "-1.0.jar");
+            jarFile.getParentFile().mkdirs();
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jarFile))) {
+                for (int entry = 0; entry < 200; entry++) {
+                    out.putNextEntry(new ZipEntry("com/example/" + artifactId + "/p" + entry % 10 + "/C" + entry + ".class"));
+                    out.write(new byte[512]);
+                    out.closeEntry();
+                }
+            }
+        }
+        for (int page = 0; page < PAGES; page++) {
+            File pageFile = new File(directory + "/pages/dep" + page % 100 + "/p" + page + ".html");
+            pageFile.getParentFile().mkdirs();
+            try (FileWriter writer = new FileWriter(pageFile)) {
+                for (int row = 0; row < 100; row++) {
+                    writer.write("<tr><td>row " + row + "</td></tr>\n");
+                }
+            }
+        }
+    }
+
+    private static void run(String directory, String mode, String cache) throws IOException {
+        System.setProperty(IoExecutors.MODE_PROPERTY, mode);
+        Map<String, ProjectDependency> dependencies = dependencies();
+        long start = System.nanoTime();
+        DependencyJarIndex index = DependencyJarIndex.build(dependencies, directory + "/repo");
+        long indexMillis = (System.nanoTime() - start) / 1000000;
+        if (!index.containsPackage(dependencies.get("com.example:lib7:1.0"), "com.example.lib7.p3")) {
+            throw new IllegalStateException("The jars were not indexed");
+        }
+
+        File copy = new File(directory + "/copy-" + mode);
+        removeDirectory(copy);
+        start = System.nanoTime();
+        copyDirectoryTree(new File(directory + "/pages"), copy);
+        long copyMillis = (System.nanoTime() - start) / 1000000;
+        if (copy.list().length != 100) {
+            throw new IllegalStateException("The report tree was not copied");
+        }
+        System.out.println(String.format("%-8s %-4s cache: jar indexing %6d ms, page copy %6d ms",
+                mode, cache, indexMillis, copyMillis));
+    }
+
+    private static Map<String, ProjectDependency> dependencies() {
+        Map<String, ProjectDependency> dependencies = new HashMap<>();
+        for (int i = 0; i < DEPENDENCIES; i++) {
+            ProjectDependency dependency = new ProjectDependency();
+            dependency.setId("com.example:lib" + i + ":1.0");
+            dependency.setGroupId("com.example");
+            dependency.setArtifactId("lib" + i);
+            dependency.setVersion("1.0");
+            dependencies.put(dependency.getId(), dependency);
+        }
+        return dependencies;
+    }
+}
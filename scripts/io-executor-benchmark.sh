@@ -0,0 +1,46 @@
+#!/bin/sh
+# Compares the virtual thread (JDK 21+) and platform thread I/O executors on
+# indexing 400 dependency jars and copying a report tree of 4000 pages.
+#
+# Usage: scripts/io-executor-benchmark.sh [work directory]
+#
+# Requires `mvn package` (for target/jact-<version>-cli.jar) and a JDK 11+ to
+# launch the benchmark source file. The cold cache runs drop the page cache
+# through /proc/sys/vm/drop_caches, which requires root on Linux; otherwise
+# only the warm cache runs are measured. Do not run this on a shared machine:
+# dropping the page cache slows down every process on it.
+set -e
+
+cd "$(dirname "$0")/.."
+WORK_DIR=${1:-target/io-executor-benchmark}
+CLI_JAR=$(ls target/jact-*-cli.jar 2>/dev/null | head -n 1)
+if [ -z "$CLI_JAR" ]; then
+    echo "target/jact-<version>-cli.jar not found, run mvn package first" >&2
+    exit 1
+fi
+
+benchmark() {
+    java -cp "$CLI_JAR" scripts/IoExecutorBenchmark.java "$@"
+}
+
+drop_page_cache() {
+    sync
+    echo 3 > /proc/sys/vm/drop_caches
+}
+
+COLD_CACHE=false
+if [ -w /proc/sys/vm/drop_caches ]; then
+    COLD_CACHE=true
+else
+    echo "The cold page cache requires root on Linux, measuring the warm cache only"
+fi
+
+echo "I/O executor benchmark ($(java -version 2>&1 | head -n 1), $(nproc) processors)"
+benchmark setup "$WORK_DIR"
+for mode in $(benchmark modes); do
+    if [ "$COLD_CACHE" = true ]; then
+        drop_page_cache
+        benchmark run "$WORK_DIR" "$mode" cold
+    fi
+    benchmark run "$WORK_DIR" "$mode" warm
+done
@@ -0,0 +1,420 @@
+package jact.cli;
+
+import jact.core.AttributionPipeline;
+import jact.core.ClassAnalysisCache;
+import jact.core.CoverageAnalyzer;
+import jact.core.DependencyHtmlDetail;
+import jact.core.ReportMerger;
+import jact.core.ReportModel;
+import jact.core.ReportWriters;
+import jact.core.StagedReport;
+import jact.daemon.ReportRequest;
+import jact.depUtils.DependencyFilter;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.DependencyTreeFile;
+import jact.depUtils.ProjectDependencies;
+import jact.depUtils.ProjectDependency;
+import jact.shard.ShardedReportGenerator;
+import jact.utils.OutputCompression;
+import jact.utils.ResourceStager;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.core.XmlAugmenter.generateXmlReport;
+import static jact.utils.FileSystemUtils.scanClassesDirectory;
+
+/**
+ * Standalone JACT report generation from an existing JaCoCo exec file,
+ * Uber-jar and dependency list, without booting Maven:
+ * <pre>
+ * java -jar jact-cli.jar --exec target/jacoco.exec --jar target/app-shaded.jar \
+ *      --dependencies target/dependency-tree.txt --repo ~/.m2/repository
+ * </pre>
+ * Reports generated independently for the same build are merged with
+ * `java -jar jact-cli.jar merge-reports --reports job1/jact-report,job2/jact-report`.
+ * The dependency list is the text output of `mvn dependency:tree -DoutputFile=...`
+ * or a `lockfile.json` of maven-lockfile. The report is generated by the same
+ * engine as the plugin goals. The classes of a report format (e.g. the JaCoCo
+ * HTML formatter) are only loaded when the format is generated, and all classes are
+ * loaded from the application class path, so the startup can be shortened
+ * further with an AppCDS archive (-XX:SharedArchiveFile).
+ */
+public class Main {
+    private static final String USAGE = String.join("\n",
+            "Usage: java -jar jact-cli.jar --exec <files> --jar <Uber-jar> --dependencies <file> [options]",
+            "       java -jar jact-cli.jar merge-reports --reports <reports> [--dependencies <file>] [options]",
+            "  --exec <files>                  Comma separated JaCoCo exec files or glob patterns",
+            "  --jar <file>                    The Uber-jar (shaded jar) of the project",
+            "  --dependencies <file>           `mvn dependency:tree -DoutputFile` output or a lockfile.json",
+            "  --repo <dir>                    The local Maven repository (default ~/.m2/repository)",
+            "  --classes <dir>                 The classes of the project (default ./target/classes)",
+            "  --report <dir>                  The report directory (default ./target/jact-report)",
+            "  --staging-dir <dir>             Generate the report in this directory before publishing it",
+            "  --format <formats>              xml, html or xml,html (default xml,html)",
+            "  --project-id <id>               groupId:artifactId:version (default the root of the tree)",
+            "  --summary                       Write the jactReportSummary.md",
+            "  --dependency-html-detail <d>    summary, package or full (default full)",
+            "  --compress                      Gzip the XML report",
+            "  --include-test-dependencies     Report test-scope dependencies",
+            "  --no-analysis-cache             Analyze all dependency classes instead of using the cache",
+            "  --includes <patterns>           Dependency patterns and package prefixes to report",
+            "  --excludes <patterns>           Dependency patterns and package prefixes to leave out",
+            "  --shards <n>                    Generate in n local worker JVMs and merge the shards (default 1)",
+            "  --shard-max-heap <size>         Maximum heap of each shard worker (default 1g)",
+            "  --reports <reports>             merge-reports: comma separated report directories or XML reports");
+    private static final String XML = "xml";
+    private static final String HTML = "html";
+    private static final String MERGE_COMMAND = "merge-reports";
+    private final Map<String, String> options;
+    // The staging directory while the report is generated
+    private String outputPath;
+
+    private Main(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options;
+        boolean merge = args.length > 0 && args[0].equals(MERGE_COMMAND);
+        try {
+            options = parseArguments(merge ? Arrays.copyOfRange(args, 1, args.length) : args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        if (options.containsKey("help")) {
+            System.out.println(USAGE);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Main main = new Main(options);
+        try {
+            main.generateStaged(merge);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("JACT: Error generating the report: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(2);
+        }
+        System.out.println("JACT: Report generated in " + (System.currentTimeMillis() - start) + " ms: "
+                + main.getReportPath());
+    }
+
+    /**
+     * Parses `--name value` options and `--flag` switches.
+     *
+     * @param args
+     * @return Map<String, String>
+     */
+    static Map<String, String> parseArguments(String[] args) {
+        Set<String> flags = new HashSet<>(Arrays.asList("summary", "compress", "include-test-dependencies",
+                "no-analysis-cache", "help"));
+        Set<String> values = new HashSet<>(Arrays.asList("exec", "jar", "dependencies", "repo", "classes", "report",
+                "format", "project-id", "dependency-html-detail", "includes", "excludes", "shards", "shard-max-heap", "reports",
+                "staging-dir"));
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i].startsWith("--") ? args[i].substring(2) : "";
+            if (flags.contains(name)) {
+                options.put(name, "true");
+            } else if (values.contains(name) && i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Invalid argument: " + args[i]);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Generates (or merges) the report in the staging directory and
+     * publishes it into the report directory once it is complete.
+     *
+     * @param merge
+     * @throws Exception
+     */
+    private void generateStaged(boolean merge) throws Exception {
+        String stagingDir = this.options.get("staging-dir");
+        StagedReport stagedReport = StagedReport.create(new File(getReportPath()),
+                stagingDir == null ? null : new File(stagingDir));
+        try {
+            stagedReport.prepare(true);
+            this.outputPath = stagedReport.getStagingPath();
+            if (merge) {
+                merge();
+            } else {
+                generate();
+            }
+            stagedReport.publish();
+        } finally {
+            this.outputPath = null;
+            stagedReport.discard();
+        }
+    }
+
+    /**
+     * Builds the report model and generates the requested formats.
+     *
+     * @throws Exception
+     */
+    public void generate() throws Exception {
+        List<String> formats = getFormats();
+        List<File> execFiles = CoverageAnalyzer.resolveExecFiles(new File("."), require("exec"));
+        if (execFiles.isEmpty()) {
+            throw new IllegalArgumentException("No JaCoCo exec files found: " + require("exec"));
+        }
+        File classFiles = new File(require("jar"));
+        File dependenciesFile = new File(require("dependencies"));
+        DependencyFilter dependencyFilter = new DependencyFilter(this.options.get("includes"),
+                this.options.get("excludes"));
+        String localRepoPath = getLocalRepoPath();
+        Map<String, ProjectDependency> filtered = new HashMap<>();
+        DependencyNode dependencyTree = isLockfile(dependenciesFile) ? null : DependencyTreeFile.read(dependenciesFile);
+        String projectId = getProjectId(dependencyTree);
+        int shards = Integer.parseInt(this.options.getOrDefault("shards", "1"));
+        if (shards > 1) {
+            if (dependencyFilter.isEmpty()) {
+                generateInShards(formats, execFiles, classFiles, createDependencies(dependenciesFile, dependencyTree,
+                        dependencyFilter, filtered), localRepoPath, projectId, shards);
+                return;
+            }
+            System.out.println("JACT: Sharded generation does not support includes/excludes, generating in-process.");
+        }
+
+        // The dependencies are created while the project classes are scanned
+        CompletableFuture<Map<String, ProjectDependency>> dependencies = CompletableFuture.supplyAsync(() ->
+                createDependencies(dependenciesFile, dependencyTree, dependencyFilter, filtered));
+        CompletableFuture<Map<String, Set<String>>> projectClasses = CompletableFuture.supplyAsync(() ->
+                scanClassesDirectory(new File(this.options.getOrDefault("classes", "./target/classes"))));
+        CompletableFuture<DependencyJarIndex> jarIndex = dependencies.thenApplyAsync(included -> {
+            Map<String, ProjectDependency> indexed = new HashMap<>(included);
+            indexed.putAll(filtered);
+            return DependencyJarIndex.build(indexed, localRepoPath);
+        });
+        ReportModel reportModel;
+        try {
+            AttributionPipeline.Inputs inputs = new AttributionPipeline.Inputs(execFiles, classFiles, dependencies,
+                    projectClasses, jarIndex)
+                    .withFilter(dependencyFilter, dependencies.thenApply(included -> filtered))
+                    .withAnalysisCache(getClassAnalysisCache(localRepoPath));
+            reportModel = AttributionPipeline.createModel(inputs, projectId, getOutputPath());
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+
+        ResourceStager resourceStager = ResourceStager.forPluginVersion(localRepoPath, getVersion());
+        List<Runnable> reports = new ArrayList<>();
+        if (formats.contains(XML)) {
+            reports.add(() -> generateXml(reportModel, resourceStager));
+        }
+        if (formats.contains(HTML)) {
+            reports.add(() -> generateHtml(reportModel, resourceStager));
+        }
+        ReportWriters.writeAll(reports);
+    }
+
+    /**
+     * Merges the reports generated independently for the same build. The
+     * dependency graph is read from the dependency list if given, otherwise
+     * all dependencies of the reports are reported as direct dependencies.
+     *
+     * @throws Exception
+     */
+    public void merge() throws Exception {
+        List<String> formats = getFormats();
+        List<File> reports = new ArrayList<>();
+        for (String report : require("reports").split(",")) {
+            if (!report.trim().isEmpty()) {
+                reports.add(ReportMerger.findXmlReport(new File(report.trim())));
+            }
+        }
+        Map<String, ProjectDependency> dependencies = new HashMap<>();
+        String projectId = this.options.get("project-id");
+        if (this.options.containsKey("dependencies")) {
+            File dependenciesFile = new File(this.options.get("dependencies"));
+            DependencyNode dependencyTree = isLockfile(dependenciesFile) ? null
+                    : DependencyTreeFile.read(dependenciesFile);
+            projectId = getProjectId(dependencyTree);
+            dependencies = createDependencies(dependenciesFile, dependencyTree, DependencyFilter.NONE, new HashMap<>());
+        } else if (projectId == null) {
+            throw new IllegalArgumentException("--project-id is required without --dependencies");
+        }
+        OutputCompression compression = new OutputCompression(this.options.containsKey("compress"),
+                OutputCompression.DEFAULT_LEVEL, OutputCompression.DEFAULT_BUFFER_SIZE);
+        new ReportMerger(reports, dependencies, projectId, getOutputPath()).generate(formats.contains(XML),
+                formats.contains(HTML), this.options.containsKey("summary"), compression,
+                DependencyHtmlDetail.parse(this.options.getOrDefault("dependency-html-detail", "full")),
+                ResourceStager.forPluginVersion(getLocalRepoPath(), getVersion()));
+    }
+
+    /**
+     * Generates the report in local worker JVMs started with the
+     * class path of the CLI, each generating a shard of the dependencies.
+     *
+     * @param formats
+     * @param execFiles
+     * @param classFiles
+     * @param dependencies
+     * @param localRepoPath
+     * @param projectId
+     * @param shards
+     * @throws IOException
+     */
+    private void generateInShards(List<String> formats, List<File> execFiles, File classFiles,
+                                  Map<String, ProjectDependency> dependencies, String localRepoPath,
+                                  String projectId, int shards) throws IOException {
+        ReportRequest request = new ReportRequest();
+        request.getFormats().addAll(formats);
+        request.getExecFiles().addAll(execFiles);
+        request.setClassFiles(classFiles);
+        request.setLocalRepoPath(localRepoPath);
+        request.setReportPath(getOutputPath());
+        request.setProjectId(projectId);
+        request.setPluginVersion(getVersion());
+        request.setIncludeSummary(this.options.containsKey("summary"));
+        request.setOutputCompression(new OutputCompression(this.options.containsKey("compress"),
+                OutputCompression.DEFAULT_LEVEL, OutputCompression.DEFAULT_BUFFER_SIZE));
+        request.setDependencyHtmlDetail(DependencyHtmlDetail.parse(
+                this.options.getOrDefault("dependency-html-detail", "full")));
+        request.setProjectPackagesAndClasses(scanClassesDirectory(
+                new File(this.options.getOrDefault("classes", "./target/classes"))));
+        request.setDependenciesMap(dependencies);
+        List<File> classpath = new ArrayList<>();
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            classpath.add(new File(path));
+        }
+        new ShardedReportGenerator(request, !this.options.containsKey("no-analysis-cache"), shards, classpath,
+                this.options.getOrDefault("shard-max-heap", "1g")).generate();
+    }
+
+    // The report formats are generated in separate methods, their classes are only loaded when used
+    private void generateXml(ReportModel reportModel, ResourceStager resourceStager) {
+        OutputCompression compression = new OutputCompression(this.options.containsKey("compress"),
+                OutputCompression.DEFAULT_LEVEL, OutputCompression.DEFAULT_BUFFER_SIZE);
+        generateXmlReport(reportModel, compression, resourceStager);
+        System.out.println("JACT: XML Report Successfully Generated!");
+    }
+
+    private void generateHtml(ReportModel reportModel, ResourceStager resourceStager) {
+        generateHtmlReport(reportModel, this.options.containsKey("summary"), resourceStager,
+                DependencyHtmlDetail.parse(this.options.getOrDefault("dependency-html-detail", "full")));
+        System.out.println("JACT: HTML Report Successfully Generated!");
+    }
+
+    /**
+     * Creates the dependencies of the dependency tree or, without
+     * a tree, of the lockfile.json.
+     *
+     * @param dependenciesFile
+     * @param dependencyTree
+     * @param dependencyFilter
+     * @param filtered
+     * @return Map<String, ProjectDependency>
+     */
+    private Map<String, ProjectDependency> createDependencies(File dependenciesFile, DependencyNode dependencyTree,
+                                                              DependencyFilter dependencyFilter,
+                                                              Map<String, ProjectDependency> filtered) {
+        boolean skipTestDependencies = !this.options.containsKey("include-test-dependencies");
+        if (dependencyTree == null) {
+            String directory = dependenciesFile.getAbsoluteFile().getParent() + File.separator;
+            return ProjectDependencies.getAllProjectDependencies(new File("."), directory, false,
+                    skipTestDependencies, dependencyFilter, filtered);
+        }
+        return ProjectDependencies.getAllProjectDependencies(dependencyTree, skipTestDependencies, dependencyFilter,
+                filtered);
+    }
+
+    private static boolean isLockfile(File dependenciesFile) {
+        return dependenciesFile.getName().equals("lockfile.json");
+    }
+
+    private String getProjectId(DependencyNode dependencyTree) {
+        String projectId = this.options.get("project-id");
+        if (projectId != null) {
+            return projectId;
+        }
+        if (dependencyTree == null) {
+            throw new IllegalArgumentException("--project-id is required with a lockfile.json");
+        }
+        Artifact project = dependencyTree.getArtifact();
+        return project.getGroupId() + ":" + project.getArtifactId() + ":" + project.getVersion();
+    }
+
+    private ClassAnalysisCache getClassAnalysisCache(String localRepoPath) {
+        return this.options.containsKey("no-analysis-cache") ? null
+                : ClassAnalysisCache.forLocalRepository(localRepoPath);
+    }
+
+    private List<String> getFormats() {
+        List<String> formats = new ArrayList<>();
+        for (String format : this.options.getOrDefault("format", XML + "," + HTML).split(",")) {
+            format = format.trim().toLowerCase(Locale.ROOT);
+            if (!format.equals(XML) && !format.equals(HTML)) {
+                throw new IllegalArgumentException("Unknown report format: " + format);
+            }
+            formats.add(format);
+        }
+        return formats;
+    }
+
+    private String getLocalRepoPath() {
+        String repo = this.options.get("repo");
+        if (repo == null) {
+            repo = System.getProperty("user.home") + File.separator + ".m2" + File.separator + "repository";
+        }
+        return new File(repo).getAbsolutePath();
+    }
+
+    private String getReportPath() {
+        String report = this.options.getOrDefault("report", "./target/jact-report");
+        return report.endsWith("/") || report.endsWith(File.separator) ? report : report + File.separator;
+    }
+
+    private String getOutputPath() {
+        return this.outputPath != null ? this.outputPath : getReportPath();
+    }
+
+    private String require(String option) {
+        String value = this.options.get(option);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + option);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the version of JACT, the version of the resource cache.
+     *
+     * @return String
+     */
+    private static String getVersion() {
+        String version = Main.class.getPackage().getImplementationVersion();
+        return version == null ? "cli" : version;
+    }
+
+    private static Exception unwrap(Throwable cause) {
+        if (cause instanceof UncheckedIOException) {
+            return ((UncheckedIOException) cause).getCause();
+        }
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new RuntimeException(cause);
+    }
+}
@@ -0,0 +1,617 @@
+package jact.core;
+
+import jact.depUtils.DependencyFilter;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.DependencyUsage;
+import jact.depUtils.ProjectDependency;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.analysis.BundleCoverageImpl;
+import org.jacoco.core.internal.analysis.PackageCoverageImpl;
+import org.jacoco.core.tools.ExecFileLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Creates the report model in a pipeline instead of analyzing the whole
+ * Uber-jar before attributing any package. The packages of the jar are
+ * analyzed by several workers, every analyzed package is handed to the
+ * resolver workers which attribute it to its owner, and the attributed
+ * packages are aggregated by the calling thread. The stages are connected
+ * by bounded queues, a full queue blocks the stage producing into it.
+ * The dependency inputs of the resolvers are awaited by the resolvers,
+ * the analysis starts right away unless packages are filtered: the
+ * packages of filtered dependencies are never analyzed, only their
+ * class entries and the classes with execution data are counted.
+ * With an analysis cache, the classes of dependency packages without
+ * execution data are restored from the cache instead of analyzed.
+ * A package selector restricts the model to a part of the packages,
+ * e.g. to the packages of one shard of the dependencies.
+ */
+public class AttributionPipeline {
+    private static final int QUEUE_CAPACITY = 64;
+    private static final int RESOLVER_THREADS = 2;
+    private static final long POLL_MILLIS = 100L;
+    // Marks the end of the analyzed and of the attributed packages
+    private static final IPackageCoverage END_OF_PACKAGES =
+            new PackageCoverageImpl("", Collections.emptyList(), Collections.emptyList());
+    private static final PackageAttributor.AttributedPackage END_OF_ATTRIBUTION =
+            new PackageAttributor.AttributedPackage(END_OF_PACKAGES, false, null, null);
+    // Classes are analyzed without execution data for the analysis cache
+    private static final ExecutionDataStore NO_EXECUTION_DATA = new ExecutionDataStore();
+
+    private final File classFiles;
+    private final ExecutionDataStore executionDataStore;
+    private final Future<Map<String, ProjectDependency>> dependencies;
+    private final Future<Map<String, Set<String>>> projectPackages;
+    private final Future<DependencyJarIndex> jarIndex;
+    private final DependencyFilter dependencyFilter;
+    private final Future<Map<String, ProjectDependency>> filteredDependencies;
+    private final ClassAnalysisCache analysisCache;
+    private final PackageSelector packageSelector;
+    private final int analysisThreads;
+    private final Queue<List<String>> analysisTasks = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<IPackageCoverage> analyzedPackages = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<PackageAttributor.AttributedPackage> attributedPackages =
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicInteger runningAnalyses = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    // The class usage of the filtered packages, by filtered dependency id (or the filtered packages key)
+    private final Map<String, DependencyUsage> filteredUsage = new ConcurrentHashMap<>();
+    private Set<String> executedClasses;
+
+    // Thrown in the workers once another stage has failed
+    private static class PipelineAbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Selects the packages a report is created from, e.g. the packages
+     * of one shard of the dependencies. Packages that are not selected
+     * are left out of the model without being counted as filtered.
+     */
+    public interface PackageSelector {
+        PackageSelector ALL = new PackageSelector() {
+            @Override
+            public boolean analyzes(String packageName) {
+                return true;
+            }
+
+            @Override
+            public boolean reports(String packageName, ProjectDependency owner) {
+                return true;
+            }
+        };
+
+        /**
+         * Whether the class entries of a package directory of the
+         * Uber-jar are analyzed at all.
+         *
+         * @param packageName
+         * @return boolean
+         */
+        boolean analyzes(String packageName);
+
+        /**
+         * Whether an analyzed package is added to the model.
+         *
+         * @param packageName
+         * @param owner the dependency of the package, null for project and unmatched packages
+         * @return boolean
+         */
+        boolean reports(String packageName, ProjectDependency owner);
+    }
+
+    /**
+     * The inputs of a report model. The exec files, the Uber-jar, the
+     * dependencies, the project packages and the jar index are required.
+     * By default no dependency is filtered, all classes are analyzed and
+     * all packages are selected. The jar index has to contain the
+     * filtered dependencies.
+     */
+    public static class Inputs {
+        private final List<File> execFiles;
+        private final File classFiles;
+        private final Future<Map<String, ProjectDependency>> dependencies;
+        private final Future<Map<String, Set<String>>> projectPackages;
+        private final Future<DependencyJarIndex> jarIndex;
+        private DependencyFilter dependencyFilter = DependencyFilter.NONE;
+        private Future<Map<String, ProjectDependency>> filteredDependencies =
+                CompletableFuture.completedFuture(Collections.emptyMap());
+        private ClassAnalysisCache analysisCache;
+        private PackageSelector packageSelector = PackageSelector.ALL;
+
+        public Inputs(List<File> execFiles, File classFiles, Future<Map<String, ProjectDependency>> dependencies,
+                      Future<Map<String, Set<String>>> projectPackages, Future<DependencyJarIndex> jarIndex) {
+            this.execFiles = execFiles;
+            this.classFiles = classFiles;
+            this.dependencies = dependencies;
+            this.projectPackages = projectPackages;
+            this.jarIndex = jarIndex;
+        }
+
+        /**
+         * Leaves out the packages of the filtered dependencies and packages.
+         *
+         * @param dependencyFilter
+         * @param filteredDependencies
+         * @return Inputs
+         */
+        public Inputs withFilter(DependencyFilter dependencyFilter,
+                                 Future<Map<String, ProjectDependency>> filteredDependencies) {
+            this.dependencyFilter = dependencyFilter;
+            this.filteredDependencies = filteredDependencies;
+            return this;
+        }
+
+        /**
+         * Restores the classes of dependency packages without
+         * execution data from the analysis cache.
+         *
+         * @param analysisCache null to analyze all classes
+         * @return Inputs
+         */
+        public Inputs withAnalysisCache(ClassAnalysisCache analysisCache) {
+            this.analysisCache = analysisCache;
+            return this;
+        }
+
+        /**
+         * Only analyzes and adds the packages chosen by the selector.
+         *
+         * @param packageSelector
+         * @return Inputs
+         */
+        public Inputs withPackageSelector(PackageSelector packageSelector) {
+            this.packageSelector = packageSelector;
+            return this;
+        }
+    }
+
+    private AttributionPipeline(Inputs inputs, ExecutionDataStore executionDataStore, int analysisThreads) {
+        this.classFiles = inputs.classFiles;
+        this.executionDataStore = executionDataStore;
+        this.dependencies = inputs.dependencies;
+        this.projectPackages = inputs.projectPackages;
+        this.jarIndex = inputs.jarIndex;
+        this.dependencyFilter = inputs.dependencyFilter;
+        this.filteredDependencies = inputs.filteredDependencies;
+        this.analysisCache = inputs.analysisCache;
+        this.packageSelector = inputs.packageSelector;
+        this.analysisThreads = analysisThreads;
+    }
+
+    /**
+     * Analyzes the Uber-jar with the merged execution data of the exec
+     * files and attributes its packages while the analysis is running.
+     * A failed input future fails the pipeline with an ExecutionException
+     * holding the cause of the input.
+     *
+     * @param inputs
+     * @param projId
+     * @param reportPath
+     * @return ReportModel
+     * @throws IOException
+     * @throws ExecutionException
+     */
+    public static ReportModel createModel(Inputs inputs, String projId, String reportPath)
+            throws IOException, ExecutionException {
+        if (!inputs.classFiles.isFile()) {
+            throw new IOException("Class files not found: " + inputs.classFiles.getPath());
+        }
+        ExecFileLoader loader = CoverageAnalyzer.loadExecFiles(inputs.execFiles);
+        int analysisThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        AttributionPipeline pipeline = new AttributionPipeline(inputs, loader.getExecutionDataStore(),
+                analysisThreads);
+        Collection<IPackageCoverage> packages = new ArrayList<>();
+        Collection<PackageAttributor.AttributedPackage> attributed = pipeline.run(packages);
+        CoverageAnalysis coverageAnalysis = new CoverageAnalysis(
+                new BundleCoverageImpl(CoverageAnalyzer.BUNDLE_NAME, packages),
+                loader.getSessionInfoStore(), loader.getExecutionDataStore());
+        // Every filtered dependency is listed, even without classes in the Uber-jar
+        Map<String, DependencyUsage> filteredUsage = new TreeMap<>(pipeline.filteredUsage);
+        for (String filteredId : awaitInput(inputs.filteredDependencies).keySet()) {
+            filteredUsage.putIfAbsent(filteredId, new DependencyUsage());
+        }
+        return ReportModel.create(coverageAnalysis, awaitInput(inputs.dependencies), attributed, filteredUsage,
+                projId, reportPath);
+    }
+
+    /**
+     * Runs all stages and aggregates the attributed packages,
+     * sorted by package name.
+     *
+     * @param packages receives the analyzed packages
+     * @return Collection<PackageAttributor.AttributedPackage>
+     */
+    private Collection<PackageAttributor.AttributedPackage> run(Collection<IPackageCoverage> packages)
+            throws IOException, ExecutionException {
+        createAnalysisTasks();
+        ExecutorService executor = Executors.newFixedThreadPool(this.analysisThreads + RESOLVER_THREADS);
+        SortedMap<String, PackageAttributor.AttributedPackage> aggregated = new TreeMap<>();
+        try {
+            this.runningAnalyses.set(this.analysisThreads);
+            for (int i = 0; i < this.analysisThreads; i++) {
+                executor.execute(this::analyze);
+            }
+            for (int i = 0; i < RESOLVER_THREADS; i++) {
+                executor.execute(() -> runStage(this::resolve));
+            }
+            int finishedResolvers = 0;
+            while (finishedResolvers < RESOLVER_THREADS) {
+                PackageAttributor.AttributedPackage attributedPackage = take(this.attributedPackages);
+                if (attributedPackage == END_OF_ATTRIBUTION) {
+                    finishedResolvers++;
+                } else {
+                    aggregate(aggregated, attributedPackage);
+                }
+            }
+        } catch (PipelineAbortedException e) {
+            rethrowFailure();
+        } finally {
+            executor.shutdownNow();
+        }
+        rethrowFailure();
+        for (PackageAttributor.AttributedPackage attributedPackage : aggregated.values()) {
+            packages.add(attributedPackage.packageCoverage);
+        }
+        return aggregated.values();
+    }
+
+    /**
+     * Groups the class entries of the jar by their directory, every
+     * directory is analyzed as one task. All other entries (e.g. nested
+     * archives) are analyzed together by the first task.
+     */
+    private void createAnalysisTasks() throws IOException {
+        Map<String, List<String>> classEntries = new LinkedHashMap<>();
+        List<String> otherEntries = new ArrayList<>();
+        try (ZipFile zipFile = new ZipFile(this.classFiles)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (name.endsWith(".class")) {
+                    int separator = name.lastIndexOf('/');
+                    String directory = separator < 0 ? "" : name.substring(0, separator);
+                    classEntries.computeIfAbsent(directory, k -> new ArrayList<>()).add(name);
+                } else {
+                    otherEntries.add(name);
+                }
+            }
+        }
+        if (!otherEntries.isEmpty()) {
+            this.analysisTasks.add(otherEntries);
+        }
+        this.analysisTasks.addAll(classEntries.values());
+    }
+
+    private void analyze() {
+        try {
+            analyzeTasks();
+        } catch (PipelineAbortedException e) {
+            // Another stage failed first
+        } catch (Throwable t) {
+            // Recorded before the end is signalled, the resolvers must not finish normally
+            this.failure.compareAndSet(null, t);
+        } finally {
+            if (this.runningAnalyses.decrementAndGet() == 0 && this.failure.get() == null) {
+                for (int i = 0; i < RESOLVER_THREADS; i++) {
+                    put(this.analyzedPackages, END_OF_PACKAGES);
+                }
+            }
+        }
+    }
+
+    private void analyzeTasks() throws IOException, ExecutionException {
+        PackageFilter packageFilter = createPackageFilter();
+        try (ZipFile zipFile = new ZipFile(this.classFiles)) {
+            List<String> task;
+            while ((task = this.analysisTasks.poll()) != null) {
+                if (packageFilter != null && isFiltered(packageFilter, task) || !isSelected(task)) {
+                    continue;
+                }
+                CoverageBuilder coverageBuilder = new CoverageBuilder();
+                if (isCached(task)) {
+                    analyzeCached(zipFile, task, coverageBuilder);
+                } else {
+                    Analyzer analyzer = new Analyzer(this.executionDataStore, coverageBuilder);
+                    for (String entryName : task) {
+                        try (InputStream in = zipFile.getInputStream(zipFile.getEntry(entryName))) {
+                            analyzer.analyzeAll(in, this.classFiles.getPath() + "@" + entryName);
+                        }
+                    }
+                }
+                // A directory usually holds a single package
+                for (IPackageCoverage packageCoverage : new BundleCoverageImpl(CoverageAnalyzer.BUNDLE_NAME,
+                        coverageBuilder.getClasses(), coverageBuilder.getSourceFiles()).getPackages()) {
+                    put(this.analyzedPackages, packageCoverage);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether a task (a directory of class entries) is selected for the
+     * analysis, all other entries are analyzed and selected once attributed.
+     */
+    private boolean isSelected(List<String> task) {
+        String firstEntry = task.get(0);
+        if (!firstEntry.endsWith(".class")) {
+            return true;
+        }
+        int separator = firstEntry.lastIndexOf('/');
+        return this.packageSelector.analyzes(separator < 0 ? "" : firstEntry.substring(0, separator).replace('/', '.'));
+    }
+
+    /**
+     * Whether the classes of a task are cached, only the class entries of
+     * dependency packages are cached: project classes change every build.
+     */
+    private boolean isCached(List<String> task) throws ExecutionException {
+        if (this.analysisCache == null || !task.get(0).endsWith(".class")) {
+            return false;
+        }
+        String firstEntry = task.get(0);
+        int separator = firstEntry.lastIndexOf('/');
+        String packageName = separator < 0 ? "" : firstEntry.substring(0, separator).replace('/', '.');
+        return !awaitInput(this.projectPackages).containsKey(packageName);
+    }
+
+    /**
+     * Restores the classes of a task without execution data from the
+     * cache and analyzes the others. On a cache miss all classes are
+     * analyzed and the task is cached.
+     */
+    private void analyzeCached(ZipFile zipFile, List<String> task, CoverageBuilder coverageBuilder)
+            throws IOException {
+        String key = ClassAnalysisCache.key(zipFile, task);
+        Map<String, List<ClassAnalysisCache.CachedClass>> cached = this.analysisCache.load(key);
+        if (cached != null && cached.keySet().containsAll(task)) {
+            for (String entryName : task) {
+                List<ClassAnalysisCache.CachedClass> classes = cached.get(entryName);
+                if (classes.stream().anyMatch(cachedClass -> hasHits(cachedClass.getId()))) {
+                    for (IClassCoverage classCoverage : analyzeEntry(zipFile, entryName, this.executionDataStore)) {
+                        coverageBuilder.visitCoverage(classCoverage);
+                    }
+                    continue;
+                }
+                for (ClassAnalysisCache.CachedClass cachedClass : classes) {
+                    // Analyzed without probes, a class with the same name but another id is not matched
+                    boolean noMatch = this.executionDataStore.get(cachedClass.getId()) == null
+                            && this.executionDataStore.contains(cachedClass.getName());
+                    coverageBuilder.visitCoverage(cachedClass.toCoverage(noMatch));
+                }
+            }
+            return;
+        }
+        Map<String, List<IClassCoverage>> missed = new HashMap<>();
+        for (String entryName : task) {
+            List<IClassCoverage> classes = analyzeEntry(zipFile, entryName, this.executionDataStore);
+            for (IClassCoverage classCoverage : classes) {
+                coverageBuilder.visitCoverage(classCoverage);
+            }
+            if (classes.stream().anyMatch(classCoverage -> hasHits(classCoverage.getId()))) {
+                classes = analyzeEntry(zipFile, entryName, NO_EXECUTION_DATA);
+            }
+            missed.put(entryName, classes);
+        }
+        this.analysisCache.store(key, missed);
+    }
+
+    private List<IClassCoverage> analyzeEntry(ZipFile zipFile, String entryName, ExecutionDataStore store)
+            throws IOException {
+        List<IClassCoverage> classes = new ArrayList<>();
+        Analyzer analyzer = new Analyzer(store, classes::add);
+        try (InputStream in = zipFile.getInputStream(zipFile.getEntry(entryName))) {
+            analyzer.analyzeAll(in, this.classFiles.getPath() + "@" + entryName);
+        }
+        return classes;
+    }
+
+    private boolean hasHits(long classId) {
+        ExecutionData executionData = this.executionDataStore.get(classId);
+        return executionData != null && executionData.hasHits();
+    }
+
+    /**
+     * Counts the class entries of a task (a directory of class entries)
+     * whose package is filtered, the task is not analyzed then.
+     */
+    private boolean isFiltered(PackageFilter packageFilter, List<String> task) {
+        String firstEntry = task.get(0);
+        if (!firstEntry.endsWith(".class")) {
+            // Other entries are filtered once analyzed
+            return false;
+        }
+        int separator = firstEntry.lastIndexOf('/');
+        String packageName = separator < 0 ? "" : firstEntry.substring(0, separator).replace('/', '.');
+        String filteredKey = packageFilter.filteredKey(packageName);
+        if (filteredKey == null) {
+            return false;
+        }
+        long executed = 0;
+        for (String entryName : task) {
+            if (this.executedClasses.contains(entryName.substring(0, entryName.length() - ".class".length()))) {
+                executed++;
+            }
+        }
+        addFilteredClasses(filteredKey, task.size(), task.size() - executed);
+        return true;
+    }
+
+    private void addFilteredClasses(String filteredKey, long classes, long missedClasses) {
+        this.filteredUsage.compute(filteredKey, (key, usage) -> {
+            DependencyUsage filtered = usage == null ? new DependencyUsage() : usage;
+            filtered.addTotalClasses(classes);
+            filtered.addMissedClasses(missedClasses);
+            return filtered;
+        });
+    }
+
+    /**
+     * Creates the package filter of a worker, null if nothing is filtered.
+     */
+    private PackageFilter createPackageFilter() throws ExecutionException {
+        if (this.dependencyFilter.isEmpty()) {
+            return null;
+        }
+        synchronized (this) {
+            if (this.executedClasses == null) {
+                Set<String> executed = new HashSet<>();
+                for (ExecutionData executionData : this.executionDataStore.getContents()) {
+                    if (executionData.hasHits()) {
+                        executed.add(executionData.getName());
+                    }
+                }
+                this.executedClasses = executed;
+            }
+        }
+        return new PackageFilter(this.dependencyFilter, awaitInput(this.dependencies),
+                awaitInput(this.filteredDependencies), awaitInput(this.projectPackages), awaitInput(this.jarIndex));
+    }
+
+    private void resolve() throws ExecutionException {
+        PackageAttributor attributor = new PackageAttributor(awaitInput(this.dependencies),
+                awaitInput(this.projectPackages), awaitInput(this.jarIndex));
+        PackageFilter packageFilter = createPackageFilter();
+        IPackageCoverage packageCoverage;
+        while ((packageCoverage = take(this.analyzedPackages)) != END_OF_PACKAGES) {
+            String filteredKey = packageFilter == null ? null
+                    : packageFilter.filteredKey(packageCoverage.getName().replace('/', '.'));
+            if (filteredKey != null) {
+                addFilteredClasses(filteredKey, packageCoverage.getClassCounter().getTotalCount(),
+                        packageCoverage.getClassCounter().getMissedCount());
+                continue;
+            }
+            PackageAttributor.AttributedPackage attributedPackage = attributor.attribute(packageCoverage);
+            if (this.packageSelector.reports(packageCoverage.getName().replace('/', '.'),
+                    attributedPackage.dependency)) {
+                put(this.attributedPackages, attributedPackage);
+            }
+        }
+        put(this.attributedPackages, END_OF_ATTRIBUTION);
+    }
+
+    /**
+     * Adds an attributed package to the aggregation, a package analyzed
+     * by more than one task (e.g. from a nested archive) is combined.
+     */
+    private static void aggregate(Map<String, PackageAttributor.AttributedPackage> aggregated,
+                                  PackageAttributor.AttributedPackage attributedPackage) {
+        String name = attributedPackage.packageCoverage.getName();
+        PackageAttributor.AttributedPackage previous = aggregated.get(name);
+        if (previous == null) {
+            aggregated.put(name, attributedPackage);
+            return;
+        }
+        CoverageBuilder coverageBuilder = new CoverageBuilder();
+        for (IClassCoverage classCoverage : previous.packageCoverage.getClasses()) {
+            coverageBuilder.visitCoverage(classCoverage);
+        }
+        for (IClassCoverage classCoverage : attributedPackage.packageCoverage.getClasses()) {
+            coverageBuilder.visitCoverage(classCoverage);
+        }
+        IPackageCoverage combined = new BundleCoverageImpl(CoverageAnalyzer.BUNDLE_NAME,
+                coverageBuilder.getClasses(), coverageBuilder.getSourceFiles()).getPackages().iterator().next();
+        // Both parts were attributed by their (equal) package name
+        aggregated.put(name, new PackageAttributor.AttributedPackage(combined, previous.project, previous.dependency,
+                previous.usage == null ? null : DependencyUsage.fromCoverageNode(combined)));
+    }
+
+    private interface StageTask {
+        void run() throws Exception;
+    }
+
+    private void runStage(StageTask task) {
+        try {
+            task.run();
+        } catch (PipelineAbortedException e) {
+            // Another stage failed first
+        } catch (Throwable t) {
+            this.failure.compareAndSet(null, t);
+        }
+    }
+
+    private <T> void put(BlockingQueue<T> queue, T element) {
+        try {
+            while (!queue.offer(element, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkNotFailed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PipelineAbortedException();
+        }
+    }
+
+    private <T> T take(BlockingQueue<T> queue) {
+        try {
+            T element;
+            while ((element = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                checkNotFailed();
+            }
+            return element;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PipelineAbortedException();
+        }
+    }
+
+    private void checkNotFailed() {
+        if (this.failure.get() != null) {
+            throw new PipelineAbortedException();
+        }
+    }
+
+    private void rethrowFailure() throws IOException, ExecutionException {
+        Throwable cause = this.failure.get();
+        if (cause == null) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("The attribution pipeline was interrupted.");
+            }
+            return;
+        }
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        if (cause instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) cause).getCause();
+        }
+        if (cause instanceof ExecutionException) {
+            throw (ExecutionException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IOException(cause);
+    }
+
+    private static <T> T awaitInput(Future<T> input) throws ExecutionException {
+        try {
+            return input.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PipelineAbortedException();
+        }
+    }
+}
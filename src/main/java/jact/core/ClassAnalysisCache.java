@@ -0,0 +1,327 @@
+package jact.core;
+
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ILine;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.analysis.ISourceNode;
+import org.jacoco.core.internal.analysis.ClassCoverageImpl;
+import org.jacoco.core.internal.analysis.CounterImpl;
+import org.jacoco.core.internal.analysis.MethodCoverageImpl;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Caches the static analysis of the class entries of a package directory
+ * of the Uber-jar: the class ids and the structure and totals of their
+ * methods and lines without any coverage. The bytecode of a dependency
+ * never changes for the same content, the cache is keyed by the names,
+ * CRC-32 checksums and sizes of the entries (read from the central
+ * directory of the jar, without decompressing the classes). A class
+ * without execution data is then restored from the cache as all missed,
+ * only the classes with execution data are analyzed again.
+ * Cache files are written atomically, a corrupt file is a cache miss.
+ */
+public class ClassAnalysisCache {
+    private static final int FORMAT = 1;
+    private static final String SUFFIX = ".analysis";
+    private final File directory;
+
+    public ClassAnalysisCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates a cache in the local repository, analyses
+     * of different JaCoCo versions are cached separately.
+     *
+     * @param localRepoPath
+     * @return ClassAnalysisCache
+     */
+    public static ClassAnalysisCache forLocalRepository(String localRepoPath) {
+        return new ClassAnalysisCache(new File(localRepoPath, ".cache/jact/analysis/" + JaCoCo.VERSION));
+    }
+
+    /**
+     * A cached class, restored with all its code missed.
+     */
+    static class CachedClass {
+        private final String name;
+        private final long id;
+        private final String signature;
+        private final String superName;
+        private final String[] interfaces;
+        private final String sourceFileName;
+        private final List<CachedMethod> methods = new ArrayList<>();
+
+        private CachedClass(String name, long id, String signature, String superName, String[] interfaces,
+                            String sourceFileName) {
+            this.name = name;
+            this.id = id;
+            this.signature = signature;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.sourceFileName = sourceFileName;
+        }
+
+        String getName() {
+            return this.name;
+        }
+
+        long getId() {
+            return this.id;
+        }
+
+        /**
+         * Restores the coverage of the class without execution data.
+         *
+         * @param noMatch whether execution data of another class with the same name exists
+         * @return IClassCoverage
+         */
+        IClassCoverage toCoverage(boolean noMatch) {
+            ClassCoverageImpl classCoverage = new ClassCoverageImpl(this.name, this.id, noMatch);
+            classCoverage.setSignature(this.signature);
+            classCoverage.setSuperName(this.superName);
+            classCoverage.setInterfaces(this.interfaces);
+            classCoverage.setSourceFileName(this.sourceFileName);
+            for (CachedMethod method : this.methods) {
+                classCoverage.addMethod(method.toCoverage());
+            }
+            return classCoverage;
+        }
+    }
+
+    private static class CachedMethod {
+        private final String name;
+        private final String desc;
+        private final String signature;
+        private final int firstLine;
+        private final int lastLine;
+        private final int instructions;
+        private final int branches;
+        private final int complexity;
+        // line, instructions and branches of every line with code
+        private final int[] lines;
+
+        private CachedMethod(String name, String desc, String signature, int firstLine, int lastLine,
+                             int instructions, int branches, int complexity, int[] lines) {
+            this.name = name;
+            this.desc = desc;
+            this.signature = signature;
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
+            this.instructions = instructions;
+            this.branches = branches;
+            this.complexity = complexity;
+            this.lines = lines;
+        }
+
+        IMethodCoverage toCoverage() {
+            return new MissedMethodCoverage(this);
+        }
+    }
+
+    /**
+     * A method with all its code missed. The complexity is restored as
+     * cached, it cannot be derived from the line totals.
+     */
+    private static class MissedMethodCoverage extends MethodCoverageImpl {
+        MissedMethodCoverage(CachedMethod method) {
+            super(method.name, method.desc, method.signature);
+            if (method.firstLine != ISourceNode.UNKNOWN_LINE) {
+                ensureCapacity(method.firstLine, method.lastLine);
+            }
+            int lineInstructions = 0;
+            int lineBranches = 0;
+            for (int i = 0; i < method.lines.length; i += 3) {
+                increment(CounterImpl.getInstance(method.lines[i + 1], 0),
+                        CounterImpl.getInstance(method.lines[i + 2], 0), method.lines[i]);
+                lineInstructions += method.lines[i + 1];
+                lineBranches += method.lines[i + 2];
+            }
+            // Instructions without line numbers
+            increment(CounterImpl.getInstance(method.instructions - lineInstructions, 0),
+                    CounterImpl.getInstance(method.branches - lineBranches, 0), ISourceNode.UNKNOWN_LINE);
+            incrementMethodCounter();
+            this.complexityCounter = CounterImpl.getInstance(method.complexity, 0);
+        }
+    }
+
+    /**
+     * Gets the cache key of class entries of a jar.
+     *
+     * @param zipFile
+     * @param entryNames
+     * @return String
+     */
+    static String key(ZipFile zipFile, List<String> entryNames) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String entryName : entryNames) {
+            ZipEntry entry = zipFile.getEntry(entryName);
+            digest.update((entryName + ":" + entry.getCrc() + ":" + entry.getSize() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Loads the cached classes of each entry.
+     *
+     * @param key
+     * @return Map<String, List<CachedClass>>, null if not cached
+     */
+    Map<String, List<CachedClass>> load(String key) {
+        File cacheFile = new File(this.directory, key + SUFFIX);
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != FORMAT) {
+                return null;
+            }
+            Map<String, List<CachedClass>> entries = new HashMap<>();
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                String entryName = in.readUTF();
+                int classCount = in.readInt();
+                List<CachedClass> classes = new ArrayList<>(classCount);
+                for (int c = 0; c < classCount; c++) {
+                    classes.add(readClass(in));
+                }
+                entries.put(entryName, classes);
+            }
+            return entries;
+        } catch (IOException e) {
+            // Corrupt or truncated, analyzed again
+            return null;
+        }
+    }
+
+    /**
+     * Stores the classes of each entry, analyzed without execution data.
+     * Failing to write the cache does not fail the analysis.
+     *
+     * @param key
+     * @param entries
+     */
+    void store(String key, Map<String, List<IClassCoverage>> entries) {
+        File cacheFile = new File(this.directory, key + SUFFIX);
+        File tempFile = new File(this.directory, key + "." + UUID.randomUUID() + ".tmp");
+        try {
+            this.directory.mkdirs();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FORMAT);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, List<IClassCoverage>> entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (IClassCoverage classCoverage : entry.getValue()) {
+                        writeClass(out, classCoverage);
+                    }
+                }
+            }
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tempFile.delete();
+        }
+    }
+
+    private static void writeClass(DataOutputStream out, IClassCoverage classCoverage) throws IOException {
+        out.writeUTF(classCoverage.getName());
+        out.writeLong(classCoverage.getId());
+        writeNullable(out, classCoverage.getSignature());
+        writeNullable(out, classCoverage.getSuperName());
+        String[] interfaces = classCoverage.getInterfaceNames();
+        out.writeInt(interfaces == null ? -1 : interfaces.length);
+        if (interfaces != null) {
+            for (String interfaceName : interfaces) {
+                out.writeUTF(interfaceName);
+            }
+        }
+        writeNullable(out, classCoverage.getSourceFileName());
+        out.writeInt(classCoverage.getMethods().size());
+        for (IMethodCoverage method : classCoverage.getMethods()) {
+            out.writeUTF(method.getName());
+            out.writeUTF(method.getDesc());
+            writeNullable(out, method.getSignature());
+            out.writeInt(method.getFirstLine());
+            out.writeInt(method.getLastLine());
+            out.writeInt(method.getInstructionCounter().getTotalCount());
+            out.writeInt(method.getBranchCounter().getTotalCount());
+            out.writeInt(method.getComplexityCounter().getTotalCount());
+            List<Integer> lines = new ArrayList<>();
+            for (int line = method.getFirstLine(); line != ISourceNode.UNKNOWN_LINE && line <= method.getLastLine(); line++) {
+                ILine lineCoverage = method.getLine(line);
+                if (lineCoverage.getInstructionCounter().getTotalCount() > 0) {
+                    lines.add(line);
+                    lines.add(lineCoverage.getInstructionCounter().getTotalCount());
+                    lines.add(lineCoverage.getBranchCounter().getTotalCount());
+                }
+            }
+            out.writeInt(lines.size());
+            for (int value : lines) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    private static CachedClass readClass(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        long id = in.readLong();
+        String signature = readNullable(in);
+        String superName = readNullable(in);
+        int interfaceCount = in.readInt();
+        String[] interfaces = interfaceCount < 0 ? null : new String[interfaceCount];
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces[i] = in.readUTF();
+        }
+        CachedClass cachedClass = new CachedClass(name, id, signature, superName, interfaces, readNullable(in));
+        int methodCount = in.readInt();
+        for (int m = 0; m < methodCount; m++) {
+            String methodName = in.readUTF();
+            String desc = in.readUTF();
+            String methodSignature = readNullable(in);
+            int firstLine = in.readInt();
+            int lastLine = in.readInt();
+            int instructions = in.readInt();
+            int branches = in.readInt();
+            int complexity = in.readInt();
+            int[] lines = new int[in.readInt()];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = in.readInt();
+            }
+            cachedClass.methods.add(new CachedMethod(methodName, desc, methodSignature, firstLine, lastLine,
+                    instructions, branches, complexity, lines));
+        }
+        return cachedClass;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
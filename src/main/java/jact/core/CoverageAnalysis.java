@@ -0,0 +1,34 @@
+package jact.core;
+
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.SessionInfoStore;
+
+/**
+ * The result of the in-process JaCoCo analysis: the coverage
+ * bundle along with the execution data it was calculated from.
+ */
+public class CoverageAnalysis {
+    private final IBundleCoverage bundle;
+    private final SessionInfoStore sessionInfoStore;
+    private final ExecutionDataStore executionDataStore;
+
+    public CoverageAnalysis(IBundleCoverage bundle, SessionInfoStore sessionInfoStore,
+                            ExecutionDataStore executionDataStore) {
+        this.bundle = bundle;
+        this.sessionInfoStore = sessionInfoStore;
+        this.executionDataStore = executionDataStore;
+    }
+
+    public IBundleCoverage getBundle() {
+        return this.bundle;
+    }
+
+    public SessionInfoStore getSessionInfoStore() {
+        return this.sessionInfoStore;
+    }
+
+    public ExecutionDataStore getExecutionDataStore() {
+        return this.executionDataStore;
+    }
+}
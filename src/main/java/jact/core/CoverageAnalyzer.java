@@ -0,0 +1,217 @@
+package jact.core;
+
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ISourceFileCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.internal.analysis.BundleCoverageImpl;
+import org.jacoco.core.tools.ExecFileLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the JaCoCo analysis of the Uber-jar inside the
+ * current JVM instead of through the JaCoCo CLI.
+ */
+public class CoverageAnalyzer {
+    // Same bundle name as the JaCoCo CLI uses for its reports
+    public static final String BUNDLE_NAME = "JaCoCo Coverage Report";
+
+    /**
+     * Loads the execution data and analyzes all classes
+     * contained in the given class files (jar or directory).
+     *
+     * @param execFile
+     * @param classFiles
+     * @return CoverageAnalysis
+     * @throws IOException
+     */
+    public static CoverageAnalysis analyze(File execFile, File classFiles) throws IOException {
+        List<File> execFiles = new ArrayList<>();
+        execFiles.add(execFile);
+        return analyze(execFiles, classFiles);
+    }
+
+    /**
+     * Loads and merges the execution data of all exec files and
+     * analyzes all classes contained in the given class files.
+     *
+     * @param execFiles
+     * @param classFiles
+     * @return CoverageAnalysis
+     * @throws IOException
+     */
+    public static CoverageAnalysis analyze(List<File> execFiles, File classFiles) throws IOException {
+        if (!classFiles.exists()) {
+            throw new IOException("Class files not found: " + classFiles.getPath());
+        }
+        ExecFileLoader loader = loadExecFiles(execFiles);
+
+        CoverageBuilder coverageBuilder = new CoverageBuilder();
+        Analyzer analyzer = new Analyzer(loader.getExecutionDataStore(), coverageBuilder);
+        analyzer.analyzeAll(classFiles);
+
+        return new CoverageAnalysis(coverageBuilder.getBundle(BUNDLE_NAME),
+                loader.getSessionInfoStore(), loader.getExecutionDataStore());
+    }
+
+    /**
+     * Loads and merges the execution data of all exec files and analyzes
+     * the classes of several class locations (jars or directories) in
+     * parallel, each location is analyzed once. A class contained in more
+     * than one location is only reported from the first location.
+     *
+     * @param execFiles
+     * @param classLocations
+     * @return CoverageAnalysis
+     * @throws IOException
+     */
+    public static CoverageAnalysis analyzeAll(List<File> execFiles, List<File> classLocations) throws IOException {
+        ExecFileLoader loader = loadExecFiles(execFiles);
+        ExecutionDataStore executionDataStore = loader.getExecutionDataStore();
+
+        List<CoverageBuilder> builders;
+        try {
+            builders = classLocations.parallelStream().filter(File::exists).map(classLocation -> {
+                CoverageBuilder coverageBuilder = new CoverageBuilder();
+                try {
+                    new Analyzer(executionDataStore, coverageBuilder).analyzeAll(classLocation);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error analyzing " + classLocation.getPath(), e);
+                }
+                return coverageBuilder;
+            }).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Map<String, IClassCoverage> classes = new LinkedHashMap<>();
+        Map<String, ISourceFileCoverage> sourceFiles = new LinkedHashMap<>();
+        for (CoverageBuilder coverageBuilder : builders) {
+            for (IClassCoverage classCoverage : coverageBuilder.getClasses()) {
+                classes.putIfAbsent(classCoverage.getName(), classCoverage);
+            }
+            for (ISourceFileCoverage sourceFile : coverageBuilder.getSourceFiles()) {
+                sourceFiles.putIfAbsent(sourceFile.getPackageName() + "/" + sourceFile.getName(), sourceFile);
+            }
+        }
+        return new CoverageAnalysis(new BundleCoverageImpl(BUNDLE_NAME, classes.values(), sourceFiles.values()),
+                loader.getSessionInfoStore(), executionDataStore);
+    }
+
+    /**
+     * Loads the exec files in parallel and merges them in memory into
+     * a single store, the probes of the same class id are combined
+     * (bitwise OR). No merged exec file is written.
+     *
+     * @param execFiles
+     * @return ExecFileLoader
+     * @throws IOException
+     */
+    public static ExecFileLoader loadExecFiles(List<File> execFiles) throws IOException {
+        if (execFiles.isEmpty()) {
+            throw new IOException("No JaCoCo execution data files found.");
+        }
+        List<ExecFileLoader> loaders;
+        try {
+            loaders = execFiles.parallelStream().map(execFile -> {
+                ExecFileLoader loader = new ExecFileLoader();
+                try {
+                    loader.load(execFile);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error loading " + execFile.getPath(), e);
+                }
+                return loader;
+            }).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        ExecFileLoader merged = loaders.get(0);
+        ExecutionDataStore executionDataStore = merged.getExecutionDataStore();
+        SessionInfoStore sessionInfoStore = merged.getSessionInfoStore();
+        for (ExecFileLoader loader : loaders.subList(1, loaders.size())) {
+            for (ExecutionData executionData : loader.getExecutionDataStore().getContents()) {
+                // Merges the probes with an existing entry of the same class id
+                executionDataStore.put(executionData);
+            }
+            loader.getSessionInfoStore().accept(sessionInfoStore);
+        }
+        return merged;
+    }
+
+    /**
+     * Resolves a comma separated list of exec file paths and glob
+     * patterns (e.g. `target/*.exec, target/shards/**.exec`)
+     * relative to the base directory.
+     *
+     * @param baseDir
+     * @param patterns
+     * @return List<File>
+     * @throws IOException
+     */
+    public static List<File> resolveExecFiles(File baseDir, String patterns) throws IOException {
+        TreeSet<File> execFiles = new TreeSet<>();
+        for (String pattern : patterns.split(",")) {
+            pattern = stripCurrentDir(pattern.trim());
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            boolean absolute = Paths.get(pattern).isAbsolute();
+            Path base = absolute ? Paths.get("") : baseDir.toPath().normalize();
+            if (!isGlob(pattern)) {
+                execFiles.add(base.resolve(pattern).normalize().toFile());
+                continue;
+            }
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            Path searchRoot = base.resolve(globRoot(pattern)).normalize();
+            if (!Files.isDirectory(searchRoot)) {
+                continue;
+            }
+            try (Stream<Path> paths = Files.walk(searchRoot)) {
+                paths.filter(Files::isRegularFile)
+                        // Relative patterns are matched against the path relative to the base directory
+                        .filter(path -> matcher.matches(absolute ? path : base.relativize(path)))
+                        .forEach(path -> execFiles.add(path.toFile()));
+            }
+        }
+        return new ArrayList<>(execFiles);
+    }
+
+    private static boolean isGlob(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0
+                || pattern.indexOf('[') >= 0 || pattern.indexOf('{') >= 0;
+    }
+
+    private static String stripCurrentDir(String pattern) {
+        return pattern.startsWith("./") ? pattern.substring(2) : pattern;
+    }
+
+    /**
+     * Gets the directory part of a glob pattern before
+     * the first path segment containing a wildcard.
+     */
+    private static String globRoot(String pattern) {
+        StringBuilder root = new StringBuilder();
+        if (pattern.startsWith("/")) {
+            root.append('/');
+        }
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (isGlob(segment)) {
+                break;
+            }
+            root.append(segment).append('/');
+        }
+        return root.length() == 0 ? "." : root.toString();
+    }
+}
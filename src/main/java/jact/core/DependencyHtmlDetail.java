@@ -0,0 +1,43 @@
+package jact.core;
+
+import java.util.Locale;
+
+/**
+ * How deep the HTML report of the dependencies goes.
+ * The project packages are always rendered by JaCoCo.
+ */
+public enum DependencyHtmlDetail {
+    /**
+     * Dependency pages list their packages, no package pages are written.
+     */
+    SUMMARY,
+    /**
+     * Dependency pages link to a JACT page per package listing its classes.
+     */
+    PACKAGE,
+    /**
+     * Dependency pages link to the JaCoCo package, class and source pages.
+     */
+    FULL;
+
+    /**
+     * Parses the `dependencyHtmlDetail` parameter (case-insensitive).
+     *
+     * @param value
+     * @return DependencyHtmlDetail
+     */
+    public static DependencyHtmlDetail parse(String value) {
+        for (DependencyHtmlDetail detail : values()) {
+            if (detail.name().equalsIgnoreCase(value.trim())) {
+                return detail;
+            }
+        }
+        throw new IllegalArgumentException("Unknown dependencyHtmlDetail: " + value
+                + " (expected summary, package or full)");
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
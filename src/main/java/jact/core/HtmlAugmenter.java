@@ -2,93 +2,135 @@ package jact.core;
 
 import jact.depUtils.DependencyUsage;
 import jact.depUtils.ProjectDependency;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
+import jact.utils.InputFingerprints;
+import jact.utils.IoExecutors;
+import jact.utils.ResourceStager;
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.analysis.BundleCoverageImpl;
+import org.jacoco.report.FileMultiReportOutput;
+import org.jacoco.report.IReportVisitor;
+import org.jacoco.report.MultiSourceFileLocator;
+import org.jacoco.report.html.HTMLFormatter;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static jact.depUtils.PackageToDependencyResolver.packageToDependency;
-import static jact.depUtils.ProjectDependencies.getIndirectUsageMap;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static jact.core.ReportModel.packageDirName;
 import static jact.depUtils.ProjectDependency.depToDirName;
-import static jact.plugin.AbstractReportMojo.getJactReportPath;
 import static jact.utils.FileSystemUtils.*;
 
 /**
  * Creates the HTML version of the JACT Report
  */
 public class HtmlAugmenter {
-    private static String jacocoResPath = getJactReportPath() + "jacoco-resources";
-    private static ProjectDependency thisProject;
-    private static DependencyUsage totalDependencyUsage;
-    private static DependencyUsage completeUsage;
-    private static List<String> calculatedChildIds;
+    static final String PAGE_DIGESTS_FILE = ".jact-pages.properties";
+    private final ReportModel reportModel;
+    private final boolean generateSummary;
+    private final ResourceStager resourceStager;
+    private final DependencyHtmlDetail dependencyHtmlDetail;
+    private final String reportPath;
+    private final String jacocoResPath;
+    private final ProjectDependency thisProject;
+    private final DependencyUsage totalDependencyUsage = new DependencyUsage();
+    private final DependencyUsage completeUsage = new DependencyUsage();
+    // Dependencies whose pages are (re)generated, unchanged pages are kept from the previous report
+    private Set<String> changedDependencyIds;
+    // Usage of each dependency including its indirect dependencies, by dependency id
+    private final Map<String, DependencyUsage> inclusiveUsageMap = new ConcurrentHashMap<>();
+    // Usage of the indirect dependencies of each dependency with children, by dependency id
+    private final Map<String, DependencyUsage> indirectUsageMap = new HashMap<>();
 
     // Report summary usages:
-    private static int nrDirectDeps = 0;
-    private static int nrIndirectDeps = 0;
+    private int nrDirectDeps = 0;
+    private int nrIndirectDeps = 0;
 
     // ONCE: Actual usage
-    private static DependencyUsage summaryTotalDepUsage;
-    private static DependencyUsage summaryDirectDepUsage;
-    private static DependencyUsage summaryIndirectDepUsage;
-    private static DependencyUsage summaryCompileScopeDepUsage;
-    private static DependencyUsage summaryTotalUsage;
+    private final DependencyUsage summaryTotalDepUsage = new DependencyUsage();
+    private final DependencyUsage summaryDirectDepUsage = new DependencyUsage();
+    private final DependencyUsage summaryIndirectDepUsage = new DependencyUsage();
+    private final DependencyUsage summaryCompileScopeDepUsage = new DependencyUsage();
+    private final DependencyUsage summaryTotalUsage = new DependencyUsage();
 
     // MULTIPLE: Indicated dependency heritage
-    private static int nrMultipleIndirectDeps = 0;
-    private static DependencyUsage summaryMultipleTotalDepUsage;
-    private static DependencyUsage summaryMultipleIndirectDepUsage;
-    private static DependencyUsage summaryMultipleTotalUsage;
+    private int nrMultipleIndirectDeps = 0;
+    private final DependencyUsage summaryMultipleTotalDepUsage = new DependencyUsage();
+    private final DependencyUsage summaryMultipleIndirectDepUsage = new DependencyUsage();
+    private final DependencyUsage summaryMultipleTotalUsage = new DependencyUsage();
+
+    private HtmlAugmenter(ReportModel reportModel, boolean generateSummary, ResourceStager resourceStager,
+                          DependencyHtmlDetail dependencyHtmlDetail) {
+        this.reportModel = reportModel;
+        this.generateSummary = generateSummary;
+        this.resourceStager = resourceStager;
+        this.dependencyHtmlDetail = dependencyHtmlDetail;
+        this.reportPath = reportModel.getReportPath();
+        this.jacocoResPath = this.reportPath + "jacoco-resources";
+        this.thisProject = reportModel.getThisProject();
+        for (ProjectDependency dependency : reportModel.getDependenciesMap().values()) {
+            // Dependencies with children have an indirect dependencies report
+            if (!dependency.getChildDeps().isEmpty()) {
+                this.indirectUsageMap.put(dependency.getId(), new DependencyUsage());
+            }
+        }
+    }
 
     /**
-     * Generates the entire JACT HTML report.
+     * Generates the entire JACT HTML report. The report model
+     * is only read, its usages are not modified. All state of
+     * the generation belongs to this call, reports of different
+     * models can be generated concurrently.
      *
-     * @param dependenciesMap
-     * @param projPackagesAndClassMap
-     * @param localRepoPath
-     * @param projId
+     * @param reportModel
+     * @param generateSummary
+     * @param stager
      */
-    public static void generateHtmlReport(Map<String, ProjectDependency> dependenciesMap,
-                                          Map<String, Set<String>> projPackagesAndClassMap,
-                                          String localRepoPath, String projId, boolean generateSummary) {
-        thisProject = new ProjectDependency();
-        totalDependencyUsage = new DependencyUsage();
-        completeUsage = new DependencyUsage();
-        calculatedChildIds = new ArrayList<>();
-
-        // Report summary usages (for gathering results)
-        if(generateSummary){
-            summaryTotalUsage = new DependencyUsage();
-            summaryTotalDepUsage = new DependencyUsage();
-            summaryDirectDepUsage = new DependencyUsage();
-            summaryIndirectDepUsage = new DependencyUsage();
-            summaryCompileScopeDepUsage = new DependencyUsage();
-            summaryMultipleTotalDepUsage = new DependencyUsage();
-            summaryMultipleIndirectDepUsage = new DependencyUsage();
-            summaryMultipleTotalUsage = new DependencyUsage();
-        }
+    public static void generateHtmlReport(ReportModel reportModel, boolean generateSummary, ResourceStager stager) {
+        generateHtmlReport(reportModel, generateSummary, stager, DependencyHtmlDetail.FULL);
+    }
 
-        // Rename the original index.html file
-        String inputFilePath =
-                renameFile(getJactReportPath() + "index.html", "originalIndex.html");
-        // Format the index.html report:
-        formatHtmlReport(inputFilePath);
-        // Creates the report files and moves resource directories
-        setupReport(dependenciesMap);
+    /**
+     * Generates the entire JACT HTML report with the dependency
+     * pages rendered down to the given level of detail.
+     *
+     * @param reportModel
+     * @param generateSummary
+     * @param stager
+     * @param dependencyHtmlDetail
+     */
+    public static void generateHtmlReport(ReportModel reportModel, boolean generateSummary, ResourceStager stager,
+                                          DependencyHtmlDetail dependencyHtmlDetail) {
+        new HtmlAugmenter(reportModel, generateSummary, stager, dependencyHtmlDetail).generate();
+    }
 
+    private void generate() {
+        Map<String, ProjectDependency> dependenciesMap = this.reportModel.getDependenciesMap();
+        new File(reportPath).mkdirs();
+        // Get all the project/dependency/package usage
+        calculateAllUsages(dependenciesMap, generateSummary);
+        InputFingerprints pageDigests = findChangedDependencies(dependenciesMap);
+
+        // Render the JaCoCo HTML report of the Uber-jar
         try {
-            extractReportAndMoveDirs(dependenciesMap, projPackagesAndClassMap, localRepoPath, projId);
+            renderJacocoReport(reportModel);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+
+        // Keep the original index.html of JaCoCo as it was rendered
+        renameFile(reportPath + "index.html", "originalIndex.html");
+        // Creates the report directories and moves resource directories
+        setupReport(dependenciesMap);
+
+        moveDependencyPackages(reportModel);
         try {
-            createDependencyReports(dependenciesMap, generateSummary);
+            createDependencyReports(dependenciesMap);
+            pageDigests.save();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -100,133 +142,233 @@ public class HtmlAugmenter {
     }
 
 
-    private static void setupIndirectReports(Map<String, ProjectDependency> dependenciesMap) {
-        for (String depId : getIndirectUsageMap().keySet()) {
-            try {
-                writeModifiedTemplateToFile("html-templates/indivDepViewTemplateStart.html",
-                        dependenciesMap.get(depId).getReportPath() + "indirect-dependencies.html",
-                        "<span style=\"display: inline-block;\">Indirect Dependencies from: <br>" +
-                                depToDirName(dependenciesMap.get(depId)) + "</span>");
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+    /**
+     * Compares the digest of every dependency page with the digest
+     * stored by the previous report. Only dependencies whose pages
+     * changed, or are missing, are regenerated.
+     *
+     * @param dependenciesMap
+     * @return InputFingerprints
+     */
+    private InputFingerprints findChangedDependencies(Map<String, ProjectDependency> dependenciesMap) {
+        File digestsFile = new File(reportPath + PAGE_DIGESTS_FILE);
+        InputFingerprints pageDigests = InputFingerprints.load(digestsFile);
+        // Pages written by an interrupted generation must not be reused
+        pageDigests.invalidate();
+        for (ProjectDependency pd : dependenciesMap.values()) {
+            pageDigests.addValue(pd.getId(), pageDigest(pd));
+        }
+        changedDependencyIds = new HashSet<>(pageDigests.getChangedInputs());
+        for (ProjectDependency pd : dependenciesMap.values()) {
+            if (!new File(pd.getReportPath() + "index.html").exists()) {
+                changedDependencyIds.add(pd.getId());
             }
         }
+        changedDependencyIds.retainAll(dependenciesMap.keySet());
+        System.out.println("Dependency pages to generate: " + changedDependencyIds.size() + " of " + dependenciesMap.size());
+        return pageDigests;
     }
 
-    private static void setupDependencyReports(Map<String, ProjectDependency> dependenciesMap) {
+    /**
+     * Gets the digest of the usages shown on the pages of a
+     * dependency: its packages, its (inclusive) total and its
+     * indirect dependencies. With package or class pages the
+     * execution data of every class of the dependency is included,
+     * the class rows and pages change even if the totals do not.
+     *
+     * @param pd
+     * @return String
+     */
+    private String pageDigest(ProjectDependency pd) {
+        DependencyUsage inclusiveUsage = getInclusiveUsage(pd);
+        StringBuilder content = new StringBuilder(depToDirName(pd)).append('\n');
+        content.append(inclusiveUsage.totalUsageToHTML());
+        for (Map.Entry<String, DependencyUsage> entry : new TreeMap<>(pd.packageUsageMap).entrySet()) {
+            content.append(entry.getValue().usageToHTML(entry.getKey(), inclusiveUsage, true, false));
+        }
+        DependencyUsage indirectUsage = indirectUsageMap.get(pd.getId());
+        if (indirectUsage != null) {
+            content.append(indirectUsage.totalUsageToHTML());
+            for (ProjectDependency child : pd.getChildDeps().values()) {
+                content.append(getInclusiveUsage(child).usageToHTML(depToDirName(child), indirectUsage, false, true));
+            }
+        }
+        if (dependencyHtmlDetail != DependencyHtmlDetail.SUMMARY) {
+            ExecutionDataStore executionData = reportModel.getCoverageAnalysis().getExecutionDataStore();
+            List<String> classes = new ArrayList<>();
+            for (IPackageCoverage packageCoverage : reportModel.getPackages(pd)) {
+                for (IClassCoverage classCoverage : packageCoverage.getClasses()) {
+                    StringBuilder probes = new StringBuilder(classCoverage.getName()).append(':')
+                            .append(Long.toHexString(classCoverage.getId())).append(':');
+                    ExecutionData data = executionData.get(classCoverage.getId());
+                    if (data != null) {
+                        for (boolean probe : data.getProbes()) {
+                            probes.append(probe ? '1' : '0');
+                        }
+                    }
+                    classes.add(probes.toString());
+                }
+            }
+            Collections.sort(classes);
+            for (String probes : classes) {
+                content.append('\n').append(probes);
+            }
+        }
+        return ResourceStager.digest(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Renders the JaCoCo HTML report of the analyzed bundle into
+     * the report directory. The packages of unchanged dependencies
+     * (of all dependencies unless the detail is full), unmatched
+     * packages and packages rendered by another report are only
+     * rendered as summaries (for the bundle index) and not written.
+     *
+     * @param reportModel
+     * @throws IOException
+     */
+    private void renderJacocoReport(ReportModel reportModel) throws IOException {
+        Set<String> skippedFolders = new HashSet<>();
+        for (ProjectDependency dependency : reportModel.getDependenciesMap().values()) {
+            if (dependencyHtmlDetail != DependencyHtmlDetail.FULL
+                    || !changedDependencyIds.contains(dependency.getId())) {
+                for (IPackageCoverage packageCoverage : reportModel.getPackages(dependency)) {
+                    skippedFolders.add(packageDirName(packageCoverage));
+                }
+            }
+        }
+        for (IPackageCoverage packageCoverage : reportModel.getUnmatchedPackages()) {
+            skippedFolders.add(packageDirName(packageCoverage));
+        }
+        CoverageAnalysis coverageAnalysis = reportModel.getCoverageAnalysis();
+        for (IPackageCoverage packageCoverage : coverageAnalysis.getBundle().getPackages()) {
+            if (reportModel.getRenderedReportPath(packageCoverage) != null) {
+                skippedFolders.add(packageDirName(packageCoverage));
+            }
+        }
+        List<IPackageCoverage> packages = new ArrayList<>();
+        for (IPackageCoverage packageCoverage : coverageAnalysis.getBundle().getPackages()) {
+            packages.add(skippedFolders.contains(packageDirName(packageCoverage))
+                    ? new PackageSummaryCoverage(packageCoverage) : packageCoverage);
+        }
+        IBundleCoverage bundle = new BundleCoverageImpl(coverageAnalysis.getBundle().getName(), packages);
+        HTMLFormatter htmlFormatter = new HTMLFormatter();
+        File reportDirectory = new File(reportPath);
+        IReportVisitor visitor = htmlFormatter.createVisitor(new StagingReportOutput(
+                new FileMultiReportOutput(reportDirectory), reportDirectory, resourceStager, skippedFolders));
+        visitor.visitInfo(coverageAnalysis.getSessionInfoStore().getInfos(),
+                coverageAnalysis.getExecutionDataStore().getContents());
+        // No source files are included in the report
+        visitor.visitBundle(bundle, new MultiSourceFileLocator(4));
+        visitor.visitEnd();
+        resourceStager.stageResource("jact-logo.png", new File(jacocoResPath, "jact-logo.png"));
+    }
+
+    private void setupDependencyReports(Map<String, ProjectDependency> dependenciesMap) {
         // Path to jacoco-resources (to be copied to subdirectories for correct icons and styling)
-        copyDirectory(new File(jacocoResPath),
-                new File(getJactReportPath() + "dependencies/jacoco-resources"));
-        // Create the dependencies overview
-        // Writes the HTML template for the Dependency Overview
         try {
-            writeTemplateToFile("html-templates/depOverviewTemplateStart.html", getJactReportPath() + "dependencies/index.html");
+            resourceStager.stageDirectory(new File(jacocoResPath),
+                    new File(reportPath + "dependencies/jacoco-resources"));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        for (ProjectDependency dependency : dependenciesMap.values()) {
+        removeStaleDependencyReports(dependenciesMap);
+        // The directories of the dependencies are set up concurrently
+        IoExecutors.forEachUnchecked(getChangedDependencies(dependenciesMap), dependency -> {
             String path = dependency.getReportPath();
-            // Set up the directory and copy the jacoco-resources
-            copyDirectory(new File(jacocoResPath),
+            // Replace the report of the previous generation
+            removeDirectory(new File(path));
+            // Set up the directory and link the jacoco-resources
+            resourceStager.stageDirectory(new File(jacocoResPath),
                     new File(path + "jacoco-resources"));
-            // Set up the index.html file
-            try {
-                writeModifiedTemplateToFile("html-templates/indivDepViewTemplateStart.html",
-                        path + "index.html", depToDirName(dependency));
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        }
+        });
     }
 
     /**
-     * Creates the report files and copies the required
-     * resources to each dependency directory.
+     * Gets the dependencies whose pages are (re)generated.
      *
      * @param dependenciesMap
+     * @return List<ProjectDependency>
      */
-    private static void setupReport(Map<String, ProjectDependency> dependenciesMap) {
-
-        // Create the whole project overview
-        try {
-            // Writes the overview HTML template
-            writeTemplateToFile("html-templates/overviewTemplateStart.html", getJactReportPath() + "index.html");
-        } catch (IOException e) {
-            System.err.println("Error: " + e.getMessage());
-            e.printStackTrace();
+    private List<ProjectDependency> getChangedDependencies(Map<String, ProjectDependency> dependenciesMap) {
+        List<ProjectDependency> changedDependencies = new ArrayList<>();
+        for (ProjectDependency dependency : dependenciesMap.values()) {
+            if (changedDependencyIds.contains(dependency.getId())) {
+                changedDependencies.add(dependency);
+            }
         }
-
-        setupDependencyReports(dependenciesMap);
-        setupIndirectReports(dependenciesMap);
+        return changedDependencies;
     }
 
     /**
-     * Reads the html jacoco report to create corresponding ProjectDependency objects
-     * for augmentation and usage tracking as well as sets up the required resources
-     * and folder structure.
+     * Removes the reports of dependencies that are
+     * no longer part of the project.
      *
      * @param dependenciesMap
-     * @param projPackagesAndClassMap
-     * @param localRepoPath
-     * @param projId
-     * @throws IOException
      */
-    private static void extractReportAndMoveDirs(Map<String, ProjectDependency> dependenciesMap,
-                                                 Map<String, Set<String>> projPackagesAndClassMap,
-                                                 String localRepoPath, String projId) throws IOException {
-
-        thisProject.setId(projId);
-        thisProject.setReportPath(getJactReportPath());
-
-        // Traverse the "report" directory:
-        // Moves packages to their respective dependency directory and create their `index.html` file
-        File reportDir = new File(getJactReportPath());
-        if (reportDir.exists() && reportDir.isDirectory()) {
-            File[] directories = reportDir.listFiles(File::isDirectory);
-            if (directories != null) {
-                for (File directory : directories) {
-                    String dirName = directory.getName();
-                    if (!dirName.equals("dependencies") && !dirName.equals("jact_xml_package_reports") &&
-                            !dirName.equals("jacoco-resources")) {
-                        if (projPackagesAndClassMap.containsKey(dirName)) {
-                            extractAndAddPackageTotal(getJactReportPath() + dirName +
-                                    "/index.html", thisProject, dirName);
-                        } else {
-                            // Match the package to its dependency
-                            ProjectDependency matchedDep =
-                                    packageToDependency(dirName, dependenciesMap, localRepoPath);
-                            if (matchedDep.getId() != null) {
-                                extractAndAddPackageTotal(getJactReportPath() + dirName +
-                                        "/index.html", matchedDep, dirName);
-                                moveDirectory(directory, matchedDep.getReportPath());
-                            } else {
-                                removeDirectory(directory);
-                            }
-                        }
-                    }
+    private void removeStaleDependencyReports(Map<String, ProjectDependency> dependenciesMap) {
+        Set<String> dependencyDirs = new HashSet<>();
+        for (ProjectDependency dependency : dependenciesMap.values()) {
+            dependencyDirs.add(depToDirName(dependency));
+        }
+        File[] files = new File(reportPath + "dependencies").listFiles(File::isDirectory);
+        if (files != null) {
+            for (File directory : files) {
+                if (!directory.getName().equals("jacoco-resources") && !dependencyDirs.contains(directory.getName())) {
+                    removeDirectory(directory);
                 }
             }
         }
     }
 
+    /**
+     * Creates the report directories and copies the
+     * required resources to each dependency directory.
+     *
+     * @param dependenciesMap
+     */
+    private void setupReport(Map<String, ProjectDependency> dependenciesMap) {
+        setupDependencyReports(dependenciesMap);
+    }
 
     /**
-     * Formats the input HTML report with
-     * newlines and correct indentation.
+     * Moves the rendered package reports of the dependencies into
+     * their respective dependency directory and removes the reports
+     * of packages that could not be matched to any dependency.
+     * Packages rendered by another report are moved from there.
      *
-     * @param inputFilePath
+     * @param reportModel
      */
-    private static void formatHtmlReport(String inputFilePath) {
-        try {
-            // Read the HTML file
-            File inputFile = new File(inputFilePath);
-            Document doc = Jsoup.parse(inputFile, "UTF-8");
-            String formattedHtml = doc.outerHtml();
-            // Write the formatted HTML back to the original file, overwriting its previous content
-            org.apache.commons.io.FileUtils.writeStringToFile(inputFile, formattedHtml, "UTF-8");
-        } catch (IOException e) {
-            System.err.println("Error: " + e.getMessage());
-            e.printStackTrace();
+    private void moveDependencyPackages(ReportModel reportModel) {
+        IoExecutors.forEachUnchecked(getChangedDependencies(reportModel.getDependenciesMap()), dependency -> {
+            for (IPackageCoverage packageCoverage : reportModel.getPackages(dependency)) {
+                String renderedPath = reportModel.getRenderedReportPath(packageCoverage);
+                if (renderedPath != null) {
+                    // The package report (or package page) in the dependency directory of the other report
+                    File renderedPackage = new File(renderedPath + "dependencies/" + depToDirName(dependency)
+                            + "/" + packageDirName(packageCoverage));
+                    if (renderedPackage.isDirectory()) {
+                        moveDirectory(renderedPackage, dependency.getReportPath());
+                    }
+                } else if (dependencyHtmlDetail == DependencyHtmlDetail.FULL) {
+                    moveDirectory(new File(reportPath + packageDirName(packageCoverage)),
+                            dependency.getReportPath());
+                }
+            }
+        });
+        for (IPackageCoverage packageCoverage : reportModel.getPackages(thisProject)) {
+            String renderedPath = reportModel.getRenderedReportPath(packageCoverage);
+            if (renderedPath != null) {
+                removeDirectory(new File(reportPath + packageDirName(packageCoverage)));
+                try {
+                    moveDirectory(new File(renderedPath + packageDirName(packageCoverage)), reportPath);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        for (IPackageCoverage packageCoverage : reportModel.getUnmatchedPackages()) {
+            removeDirectory(new File(reportPath + packageDirName(packageCoverage)));
         }
     }
 
@@ -237,10 +379,7 @@ public class HtmlAugmenter {
      *
      * @param dependenciesMap
      */
-    private static void createDependencyReports(Map<String, ProjectDependency> dependenciesMap, boolean generateSummary) throws IOException {
-        // Get all the project/dependency/package usage
-        calculateAllUsages(dependenciesMap, generateSummary);
-
+    private void createDependencyReports(Map<String, ProjectDependency> dependenciesMap) throws IOException {
         // Write dependency usage
         writeDependenciesToFile(dependenciesMap);
 
@@ -249,19 +388,28 @@ public class HtmlAugmenter {
     }
 
 
-    private static void writeIndirectToFile(ProjectDependency pd) throws IOException {
-        if (getIndirectUsageMap().containsKey(pd.getId())) {
-            String path = pd.getReportPath();
-            writeHTMLStringToFile(path + "index.html",
-                    getIndirectUsageMap().get(pd.getId()).usageToHTML("indirect-dependencies",
-                            pd.dependencyUsage, false, true));
-            writeHTMLTotalToFile(path + "indirect-dependencies.html", getIndirectUsageMap().get(pd.getId()).totalUsageToHTML());
+    /**
+     * Writes the indirect dependencies page of a dependency
+     * with children and adds its entry to the dependency page.
+     *
+     * @param pd
+     * @param dependencyPage
+     * @throws IOException
+     */
+    private void writeIndirectToFile(ProjectDependency pd, HtmlPage dependencyPage) throws IOException {
+        if (indirectUsageMap.containsKey(pd.getId())) {
+            DependencyUsage indirectUsage = indirectUsageMap.get(pd.getId());
+            dependencyPage.addRow(indirectUsage.usageToHTML("indirect-dependencies",
+                    getInclusiveUsage(pd), false, true));
+            HtmlPage indirectPage = new HtmlPage("html-templates/indivDepViewTemplateStart.html",
+                    "html-templates/endTemplate.html",
+                    "<span style=\"display: inline-block;\">Indirect Dependencies from: <br>" + depToDirName(pd)
+                            + "</span>", indirectUsage.totalUsageToHTML());
             for (ProjectDependency child : pd.getChildDeps().values()) {
-                writeHTMLStringToFile(path + "indirect-dependencies.html",
-                        child.dependencyUsage.usageToHTML(depToDirName(child),
-                                getIndirectUsageMap().get(pd.getId()), false, true));
+                indirectPage.addRow(getInclusiveUsage(child).usageToHTML(depToDirName(child),
+                        indirectUsage, false, true));
             }
-            writeTemplateToFile("html-templates/endTemplate.html", path + "indirect-dependencies.html");
+            indirectPage.write(pd.getReportPath() + "indirect-dependencies.html");
         }
     }
 
@@ -274,22 +422,66 @@ public class HtmlAugmenter {
      * @param dependenciesMap
      * @throws IOException
      */
-    private static void writeDependenciesToFile(Map<String, ProjectDependency> dependenciesMap) throws IOException {
+    private void writeDependenciesToFile(Map<String, ProjectDependency> dependenciesMap) throws IOException {
+        HtmlPage overviewPage = new HtmlPage("html-templates/depOverviewTemplateStart.html",
+                "html-templates/endTemplate.html", null, totalDependencyUsage.totalUsageToHTML());
         for (ProjectDependency pd : dependenciesMap.values()) {
-            String path = pd.getReportPath();
+            // Calculates the inclusive usage of every dependency before the pages are written concurrently
+            DependencyUsage inclusiveUsage = getInclusiveUsage(pd);
             if (pd.rootDep) {
-                writeHTMLStringToFile(getJactReportPath() + "dependencies/" + "index.html",
-                        pd.dependencyUsage.usageToHTML(depToDirName(pd), totalDependencyUsage, false, false));
+                overviewPage.addRow(inclusiveUsage.usageToHTML(depToDirName(pd), totalDependencyUsage, false, false));
             }
-            writeHTMLTotalToFile(path + "index.html", pd.dependencyUsage.totalUsageToHTML());
-            writeIndirectToFile(pd);
-            pd.writePackagesToFile(path, pd.dependencyUsage);
-            // Write the end of the template here
-            writeModifiedTemplateToFile("html-templates/endTemplate.html",
-                    path + "index.html", depToDirName(pd));
         }
-        // Writes the HTML template for the Dependency Overview
-        writeTemplateToFile("html-templates/endTemplate.html", getJactReportPath() + "dependencies/index.html");
+        IoExecutors.forEach(getChangedDependencies(dependenciesMap), pd -> {
+            DependencyUsage inclusiveUsage = getInclusiveUsage(pd);
+            HtmlPage dependencyPage = new HtmlPage("html-templates/indivDepViewTemplateStart.html",
+                    "html-templates/endTemplate.html", depToDirName(pd), inclusiveUsage.totalUsageToHTML());
+            writeIndirectToFile(pd, dependencyPage);
+            dependencyPage.addRow(pd.packagesToHTML(inclusiveUsage, dependencyHtmlDetail != DependencyHtmlDetail.SUMMARY));
+            if (dependencyHtmlDetail == DependencyHtmlDetail.PACKAGE) {
+                writePackagePages(pd);
+            }
+            dependencyPage.write(pd.getReportPath() + "index.html");
+        });
+        // Filtered dependencies are listed with their class totals
+        for (Map.Entry<String, DependencyUsage> entry : reportModel.getFilteredUsage().entrySet()) {
+            overviewPage.addRow(entry.getValue().filteredUsageToHTML(entry.getKey()));
+        }
+        overviewPage.write(reportPath + "dependencies/index.html");
+    }
+
+    /**
+     * Writes a page for each package of the dependency listing
+     * its classes, used instead of the JaCoCo package, class
+     * and source pages. Pages rendered by another report have
+     * already been moved.
+     *
+     * @param pd
+     * @throws IOException
+     */
+    private void writePackagePages(ProjectDependency pd) throws IOException {
+        for (IPackageCoverage packageCoverage : reportModel.getPackages(pd)) {
+            if (reportModel.getRenderedReportPath(packageCoverage) != null) {
+                continue;
+            }
+            String packageName = packageDirName(packageCoverage);
+            String path = pd.getReportPath() + packageName + "/";
+            new File(path).mkdirs();
+            DependencyUsage packageUsage = DependencyUsage.fromCoverageNode(packageCoverage);
+            List<IClassCoverage> classes = new ArrayList<>(packageCoverage.getClasses());
+            classes.sort(Comparator.comparing(IClassCoverage::getName));
+            StringBuilder rows = new StringBuilder();
+            for (IClassCoverage classCoverage : classes) {
+                String className = classCoverage.getName().substring(classCoverage.getName().lastIndexOf('/') + 1);
+                rows.append(DependencyUsage.fromCoverageNode(classCoverage)
+                        .usageToHTML(className.replace('$', '.'), null, "el_class", packageUsage));
+            }
+            // The package page is one level below the resources of the dependency
+            new HtmlPage("html-templates/packageViewTemplateStart.html", "html-templates/endTemplate.html",
+                    packageName, packageUsage.totalUsageToHTML())
+                    .addRow(rows.toString().replace("\"jacoco-resources/", "\"../jacoco-resources/"))
+                    .write(path + "index.html");
+        }
     }
 
     /**
@@ -298,49 +490,60 @@ public class HtmlAugmenter {
      *
      * @throws IOException
      */
-    private static void writeOverviewToFile() throws IOException {
-        // Write the total dependency usage AND its entry in the overview
-        writeHTMLStringToFile(getJactReportPath() + "index.html",
-                totalDependencyUsage.usageToHTML("dependencies", completeUsage, false, false));
-        writeHTMLTotalToFile(getJactReportPath() + "dependencies/index.html", totalDependencyUsage.totalUsageToHTML());
-
-        // Write the project package overview entries:
+    private void writeOverviewToFile() throws IOException {
+        // The overview total: Project + Dependencies (incl. indirect)
+        HtmlPage overviewPage = new HtmlPage("html-templates/overviewTemplateStart.html",
+                "html-templates/endTemplate.html", null, completeUsage.totalUsageToHTML());
+        // The entry of the total dependency usage
+        overviewPage.addRow(totalDependencyUsage.usageToHTML("dependencies", completeUsage, false, false));
+
+        // The project package overview entries:
         for (Map.Entry<String, DependencyUsage> entry : thisProject.packageUsageMap.entrySet()) {
-            try {
-                writeHTMLStringToFile(getJactReportPath() + "index.html",
-                        entry.getValue().usageToHTML(entry.getKey(), completeUsage, true, false));
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+            overviewPage.addRow(entry.getValue().usageToHTML(entry.getKey(), completeUsage, true, false));
         }
-        // Write the overview total: Project + Dependencies (incl. indirect)
-        writeHTMLTotalToFile(getJactReportPath() + "index.html", completeUsage.totalUsageToHTML());
-
-        // Writes the overview HTML template
-        writeTemplateToFile("html-templates/endTemplate.html", getJactReportPath() + "index.html");
+        overviewPage.write(reportPath + "index.html");
     }
 
 
     /**
-     * Calculates the indirect dependency usage
-     * for the input dependency recursively adding
-     * the children dependencies.
+     * Gets the usage of the input dependency including
+     * the usage of all of its indirect dependencies.
+     * The result is calculated recursively once per
+     * dependency, the dependency itself is not modified.
+     *
+     * @param dependency
+     * @return DependencyUsage
+     */
+    private DependencyUsage getInclusiveUsage(ProjectDependency dependency) {
+        return getInclusiveUsage(dependency, new HashSet<>());
+    }
+
+    /**
+     * Gets the inclusive usage of a dependency, a child which is
+     * already on the path from the dependency the calculation
+     * started at (a cycle in the graph) is not added again.
      *
      * @param dependency
-     * @param includeSelf
+     * @param path
      * @return DependencyUsage
      */
-    private static DependencyUsage calculateIndirectDepUsage(ProjectDependency dependency, boolean includeSelf) {
-        DependencyUsage currUsage = new DependencyUsage();
-        if (!calculatedChildIds.contains(dependency.getId())) {
+    private DependencyUsage getInclusiveUsage(ProjectDependency dependency, Set<String> path) {
+        DependencyUsage inclusiveUsage = inclusiveUsageMap.get(dependency.getId());
+        if (inclusiveUsage == null) {
+            inclusiveUsage = new DependencyUsage();
+            inclusiveUsage.addAll(dependency.dependencyUsage);
+            path.add(dependency.getId());
             for (ProjectDependency child : dependency.getChildDeps().values()) {
-                currUsage.addAll(calculateIndirectDepUsage(child, true));
+                if (child.getId() == null || !path.contains(child.getId())) {
+                    inclusiveUsage.addAll(getInclusiveUsage(child, path));
+                }
+            }
+            path.remove(dependency.getId());
+            if (dependency.getId() != null) {
+                inclusiveUsageMap.put(dependency.getId(), inclusiveUsage);
             }
         }
-        if (includeSelf) {
-            currUsage.addAll(dependency.dependencyUsage);
-        }
-        return currUsage;
+        return inclusiveUsage;
     }
 
 
@@ -351,7 +554,7 @@ public class HtmlAugmenter {
      *
      * @param dependenciesMap
      */
-    private static void calculateAllUsages(Map<String, ProjectDependency> dependenciesMap, boolean generateSummary) {
+    private void calculateAllUsages(Map<String, ProjectDependency> dependenciesMap, boolean generateSummary) {
         if(generateSummary){
             writeDepToCSV(dependenciesMap);
         }
@@ -370,21 +573,22 @@ public class HtmlAugmenter {
                 }
             }
             if (!dependency.getChildDeps().isEmpty()) {
-                DependencyUsage indirectDepsUsage = calculateIndirectDepUsage(dependency, false);
+                DependencyUsage indirectDepsUsage = new DependencyUsage();
+                for (ProjectDependency child : dependency.getChildDeps().values()) {
+                    indirectDepsUsage.addAll(getInclusiveUsage(child));
+                }
                 if(generateSummary){
                     // Multiple Indirect Dependencies
                     nrMultipleIndirectDeps += dependency.getChildDeps().size();
                     summaryMultipleIndirectDepUsage.addAll(indirectDepsUsage);
                 }
-                dependency.dependencyUsage.addAll(indirectDepsUsage);
-                getIndirectUsageMap().get(dependency.getId()).addAll(indirectDepsUsage);
-                calculatedChildIds.add(dependency.getId());
+                indirectUsageMap.get(dependency.getId()).addAll(indirectDepsUsage);
             }
             // Calculate the total
-            // Only ROOT dependencies are added, since the indirect
-            // cost was included in the previous if-statement.
+            // Only ROOT dependencies are added, since their inclusive
+            // usage already contains the indirect cost.
             if (dependency.rootDep) {
-                totalDependencyUsage.addAll(dependency.dependencyUsage);
+                totalDependencyUsage.addAll(getInclusiveUsage(dependency));
             }
         }
         // Calculate the overall total (project + dependencies)
@@ -400,362 +604,8 @@ public class HtmlAugmenter {
         }
     }
 
-    /**
-     * Loads a html template from resources.
-     *
-     * @param resourceName
-     * @return
-     * @throws IOException
-     */
-    private static String loadTemplate(String resourceName) throws IOException {
-        try (InputStream inputStream = HtmlAugmenter.class.getClassLoader().getResourceAsStream(resourceName)) {
-            if (inputStream == null) {
-                throw new IOException("Resource not found: " + resourceName);
-            }
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"))) {
-                StringBuilder stringBuilder = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    stringBuilder.append(line).append("\n");
-                }
-                return stringBuilder.toString();
-            }
-        }
-    }
-
-    /**
-     * Writes a html template from resources.
-     *
-     * @param filename
-     * @param outputFilePath
-     * @throws IOException
-     */
-    private static void writeTemplateToFile(String filename, String outputFilePath) throws IOException {
-        String templateContent = loadTemplate(filename);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFilePath, true))) {
-            writer.write(templateContent);
-        }
-    }
-
-
-    /**
-     * Extracts and adds the usage of a package to its
-     * corresponding dependency.
-     *
-     * @param line
-     * @param entryIndex
-     * @param matchedDep
-     * @param packageUsage
-     */
-    private static void extractUsage(String line, int entryIndex, ProjectDependency matchedDep, DependencyUsage packageUsage) {
-        switch (entryIndex) {
-            case 1:
-                // Missed and Covered instructions
-                long[] instrUsage = extractBranchNInstrUsage(line);
-                matchedDep.dependencyUsage.addMissedInstructions(instrUsage[0]);
-                matchedDep.dependencyUsage.addTotalInstructions(instrUsage[1]);
-                packageUsage.addMissedInstructions(instrUsage[0]);
-                packageUsage.addTotalInstructions(instrUsage[1]);
-                break;
-            case 2:
-                // Percentage (Don't care about this now)
-                break;
-            case 3:
-                // Missed and Covered Branches
-                long[] branchUsage = extractBranchNInstrUsage(line);
-                matchedDep.dependencyUsage.addMissedBranches(branchUsage[0]);
-                matchedDep.dependencyUsage.addTotalBranches(branchUsage[1]);
-                packageUsage.addMissedBranches(branchUsage[0]);
-                packageUsage.addTotalBranches(branchUsage[1]);
-                break;
-            case 4:
-                // Percentage (Don't care about this now)
-                break;
-            case 5:
-                // Missed cyclomatic complexity
-                matchedDep.dependencyUsage.addMissedCyclomaticComplexity(extractUsageNumber(line));
-                packageUsage.addMissedCyclomaticComplexity(extractUsageNumber(line));
-                break;
-            case 6:
-                // Covered cyclomatic complexity
-                matchedDep.dependencyUsage.addCyclomaticComplexity(extractUsageNumber(line));
-                packageUsage.addCyclomaticComplexity(extractUsageNumber(line));
-                break;
-            case 7:
-                // Missed Lines
-                matchedDep.dependencyUsage.addMissedLines(extractUsageNumber(line));
-                packageUsage.addMissedLines(extractUsageNumber(line));
-                break;
-            case 8:
-                // Covered Lines
-                matchedDep.dependencyUsage.addTotalLines(extractUsageNumber(line));
-                packageUsage.addTotalLines(extractUsageNumber(line));
-                break;
-            case 9:
-                // Missed Methods
-                matchedDep.dependencyUsage.addMissedMethods(extractUsageNumber(line));
-                packageUsage.addMissedMethods(extractUsageNumber(line));
-                break;
-            case 10:
-                // Covered Methods
-                matchedDep.dependencyUsage.addTotalMethods(extractUsageNumber(line));
-                packageUsage.addTotalMethods(extractUsageNumber(line));
-                break;
-            case 11:
-                // Missed Classes
-                matchedDep.dependencyUsage.addMissedClasses(extractUsageNumber(line));
-                packageUsage.addMissedClasses(extractUsageNumber(line));
-                break;
-            case 12:
-                // Covered Classes
-                matchedDep.dependencyUsage.addTotalClasses(extractUsageNumber(line));
-                packageUsage.addTotalClasses(extractUsageNumber(line));
-                break;
-            default:
-                System.out.println("Could not extract usage of line: " + line);
-        }
-    }
-
-
-    /**
-     * Extracts the usage of all but the instructions/branches from
-     * the jacoco report.
-     *
-     * @param input
-     * @return long
-     */
-    private static long extractUsageNumber(String input) {
-        // Define a regex pattern to match the number within <td> tags
-        Pattern pattern = Pattern.compile("<td[^>]*>(\\d+(?:,\\d+)*)</td>");
-        Matcher matcher = pattern.matcher(input);
-
-        if (matcher.find()) {
-            String numberStr = matcher.group(1); // Extract the matched number string
-            // Remove commas and parse the string as Long
-            try {
-                return Long.parseLong(numberStr.replace(",", ""));
-            } catch (NumberFormatException e) {
-                System.out.println("Error parsing number: " + e.getMessage());
-                return 0L;
-            }
-        } else {
-            System.out.println("No match found for extracting number from <td> tag.");
-            return 0L;
-        }
-    }
-
-    /**
-     * Extracts the usage of instructions/branches from
-     * the jacoco report.
-     *
-     * @param input
-     * @return
-     */
-    private static long[] extractBranchNInstrUsage(String input) {
-        // Define regex pattern to match the numbers inside <td> tags
-        Pattern pattern = Pattern.compile("<td[^>]*>(\\d+(?:,\\d+)*)\\s+of\\s+(\\d+(?:,\\d+)*)</td>");
-        Matcher matcher = pattern.matcher(input);
-
-        long[] numbers = new long[2];
-        int index = 0;
-
-        if (matcher.find()) {
-            for (int i = 1; i <= 2; i++) {
-                String numberStr = matcher.group(i); // Extract the matched number string
-                // Remove commas and parse the string as Long
-                try {
-                    numbers[index] = Long.parseLong(numberStr.replace(",", ""));
-                } catch (NumberFormatException e) {
-                    System.out.println("Error parsing number: " + e.getMessage());
-                    numbers[index] = 0L;
-                }
-                index++;
-            }
-        }
-        if (index == 1) {
-            numbers[1] = 0L;
-        }
-
-        return numbers;
-    }
-
-    /**
-     * Reads the jacoco report and extracts its usage.
-     *
-     * @param inputFilePath
-     * @param matchedDep
-     * @param packageName
-     * @throws IOException
-     */
-    private static void extractAndAddPackageTotal(String inputFilePath, ProjectDependency matchedDep, String packageName) throws IOException {
-        try {
-            // Read the HTML file
-            File inputFile = new File(inputFilePath);
-            Document doc = Jsoup.parse(inputFile, "UTF-8");
-
-            String formattedHtml = doc.outerHtml();
-
-            // Write the formatted HTML back to the original file, overwriting its previous content
-            org.apache.commons.io.FileUtils.writeStringToFile(inputFile, formattedHtml, "UTF-8");
-        } catch (IOException e) {
-            System.err.println("Error: " + e.getMessage());
-            e.printStackTrace();
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(inputFilePath))) {
-
-            String line;
-
-            // Flag to indicate if we are inside the <tbody> tag
-            boolean insideTbody = false;
-
-            // Iterate through the input HTML file
-            while ((line = br.readLine()) != null) {
-                // Check if we are inside the <tbody> tag
-                if (line.contains("<tfoot>")) {
-                    insideTbody = true;
-                    line = br.readLine();
-                }
-                // Check if we are inside a <tr> element
-                if (insideTbody && line.contains("<tr>")) {
-                    line = br.readLine();
-                    if (line != null) {
-                        br.mark(100000);
-                        int lineCount = 0;
-                        while ((line = br.readLine()) != null) {
-                            if (line.contains("</tr>")) {
-                                break;
-                            }
-                            lineCount++;
-                        }
-                        br.reset();
-                        int entryIndex = 1;
-                        DependencyUsage packageUsage = new DependencyUsage();
-                        while ((line = br.readLine()) != null) {
-                            //trContent.append(line).append("\n");
-                            if (line.contains("</tr>")) {
-                                break; // Stop processing when encountering </tr>
-                            }
-                            if (entryIndex > 0 && matchedDep.getId() != null) {
-                                if(lineCount < 12 && entryIndex == 7){
-                                    entryIndex = 9;
-                                }
-                                extractUsage(line, entryIndex, matchedDep, packageUsage);
-                            }
-                            entryIndex++;
-                        }
-                        matchedDep.packageUsageMap.put(packageName, packageUsage);
-                        break;
-                    }
-                }
-            }
-        }
-    }
-
-
-    private static void writeModifiedTemplateToFile(String filename, String outputFilePath, String dependencyName) throws IOException {
-        String templateContent = loadTemplateWithReplacement(filename, dependencyName);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFilePath, true))) {
-            writer.write(templateContent);
-        }
-    }
-
-
-    public static void writeHTMLStringToFile(String outputFilePath, String inputString) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFilePath, true))) {
-            writer.write(inputString);
-        }
-    }
-
-    /**
-     * Writes the total usage to the html report.
-     *
-     * @param outputFilePath
-     * @param inputString
-     * @throws IOException
-     */
-    private static void writeHTMLTotalToFile(String outputFilePath, String inputString) throws IOException {
-        // Create a temporary file to store the modified content
-        File tempFile = new File(outputFilePath + ".temp");
-        BufferedReader reader = null;
-        BufferedWriter writer = null;
-
-        try {
-            reader = new BufferedReader(new FileReader(outputFilePath));
-            writer = new BufferedWriter(new FileWriter(tempFile));
-
-            String line;
-            boolean foundMarker = false;
-
-            // Read lines from the original file and write them to the temporary file
-            while ((line = reader.readLine()) != null) {
-                // If the marker is found, insert the input string
-                if (line.contains("REPLACEWITHTOTAL") && !foundMarker) {
-                    writer.write(inputString);
-                    writer.newLine();
-                    foundMarker = true; // Set the flag to true after inserting the input string
-                } else {
-                    // Write the line to the temporary file only if it doesn't contain the marker
-                    writer.write(line);
-                    writer.newLine();
-                }
-            }
-
-            // If the marker was not found, and inputString was not inserted, insert it at the end of the file
-            if (!foundMarker) {
-                writer.write(inputString);
-                writer.newLine();
-            }
-        } finally {
-            // Close the reader and writer
-            if (reader != null) {
-                reader.close();
-            }
-            if (writer != null) {
-                writer.close();
-            }
-        }
-
-        // Delete the original file
-        File originalFile = new File(outputFilePath);
-        originalFile.delete();
-
-        // Rename the temporary file to the original file
-        tempFile.renameTo(originalFile);
-    }
-
-    private static String loadTemplateWithReplacement(String resourceName, String dependencyName) throws IOException {
-        try (InputStream inputStream = HtmlAugmenter.class.getClassLoader().getResourceAsStream(resourceName)) {
-            if (inputStream == null) {
-                throw new IOException("Resource not found: " + resourceName);
-            }
-            if (resourceName.equals("depOverviewTemplateStart.html")) {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"))) {
-                    StringBuilder stringBuilder = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        line = line.replace("dependency.name", dependencyName);
-                        stringBuilder.append(line).append("\n");
-                    }
-                    return stringBuilder.toString();
-                }
-            } else {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"))) {
-                    StringBuilder stringBuilder = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        line = line.replace("pathtodependencyindex", dependencyName + "/index.html");
-                        line = line.replace("dependency.name", dependencyName);
-                        stringBuilder.append(line).append("\n");
-                    }
-                    return stringBuilder.toString();
-                }
-            }
-        }
-    }
-
-    private static void createReportSummary() {
-        String outputFile = getJactReportPath() + "jactReportSummary.md";
+    private void createReportSummary() {
+        String outputFile = reportPath + "jactReportSummary.md";
 
         // Currently missing a complete total: Project + Deps
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
@@ -769,6 +619,13 @@ public class HtmlAugmenter {
             writer.write(summaryIndirectDepUsage.usageToMarkdown("INDIRECT DEPENDENCY COVERAGE") + "  \n");
             writer.write(summaryTotalDepUsage.usageToMarkdown("TOTAL DEPENDENCY COVERAGE _[Direct + Indirect]_") + "  \n");
             writer.write(summaryTotalUsage.usageToMarkdown("TOTAL COVERAGE _[Project + Dependencies]_") + "  \n");
+            if (!reportModel.getFilteredUsage().isEmpty()) {
+                DependencyUsage filteredUsage = reportModel.getTotalFilteredUsage();
+                writer.write("### FILTERED (classes with execution data, class entries):  \n");
+                writer.write("- **#FILTERED:** " + reportModel.getFilteredUsage().size() + "  \n");
+                writer.write("**CLASS** &nbsp;" + (filteredUsage.getTotalClasses() - filteredUsage.getMissedClasses())
+                        + " | " + filteredUsage.getTotalClasses() + "  \n");
+            }
             writer.write("----------------------------------------------------------------  \n");
             // MULTIPLE
             writer.write("## MULTIPLE:  \n");
@@ -787,8 +644,8 @@ public class HtmlAugmenter {
     }
 
 
-    private static void writeDepToCSV(Map<String, ProjectDependency> dependenciesMap){
-        String outputFile = getJactReportPath() + "DependencyUsageSummary.csv";
+    private void writeDepToCSV(Map<String, ProjectDependency> dependenciesMap){
+        String outputFile = reportPath + "DependencyUsageSummary.csv";
 
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
             writer.write("DEPENDENCY_ID,DIRECT_DEPENDENCY,INSTRUCTION_COVERED,INSTRUCTION_TOTAL," +
@@ -0,0 +1,178 @@
+package jact.core;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A page of the JACT HTML report built in memory from its start
+ * template, its total, its table rows and its end template. The
+ * page is written once it is complete, with a single write.
+ */
+class HtmlPage {
+    private static final Map<String, Template> templates = new ConcurrentHashMap<>();
+    private final Template startTemplate;
+    private final Template endTemplate;
+    private final String name;
+    private final String total;
+    private final StringBuilder rows = new StringBuilder();
+
+    /**
+     * @param startResource the template of the page up to its table body
+     * @param endResource   the template of the page after its table rows
+     * @param name          the name shown by the page, null if it has none
+     * @param total         the total row of the page
+     * @throws IOException
+     */
+    HtmlPage(String startResource, String endResource, String name, String total) throws IOException {
+        this.startTemplate = getTemplate(startResource);
+        this.endTemplate = getTemplate(endResource);
+        this.name = name;
+        this.total = total;
+    }
+
+    HtmlPage addRow(String row) {
+        this.rows.append(row);
+        return this;
+    }
+
+    /**
+     * Writes the complete page, replacing the page of a previous report.
+     *
+     * @param path
+     * @throws IOException
+     */
+    void write(String path) throws IOException {
+        StringBuilder page = new StringBuilder(this.startTemplate.length + this.total.length()
+                + this.rows.length() + this.endTemplate.length);
+        this.startTemplate.render(page, this.name, this.total);
+        page.append(this.rows);
+        this.endTemplate.render(page, this.name, this.total);
+        try (OutputStream out = new FileOutputStream(path)) {
+            out.write(page.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Gets the compiled template of a resource, every
+     * template is loaded and compiled once.
+     *
+     * @param resourceName
+     * @return Template
+     * @throws IOException
+     */
+    private static Template getTemplate(String resourceName) throws IOException {
+        Template template = templates.get(resourceName);
+        if (template == null) {
+            template = Template.compile(resourceName);
+            Template existing = templates.putIfAbsent(resourceName, template);
+            if (existing != null) {
+                template = existing;
+            }
+        }
+        return template;
+    }
+
+    /**
+     * A html template split into its text and its placeholders: the
+     * line of the total marker, the name of the page and the path to
+     * the index of the dependency.
+     */
+    private static class Template {
+        private static final String TOTAL_MARKER = "REPLACEWITHTOTAL";
+        private static final String NAME_MARKER = "dependency.name";
+        private static final String INDEX_MARKER = "pathtodependencyindex";
+        // The placeholders of the parts, compared by identity
+        private static final String TOTAL = "\u0000total";
+        private static final String NAME = "\u0000name";
+        private static final String INDEX = "\u0000index";
+        private final List<String> parts;
+        private final int length;
+
+        private Template(List<String> parts, int length) {
+            this.parts = parts;
+            this.length = length;
+        }
+
+        private static Template compile(String resourceName) throws IOException {
+            try (InputStream inputStream = HtmlPage.class.getClassLoader().getResourceAsStream(resourceName)) {
+                if (inputStream == null) {
+                    throw new IOException("Resource not found: " + resourceName);
+                }
+                List<String> parts = new ArrayList<>();
+                StringBuilder text = new StringBuilder();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.contains(TOTAL_MARKER)) {
+                            // The total replaces the whole line of the marker
+                            addPart(parts, text, TOTAL);
+                        } else {
+                            int start = 0;
+                            int marker;
+                            while ((marker = nextMarker(line, start)) >= 0) {
+                                text.append(line, start, marker);
+                                boolean name = line.startsWith(NAME_MARKER, marker);
+                                addPart(parts, text, name ? NAME : INDEX);
+                                start = marker + (name ? NAME_MARKER : INDEX_MARKER).length();
+                            }
+                            text.append(line, start, line.length());
+                        }
+                        text.append("\n");
+                    }
+                }
+                parts.add(text.toString());
+                int length = 0;
+                for (String part : parts) {
+                    length += part.length();
+                }
+                return new Template(parts, length);
+            }
+        }
+
+        private static int nextMarker(String line, int start) {
+            int name = line.indexOf(NAME_MARKER, start);
+            int index = line.indexOf(INDEX_MARKER, start);
+            if (name < 0 || (index >= 0 && index < name)) {
+                return index;
+            }
+            return name;
+        }
+
+        private static void addPart(List<String> parts, StringBuilder text, String placeholder) {
+            parts.add(text.toString());
+            parts.add(placeholder);
+            text.setLength(0);
+        }
+
+        /**
+         * Appends the template with its placeholders replaced, the
+         * name placeholders are kept on pages without a name.
+         *
+         * @param page
+         * @param name
+         * @param total
+         */
+        private void render(StringBuilder page, String name, String total) {
+            for (String part : this.parts) {
+                if (part == TOTAL) {
+                    page.append(total);
+                } else if (part == NAME) {
+                    page.append(name != null ? name : NAME_MARKER);
+                } else if (part == INDEX) {
+                    page.append(name != null ? name + "/index.html" : INDEX_MARKER);
+                } else {
+                    page.append(part);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package jact.core;
+
+import jact.depUtils.DependencyUsage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.analysis.ISourceFileCoverage;
+import org.jacoco.core.analysis.ISourceNode;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.internal.analysis.ClassCoverageImpl;
+import org.jacoco.core.internal.analysis.CounterImpl;
+import org.jacoco.core.internal.analysis.MethodCoverageImpl;
+import org.jacoco.core.internal.analysis.PackageCoverageImpl;
+import org.jacoco.core.internal.analysis.SourceFileCoverageImpl;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a JACT XML report (`jact_report.xml` or `jact_report.xml.gz`) as a
+ * stream. The packages of a dependency group, or of the project, are
+ * reconstructed with their classes, methods, source files and counters
+ * one group at a time, reading a report only holds one dependency in memory.
+ * The reconstructed packages are written as the same XML by the XmlAugmenter,
+ * their classes and methods have no line coverage (the XML report only has
+ * the lines of the source files).
+ */
+public class JactXmlReader {
+    private static final int COUNTER_ENTITIES = ICoverageNode.CounterEntity.values().length;
+    private final XMLStreamReader reader;
+    private final Visitor visitor;
+
+    /**
+     * Receives the content of a report, groups which are not
+     * read by the visitor are skipped without reconstructing them.
+     */
+    public interface Visitor {
+        default void visitSessionInfo(SessionInfo sessionInfo) {
+        }
+
+        default boolean readsDependency(String dependencyId) {
+            return false;
+        }
+
+        default void visitDependency(String dependencyId, List<IPackageCoverage> packages) throws IOException {
+        }
+
+        default void visitFiltered(String filteredKey, DependencyUsage usage) throws IOException {
+        }
+
+        default boolean readsProjectPackages() {
+            return false;
+        }
+
+        default void visitProjectPackages(List<IPackageCoverage> packages) throws IOException {
+        }
+    }
+
+    private JactXmlReader(XMLStreamReader reader, Visitor visitor) {
+        this.reader = reader;
+        this.visitor = visitor;
+    }
+
+    /**
+     * Reads a report, the groups are visited in their order in the report.
+     *
+     * @param reportFile
+     * @param visitor
+     * @throws IOException
+     */
+    public static void read(File reportFile, Visitor visitor) throws IOException {
+        try (InputStream in = open(reportFile)) {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            // The report.dtd next to the report is neither needed nor read
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            XMLStreamReader reader = factory.createXMLStreamReader(in, "UTF-8");
+            try {
+                new JactXmlReader(reader, visitor).readReport();
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | IllegalArgumentException e) {
+            throw new IOException("Invalid JACT XML report " + reportFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static InputStream open(File reportFile) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(reportFile));
+        return reportFile.getName().endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    private void readReport() throws XMLStreamException, IOException {
+        // Skips the prolog and the document type declaration
+        while (this.reader.next() != XMLStreamConstants.START_ELEMENT) {
+            if (!this.reader.hasNext()) {
+                throw new XMLStreamException("No report element");
+            }
+        }
+        this.reader.require(XMLStreamConstants.START_ELEMENT, null, "report");
+        while (this.reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String element = this.reader.getLocalName();
+            if (element.equals("sessioninfo")) {
+                this.visitor.visitSessionInfo(new SessionInfo(attribute("id"), Long.parseLong(attribute("start")),
+                        Long.parseLong(attribute("dump"))));
+                skipElement();
+            } else if (element.equals("group")) {
+                readGroup(attribute("name"));
+            } else {
+                // The overall counters are calculated by the readers of the packages
+                skipElement();
+            }
+        }
+    }
+
+    private void readGroup(String name) throws XMLStreamException, IOException {
+        if (XmlAugmenter.PROJECT_GROUP.equals(name)) {
+            if (this.visitor.readsProjectPackages()) {
+                this.visitor.visitProjectPackages(readPackages());
+            } else {
+                skipElement();
+            }
+            return;
+        }
+        boolean dependencies = XmlAugmenter.DEPENDENCIES_GROUP.equals(name);
+        if (!dependencies && !XmlAugmenter.FILTERED_GROUP.equals(name)) {
+            skipElement();
+            return;
+        }
+        while (this.reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (!this.reader.getLocalName().equals("group")) {
+                skipElement();
+                continue;
+            }
+            String id = attribute("name");
+            if (!dependencies) {
+                this.visitor.visitFiltered(id, usage(readCounters()));
+            } else if (this.visitor.readsDependency(id)) {
+                this.visitor.visitDependency(id, readPackages());
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    /**
+     * Reads the packages of the current group.
+     */
+    private List<IPackageCoverage> readPackages() throws XMLStreamException {
+        List<IPackageCoverage> packages = new ArrayList<>();
+        while (this.reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (this.reader.getLocalName().equals("package")) {
+                packages.add(readPackage(attribute("name")));
+            } else {
+                skipElement();
+            }
+        }
+        return packages;
+    }
+
+    private IPackageCoverage readPackage(String name) throws XMLStreamException {
+        List<IClassCoverage> classes = new ArrayList<>();
+        List<ISourceFileCoverage> sourceFiles = new ArrayList<>();
+        CounterImpl[] counters = emptyCounters();
+        while (this.reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (this.reader.getLocalName()) {
+                case "class":
+                    classes.add(readClass(attribute("name"), this.reader.getAttributeValue(null, "sourcefilename")));
+                    break;
+                case "sourcefile":
+                    sourceFiles.add(readSourceFile(attribute("name"), name));
+                    break;
+                case "counter":
+                    readCounter(counters);
+                    break;
+                default:
+                    skipElement();
+            }
+        }
+        return new ReadPackageCoverage(name, classes, sourceFiles, counters);
+    }
+
+    private IClassCoverage readClass(String name, String sourceFileName) throws XMLStreamException {
+        List<IMethodCoverage> methods = new ArrayList<>();
+        CounterImpl[] counters = emptyCounters();
+        while (this.reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (this.reader.getLocalName().equals("method")) {
+                String line = this.reader.getAttributeValue(null, "line");
+                methods.add(new ReadMethodCoverage(attribute("name"), attribute("desc"),
+                        line == null ? ISourceNode.UNKNOWN_LINE : Integer.parseInt(line), readCounters()));
+            } else if (this.reader.getLocalName().equals("counter")) {
+                readCounter(counters);
+            } else {
+                skipElement();
+            }
+        }
+        return new ReadClassCoverage(name, sourceFileName, methods, counters);
+    }
+
+    private ISourceFileCoverage readSourceFile(String name, String packageName) throws XMLStreamException {
+        ReadSourceFileCoverage sourceFile = new ReadSourceFileCoverage(name, packageName);
+        CounterImpl[] counters = emptyCounters();
+        while (this.reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (this.reader.getLocalName().equals("line")) {
+                sourceFile.increment(CounterImpl.getInstance(intAttribute("mi"), intAttribute("ci")),
+                        CounterImpl.getInstance(intAttribute("mb"), intAttribute("cb")), intAttribute("nr"));
+                skipElement();
+            } else if (this.reader.getLocalName().equals("counter")) {
+                readCounter(counters);
+            } else {
+                skipElement();
+            }
+        }
+        sourceFile.setCounters(counters);
+        return sourceFile;
+    }
+
+    /**
+     * Reads the counters of the current element.
+     */
+    private CounterImpl[] readCounters() throws XMLStreamException {
+        CounterImpl[] counters = emptyCounters();
+        while (this.reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (this.reader.getLocalName().equals("counter")) {
+                readCounter(counters);
+            } else {
+                skipElement();
+            }
+        }
+        return counters;
+    }
+
+    private void readCounter(CounterImpl[] counters) throws XMLStreamException {
+        ICoverageNode.CounterEntity entity = ICoverageNode.CounterEntity.valueOf(attribute("type"));
+        counters[entity.ordinal()] = CounterImpl.getInstance(intAttribute("missed"), intAttribute("covered"));
+        skipElement();
+    }
+
+    private static CounterImpl[] emptyCounters() {
+        CounterImpl[] counters = new CounterImpl[COUNTER_ENTITIES];
+        Arrays.fill(counters, CounterImpl.COUNTER_0_0);
+        return counters;
+    }
+
+    private static DependencyUsage usage(CounterImpl[] counters) {
+        return DependencyUsage.fromCoverageNode(new ReadPackageCoverage("", new ArrayList<>(), new ArrayList<>(),
+                counters));
+    }
+
+    private String attribute(String name) throws XMLStreamException {
+        String value = this.reader.getAttributeValue(null, name);
+        if (value == null) {
+            throw new XMLStreamException("Missing attribute " + name + " of " + this.reader.getLocalName(),
+                    this.reader.getLocation());
+        }
+        return value;
+    }
+
+    private int intAttribute(String name) throws XMLStreamException {
+        return Integer.parseInt(attribute(name));
+    }
+
+    /**
+     * Skips the rest of the current element, including its children.
+     */
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = this.reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static class ReadPackageCoverage extends PackageCoverageImpl {
+        ReadPackageCoverage(String name, Collection<IClassCoverage> classes,
+                            Collection<ISourceFileCoverage> sourceFiles, CounterImpl[] counters) {
+            super(name, classes, sourceFiles);
+            this.instructionCounter = counters[ICoverageNode.CounterEntity.INSTRUCTION.ordinal()];
+            this.branchCounter = counters[ICoverageNode.CounterEntity.BRANCH.ordinal()];
+            this.lineCounter = counters[ICoverageNode.CounterEntity.LINE.ordinal()];
+            this.complexityCounter = counters[ICoverageNode.CounterEntity.COMPLEXITY.ordinal()];
+            this.methodCounter = counters[ICoverageNode.CounterEntity.METHOD.ordinal()];
+            this.classCounter = counters[ICoverageNode.CounterEntity.CLASS.ordinal()];
+        }
+    }
+
+    private static class ReadClassCoverage extends ClassCoverageImpl {
+        private final Collection<IMethodCoverage> methods;
+
+        ReadClassCoverage(String name, String sourceFileName, Collection<IMethodCoverage> methods,
+                          CounterImpl[] counters) {
+            super(name, 0L, false);
+            setSourceFileName(sourceFileName);
+            this.methods = methods;
+            this.instructionCounter = counters[ICoverageNode.CounterEntity.INSTRUCTION.ordinal()];
+            this.branchCounter = counters[ICoverageNode.CounterEntity.BRANCH.ordinal()];
+            this.lineCounter = counters[ICoverageNode.CounterEntity.LINE.ordinal()];
+            this.complexityCounter = counters[ICoverageNode.CounterEntity.COMPLEXITY.ordinal()];
+            this.methodCounter = counters[ICoverageNode.CounterEntity.METHOD.ordinal()];
+            this.classCounter = counters[ICoverageNode.CounterEntity.CLASS.ordinal()];
+        }
+
+        @Override
+        public Collection<IMethodCoverage> getMethods() {
+            return this.methods;
+        }
+    }
+
+    private static class ReadMethodCoverage extends MethodCoverageImpl {
+        private final int firstLine;
+
+        ReadMethodCoverage(String name, String desc, int firstLine, CounterImpl[] counters) {
+            super(name, desc, null);
+            this.firstLine = firstLine;
+            this.instructionCounter = counters[ICoverageNode.CounterEntity.INSTRUCTION.ordinal()];
+            this.branchCounter = counters[ICoverageNode.CounterEntity.BRANCH.ordinal()];
+            this.lineCounter = counters[ICoverageNode.CounterEntity.LINE.ordinal()];
+            this.complexityCounter = counters[ICoverageNode.CounterEntity.COMPLEXITY.ordinal()];
+            this.methodCounter = counters[ICoverageNode.CounterEntity.METHOD.ordinal()];
+            this.classCounter = counters[ICoverageNode.CounterEntity.CLASS.ordinal()];
+        }
+
+        @Override
+        public int getFirstLine() {
+            return this.firstLine;
+        }
+    }
+
+    private static class ReadSourceFileCoverage extends SourceFileCoverageImpl {
+        ReadSourceFileCoverage(String name, String packageName) {
+            super(name, packageName);
+        }
+
+        /**
+         * Replaces the counters summed from the lines by the counters of the report.
+         */
+        void setCounters(CounterImpl[] counters) {
+            this.instructionCounter = counters[ICoverageNode.CounterEntity.INSTRUCTION.ordinal()];
+            this.branchCounter = counters[ICoverageNode.CounterEntity.BRANCH.ordinal()];
+            this.lineCounter = counters[ICoverageNode.CounterEntity.LINE.ordinal()];
+            this.complexityCounter = counters[ICoverageNode.CounterEntity.COMPLEXITY.ordinal()];
+            this.methodCounter = counters[ICoverageNode.CounterEntity.METHOD.ordinal()];
+            this.classCounter = counters[ICoverageNode.CounterEntity.CLASS.ordinal()];
+        }
+    }
+}
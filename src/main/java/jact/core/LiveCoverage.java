@@ -0,0 +1,146 @@
+package jact.core;
+
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.data.SessionInfoStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The coverage of a running application, merged from periodic dumps
+ * of its execution data. All classes of the Uber-jar are analyzed once,
+ * after that a dump only analyzes the classes again whose probes changed.
+ * The execution data of all dumps is merged in memory (bitwise OR).
+ */
+public class LiveCoverage {
+    private final File classFiles;
+    private final ExecutionDataStore executionDataStore = new ExecutionDataStore();
+    private final SessionInfoStore sessionInfoStore = new SessionInfoStore();
+    // The current coverage of every class, by class name
+    private final Map<String, IClassCoverage> classCoverageMap = new HashMap<>();
+    // The jar entry of every analyzed class, by class id
+    private final Map<Long, String> classEntryMap = new HashMap<>();
+
+    private LiveCoverage(File classFiles) {
+        this.classFiles = classFiles;
+    }
+
+    /**
+     * Analyzes all classes of the Uber-jar without any execution data.
+     *
+     * @param classFiles
+     * @return LiveCoverage
+     * @throws IOException
+     */
+    public static LiveCoverage analyze(File classFiles) throws IOException {
+        if (!classFiles.isFile()) {
+            throw new IOException("Class files not found: " + classFiles.getPath());
+        }
+        LiveCoverage liveCoverage = new LiveCoverage(classFiles);
+        try (ZipFile zipFile = new ZipFile(classFiles)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class")) {
+                    liveCoverage.analyzeEntry(zipFile, entry.getName());
+                }
+            }
+        }
+        return liveCoverage;
+    }
+
+    /**
+     * Merges a dump of execution data and analyzes the classes
+     * of the Uber-jar whose dump contains probes that were not
+     * yet covered.
+     *
+     * @param sessionInfos
+     * @param dump
+     * @return int the number of analyzed (changed) classes
+     * @throws IOException
+     */
+    public int merge(SessionInfoStore sessionInfos, ExecutionDataStore dump) throws IOException {
+        Set<String> changedEntries = new TreeSet<>();
+        for (ExecutionData data : dump.getContents()) {
+            ExecutionData merged = this.executionDataStore.get(data.getId());
+            if (hasNewProbes(merged, data) && this.classEntryMap.containsKey(data.getId())) {
+                changedEntries.add(this.classEntryMap.get(data.getId()));
+            }
+            // The dump is not kept, only its probes are merged
+            this.executionDataStore.put(new ExecutionData(data.getId(), data.getName(), data.getProbes().clone()));
+        }
+        for (SessionInfo sessionInfo : sessionInfos.getInfos()) {
+            this.sessionInfoStore.visitSessionInfo(sessionInfo);
+        }
+        if (!changedEntries.isEmpty()) {
+            try (ZipFile zipFile = new ZipFile(this.classFiles)) {
+                for (String entryName : changedEntries) {
+                    analyzeEntry(zipFile, entryName);
+                }
+            }
+        }
+        return changedEntries.size();
+    }
+
+    /**
+     * Gets the current coverage of all classes along with
+     * the merged execution data.
+     *
+     * @return CoverageAnalysis
+     */
+    public CoverageAnalysis getAnalysis() {
+        // The source files and packages are recreated from the (unchanged and reanalyzed) classes
+        CoverageBuilder coverageBuilder = new CoverageBuilder();
+        for (IClassCoverage classCoverage : this.classCoverageMap.values()) {
+            coverageBuilder.visitCoverage(classCoverage);
+        }
+        return new CoverageAnalysis(coverageBuilder.getBundle(CoverageAnalyzer.BUNDLE_NAME),
+                this.sessionInfoStore, this.executionDataStore);
+    }
+
+    private static boolean hasNewProbes(ExecutionData merged, ExecutionData data) {
+        boolean[] probes = data.getProbes();
+        boolean[] mergedProbes = merged == null ? null : merged.getProbes();
+        for (int i = 0; i < probes.length; i++) {
+            if (probes[i] && (mergedProbes == null || i >= mergedProbes.length || !mergedProbes[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void analyzeEntry(ZipFile zipFile, String entryName) throws IOException {
+        byte[] classBytes;
+        try (InputStream in = zipFile.getInputStream(zipFile.getEntry(entryName))) {
+            classBytes = readAll(in);
+        }
+        ICoverageVisitor visitor = classCoverage -> {
+            this.classCoverageMap.put(classCoverage.getName(), classCoverage);
+            this.classEntryMap.put(classCoverage.getId(), entryName);
+        };
+        new Analyzer(this.executionDataStore, visitor).analyzeAll(new ByteArrayInputStream(classBytes),
+                this.classFiles.getPath() + "@" + entryName);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
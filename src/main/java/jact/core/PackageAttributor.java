@@ -0,0 +1,67 @@
+package jact.core;
+
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.DependencyUsage;
+import jact.depUtils.PackageToDependencyResolver;
+import jact.depUtils.ProjectDependency;
+import org.jacoco.core.analysis.IPackageCoverage;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Attributes analyzed packages to the project or to the dependency
+ * containing them. An attributor remembers the last matched dependency,
+ * concurrent resolvers each use their own attributor.
+ */
+class PackageAttributor {
+    private final Map<String, Set<String>> projPackagesAndClassMap;
+    private final PackageToDependencyResolver resolver;
+
+    /**
+     * A package along with its owner and usage.
+     */
+    static class AttributedPackage {
+        final IPackageCoverage packageCoverage;
+        final boolean project;
+        // The owning dependency, null for project and unmatched packages
+        final ProjectDependency dependency;
+        // Null for unmatched packages and packages without code
+        final DependencyUsage usage;
+
+        AttributedPackage(IPackageCoverage packageCoverage, boolean project, ProjectDependency dependency,
+                          DependencyUsage usage) {
+            this.packageCoverage = packageCoverage;
+            this.project = project;
+            this.dependency = dependency;
+            this.usage = usage;
+        }
+
+        boolean isEmpty() {
+            return this.packageCoverage.getInstructionCounter().getTotalCount() == 0;
+        }
+    }
+
+    PackageAttributor(Map<String, ProjectDependency> dependenciesMap,
+                      Map<String, Set<String>> projPackagesAndClassMap, DependencyJarIndex jarIndex) {
+        this.projPackagesAndClassMap = projPackagesAndClassMap;
+        this.resolver = new PackageToDependencyResolver(dependenciesMap, jarIndex);
+    }
+
+    AttributedPackage attribute(IPackageCoverage packageCoverage) {
+        if (packageCoverage.getInstructionCounter().getTotalCount() == 0) {
+            // No code (e.g. annotations only), such packages are not included in the reports
+            return new AttributedPackage(packageCoverage, false, null, null);
+        }
+        String packageName = packageCoverage.getName().replace('/', '.');
+        if (this.projPackagesAndClassMap.containsKey(packageName)) {
+            return new AttributedPackage(packageCoverage, true, null, DependencyUsage.fromCoverageNode(packageCoverage));
+        }
+        // Match the package to its dependency
+        ProjectDependency matchedDep = this.resolver.resolve(packageName);
+        if (matchedDep.getId() == null) {
+            return new AttributedPackage(packageCoverage, false, null, null);
+        }
+        return new AttributedPackage(packageCoverage, false, matchedDep, DependencyUsage.fromCoverageNode(packageCoverage));
+    }
+}
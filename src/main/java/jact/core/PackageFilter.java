@@ -0,0 +1,64 @@
+package jact.core;
+
+import jact.depUtils.DependencyFilter;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependency;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which packages of the Uber-jar are left out of a report:
+ * packages only contained in filtered dependencies and packages
+ * excluded by a package pattern. Project packages are always reported.
+ */
+class PackageFilter {
+    private final DependencyFilter dependencyFilter;
+    private final Map<String, ProjectDependency> dependenciesMap;
+    private final Map<String, ProjectDependency> filteredDependenciesMap;
+    private final Map<String, Set<String>> projPackagesAndClassMap;
+    private final DependencyJarIndex jarIndex;
+
+    PackageFilter(DependencyFilter dependencyFilter, Map<String, ProjectDependency> dependenciesMap,
+                  Map<String, ProjectDependency> filteredDependenciesMap,
+                  Map<String, Set<String>> projPackagesAndClassMap, DependencyJarIndex jarIndex) {
+        this.dependencyFilter = dependencyFilter;
+        this.dependenciesMap = dependenciesMap;
+        this.filteredDependenciesMap = filteredDependenciesMap;
+        this.projPackagesAndClassMap = projPackagesAndClassMap;
+        this.jarIndex = jarIndex;
+    }
+
+    /**
+     * Gets the key of the filtered usage a package is added to, the id
+     * of its filtered dependency or DependencyFilter.FILTERED_PACKAGES.
+     *
+     * @param packageName
+     * @return String, null if the package is reported
+     */
+    String filteredKey(String packageName) {
+        if (this.projPackagesAndClassMap.containsKey(packageName)) {
+            return null;
+        }
+        String filteredDependencyId = null;
+        for (ProjectDependency dependency : this.filteredDependenciesMap.values()) {
+            if (this.jarIndex.containsPackage(dependency, packageName)) {
+                filteredDependencyId = dependency.getId();
+                break;
+            }
+        }
+        if (filteredDependencyId != null) {
+            // A package shared with an included dependency is still reported
+            for (ProjectDependency dependency : this.dependenciesMap.values()) {
+                if (this.jarIndex.containsPackage(dependency, packageName)) {
+                    filteredDependencyId = null;
+                    break;
+                }
+            }
+        }
+        if (filteredDependencyId != null) {
+            return filteredDependencyId;
+        }
+        return this.dependencyFilter.includesPackage(packageName) ? null : DependencyFilter.FILTERED_PACKAGES;
+    }
+}
@@ -0,0 +1,55 @@
+package jact.core;
+
+import jact.depUtils.DependencyUsage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.analysis.ISourceFileCoverage;
+import org.jacoco.core.analysis.CoverageNodeImpl;
+import org.jacoco.core.internal.analysis.CounterImpl;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * The counters of a package without its classes and source files.
+ * Used in place of packages whose detailed report is not rendered,
+ * the bundle totals stay the same.
+ */
+public class PackageSummaryCoverage extends CoverageNodeImpl implements IPackageCoverage {
+
+    public PackageSummaryCoverage(IPackageCoverage packageCoverage) {
+        super(ElementType.PACKAGE, packageCoverage.getName());
+        increment(packageCoverage);
+    }
+
+    /**
+     * Creates the summary of a package from its usage,
+     * e.g. of a package analyzed by another report.
+     *
+     * @param name the VM name of the package
+     * @param usage
+     */
+    public PackageSummaryCoverage(String name, DependencyUsage usage) {
+        super(ElementType.PACKAGE, name);
+        this.instructionCounter = counter(usage.getMissedInstructions(), usage.getTotalInstructions());
+        this.branchCounter = counter(usage.getMissedBranches(), usage.getTotalBranches());
+        this.lineCounter = counter(usage.getMissedLines(), usage.getTotalLines());
+        this.complexityCounter = counter(usage.getMissedCyclomaticComplexity(), usage.getCyclomaticComplexity());
+        this.methodCounter = counter(usage.getMissedMethods(), usage.getTotalMethods());
+        this.classCounter = counter(usage.getMissedClasses(), usage.getTotalClasses());
+    }
+
+    private static CounterImpl counter(long missed, long total) {
+        return CounterImpl.getInstance((int) missed, (int) (total - missed));
+    }
+
+    @Override
+    public Collection<IClassCoverage> getClasses() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<ISourceFileCoverage> getSourceFiles() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,319 @@
+package jact.core;
+
+import jact.depUtils.DependencyUsage;
+import jact.depUtils.ProjectDependency;
+import jact.utils.OutputCompression;
+import jact.utils.ResourceStager;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.internal.analysis.BundleCoverageImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static jact.utils.FileSystemUtils.removeDirectory;
+
+/**
+ * Merges JACT XML reports produced independently from the same build,
+ * e.g. by the unit and integration test jobs of a pipeline. The reports
+ * must have been generated from the same Uber-jar: every package of a
+ * dependency (or of the project) is taken from the report covering most
+ * of its instructions and its totals must be identical in all reports.
+ * The reports are read one after another and merged one dependency at
+ * a time into the `<report directory>-merge` work directory, from which
+ * the XML and HTML reports are then rendered one dependency at a time.
+ */
+public class ReportMerger {
+    private final List<File> reports;
+    private final Map<String, ProjectDependency> dependenciesMap;
+    private final String projId;
+    private final String reportPath;
+    private final File workDir;
+    private final SessionInfoStore sessionInfoStore = new SessionInfoStore();
+    private final Map<String, DependencyUsage> filteredUsage = new TreeMap<>();
+    // The merged packages of each dependency (null for the project), by the dependency id
+    private final Map<String, File> mergedGroups = new LinkedHashMap<>();
+    private final Set<String> dependencyIds = new TreeSet<>();
+
+    /**
+     * @param reports the XML reports (`jact_report.xml` or `jact_report.xml.gz`)
+     * @param dependenciesMap the dependency graph of the project, may be empty. Dependencies
+     *                        of the reports which are not part of it are reported as direct dependencies
+     * @param projId
+     * @param reportPath the directory of the merged report
+     */
+    public ReportMerger(List<File> reports, Map<String, ProjectDependency> dependenciesMap, String projId,
+                        String reportPath) {
+        this.reports = reports;
+        this.dependenciesMap = dependenciesMap;
+        this.projId = projId;
+        this.reportPath = reportPath;
+        File reportDir = new File(reportPath).getAbsoluteFile();
+        this.workDir = new File(reportDir.getParentFile(), reportDir.getName() + "-merge");
+    }
+
+    /**
+     * Finds the XML report of a report directory, or the given report file.
+     *
+     * @param report
+     * @return File
+     * @throws IOException if no XML report exists
+     */
+    public static File findXmlReport(File report) throws IOException {
+        if (report.isFile()) {
+            return report;
+        }
+        for (String name : Arrays.asList("jact_report.xml", "jact_report.xml.gz")) {
+            File xmlReport = new File(report, name);
+            if (xmlReport.isFile()) {
+                return xmlReport;
+            }
+        }
+        throw new IOException("No JACT XML report found in " + report.getPath());
+    }
+
+    /**
+     * Merges the reports and generates the requested formats.
+     *
+     * @param xml
+     * @param html
+     * @param generateSummary
+     * @param outputCompression
+     * @param dependencyHtmlDetail
+     * @param resourceStager
+     * @throws IOException if a report cannot be read or the reports are not of the same build
+     */
+    public void generate(boolean xml, boolean html, boolean generateSummary, OutputCompression outputCompression,
+                         DependencyHtmlDetail dependencyHtmlDetail, ResourceStager resourceStager) throws IOException {
+        removeDirectory(this.workDir);
+        if (!this.workDir.mkdirs()) {
+            throw new IOException("Could not create the merge directory: " + this.workDir);
+        }
+        try {
+            for (File report : this.reports) {
+                System.out.println("JACT: Merging " + report.getPath());
+                mergeReport(report);
+            }
+
+            // The merged groups are rendered one at a time, the report is assembled from their summaries
+            List<ReportModel.RenderedPackage> renderedPackages = new ArrayList<>();
+            int groupIndex = 0;
+            for (Map.Entry<String, File> group : this.mergedGroups.entrySet()) {
+                List<IPackageCoverage> packages = readGroup(group.getValue(), group.getKey());
+                String renderedPath = new File(this.workDir, "report-" + groupIndex++).getPath() + File.separator;
+                if (html) {
+                    renderGroup(group.getKey(), packages, renderedPath, dependencyHtmlDetail, resourceStager);
+                }
+                for (IPackageCoverage packageCoverage : packages) {
+                    renderedPackages.add(new ReportModel.RenderedPackage(new PackageSummaryCoverage(packageCoverage),
+                            group.getKey() == null, group.getKey(), renderedPath));
+                }
+            }
+            renderedPackages.sort(Comparator.comparing(renderedPackage -> renderedPackage.getPackageCoverage().getName()));
+            List<IPackageCoverage> packages = new ArrayList<>();
+            for (ReportModel.RenderedPackage renderedPackage : renderedPackages) {
+                packages.add(renderedPackage.getPackageCoverage());
+            }
+            ReportModel reportModel = ReportModel.assemble(createAnalysis(packages), createDependencies(),
+                    renderedPackages, this.filteredUsage, this.projId, this.reportPath);
+            if (xml) {
+                XmlAugmenter.generateXmlReport(reportModel, new ArrayList<>(this.mergedGroups.values()),
+                        outputCompression, resourceStager);
+            }
+            if (html) {
+                HtmlAugmenter.generateHtmlReport(reportModel, generateSummary, resourceStager, dependencyHtmlDetail);
+            }
+        } finally {
+            removeDirectory(this.workDir);
+        }
+    }
+
+    private void mergeReport(File report) throws IOException {
+        JactXmlReader.read(report, new JactXmlReader.Visitor() {
+            @Override
+            public void visitSessionInfo(SessionInfo sessionInfo) {
+                sessionInfoStore.visitSessionInfo(sessionInfo);
+            }
+
+            @Override
+            public boolean readsDependency(String dependencyId) {
+                return true;
+            }
+
+            @Override
+            public void visitDependency(String dependencyId, List<IPackageCoverage> packages) throws IOException {
+                dependencyIds.add(dependencyId);
+                mergeGroup(report, dependencyId, packages);
+            }
+
+            @Override
+            public void visitFiltered(String filteredKey, DependencyUsage usage) throws IOException {
+                DependencyUsage merged = filteredUsage.get(filteredKey);
+                if (merged == null) {
+                    filteredUsage.put(filteredKey, usage);
+                } else if (merged.getTotalClasses() != usage.getTotalClasses()) {
+                    throw new IOException("The filtered classes of " + filteredKey + " in " + report.getPath()
+                            + " differ from the previous reports, the reports are not of the same build.");
+                } else if (usage.getMissedClasses() < merged.getMissedClasses()) {
+                    filteredUsage.put(filteredKey, usage);
+                }
+            }
+
+            @Override
+            public boolean readsProjectPackages() {
+                return true;
+            }
+
+            @Override
+            public void visitProjectPackages(List<IPackageCoverage> packages) throws IOException {
+                mergeGroup(report, null, packages);
+            }
+        });
+    }
+
+    /**
+     * Merges the packages of a dependency (or of the project) of a
+     * report with the packages merged from the previous reports.
+     *
+     * @param report
+     * @param dependencyId null for the project packages
+     * @param packages
+     * @throws IOException
+     */
+    private void mergeGroup(File report, String dependencyId, List<IPackageCoverage> packages) throws IOException {
+        if (packages.isEmpty()) {
+            return;
+        }
+        File groupFile = this.mergedGroups.get(dependencyId);
+        Map<String, IPackageCoverage> merged = new TreeMap<>();
+        if (groupFile == null) {
+            groupFile = new File(this.workDir, "group-" + this.mergedGroups.size() + ".xml");
+            this.mergedGroups.put(dependencyId, groupFile);
+        } else {
+            for (IPackageCoverage packageCoverage : readGroup(groupFile, dependencyId)) {
+                merged.put(packageCoverage.getName(), packageCoverage);
+            }
+        }
+        for (IPackageCoverage packageCoverage : packages) {
+            IPackageCoverage previous = merged.get(packageCoverage.getName());
+            if (previous == null) {
+                merged.put(packageCoverage.getName(), packageCoverage);
+                continue;
+            }
+            for (ICoverageNode.CounterEntity entity : ICoverageNode.CounterEntity.values()) {
+                if (previous.getCounter(entity).getTotalCount() != packageCoverage.getCounter(entity).getTotalCount()) {
+                    throw new IOException("The " + entity + " total of package " + packageCoverage.getName()
+                            + " in " + report.getPath() + " differs from the previous reports, the reports are not "
+                            + "of the same build.");
+                }
+            }
+            if (isMoreCovered(packageCoverage, previous)) {
+                merged.put(packageCoverage.getName(), packageCoverage);
+            }
+        }
+        XmlAugmenter.writePackageReport(groupFile, dependencyId, new ArrayList<>(merged.values()));
+    }
+
+    private static boolean isMoreCovered(IPackageCoverage packageCoverage, IPackageCoverage previous) {
+        ICounter instructions = packageCoverage.getInstructionCounter();
+        ICounter previousInstructions = previous.getInstructionCounter();
+        if (instructions.getCoveredCount() != previousInstructions.getCoveredCount()) {
+            return instructions.getCoveredCount() > previousInstructions.getCoveredCount();
+        }
+        return packageCoverage.getBranchCounter().getCoveredCount() > previous.getBranchCounter().getCoveredCount();
+    }
+
+    private static List<IPackageCoverage> readGroup(File groupFile, String dependencyId) throws IOException {
+        List<IPackageCoverage> packages = new ArrayList<>();
+        JactXmlReader.read(groupFile, new JactXmlReader.Visitor() {
+            @Override
+            public boolean readsDependency(String id) {
+                return id.equals(dependencyId);
+            }
+
+            @Override
+            public void visitDependency(String id, List<IPackageCoverage> read) {
+                packages.addAll(read);
+            }
+
+            @Override
+            public boolean readsProjectPackages() {
+                return dependencyId == null;
+            }
+
+            @Override
+            public void visitProjectPackages(List<IPackageCoverage> read) {
+                packages.addAll(read);
+            }
+        });
+        return packages;
+    }
+
+    /**
+     * Renders the package pages of one dependency (or of the project) as
+     * the report of only this dependency, the pages are moved from there
+     * into the merged report.
+     *
+     * @param dependencyId null for the project packages
+     * @param packages
+     * @param renderedPath the directory of the rendered report
+     * @param dependencyHtmlDetail
+     * @param resourceStager
+     */
+    private void renderGroup(String dependencyId, List<IPackageCoverage> packages, String renderedPath,
+                             DependencyHtmlDetail dependencyHtmlDetail, ResourceStager resourceStager) {
+        Map<String, ProjectDependency> groupDependencies = new HashMap<>();
+        ProjectDependency dependency = null;
+        if (dependencyId != null) {
+            // The usage of the dependency in the merged report is added by the merged model
+            dependency = createDependency(dependencyId);
+            groupDependencies.put(dependencyId, dependency);
+        }
+        List<PackageAttributor.AttributedPackage> attributedPackages = new ArrayList<>();
+        for (IPackageCoverage packageCoverage : packages) {
+            attributedPackages.add(new PackageAttributor.AttributedPackage(packageCoverage, dependencyId == null,
+                    dependency, DependencyUsage.fromCoverageNode(packageCoverage)));
+        }
+        ReportModel groupModel = ReportModel.create(createAnalysis(packages), groupDependencies, attributedPackages,
+                Collections.emptyMap(), this.projId, renderedPath);
+        HtmlAugmenter.generateHtmlReport(groupModel, false, resourceStager, dependencyHtmlDetail);
+    }
+
+    private CoverageAnalysis createAnalysis(List<IPackageCoverage> packages) {
+        // The reports have no execution data, the sessions page lists the merged sessions only
+        return new CoverageAnalysis(new BundleCoverageImpl(CoverageAnalyzer.BUNDLE_NAME, packages),
+                this.sessionInfoStore, new ExecutionDataStore());
+    }
+
+    /**
+     * Creates the dependencies of the merged report: the dependency graph
+     * with the dependencies of the reports that are not part of it.
+     *
+     * @return Map<String, ProjectDependency>
+     */
+    private Map<String, ProjectDependency> createDependencies() {
+        Map<String, ProjectDependency> dependencies = new HashMap<>(this.dependenciesMap);
+        for (String dependencyId : this.dependencyIds) {
+            dependencies.computeIfAbsent(dependencyId, ReportMerger::createDependency);
+        }
+        // Dependencies filtered by the reports are only listed with their class totals
+        dependencies.keySet().removeAll(this.filteredUsage.keySet());
+        return dependencies;
+    }
+
+    private static ProjectDependency createDependency(String dependencyId) {
+        String[] coordinates = dependencyId.split(":");
+        ProjectDependency dependency = new ProjectDependency();
+        dependency.setId(dependencyId);
+        dependency.setGroupId(coordinates[0]);
+        dependency.setArtifactId(coordinates.length > 1 ? coordinates[1] : "");
+        dependency.setVersion(coordinates.length > 2 ? coordinates[coordinates.length - 1] : "");
+        dependency.rootDep = true;
+        return dependency;
+    }
+}
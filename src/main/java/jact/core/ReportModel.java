@@ -0,0 +1,270 @@
+package jact.core;
+
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.DependencyUsage;
+import jact.depUtils.ProjectDependency;
+import org.jacoco.core.analysis.IPackageCoverage;
+
+import java.util.*;
+
+import static jact.depUtils.ProjectDependency.depToDirName;
+
+/**
+ * The in-memory model shared by the report renderers: the coverage
+ * analysis, the dependency graph and the attribution of every analyzed
+ * package to the project or to one of its dependencies.
+ * The model is only read once it has been created, which allows the
+ * HTML and XML reports to be rendered from it concurrently.
+ */
+public class ReportModel {
+    private final CoverageAnalysis coverageAnalysis;
+    private final String reportPath;
+    private final Map<String, ProjectDependency> dependenciesMap;
+    private final ProjectDependency thisProject = new ProjectDependency();
+    // Direct usage of all dependencies and of the project
+    private final DependencyUsage dependencyUsage = new DependencyUsage();
+    private final DependencyUsage projectUsage = new DependencyUsage();
+    // The JaCoCo packages of each dependency (and the project), by dependency id
+    private final Map<String, List<IPackageCoverage>> packageCoverageMap = new HashMap<>();
+    // Packages that could not be matched to the project or any dependency
+    private final List<IPackageCoverage> unmatchedPackages = new ArrayList<>();
+    // The class usage of filtered dependencies (and packages), which are not analyzed
+    private final Map<String, DependencyUsage> filteredUsageMap = new TreeMap<>();
+    // The report each package was rendered to, by package name, for models assembled from other reports
+    private final Map<String, String> renderedReportPaths = new HashMap<>();
+
+    /**
+     * A package analyzed and rendered by another report, e.g. by
+     * a shard, as the summary of its counters.
+     */
+    public static class RenderedPackage {
+        private final PackageSummaryCoverage packageCoverage;
+        private final boolean project;
+        private final String dependencyId;
+        private final String renderedReportPath;
+
+        /**
+         * @param packageCoverage
+         * @param project
+         * @param dependencyId the owning dependency, null for project and unmatched packages
+         * @param renderedReportPath the report directory the package was rendered to
+         */
+        public RenderedPackage(PackageSummaryCoverage packageCoverage, boolean project, String dependencyId,
+                               String renderedReportPath) {
+            this.packageCoverage = packageCoverage;
+            this.project = project;
+            this.dependencyId = dependencyId;
+            this.renderedReportPath = renderedReportPath;
+        }
+
+        public PackageSummaryCoverage getPackageCoverage() {
+            return this.packageCoverage;
+        }
+    }
+
+    private ReportModel(CoverageAnalysis coverageAnalysis, Map<String, ProjectDependency> dependenciesMap,
+                        String projId, String reportPath) {
+        this.coverageAnalysis = coverageAnalysis;
+        this.dependenciesMap = dependenciesMap;
+        this.reportPath = reportPath;
+        this.thisProject.setId(projId);
+        this.thisProject.setReportPath(reportPath);
+        for (ProjectDependency dependency : dependenciesMap.values()) {
+            dependency.setReportPath(reportPath + "dependencies/" + depToDirName(dependency) + "/");
+        }
+    }
+
+    /**
+     * Creates the model by matching each analyzed package to the project
+     * or its dependency and adding the package usage to its owner.
+     * The report is written to the given report directory.
+     *
+     * @param coverageAnalysis
+     * @param dependenciesMap
+     * @param projPackagesAndClassMap
+     * @param jarIndex
+     * @param projId
+     * @param reportPath
+     * @return ReportModel
+     */
+    public static ReportModel create(CoverageAnalysis coverageAnalysis,
+                                     Map<String, ProjectDependency> dependenciesMap,
+                                     Map<String, Set<String>> projPackagesAndClassMap,
+                                     DependencyJarIndex jarIndex, String projId, String reportPath) {
+        PackageAttributor attributor = new PackageAttributor(dependenciesMap, projPackagesAndClassMap, jarIndex);
+        List<PackageAttributor.AttributedPackage> attributedPackages = new ArrayList<>();
+        for (IPackageCoverage packageCoverage : coverageAnalysis.getBundle().getPackages()) {
+            attributedPackages.add(attributor.attribute(packageCoverage));
+        }
+        return create(coverageAnalysis, dependenciesMap, attributedPackages, Collections.emptyMap(), projId, reportPath);
+    }
+
+    /**
+     * Creates the model from packages that have already been attributed,
+     * the packages are added in the given order.
+     *
+     * @param coverageAnalysis
+     * @param dependenciesMap
+     * @param attributedPackages
+     * @param filteredUsage
+     * @param projId
+     * @param reportPath
+     * @return ReportModel
+     */
+    static ReportModel create(CoverageAnalysis coverageAnalysis, Map<String, ProjectDependency> dependenciesMap,
+                              Collection<PackageAttributor.AttributedPackage> attributedPackages,
+                              Map<String, DependencyUsage> filteredUsage, String projId, String reportPath) {
+        ReportModel model = new ReportModel(coverageAnalysis, dependenciesMap, projId, reportPath);
+        model.filteredUsageMap.putAll(filteredUsage);
+        for (PackageAttributor.AttributedPackage attributedPackage : attributedPackages) {
+            if (attributedPackage.isEmpty()) {
+                continue;
+            }
+            if (attributedPackage.project) {
+                model.addPackage(attributedPackage, model.thisProject, model.projectUsage);
+            } else if (attributedPackage.dependency != null) {
+                model.addPackage(attributedPackage, attributedPackage.dependency, model.dependencyUsage);
+            } else {
+                model.unmatchedPackages.add(attributedPackage.packageCoverage);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Assembles the model of packages analyzed and rendered by other
+     * reports. The packages are only summaries, their pages are moved
+     * from the reports they were rendered to.
+     *
+     * @param coverageAnalysis the session infos and a bundle of the package summaries
+     * @param dependenciesMap
+     * @param renderedPackages
+     * @param filteredUsage
+     * @param projId
+     * @param reportPath
+     * @return ReportModel
+     */
+    public static ReportModel assemble(CoverageAnalysis coverageAnalysis, Map<String, ProjectDependency> dependenciesMap,
+                                       Collection<RenderedPackage> renderedPackages,
+                                       Map<String, DependencyUsage> filteredUsage, String projId, String reportPath) {
+        List<PackageAttributor.AttributedPackage> attributedPackages = new ArrayList<>();
+        for (RenderedPackage renderedPackage : renderedPackages) {
+            ProjectDependency dependency = renderedPackage.dependencyId == null ? null
+                    : dependenciesMap.get(renderedPackage.dependencyId);
+            boolean attributed = renderedPackage.project || dependency != null;
+            attributedPackages.add(new PackageAttributor.AttributedPackage(renderedPackage.packageCoverage,
+                    renderedPackage.project, dependency,
+                    attributed ? DependencyUsage.fromCoverageNode(renderedPackage.packageCoverage) : null));
+        }
+        ReportModel model = create(coverageAnalysis, dependenciesMap, attributedPackages, filteredUsage, projId,
+                reportPath);
+        for (RenderedPackage renderedPackage : renderedPackages) {
+            model.renderedReportPaths.put(renderedPackage.packageCoverage.getName(),
+                    renderedPackage.renderedReportPath);
+        }
+        return model;
+    }
+
+    private void addPackage(PackageAttributor.AttributedPackage attributedPackage, ProjectDependency owner,
+                            DependencyUsage usage) {
+        IPackageCoverage packageCoverage = attributedPackage.packageCoverage;
+        DependencyUsage packageUsage = attributedPackage.usage;
+        owner.dependencyUsage.addAll(packageUsage);
+        owner.packageUsageMap.put(packageDirName(packageCoverage), packageUsage);
+        usage.addAll(packageUsage);
+        this.packageCoverageMap.computeIfAbsent(owner.getId(), k -> new ArrayList<>()).add(packageCoverage);
+    }
+
+    /**
+     * Gets the name JaCoCo uses for the report directory
+     * of a package, also used as its entry name.
+     *
+     * @param packageCoverage
+     * @return String
+     */
+    public static String packageDirName(IPackageCoverage packageCoverage) {
+        String packageName = packageCoverage.getName();
+        return packageName.isEmpty() ? "default" : packageName.replace('/', '.');
+    }
+
+    public CoverageAnalysis getCoverageAnalysis() {
+        return this.coverageAnalysis;
+    }
+
+    public String getReportPath() {
+        return this.reportPath;
+    }
+
+    public Map<String, ProjectDependency> getDependenciesMap() {
+        return this.dependenciesMap;
+    }
+
+    public ProjectDependency getThisProject() {
+        return this.thisProject;
+    }
+
+    public DependencyUsage getDependencyUsage() {
+        return this.dependencyUsage;
+    }
+
+    public DependencyUsage getProjectUsage() {
+        return this.projectUsage;
+    }
+
+    /**
+     * Gets the overall usage (project + direct dependency usage).
+     *
+     * @return DependencyUsage
+     */
+    public DependencyUsage getTotalUsage() {
+        DependencyUsage totalUsage = new DependencyUsage();
+        totalUsage.addAll(this.projectUsage);
+        totalUsage.addAll(this.dependencyUsage);
+        return totalUsage;
+    }
+
+    public List<IPackageCoverage> getPackages(ProjectDependency dependency) {
+        List<IPackageCoverage> packages = this.packageCoverageMap.get(dependency.getId());
+        return packages == null ? Collections.emptyList() : packages;
+    }
+
+    public List<IPackageCoverage> getUnmatchedPackages() {
+        return this.unmatchedPackages;
+    }
+
+    /**
+     * Gets the report directory a package was rendered to
+     * if it was analyzed and rendered by another report.
+     *
+     * @param packageCoverage
+     * @return String, null if the package is rendered with this report
+     */
+    public String getRenderedReportPath(IPackageCoverage packageCoverage) {
+        return this.renderedReportPaths.get(packageCoverage.getName());
+    }
+
+    /**
+     * Gets the class usage (class entries in the Uber-jar and classes
+     * with execution data) of the filtered dependencies by id, the
+     * packages filtered by a package pattern are added under
+     * DependencyFilter.FILTERED_PACKAGES.
+     *
+     * @return Map<String, DependencyUsage>
+     */
+    public Map<String, DependencyUsage> getFilteredUsage() {
+        return this.filteredUsageMap;
+    }
+
+    /**
+     * Gets the total class usage of everything filtered.
+     *
+     * @return DependencyUsage
+     */
+    public DependencyUsage getTotalFilteredUsage() {
+        DependencyUsage totalFilteredUsage = new DependencyUsage();
+        for (DependencyUsage usage : this.filteredUsageMap.values()) {
+            totalFilteredUsage.addAll(usage);
+        }
+        return totalFilteredUsage;
+    }
+}
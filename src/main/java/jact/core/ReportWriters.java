@@ -0,0 +1,34 @@
+package jact.core;
+
+import jact.utils.IoExecutors;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Writes the reports of a model (e.g. the XML and the HTML report)
+ * concurrently, shared by the Maven goals, the CLI, the daemon and the
+ * sharded generation so that all of them fail the same way.
+ */
+public class ReportWriters {
+
+    private ReportWriters() {
+    }
+
+    /**
+     * Runs every report writer and waits for all of them. The first
+     * failure is rethrown once all writers have finished, an I/O failure
+     * of the writers (an UncheckedIOException) as its IOException.
+     *
+     * @param writers
+     * @throws IOException
+     */
+    public static void writeAll(List<Runnable> writers) throws IOException {
+        try {
+            IoExecutors.forEach(writers, Runnable::run);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package jact.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static jact.utils.FileSystemUtils.*;
+
+/**
+ * A report generated in a staging directory and published into the
+ * report directory once it is complete. The report directory is only
+ * touched by the publish: an interrupted or failed generation leaves
+ * the previous report intact, and the renames, appends and deletes of
+ * the generation stay on the (possibly local or tmpfs) staging directory.
+ * The dependency pages of the previous report are linked into the
+ * staging directory, unchanged pages are reused by the HTML report.
+ */
+public class StagedReport {
+    private static final String DEPENDENCIES_DIR = "dependencies";
+    private static final String RESOURCES_DIR = "jacoco-resources";
+    private final File reportDirectory;
+    private final File stagingDirectory;
+    private final File previousDirectory;
+    private final File publishDirectory;
+
+    private StagedReport(File reportDirectory, File stagingDirectory) {
+        this.reportDirectory = reportDirectory;
+        this.stagingDirectory = stagingDirectory;
+        this.previousDirectory = new File(reportDirectory.getPath() + ".previous");
+        this.publishDirectory = new File(reportDirectory.getPath() + ".publish");
+    }
+
+    /**
+     * Creates the staged report of a report directory. Without a staging
+     * root the report is staged next to the report directory, otherwise
+     * in a directory of the staging root named after the report directory,
+     * so that the reports of several modules can share the staging root.
+     *
+     * @param reportDirectory
+     * @param stagingRoot null to stage next to the report directory
+     * @return StagedReport
+     */
+    public static StagedReport create(File reportDirectory, File stagingRoot) {
+        File report = reportDirectory.getAbsoluteFile();
+        if (stagingRoot == null) {
+            return new StagedReport(report, new File(report.getPath() + ".staging"));
+        }
+        return new StagedReport(report, new File(stagingRoot.getAbsoluteFile(),
+                report.getName() + "-" + Integer.toHexString(report.getPath().hashCode())));
+    }
+
+    /**
+     * Gets the path the report is generated in.
+     *
+     * @return String
+     */
+    public String getStagingPath() {
+        return this.stagingDirectory.getPath() + File.separator;
+    }
+
+    /**
+     * Creates an empty staging directory. A report left behind by an
+     * interrupted publish is restored first.
+     *
+     * @param reusePages link the dependency pages of the previous report
+     * @throws IOException
+     */
+    public void prepare(boolean reusePages) throws IOException {
+        if (!this.reportDirectory.exists() && this.previousDirectory.isDirectory()) {
+            Files.move(this.previousDirectory.toPath(), this.reportDirectory.toPath());
+        }
+        removeDirectory(this.previousDirectory);
+        removeDirectory(this.publishDirectory);
+        removeDirectory(this.stagingDirectory);
+        if (!this.stagingDirectory.mkdirs()) {
+            throw new IOException("Could not create the staging directory: " + this.stagingDirectory);
+        }
+        if (reusePages && this.reportDirectory.isDirectory()) {
+            linkPages(this.reportDirectory, this.stagingDirectory);
+            // Module views of an aggregate report have their own dependency pages
+            File[] views = this.reportDirectory.listFiles(File::isDirectory);
+            if (views != null) {
+                for (File view : views) {
+                    File[] modules = view.listFiles(File::isDirectory);
+                    if (modules == null) {
+                        continue;
+                    }
+                    for (File module : modules) {
+                        if (new File(module, HtmlAugmenter.PAGE_DIGESTS_FILE).isFile()) {
+                            linkPages(module, new File(this.stagingDirectory,
+                                    view.getName() + File.separator + module.getName()));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Links the dependency directories of a report and copies its page
+     * digests. The HTML report replaces the directories of changed and
+     * removed dependencies, the linked files are never rewritten.
+     *
+     * @param report
+     * @param staged
+     * @throws IOException
+     */
+    private static void linkPages(File report, File staged) throws IOException {
+        File pageDigests = new File(report, HtmlAugmenter.PAGE_DIGESTS_FILE);
+        File[] dependencyDirs = new File(report, DEPENDENCIES_DIR).listFiles(File::isDirectory);
+        if (!pageDigests.isFile() || dependencyDirs == null) {
+            return;
+        }
+        for (File dependencyDir : dependencyDirs) {
+            if (!dependencyDir.getName().equals(RESOURCES_DIR)) {
+                linkDirectory(dependencyDir, new File(staged, DEPENDENCIES_DIR + File.separator
+                        + dependencyDir.getName()));
+            }
+        }
+        Files.copy(pageDigests.toPath(), new File(staged, HtmlAugmenter.PAGE_DIGESTS_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Publishes the staged report into the report directory. A staging
+     * directory on another file system is copied next to the report
+     * directory first. The previous report is renamed away and the new
+     * report renamed into its place, readers see either report but
+     * never a partially written one.
+     *
+     * @throws IOException
+     */
+    public void publish() throws IOException {
+        File published = this.stagingDirectory;
+        if (!this.stagingDirectory.getParentFile().equals(this.reportDirectory.getParentFile())) {
+            published = this.publishDirectory;
+            this.reportDirectory.getParentFile().mkdirs();
+            try {
+                Files.move(this.stagingDirectory.toPath(), published.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                copyDirectoryTree(this.stagingDirectory, published);
+                removeDirectory(this.stagingDirectory);
+            }
+        }
+        if (this.reportDirectory.exists()) {
+            Files.move(this.reportDirectory.toPath(), this.previousDirectory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(published.toPath(), this.reportDirectory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        removeDirectory(this.previousDirectory);
+    }
+
+    /**
+     * Removes what is left of the staging directory, e.g.
+     * after a failed generation.
+     */
+    public void discard() {
+        removeDirectory(this.stagingDirectory);
+        removeDirectory(this.publishDirectory);
+    }
+}
@@ -0,0 +1,65 @@
+package jact.core;
+
+import jact.utils.ResourceStager;
+import org.jacoco.report.IMultiReportOutput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ * Report output for the JaCoCo HTML formatter which stages the
+ * static jacoco-resources through the resource cache instead of
+ * rewriting them and drops the files of skipped (package) folders.
+ * All other report files are written unchanged.
+ */
+public class StagingReportOutput implements IMultiReportOutput {
+    private static final String RESOURCES_DIR = "jacoco-resources/";
+    private final IMultiReportOutput delegate;
+    private final File reportDirectory;
+    private final ResourceStager resourceStager;
+    private final Set<String> skippedFolders;
+
+    public StagingReportOutput(IMultiReportOutput delegate, File reportDirectory, ResourceStager resourceStager,
+                               Set<String> skippedFolders) {
+        this.delegate = delegate;
+        this.reportDirectory = reportDirectory;
+        this.resourceStager = resourceStager;
+        this.skippedFolders = skippedFolders;
+    }
+
+    @Override
+    public OutputStream createFile(String path) throws IOException {
+        int folderEnd = path.indexOf('/');
+        if (folderEnd > 0 && this.skippedFolders.contains(path.substring(0, folderEnd))) {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    // Discarded
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    // Discarded
+                }
+            };
+        }
+        if (!path.startsWith(RESOURCES_DIR)) {
+            return this.delegate.createFile(path);
+        }
+        // The resources are small, stage them once they are completely written
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                resourceStager.stageContent(toByteArray(), new File(reportDirectory, path));
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.delegate.close();
+    }
+}
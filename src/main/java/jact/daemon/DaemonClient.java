@@ -0,0 +1,179 @@
+package jact.daemon;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Client of the JACT daemon, starts the daemon when none is running.
+ * The daemon of a plugin version is found through its state file in
+ * the local repository, which holds the port and the request token.
+ */
+public class DaemonClient {
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final long START_TIMEOUT_MILLIS = 30000L;
+    // Serializes starting the daemon within this JVM, the lock file between JVMs
+    private static final Object START_LOCK = new Object();
+    private final File stateFile;
+
+    public DaemonClient(File stateFile) {
+        this.stateFile = stateFile;
+    }
+
+    /**
+     * Gets the state file of the daemon of a plugin version.
+     *
+     * @param localRepoPath
+     * @param pluginVersion
+     * @return File
+     */
+    public static File stateFile(String localRepoPath, String pluginVersion) {
+        return new File(localRepoPath, ".cache/jact/" + pluginVersion + "/daemon.properties");
+    }
+
+    /**
+     * Reads the state file of a daemon,
+     * null if it is missing or unreadable.
+     *
+     * @param stateFile
+     * @return Properties
+     */
+    public static Properties readState(File stateFile) {
+        if (!stateFile.isFile()) {
+            return null;
+        }
+        Properties state = new Properties();
+        try (Reader reader = new InputStreamReader(new FileInputStream(stateFile), "UTF-8")) {
+            state.load(reader);
+        } catch (IOException e) {
+            return null;
+        }
+        return state.containsKey("port") && state.containsKey("token") ? state : null;
+    }
+
+    public boolean isRunning() {
+        try {
+            return "ok".equals(send("ping", new Properties()).getProperty("status"));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts a daemon in a new JVM unless one is already running
+     * and waits until it accepts requests. The output of the
+     * daemon is written to `daemon.log` next to the state file.
+     *
+     * @param classpath
+     * @param maxHeap
+     * @param idleTimeoutSeconds
+     * @throws IOException
+     */
+    public void ensureRunning(List<File> classpath, String maxHeap, long idleTimeoutSeconds) throws IOException {
+        if (isRunning()) {
+            return;
+        }
+        File directory = this.stateFile.getAbsoluteFile().getParentFile();
+        directory.mkdirs();
+        synchronized (START_LOCK) {
+            try (FileChannel channel = FileChannel.open(new File(directory, "daemon.lock").toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    // Another build may have started the daemon while waiting for the lock
+                    if (isRunning()) {
+                        return;
+                    }
+                    this.stateFile.delete();
+                    Process process = startProcess(classpath, maxHeap, idleTimeoutSeconds,
+                            new File(directory, "daemon.log"));
+                    long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+                    while (System.currentTimeMillis() < deadline) {
+                        if (isRunning()) {
+                            return;
+                        }
+                        if (!process.isAlive()) {
+                            break;
+                        }
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                    throw new IOException("The JACT daemon did not start, see " + new File(directory, "daemon.log"));
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    private Process startProcess(List<File> classpath, String maxHeap, long idleTimeoutSeconds, File logFile)
+            throws IOException {
+        List<String> paths = new ArrayList<>();
+        for (File file : classpath) {
+            paths.add(file.getAbsolutePath());
+        }
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-Xmx" + maxHeap);
+        command.add("-cp");
+        command.add(String.join(File.pathSeparator, paths));
+        command.add(ReportDaemon.class.getName());
+        command.add(this.stateFile.getAbsolutePath());
+        command.add(String.valueOf(idleTimeoutSeconds));
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectErrorStream(true);
+        processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(logFile));
+        processBuilder.redirectInput(ProcessBuilder.Redirect.from(new File(System.getProperty("os.name")
+                .startsWith("Windows") ? "NUL" : "/dev/null")));
+        return processBuilder.start();
+    }
+
+    /**
+     * Sends a report request and waits for the report.
+     *
+     * @param request
+     * @return Properties the response (status, reportPath, message)
+     * @throws IOException
+     */
+    public Properties generate(ReportRequest request) throws IOException {
+        return send("generate", request.toProperties());
+    }
+
+    public void stop() throws IOException {
+        send("stop", new Properties());
+    }
+
+    private Properties send(String command, Properties request) throws IOException {
+        Properties state = readState(this.stateFile);
+        if (state == null) {
+            throw new IOException("No JACT daemon is running.");
+        }
+        request.setProperty("command", command);
+        request.setProperty("token", state.getProperty("token"));
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(state.getProperty("port"))), CONNECT_TIMEOUT_MILLIS);
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), "UTF-8");
+            request.store(writer, null);
+            writer.flush();
+            socket.shutdownOutput();
+            Properties response = new Properties();
+            response.load(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+            if (!response.containsKey("status")) {
+                throw new IOException("The JACT daemon closed the connection.");
+            }
+            return response;
+        }
+    }
+}
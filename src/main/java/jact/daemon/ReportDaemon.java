@@ -0,0 +1,321 @@
+package jact.daemon;
+
+import jact.core.CoverageAnalysis;
+import jact.core.CoverageAnalyzer;
+import jact.core.ReportModel;
+import jact.core.ReportWriters;
+import jact.depUtils.DependencyJarIndex;
+import jact.utils.InputFingerprints;
+import jact.utils.ResourceStager;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.core.XmlAugmenter.generateXmlReport;
+
+/**
+ * A long-lived local process generating JACT reports for the plugin,
+ * so that repeated builds do not pay the classloading and JIT warm-up
+ * of the report generation. The daemon listens on a loopback port
+ * written to a state file together with a random token which every
+ * request has to present. It keeps the class entries of the dependency
+ * jars and the last coverage analysis of each report in memory.
+ * The daemon exits after being idle for the idle timeout, its caches
+ * are dropped when the heap usage exceeds the memory threshold.
+ */
+public class ReportDaemon {
+    private static final int REQUEST_THREADS = 2;
+    // Fraction of the maximum heap above which the caches are dropped
+    private static final double MEMORY_THRESHOLD = 0.75;
+    private final File stateFile;
+    private final long idleTimeoutMillis;
+    private final String token = UUID.randomUUID().toString();
+    private final ExecutorService requestExecutor = Executors.newFixedThreadPool(REQUEST_THREADS);
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final Map<String, NavigableSet<String>> jarEntriesCache = new ConcurrentHashMap<>();
+    // The last analysis of each report, by report path
+    private final Map<String, CachedAnalysis> analysisCache = new ConcurrentHashMap<>();
+    private volatile long lastActivity = System.currentTimeMillis();
+    private volatile boolean stopped = false;
+    private ServerSocket serverSocket;
+
+    private static class CachedAnalysis {
+        private final String inputsKey;
+        private final CoverageAnalysis coverageAnalysis;
+
+        private CachedAnalysis(String inputsKey, CoverageAnalysis coverageAnalysis) {
+            this.inputsKey = inputsKey;
+            this.coverageAnalysis = coverageAnalysis;
+        }
+    }
+
+    public ReportDaemon(File stateFile, long idleTimeoutMillis) {
+        this.stateFile = stateFile;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Starts the daemon: ReportDaemon <state file> <idle timeout in seconds>
+     *
+     * @param args
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ReportDaemon <state file> <idle timeout in seconds>");
+            System.exit(1);
+        }
+        ReportDaemon daemon = new ReportDaemon(new File(args[0]), Long.parseLong(args[1]) * 1000L);
+        daemon.bind();
+        daemon.serve();
+        System.exit(0);
+    }
+
+    /**
+     * Binds the loopback port and publishes the state file.
+     *
+     * @throws IOException
+     */
+    public void bind() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.serverSocket.setSoTimeout((int) Math.min(this.idleTimeoutMillis, 10000L));
+        Properties state = new Properties();
+        state.setProperty("port", String.valueOf(this.serverSocket.getLocalPort()));
+        state.setProperty("token", this.token);
+        writeStateFile(state);
+        System.out.println("JACT daemon listening on port " + this.serverSocket.getLocalPort());
+    }
+
+    /**
+     * Accepts requests until the daemon is stopped or idle for the
+     * idle timeout, the state file is removed when it exits.
+     */
+    public void serve() {
+        try {
+            while (!this.stopped) {
+                try {
+                    Socket socket = this.serverSocket.accept();
+                    this.lastActivity = System.currentTimeMillis();
+                    this.requestExecutor.execute(() -> handle(socket));
+                } catch (SocketTimeoutException e) {
+                    if (this.activeRequests.get() == 0
+                            && System.currentTimeMillis() - this.lastActivity >= this.idleTimeoutMillis) {
+                        System.out.println("JACT daemon idle, shutting down.");
+                        this.stopped = true;
+                    }
+                } catch (IOException e) {
+                    if (!this.stopped) {
+                        System.err.println("Error accepting a request: " + e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    public void stop() {
+        this.stopped = true;
+        try {
+            this.serverSocket.close();
+        } catch (IOException e) {
+            // Closing unblocks the accepting thread
+        }
+    }
+
+    private void shutdown() {
+        this.requestExecutor.shutdown();
+        try {
+            this.requestExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            this.serverSocket.close();
+        } catch (InterruptedException | IOException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Another daemon may have replaced the state file in the meantime
+        Properties state = DaemonClient.readState(this.stateFile);
+        if (state != null && this.token.equals(state.getProperty("token"))) {
+            this.stateFile.delete();
+        }
+    }
+
+    private void handle(Socket socket) {
+        this.activeRequests.incrementAndGet();
+        Properties response = new Properties();
+        try (Socket client = socket) {
+            Properties request = new Properties();
+            request.load(new InputStreamReader(client.getInputStream(), "UTF-8"));
+            if (!this.token.equals(request.getProperty("token"))) {
+                response.setProperty("status", "error");
+                response.setProperty("message", "Invalid daemon token.");
+            } else {
+                handleCommand(request, response);
+            }
+            Writer writer = new OutputStreamWriter(client.getOutputStream(), "UTF-8");
+            response.store(writer, null);
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("Error handling a request: " + e.getMessage());
+        } finally {
+            this.lastActivity = System.currentTimeMillis();
+            this.activeRequests.decrementAndGet();
+        }
+    }
+
+    private void handleCommand(Properties request, Properties response) {
+        String command = request.getProperty("command", "");
+        switch (command) {
+            case "ping":
+                response.setProperty("status", "ok");
+                break;
+            case "stop":
+                response.setProperty("status", "ok");
+                stop();
+                break;
+            case "generate":
+                long start = System.currentTimeMillis();
+                try {
+                    ReportRequest reportRequest = ReportRequest.fromProperties(request);
+                    generate(reportRequest);
+                    response.setProperty("status", "ok");
+                    response.setProperty("reportPath", reportRequest.getReportPath());
+                } catch (OutOfMemoryError e) {
+                    // The caches are dropped and the request is failed, the client generates in-process
+                    clearCaches();
+                    response.setProperty("status", "unavailable");
+                    response.setProperty("message", "The JACT daemon ran out of memory.");
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    response.setProperty("status", "error");
+                    response.setProperty("message", String.valueOf(e.getMessage()));
+                }
+                response.setProperty("durationMs", String.valueOf(System.currentTimeMillis() - start));
+                checkMemory();
+                break;
+            default:
+                response.setProperty("status", "error");
+                response.setProperty("message", "Unknown command: " + command);
+        }
+    }
+
+    /**
+     * Generates the requested report formats.
+     *
+     * @param request
+     * @throws Exception
+     */
+    public void generate(ReportRequest request) throws Exception {
+        ResourceStager resourceStager = ResourceStager.forPluginVersion(request.getLocalRepoPath(),
+                request.getPluginVersion());
+        CompletableFuture<CoverageAnalysis> analysis = CompletableFuture.supplyAsync(() -> analyze(request));
+        DependencyJarIndex jarIndex = DependencyJarIndex.build(request.getDependenciesMap(),
+                request.getLocalRepoPath(), this.jarEntriesCache);
+        ReportModel reportModel = ReportModel.create(join(analysis), request.getDependenciesMap(),
+                request.getProjectPackagesAndClasses(), jarIndex, request.getProjectId(), request.getReportPath());
+        List<Runnable> reports = new ArrayList<>();
+        if (request.getFormats().contains(ReportRequest.XML)) {
+            reports.add(() -> generateXmlReport(reportModel, request.getOutputCompression(), resourceStager));
+        }
+        if (request.getFormats().contains(ReportRequest.HTML)) {
+            reports.add(() -> generateHtmlReport(reportModel, request.getIncludeSummary(), resourceStager,
+                    request.getDependencyHtmlDetail()));
+        }
+        ReportWriters.writeAll(reports);
+    }
+
+    /**
+     * Analyzes the coverage, the analysis of the previous request
+     * of the same report is reused if the content of its inputs is
+     * unchanged. The class files are hashed recursively, a class
+     * recompiled in place does not change its directory.
+     *
+     * @param request
+     * @return CoverageAnalysis
+     */
+    private CoverageAnalysis analyze(ReportRequest request) {
+        try {
+            StringBuilder inputsKey = new StringBuilder();
+            for (File file : request.getExecFiles()) {
+                inputsKey.append(fileKey(file)).append('\n');
+            }
+            inputsKey.append(fileKey(request.getClassFiles()));
+            CachedAnalysis cached = this.analysisCache.get(request.getReportPath());
+            if (cached != null && cached.inputsKey.equals(inputsKey.toString())) {
+                System.out.println("Reusing the coverage analysis of " + request.getReportPath());
+                return cached.coverageAnalysis;
+            }
+            CoverageAnalysis coverageAnalysis = CoverageAnalyzer.analyze(request.getExecFiles(),
+                    request.getClassFiles());
+            this.analysisCache.put(request.getReportPath(), new CachedAnalysis(inputsKey.toString(), coverageAnalysis));
+            return coverageAnalysis;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String fileKey(File file) throws IOException {
+        return file.getAbsolutePath() + ":" + InputFingerprints.hash(file);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the caches when the heap usage exceeds the memory
+     * threshold, the heap itself is capped by the client (-Xmx).
+     */
+    private void checkMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        if (used > runtime.maxMemory() * MEMORY_THRESHOLD) {
+            System.out.println("Heap usage above the memory threshold, dropping the caches.");
+            clearCaches();
+        }
+    }
+
+    private void clearCaches() {
+        this.analysisCache.clear();
+        this.jarEntriesCache.clear();
+    }
+
+    private void writeStateFile(Properties state) throws IOException {
+        File parent = this.stateFile.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        File tempFile = new File(parent, this.stateFile.getName() + "." + this.token + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8")) {
+            state.store(writer, "JACT daemon");
+        }
+        try {
+            // The token must only be readable by the owner
+            Files.setPosixFilePermissions(tempFile.toPath(), PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system
+        }
+        Files.move(tempFile.toPath(), this.stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,238 @@
+package jact.daemon;
+
+import jact.core.DependencyHtmlDetail;
+import jact.depUtils.ProjectDependency;
+import jact.utils.OutputCompression;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * The inputs of a report generation sent to the JACT daemon.
+ * Requests are exchanged as properties, the dependency graph
+ * is sent as a flat list of dependencies with their children.
+ */
+public class ReportRequest {
+    public static final String XML = "xml";
+    public static final String HTML = "html";
+    private final List<String> formats = new ArrayList<>();
+    private final List<File> execFiles = new ArrayList<>();
+    private File classFiles;
+    private String localRepoPath;
+    private String reportPath;
+    private String projectId;
+    private String pluginVersion;
+    private boolean includeSummary;
+    private OutputCompression outputCompression = OutputCompression.none();
+    private DependencyHtmlDetail dependencyHtmlDetail = DependencyHtmlDetail.FULL;
+    private Map<String, Set<String>> projectPackagesAndClasses = new HashMap<>();
+    private Map<String, ProjectDependency> dependenciesMap = new HashMap<>();
+
+    public List<String> getFormats() {
+        return this.formats;
+    }
+
+    public List<File> getExecFiles() {
+        return this.execFiles;
+    }
+
+    public File getClassFiles() {
+        return this.classFiles;
+    }
+
+    public void setClassFiles(File classFiles) {
+        this.classFiles = classFiles;
+    }
+
+    public String getLocalRepoPath() {
+        return this.localRepoPath;
+    }
+
+    public void setLocalRepoPath(String localRepoPath) {
+        this.localRepoPath = localRepoPath;
+    }
+
+    public String getReportPath() {
+        return this.reportPath;
+    }
+
+    public void setReportPath(String reportPath) {
+        this.reportPath = reportPath;
+    }
+
+    public String getProjectId() {
+        return this.projectId;
+    }
+
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getPluginVersion() {
+        return this.pluginVersion;
+    }
+
+    public void setPluginVersion(String pluginVersion) {
+        this.pluginVersion = pluginVersion;
+    }
+
+    public boolean getIncludeSummary() {
+        return this.includeSummary;
+    }
+
+    public void setIncludeSummary(boolean includeSummary) {
+        this.includeSummary = includeSummary;
+    }
+
+    public OutputCompression getOutputCompression() {
+        return this.outputCompression;
+    }
+
+    public void setOutputCompression(OutputCompression outputCompression) {
+        this.outputCompression = outputCompression;
+    }
+
+    public DependencyHtmlDetail getDependencyHtmlDetail() {
+        return this.dependencyHtmlDetail;
+    }
+
+    public void setDependencyHtmlDetail(DependencyHtmlDetail dependencyHtmlDetail) {
+        this.dependencyHtmlDetail = dependencyHtmlDetail;
+    }
+
+    public Map<String, Set<String>> getProjectPackagesAndClasses() {
+        return this.projectPackagesAndClasses;
+    }
+
+    public void setProjectPackagesAndClasses(Map<String, Set<String>> projectPackagesAndClasses) {
+        this.projectPackagesAndClasses = projectPackagesAndClasses;
+    }
+
+    public Map<String, ProjectDependency> getDependenciesMap() {
+        return this.dependenciesMap;
+    }
+
+    public void setDependenciesMap(Map<String, ProjectDependency> dependenciesMap) {
+        this.dependenciesMap = dependenciesMap;
+    }
+
+    /**
+     * Writes the request to properties.
+     *
+     * @return Properties
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("formats", String.join(",", this.formats));
+        properties.setProperty("execFiles", String.valueOf(this.execFiles.size()));
+        for (int i = 0; i < this.execFiles.size(); i++) {
+            properties.setProperty("execFile." + i, this.execFiles.get(i).getAbsolutePath());
+        }
+        properties.setProperty("classFiles", this.classFiles.getAbsolutePath());
+        properties.setProperty("localRepoPath", this.localRepoPath);
+        properties.setProperty("reportPath", this.reportPath);
+        properties.setProperty("projectId", this.projectId);
+        properties.setProperty("pluginVersion", this.pluginVersion);
+        properties.setProperty("includeSummary", String.valueOf(this.includeSummary));
+        properties.setProperty("compressOutput", String.valueOf(this.outputCompression.isEnabled()));
+        properties.setProperty("compressionLevel", String.valueOf(this.outputCompression.getLevel()));
+        properties.setProperty("compressionBufferSize", String.valueOf(this.outputCompression.getBufferSize()));
+        properties.setProperty("dependencyHtmlDetail", this.dependencyHtmlDetail.toString());
+        for (Map.Entry<String, Set<String>> entry : this.projectPackagesAndClasses.entrySet()) {
+            properties.setProperty("package." + entry.getKey(), String.join(",", entry.getValue()));
+        }
+        int index = 0;
+        for (ProjectDependency dependency : this.dependenciesMap.values()) {
+            String prefix = "dependency." + index++ + ".";
+            properties.setProperty(prefix + "id", dependency.getId());
+            properties.setProperty(prefix + "groupId", dependency.getGroupId());
+            properties.setProperty(prefix + "artifactId", dependency.getArtifactId());
+            properties.setProperty(prefix + "version", dependency.getVersion());
+            properties.setProperty(prefix + "scope", String.valueOf(dependency.getScope()));
+            properties.setProperty(prefix + "rootDep", String.valueOf(dependency.rootDep));
+            List<String> children = new ArrayList<>();
+            for (String childId : dependency.getChildDeps().keySet()) {
+                if (childId == null) {
+                    // Skipped (e.g. test-scope) children are kept as an empty placeholder
+                    properties.setProperty(prefix + "placeholderChild", "true");
+                } else {
+                    children.add(childId);
+                }
+            }
+            properties.setProperty(prefix + "children", String.join(",", children));
+        }
+        properties.setProperty("dependencies", String.valueOf(index));
+        return properties;
+    }
+
+    /**
+     * Reads a request from properties, the dependencies
+     * are created with their parents and children linked.
+     *
+     * @param properties
+     * @return ReportRequest
+     */
+    public static ReportRequest fromProperties(Properties properties) {
+        ReportRequest request = new ReportRequest();
+        request.formats.addAll(split(properties.getProperty("formats", "")));
+        int execFiles = Integer.parseInt(properties.getProperty("execFiles", "0"));
+        for (int i = 0; i < execFiles; i++) {
+            request.execFiles.add(new File(properties.getProperty("execFile." + i)));
+        }
+        request.classFiles = new File(properties.getProperty("classFiles"));
+        request.localRepoPath = properties.getProperty("localRepoPath");
+        request.reportPath = properties.getProperty("reportPath");
+        request.projectId = properties.getProperty("projectId");
+        request.pluginVersion = properties.getProperty("pluginVersion");
+        request.includeSummary = Boolean.parseBoolean(properties.getProperty("includeSummary"));
+        request.outputCompression = new OutputCompression(
+                Boolean.parseBoolean(properties.getProperty("compressOutput")),
+                Integer.parseInt(properties.getProperty("compressionLevel")),
+                Integer.parseInt(properties.getProperty("compressionBufferSize")));
+        request.dependencyHtmlDetail = DependencyHtmlDetail.parse(properties.getProperty("dependencyHtmlDetail"));
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("package.")) {
+                request.projectPackagesAndClasses.put(key.substring("package.".length()),
+                        new HashSet<>(split(properties.getProperty(key))));
+            }
+        }
+        int dependencies = Integer.parseInt(properties.getProperty("dependencies", "0"));
+        Map<String, List<String>> childIds = new HashMap<>();
+        for (int i = 0; i < dependencies; i++) {
+            String prefix = "dependency." + i + ".";
+            ProjectDependency dependency = new ProjectDependency();
+            dependency.setId(properties.getProperty(prefix + "id"));
+            dependency.setGroupId(properties.getProperty(prefix + "groupId"));
+            dependency.setArtifactId(properties.getProperty(prefix + "artifactId"));
+            dependency.setVersion(properties.getProperty(prefix + "version"));
+            dependency.setScope(properties.getProperty(prefix + "scope"));
+            dependency.rootDep = Boolean.parseBoolean(properties.getProperty(prefix + "rootDep"));
+            if (Boolean.parseBoolean(properties.getProperty(prefix + "placeholderChild"))) {
+                dependency.addChildDep(new ProjectDependency());
+            }
+            request.dependenciesMap.put(dependency.getId(), dependency);
+            childIds.put(dependency.getId(), split(properties.getProperty(prefix + "children", "")));
+        }
+        for (Map.Entry<String, List<String>> entry : childIds.entrySet()) {
+            ProjectDependency parent = request.dependenciesMap.get(entry.getKey());
+            for (String childId : entry.getValue()) {
+                ProjectDependency child = request.dependenciesMap.get(childId);
+                if (child != null) {
+                    parent.addChildDep(child);
+                    child.addParentDep(parent);
+                }
+            }
+        }
+        return request;
+    }
+
+    private static List<String> split(String value) {
+        List<String> values = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isEmpty()) {
+                values.add(part);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,130 @@
+package jact.depUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The includes and excludes of a report. A pattern containing a colon
+ * is a dependency pattern `groupId:artifactId[:version]` with `*` and
+ * `?` wildcards, any other pattern is a package prefix (`com.example`
+ * matches com.example and its subpackages). A dependency or package is
+ * reported if it matches an include (or no includes of its kind are
+ * given) and no exclude. The project packages are never filtered.
+ */
+public class DependencyFilter {
+    public static final DependencyFilter NONE = new DependencyFilter("", "");
+    // The key of the usage of packages filtered by a package pattern
+    public static final String FILTERED_PACKAGES = "filtered packages";
+    private final List<Pattern[]> dependencyIncludes = new ArrayList<>();
+    private final List<Pattern[]> dependencyExcludes = new ArrayList<>();
+    private final List<String> packageIncludes = new ArrayList<>();
+    private final List<String> packageExcludes = new ArrayList<>();
+
+    /**
+     * Creates the filter of comma separated include and exclude patterns.
+     *
+     * @param includes
+     * @param excludes
+     */
+    public DependencyFilter(String includes, String excludes) {
+        parsePatterns(includes, this.dependencyIncludes, this.packageIncludes);
+        parsePatterns(excludes, this.dependencyExcludes, this.packageExcludes);
+    }
+
+    private static void parsePatterns(String patterns, List<Pattern[]> dependencyPatterns, List<String> packagePatterns) {
+        if (patterns == null) {
+            return;
+        }
+        for (String pattern : patterns.split(",")) {
+            pattern = pattern.trim();
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            if (pattern.indexOf(':') >= 0) {
+                String[] parts = pattern.split(":");
+                if (parts.length < 2 || parts.length > 3) {
+                    throw new IllegalArgumentException("Invalid dependency pattern (groupId:artifactId[:version]): "
+                            + pattern);
+                }
+                Pattern[] compiled = new Pattern[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    compiled[i] = globToPattern(parts[i]);
+                }
+                dependencyPatterns.add(compiled);
+            } else {
+                packagePatterns.add(pattern.endsWith(".*") ? pattern.substring(0, pattern.length() - 2) : pattern);
+            }
+        }
+    }
+
+    private static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    public boolean isEmpty() {
+        return this.dependencyIncludes.isEmpty() && this.dependencyExcludes.isEmpty()
+                && this.packageIncludes.isEmpty() && this.packageExcludes.isEmpty();
+    }
+
+    /**
+     * Whether a dependency is reported.
+     *
+     * @param groupId
+     * @param artifactId
+     * @param version
+     * @return boolean
+     */
+    public boolean includesDependency(String groupId, String artifactId, String version) {
+        String[] coordinates = {groupId, artifactId, version};
+        if (!this.dependencyIncludes.isEmpty() && !matchesAny(this.dependencyIncludes, coordinates)) {
+            return false;
+        }
+        return !matchesAny(this.dependencyExcludes, coordinates);
+    }
+
+    /**
+     * Whether a (dot separated) package of a dependency is reported.
+     *
+     * @param packageName
+     * @return boolean
+     */
+    public boolean includesPackage(String packageName) {
+        if (!this.packageIncludes.isEmpty() && !hasPrefix(this.packageIncludes, packageName)) {
+            return false;
+        }
+        return !hasPrefix(this.packageExcludes, packageName);
+    }
+
+    private static boolean matchesAny(List<Pattern[]> patterns, String[] coordinates) {
+        for (Pattern[] pattern : patterns) {
+            boolean matches = true;
+            for (int i = 0; i < pattern.length && matches; i++) {
+                matches = coordinates[i] != null && pattern[i].matcher(coordinates[i]).matches();
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasPrefix(List<String> prefixes, String packageName) {
+        for (String prefix : prefixes) {
+            if (packageName.equals(prefix) || packageName.startsWith(prefix + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,134 @@
+package jact.depUtils;
+
+import jact.utils.IoExecutors;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of the class files contained in the jars of each dependency
+ * in the local .m2 folder. Every jar is read once when the index is
+ * built instead of once per package lookup.
+ */
+public class DependencyJarIndex {
+    // The class entry names of all jars of a dependency, by dependency id
+    private final Map<String, NavigableSet<String>> classEntriesMap = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the index for all dependencies, the
+     * dependencies are indexed concurrently.
+     *
+     * @param dependenciesMap
+     * @param localRepoPath
+     * @return DependencyJarIndex
+     */
+    public static DependencyJarIndex build(Map<String, ProjectDependency> dependenciesMap, String localRepoPath) {
+        return build(dependenciesMap, localRepoPath, null);
+    }
+
+    /**
+     * Builds the index for all dependencies, the class entries of
+     * every jar are taken from (and added to) the given cache. Cached
+     * entries are keyed by the path, size and modification time of
+     * the jar so that a changed jar is read again.
+     *
+     * @param dependenciesMap
+     * @param localRepoPath
+     * @param jarEntriesCache
+     * @return DependencyJarIndex
+     */
+    public static DependencyJarIndex build(Map<String, ProjectDependency> dependenciesMap, String localRepoPath,
+                                           Map<String, NavigableSet<String>> jarEntriesCache) {
+        DependencyJarIndex index = new DependencyJarIndex();
+        // Reading the jars is blocking I/O, the dependencies are read on the I/O executor
+        IoExecutors.forEachUnchecked(dependenciesMap.values(), dependency -> index.classEntriesMap.put(
+                dependency.getId(), readClassEntries(getDependencyJars(dependency, localRepoPath), jarEntriesCache)));
+        return index;
+    }
+
+    /**
+     * Checks if the jars of the given dependency contain
+     * a class file within the package being searched for.
+     *
+     * @param dependency
+     * @param packageName
+     * @return boolean
+     */
+    public boolean containsPackage(ProjectDependency dependency, String packageName) {
+        NavigableSet<String> classEntries = this.classEntriesMap.get(dependency.getId());
+        if (classEntries == null) {
+            return false;
+        }
+        String packagePath = packageName.replace('.', '/');
+        String firstEntry = classEntries.ceiling(packagePath);
+        return firstEntry != null && firstEntry.startsWith(packagePath);
+    }
+
+    private static NavigableSet<String> readClassEntries(File[] jarFiles,
+                                                         Map<String, NavigableSet<String>> jarEntriesCache) {
+        if (jarFiles == null || jarFiles.length == 0) {
+            return Collections.emptyNavigableSet();
+        }
+        NavigableSet<String> classEntries = new TreeSet<>();
+        for (File jarFile : jarFiles) {
+            if (jarEntriesCache == null) {
+                classEntries.addAll(readJarClassEntries(jarFile));
+            } else {
+                String key = jarFile.getAbsolutePath() + ":" + jarFile.length() + ":" + jarFile.lastModified();
+                // The jar is not read while holding a lock of the cache
+                NavigableSet<String> cachedEntries = jarEntriesCache.get(key);
+                if (cachedEntries == null) {
+                    cachedEntries = readJarClassEntries(jarFile);
+                    jarEntriesCache.putIfAbsent(key, cachedEntries);
+                }
+                classEntries.addAll(cachedEntries);
+            }
+        }
+        return classEntries;
+    }
+
+    private static NavigableSet<String> readJarClassEntries(File jarFile) {
+        NavigableSet<String> classEntries = new TreeSet<>();
+        try (ZipFile zipFile = new ZipFile(jarFile)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                String entryName = entries.nextElement().getName();
+                if (entryName.endsWith(".class")) {
+                    classEntries.add(entryName);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return classEntries;
+    }
+
+    /**
+     * Gets all the jar-names contained in
+     * the dependency directory, required
+     * to resolve non-standard jar-names.
+     * @param dependency
+     * @param localRepoPath
+     * @return
+     */
+    public static File[] getDependencyJars(ProjectDependency dependency, String localRepoPath){
+        String groupId = dependency.getGroupId();
+        String artifactId = dependency.getArtifactId();
+        String version = dependency.getVersion();
+
+        // Construct the path to the JAR file
+        String directoryPath = localRepoPath + "/" + groupId.replace('.', '/') +
+                "/" + artifactId + "/" + version + "/";
+        File directory = new File(directoryPath);
+        // Return all jar files from that dependency
+        return directory.listFiles((dir, name) -> name.endsWith(".jar"));
+    }
+}
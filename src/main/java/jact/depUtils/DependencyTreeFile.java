@@ -0,0 +1,112 @@
+package jact.depUtils;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.apache.maven.shared.dependency.graph.internal.DefaultDependencyNode;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the dependency graph written by `mvn dependency:tree -DoutputFile=<file>`
+ * (text output), so the graph of a build can be reported without Maven:
+ * <pre>
+ * com.example:app:jar:1.0
+ * +- com.google.guava:guava:jar:33.0.0-jre:compile
+ * |  \- com.google.guava:failureaccess:jar:1.0.2:compile
+ * \- junit:junit:jar:4.13.2:test
+ * </pre>
+ * Nodes omitted by the verbose output (in parentheses) are skipped.
+ */
+public class DependencyTreeFile {
+    // Characters of one level of indentation, e.g. "|  " or "+- "
+    private static final int INDENT = 3;
+
+    private DependencyTreeFile() {
+    }
+
+    /**
+     * Reads the dependency tree file, the root node is the project.
+     *
+     * @param treeFile
+     * @return DependencyNode
+     * @throws IOException
+     */
+    public static DependencyNode read(File treeFile) throws IOException {
+        DefaultDependencyNode root = null;
+        // The last node of each depth, the parents of the following lines
+        List<DefaultDependencyNode> path = new ArrayList<>();
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(treeFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                int start = 0;
+                while (start < line.length() && "|+-\\ ".indexOf(line.charAt(start)) >= 0) {
+                    start++;
+                }
+                if (start == line.length() || line.charAt(start) == '(') {
+                    continue;
+                }
+                int depth = start / INDENT;
+                if (root == null) {
+                    if (depth != 0) {
+                        throw new IOException(treeFile + ":" + lineNumber + ": the tree does not start with the project");
+                    }
+                    root = new DefaultDependencyNode(null, parseArtifact(line.substring(start), true), null, null, null);
+                    root.setChildren(new ArrayList<>());
+                    path.add(root);
+                    continue;
+                }
+                if (depth < 1 || depth > path.size()) {
+                    throw new IOException(treeFile + ":" + lineNumber + ": unexpected indentation");
+                }
+                DefaultDependencyNode parent = path.get(depth - 1);
+                DefaultDependencyNode node = new DefaultDependencyNode(parent,
+                        parseArtifact(line.substring(start), false), null, null, null);
+                node.setChildren(new ArrayList<>());
+                parent.getChildren().add(node);
+                while (path.size() > depth) {
+                    path.remove(path.size() - 1);
+                }
+                path.add(node);
+            }
+        }
+        if (root == null) {
+            throw new IOException(treeFile + ": empty dependency tree");
+        }
+        return root;
+    }
+
+    /**
+     * Parses `groupId:artifactId:type[:classifier]:version[:scope]`, the
+     * project line has no scope.
+     *
+     * @param coordinates
+     * @param project
+     * @return Artifact
+     * @throws IOException
+     */
+    private static Artifact parseArtifact(String coordinates, boolean project) throws IOException {
+        int annotation = coordinates.indexOf(' ');
+        String[] parts = (annotation < 0 ? coordinates : coordinates.substring(0, annotation)).split(":");
+        int versionIndex = project ? parts.length - 1 : parts.length - 2;
+        if (parts.length < 4 || versionIndex < 3) {
+            throw new IOException("Invalid dependency coordinates: " + coordinates);
+        }
+        String classifier = versionIndex == 4 ? parts[3] : null;
+        String scope = project ? null : parts[parts.length - 1];
+        return new DefaultArtifact(parts[0], parts[1], parts[versionIndex], scope, parts[2], classifier,
+                new DefaultArtifactHandler(parts[2]));
+    }
+}
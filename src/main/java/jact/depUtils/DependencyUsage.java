@@ -1,5 +1,8 @@
 package jact.depUtils;
 
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageNode;
+
 import java.text.DecimalFormat;
 
 /**
@@ -23,6 +26,35 @@ public class DependencyUsage {
     private long missedClasses = 0L;
     private long classes = 0L;
 
+    /**
+     * Creates the usage from the counters of a JaCoCo coverage node.
+     *
+     * @param node
+     * @return DependencyUsage
+     */
+    public static DependencyUsage fromCoverageNode(ICoverageNode node) {
+        DependencyUsage usage = new DependencyUsage();
+        ICounter instructions = node.getInstructionCounter();
+        usage.addMissedInstructions(instructions.getMissedCount());
+        usage.addTotalInstructions(instructions.getTotalCount());
+        ICounter branches = node.getBranchCounter();
+        usage.addMissedBranches(branches.getMissedCount());
+        usage.addTotalBranches(branches.getTotalCount());
+        ICounter complexity = node.getComplexityCounter();
+        usage.addMissedCyclomaticComplexity(complexity.getMissedCount());
+        usage.addCyclomaticComplexity(complexity.getTotalCount());
+        ICounter lines = node.getLineCounter();
+        usage.addMissedLines(lines.getMissedCount());
+        usage.addTotalLines(lines.getTotalCount());
+        ICounter methods = node.getMethodCounter();
+        usage.addMissedMethods(methods.getMissedCount());
+        usage.addTotalMethods(methods.getTotalCount());
+        ICounter classes = node.getClassCounter();
+        usage.addMissedClasses(classes.getMissedCount());
+        usage.addTotalClasses(classes.getTotalCount());
+        return usage;
+    }
+
     public static String percentage(long part, long whole) {
         double percentage = (double) part / whole * 100;
         long roundedPercentage = (long) Math.floor(percentage);
@@ -152,15 +184,6 @@ public class DependencyUsage {
     }
 
     public String usageToHTML(String dependencyDirName, DependencyUsage total, boolean isPackage, boolean indirectEntry) {
-
-        long coveredInstructions = this.getTotalInstructions() - this.getMissedInstructions();
-        long coveredBranches = this.getTotalBranches() - this.getMissedBranches();
-
-        int redInstrBar = barLength(this.getMissedInstructions(), total.getTotalInstructions());
-        int greenInstrBar = barLength(coveredInstructions, total.getTotalInstructions());
-
-        int redBranchBar = barLength(this.getMissedBranches(), total.getTotalBranches());
-        int greenBranchBar = barLength(coveredBranches, total.getTotalBranches());
         String icon;
         if (isPackage) {
             icon = "el_package";
@@ -173,9 +196,35 @@ public class DependencyUsage {
         } else if (indirectEntry) {
             link = "../" + dependencyDirName + "/index.html";
         }
+        return usageToHTML(dependencyDirName, link, icon, total);
+    }
+
+    /**
+     * Gets the table row of an entry, entries without
+     * a link (no page of their own) are shown as text.
+     *
+     * @param name
+     * @param link
+     * @param icon
+     * @param total
+     * @return String
+     */
+    public String usageToHTML(String name, String link, String icon, DependencyUsage total) {
 
+        long coveredInstructions = this.getTotalInstructions() - this.getMissedInstructions();
+        long coveredBranches = this.getTotalBranches() - this.getMissedBranches();
+
+        int redInstrBar = barLength(this.getMissedInstructions(), total.getTotalInstructions());
+        int greenInstrBar = barLength(coveredInstructions, total.getTotalInstructions());
+
+        int redBranchBar = barLength(this.getMissedBranches(), total.getTotalBranches());
+        int greenBranchBar = barLength(coveredBranches, total.getTotalBranches());
+
+        String element = link == null
+                ? "<span class=\"" + icon + "\">" + name + "</span>"
+                : "<a href=\"" + link + "\" class=\"" + icon + "\">" + name + "</a>";
         String htmlString = "<tr>\n" +
-                "    <td id=\"a47\"><a href=\"" + link + "\" class=\"" + icon + "\">" + dependencyDirName + "</a></td>\n" +
+                "    <td id=\"a47\">" + element + "</td>\n" +
                 "    <td class=\"bar\" id=\"b5\"><img src=\"jacoco-resources/redbar.gif\" width=\"" + redInstrBar + "\" height=\"10\" title=\"" + String.format("%,d", this.getMissedInstructions()) + "\" alt=\"" + String.format("%,d", this.getMissedInstructions()) + "\">" +
                 "<img src=\"jacoco-resources/greenbar.gif\" width=\"" + greenInstrBar + "\" height=\"10\" title=\"" + String.format("%,d", coveredInstructions) + "\" alt=\"" + String.format("%,d", coveredInstructions) + "\"></td>\n" +
                 "    <td class=\"ctr2\" id=\"c5\">" + percentage(coveredInstructions, this.getTotalInstructions()) + "</td>\n" +
@@ -194,6 +243,32 @@ public class DependencyUsage {
         return htmlString;
     }
 
+    /**
+     * Gets the table row of a filtered entry, its classes are not
+     * analyzed so only the class entries and the classes with
+     * execution data (covered) are known.
+     *
+     * @param name
+     * @return String
+     */
+    public String filteredUsageToHTML(String name) {
+        return "<tr>\n" +
+                "    <td id=\"a47\"><span class=\"el_group\">" + name + " (filtered)</span></td>\n" +
+                "    <td class=\"bar\" id=\"b5\">n/a</td>\n" +
+                "    <td class=\"ctr2\" id=\"c5\">n/a</td>\n" +
+                "    <td class=\"bar\" id=\"d4\">n/a</td>\n" +
+                "    <td class=\"ctr2\" id=\"e5\">n/a</td>\n" +
+                "    <td class=\"ctr1\" id=\"f2\">n/a</td>\n" +
+                "    <td class=\"ctr2\" id=\"g2\">n/a</td>\n" +
+                "    <td class=\"ctr1\" id=\"h2\">n/a</td>\n" +
+                "    <td class=\"ctr2\" id=\"i2\">n/a</td>\n" +
+                "    <td class=\"ctr1\" id=\"j1\">n/a</td>\n" +
+                "    <td class=\"ctr2\" id=\"k1\">n/a</td>\n" +
+                "    <td class=\"ctr1\" id=\"l13\">" + String.format("%,d", this.getMissedClasses()) + "</td>\n" +
+                "    <td class=\"ctr2\" id=\"m11\">" + String.format("%,d", this.getTotalClasses()) + "</td>\n" +
+                "</tr>\n";
+    }
+
     public String totalUsageToHTML() {
         long coveredInstructions = this.getTotalInstructions() - this.getMissedInstructions();
         long coveredBranches = this.getTotalBranches() - this.getMissedBranches();
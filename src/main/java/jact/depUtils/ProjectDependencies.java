@@ -1,39 +1,319 @@
 package jact.depUtils;
 
 import com.google.gson.*;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
 
+import java.io.File;
 import java.io.FileReader;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 import static jact.depUtils.ProjectDependency.depToDirName;
-import static jact.plugin.AbstractReportMojo.getJactReportPath;
 import static jact.utils.CommandExecutor.generateDependencyLockfile;
 
 /**
  * Creates all the project dependencies and their ProjectDependency objects
  * in order to calculate and write the reported usage from jacoco.
+ * Every call creates its own dependencies, calls for different
+ * projects can run concurrently.
  */
 public class ProjectDependencies {
-    private static Map<String, ProjectDependency> projectDependenciesMap;
-    private static Map<String, DependencyUsage> indirectUsageMap;
-    private static Set<String> visited;
-    private static boolean skipTestDependencies;
+    // The default report path, the report model sets the path of its report
+    public static final String JACT_REPORT_PATH = "./target/jact-report/";
+    private static final String OMITTED_FOR = "omitted for ";
+    private static final String OMITTED_FOR_DUPLICATE = "omitted for duplicate";
+    private static final String OMITTED_FOR_CONFLICT = "omitted for conflict with ";
+    private final Map<String, ProjectDependency> projectDependenciesMap = new HashMap<>();
+    private final Set<String> visited = new HashSet<>();
+    private final boolean skipTestDependencies;
+    private final DependencyFilter dependencyFilter;
+    // Dependencies removed by the filter, by id
+    private final Map<String, ProjectDependency> filteredDependenciesMap;
+    // Parents of dependencies omitted as duplicates or conflicts in a verbose graph, by the id of the winner
+    private final Map<String, List<ProjectDependency>> omittedParents = new LinkedHashMap<>();
+
+    private ProjectDependencies(boolean skipTestDependencies, DependencyFilter dependencyFilter,
+                                Map<String, ProjectDependency> filteredDependenciesMap) {
+        this.skipTestDependencies = skipTestDependencies;
+        this.dependencyFilter = dependencyFilter;
+        this.filteredDependenciesMap = filteredDependenciesMap == null ? new HashMap<>() : filteredDependenciesMap;
+    }
 
     public static Map<String, ProjectDependency> getAllProjectDependencies(String targetDirectory,
                                                                            boolean genLockfile,
                                                                            boolean skipTestDeps) {
-        // Reset previous objects (for the combined report caused by static classes)
-        projectDependenciesMap = new HashMap<>();
-        indirectUsageMap = new HashMap<>();
-        visited = new HashSet<>();
-        skipTestDependencies = skipTestDeps;
+        return getAllProjectDependencies(new File("."), targetDirectory, genLockfile, skipTestDeps);
+    }
 
-        generateAllProjectDependencies(targetDirectory, genLockfile);
+    /**
+     * Creates all project dependencies from the lockfile of
+     * the project in the given project directory.
+     *
+     * @param projectDirectory
+     * @param targetDirectory
+     * @param genLockfile
+     * @param skipTestDeps
+     * @return Map<String, ProjectDependency>
+     */
+    public static Map<String, ProjectDependency> getAllProjectDependencies(File projectDirectory,
+                                                                           String targetDirectory,
+                                                                           boolean genLockfile,
+                                                                           boolean skipTestDeps) {
+        return getAllProjectDependencies(projectDirectory, targetDirectory, genLockfile, skipTestDeps,
+                DependencyFilter.NONE, null);
+    }
 
-        return projectDependenciesMap;
+    /**
+     * Creates the project dependencies from the lockfile of the project in
+     * the given project directory, dependencies removed by the filter are
+     * added to the filtered dependencies instead. The included dependencies
+     * of a filtered dependency are attached to its closest included parent.
+     *
+     * @param projectDirectory
+     * @param targetDirectory
+     * @param genLockfile
+     * @param skipTestDeps
+     * @param dependencyFilter
+     * @param filteredDependencies
+     * @return Map<String, ProjectDependency>
+     */
+    public static Map<String, ProjectDependency> getAllProjectDependencies(File projectDirectory,
+                                                                           String targetDirectory,
+                                                                           boolean genLockfile,
+                                                                           boolean skipTestDeps,
+                                                                           DependencyFilter dependencyFilter,
+                                                                           Map<String, ProjectDependency> filteredDependencies) {
+        ProjectDependencies projectDependencies = new ProjectDependencies(skipTestDeps, dependencyFilter,
+                filteredDependencies);
+        projectDependencies.generateAllProjectDependencies(projectDirectory, targetDirectory, genLockfile);
+        return projectDependencies.projectDependenciesMap;
+    }
+
+    /**
+     * Creates all project dependencies directly from the resolved
+     * dependency graph of the current build, without generating
+     * and parsing a lockfile.
+     *
+     * @param rootNode
+     * @param skipTestDeps
+     * @return Map<String, ProjectDependency>
+     */
+    public static Map<String, ProjectDependency> getAllProjectDependencies(DependencyNode rootNode,
+                                                                           boolean skipTestDeps) {
+        return getAllProjectDependencies(rootNode, skipTestDeps, DependencyFilter.NONE, null);
+    }
+
+    /**
+     * Creates all project dependencies from the resolved dependency graph,
+     * dependencies removed by the filter are added to the filtered
+     * dependencies instead.
+     *
+     * @param rootNode
+     * @param skipTestDeps
+     * @param dependencyFilter
+     * @param filteredDependencies
+     * @return Map<String, ProjectDependency>
+     */
+    public static Map<String, ProjectDependency> getAllProjectDependencies(DependencyNode rootNode,
+                                                                           boolean skipTestDeps,
+                                                                           DependencyFilter dependencyFilter,
+                                                                           Map<String, ProjectDependency> filteredDependencies) {
+        return getAllProjectDependencies(Collections.singletonList(rootNode), Collections.emptySet(), skipTestDeps,
+                dependencyFilter, filteredDependencies);
+    }
+
+    /**
+     * Creates the deduplicated project dependencies of several dependency
+     * graphs (e.g. all modules of a reactor build), every dependency is
+     * created once. Modules of the reactor are not dependencies, their own
+     * dependencies are added as direct dependencies instead.
+     *
+     * @param rootNodes
+     * @param reactorIds
+     * @param skipTestDeps
+     * @return Map<String, ProjectDependency>
+     */
+    public static Map<String, ProjectDependency> getAllProjectDependencies(List<DependencyNode> rootNodes,
+                                                                           Set<String> reactorIds,
+                                                                           boolean skipTestDeps) {
+        return getAllProjectDependencies(rootNodes, reactorIds, skipTestDeps, DependencyFilter.NONE, null);
+    }
+
+    /**
+     * Creates the deduplicated project dependencies of several dependency
+     * graphs, dependencies removed by the filter are added to the filtered
+     * dependencies instead.
+     *
+     * @param rootNodes
+     * @param reactorIds
+     * @param skipTestDeps
+     * @param dependencyFilter
+     * @param filteredDependencies
+     * @return Map<String, ProjectDependency>
+     */
+    public static Map<String, ProjectDependency> getAllProjectDependencies(List<DependencyNode> rootNodes,
+                                                                           Set<String> reactorIds,
+                                                                           boolean skipTestDeps,
+                                                                           DependencyFilter dependencyFilter,
+                                                                           Map<String, ProjectDependency> filteredDependencies) {
+        ProjectDependencies projectDependencies = new ProjectDependencies(skipTestDeps, dependencyFilter,
+                filteredDependencies);
+        // The root nodes are the projects themselves
+        for (DependencyNode rootNode : rootNodes) {
+            for (DependencyNode node : rootNode.getChildren()) {
+                projectDependencies.parseDependencyNode(node, new ProjectDependency(), reactorIds);
+            }
+        }
+        projectDependencies.addOmittedParents();
+        return projectDependencies.projectDependenciesMap;
+    }
+
+    /**
+     * Creates the ProjectDependency of a dependency graph node and
+     * its children, following the same rules as the lockfile parsing.
+     * A node omitted from a verbose graph (e.g. a shared dependency
+     * under its second parent) only adds its parent to the winner.
+     *
+     * @param node
+     * @param parentDep
+     * @param reactorIds
+     * @return ProjectDependency, null if the dependency was filtered
+     */
+    private ProjectDependency parseDependencyNode(DependencyNode node, ProjectDependency parentDep,
+                                                         Set<String> reactorIds) {
+        Artifact artifact = node.getArtifact();
+        String dependencyId = artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getVersion();
+        String dependencyScope = artifact.getScope() == null ? "compile" : artifact.getScope();
+
+        if ((skipTestDependencies && dependencyScope.equals("test")) || dependencyScope.equals("provided")) {
+            //Skipping provided- and test-scope dependencies
+            return new ProjectDependency();
+        }
+        if (isOmitted(node)) {
+            String winnerVersion = getOmittedWinnerVersion(node);
+            String winnerId = artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + winnerVersion;
+            if (winnerVersion != null && parentDep.getId() != null && !reactorIds.contains(winnerId)) {
+                omittedParents.computeIfAbsent(winnerId, id -> new ArrayList<>()).add(parentDep);
+            }
+            return null;
+        }
+        if (reactorIds.contains(dependencyId)) {
+            // Reactor modules are reported as projects
+            for (DependencyNode child : node.getChildren()) {
+                parseDependencyNode(child, new ProjectDependency(), reactorIds);
+            }
+            return new ProjectDependency();
+        }
+        if (!dependencyFilter.includesDependency(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion())) {
+            addFilteredDependency(dependencyId, artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(),
+                    dependencyScope);
+            // The included dependencies take the place of the filtered dependency
+            for (DependencyNode child : node.getChildren()) {
+                addChild(parentDep, parseDependencyNode(child, parentDep, reactorIds));
+            }
+            return null;
+        }
+        ProjectDependency projectDependency = projectDependenciesMap.get(dependencyId);
+        if (projectDependency == null) {
+            visited.add(dependencyId);
+            projectDependency = new ProjectDependency();
+            projectDependency.setId(dependencyId);
+            projectDependency.setGroupId(artifact.getGroupId());
+            projectDependency.setArtifactId(artifact.getArtifactId());
+            projectDependency.setVersion(artifact.getVersion());
+            projectDependency.setScope(dependencyScope);
+            projectDependency.setReportPath(JACT_REPORT_PATH + "dependencies/" + depToDirName(projectDependency) + "/");
+            projectDependenciesMap.put(dependencyId, projectDependency);
+        }
+        if (parentDep.getId() != null) {
+            projectDependency.addParentDep(parentDep);
+        } else {
+            projectDependency.rootDep = true;
+        }
+        for (DependencyNode child : node.getChildren()) {
+            addChild(projectDependency, parseDependencyNode(child, projectDependency, reactorIds));
+        }
+        return projectDependency;
+    }
+
+    /**
+     * Whether a node of a verbose graph was omitted by the conflict
+     * resolution, for any reason (duplicate, conflict, cycle, ...).
+     *
+     * @param node
+     * @return boolean
+     */
+    private static boolean isOmitted(DependencyNode node) {
+        // The conflict data of a verbose node is only exposed through its node string:
+        // (groupId:artifactId:type:version:scope - omitted for duplicate)
+        // (groupId:artifactId:type:version:scope - omitted for conflict with 2.0)
+        // (groupId:artifactId:type:version:scope - omitted for cycle)
+        String nodeString = node.toNodeString();
+        return nodeString != null && nodeString.startsWith("(") && nodeString.contains(OMITTED_FOR);
+    }
+
+    /**
+     * Gets the version of the dependency an omitted node was omitted
+     * for, the node of the winner is in the graph. A node omitted for
+     * a cycle has no winner, its dependency is one of its ancestors.
+     *
+     * @param node
+     * @return String, null if the node has no winner
+     */
+    private static String getOmittedWinnerVersion(DependencyNode node) {
+        String nodeString = node.toNodeString();
+        if (nodeString.contains(OMITTED_FOR_DUPLICATE)) {
+            return node.getArtifact().getVersion();
+        }
+        int conflict = nodeString.indexOf(OMITTED_FOR_CONFLICT);
+        if (conflict < 0) {
+            return null;
+        }
+        int start = conflict + OMITTED_FOR_CONFLICT.length();
+        int end = start;
+        while (end < nodeString.length() && nodeString.charAt(end) != ';' && nodeString.charAt(end) != ')') {
+            end++;
+        }
+        return nodeString.substring(start, end).trim();
+    }
+
+    /**
+     * Adds the parents of the omitted nodes to their winners,
+     * winners that were skipped or filtered are left out.
+     */
+    private void addOmittedParents() {
+        for (Map.Entry<String, List<ProjectDependency>> entry : omittedParents.entrySet()) {
+            ProjectDependency winner = projectDependenciesMap.get(entry.getKey());
+            if (winner == null) {
+                continue;
+            }
+            for (ProjectDependency parentDep : entry.getValue()) {
+                if (parentDep != winner) {
+                    winner.addParentDep(parentDep);
+                    parentDep.addChildDep(winner);
+                }
+            }
+        }
+    }
+
+    private static void addChild(ProjectDependency parentDep, ProjectDependency child) {
+        if (parentDep.getId() != null && child != null) {
+            parentDep.addChildDep(child);
+        }
+    }
+
+    private void addFilteredDependency(String dependencyId, String groupId, String artifactId, String version,
+                                       String scope) {
+        if (projectDependenciesMap.containsKey(dependencyId) || filteredDependenciesMap.containsKey(dependencyId)) {
+            return;
+        }
+        ProjectDependency filteredDependency = new ProjectDependency();
+        filteredDependency.setId(dependencyId);
+        filteredDependency.setGroupId(groupId);
+        filteredDependency.setArtifactId(artifactId);
+        filteredDependency.setVersion(version);
+        filteredDependency.setScope(scope);
+        filteredDependenciesMap.put(dependencyId, filteredDependency);
     }
 
     /**
@@ -41,12 +321,13 @@ public class ProjectDependencies {
      * including their indirect dependencies and creates their corresponding
      * ProjectDependency object with child/parent dependencies.
      *
+     * @param projectDirectory
      * @param targetDirectory
      * @param genLockfile
      */
-    private static void generateAllProjectDependencies(String targetDirectory, boolean genLockfile) {
+    private void generateAllProjectDependencies(File projectDirectory, String targetDirectory, boolean genLockfile) {
         if (genLockfile) {
-            generateDependencyLockfile(targetDirectory);
+            generateDependencyLockfile(projectDirectory, targetDirectory);
         }
         String filePath = targetDirectory + "lockfile.json"; // Path to the JSON file
         try (FileReader reader = new FileReader(filePath)) {
@@ -61,7 +342,7 @@ public class ProjectDependencies {
         }
     }
 
-    static class ProjectDependencyDeserializer implements com.google.gson.JsonDeserializer<ProjectDependency> {
+    class ProjectDependencyDeserializer implements com.google.gson.JsonDeserializer<ProjectDependency> {
         @Override
         public ProjectDependency deserialize(JsonElement json, java.lang.reflect.Type typeOfT, com.google.gson.JsonDeserializationContext context) {
             JsonObject jsonObject = json.getAsJsonObject();
@@ -78,22 +359,25 @@ public class ProjectDependencies {
                 //Skipping provided- and test-scope dependencies
                 return new ProjectDependency();
             }
+            String groupId = jsonObject.has("groupId") ? jsonObject.get("groupId").getAsString() : "";
+            String artifactId = jsonObject.has("artifactId") ? jsonObject.get("artifactId").getAsString() : "";
+            String version = jsonObject.has("selectedVersion") ? jsonObject.get("selectedVersion").getAsString() : "";
+            if (!dependencyFilter.includesDependency(groupId, artifactId, version)) {
+                addFilteredDependency(dependencyId, groupId, artifactId, version, dependencyScope);
+                // The included dependencies take the place of the filtered dependency
+                for (JsonElement element : jsonObject.getAsJsonArray("children")) {
+                    addChild(parentDep, parseDependency(element.getAsJsonObject(), parentDep));
+                }
+                return null;
+            }
             if (visited.contains(dependencyId)) {
                 // If the dependency has been visited before, find it, add the parent and return it.
                 ProjectDependency pd = projectDependenciesMap.get(dependencyId);
-                if (parentDep.getId() != null) {
-                    pd.addParentDep(parentDep);
-                } else if (!parentString.isEmpty()) {
-                    pd.addParentDep(projectDependenciesMap.get(parentString));
-                } else {
-                    pd.rootDep = true;
-                }
+                addParent(pd, parentDep, parentString);
                 JsonArray childrenJsonArray = jsonObject.getAsJsonArray("children");
                 if (!childrenJsonArray.isEmpty()) {
-                    addIndirect(pd);
                     for (JsonElement element : childrenJsonArray) {
-                        ProjectDependency child = parseDependency(element.getAsJsonObject(), pd);
-                        pd.addChildDep(child);
+                        addChild(pd, parseDependency(element.getAsJsonObject(), pd));
                     }
                 }
                 return pd;
@@ -102,48 +386,52 @@ public class ProjectDependencies {
 
             ProjectDependency projectDependency = new ProjectDependency();
             projectDependency.setId(jsonObject.has("id") ? jsonObject.get("id").getAsString() : "");
-            projectDependency.setGroupId(jsonObject.has("groupId") ? jsonObject.get("groupId").getAsString() : "");
-            projectDependency.setArtifactId(jsonObject.has("artifactId") ? jsonObject.get("artifactId").getAsString() : "");
-            projectDependency.setVersion(jsonObject.has("selectedVersion") ? jsonObject.get("selectedVersion").getAsString() : "");
+            projectDependency.setGroupId(groupId);
+            projectDependency.setArtifactId(artifactId);
+            projectDependency.setVersion(version);
             projectDependency.setScope(jsonObject.has("scope") ? jsonObject.get("scope").getAsString() : "");
 
-            if (parentDep.getId() != null) {
-                projectDependency.addParentDep(parentDep);
-            } else if (!parentString.isEmpty()) {
-                projectDependency.addParentDep(projectDependenciesMap.get(parentString));
-            } else {
-                projectDependency.rootDep = true;
-            }
+            addParent(projectDependency, parentDep, parentString);
 
-            projectDependency.setReportPath(getJactReportPath() + "dependencies/" + depToDirName(projectDependency) + "/");
+            projectDependency.setReportPath(JACT_REPORT_PATH + "dependencies/" + depToDirName(projectDependency) + "/");
 
             projectDependenciesMap.put(projectDependency.getId(), projectDependency);
             JsonArray childrenJsonArray = jsonObject.getAsJsonArray("children");
             if (!childrenJsonArray.isEmpty()) {
-                addIndirect(projectDependency);
                 for (JsonElement element : childrenJsonArray) {
-                    ProjectDependency child = parseDependency(element.getAsJsonObject(), projectDependency);
-                    projectDependency.addChildDep(child);
+                    addChild(projectDependency, parseDependency(element.getAsJsonObject(), projectDependency));
                 }
             }
             return projectDependency;
         }
+
+        private void addParent(ProjectDependency projectDependency, ProjectDependency parentDep, String parentString) {
+            if (parentDep.getId() != null) {
+                projectDependency.addParentDep(parentDep);
+            } else if (projectDependenciesMap.containsKey(parentString)) {
+                projectDependency.addParentDep(projectDependenciesMap.get(parentString));
+            } else {
+                // No parent, or only filtered parents
+                projectDependency.rootDep = true;
+            }
+        }
     }
 
     /**
-     * Adds a indirect entry for dependencies with
-     * children for keeping track of indirect usage.
+     * Gets the ids of all dependencies with children, i.e. the
+     * dependencies which have an indirect dependencies report.
      *
-     * @param pd
+     * @param dependenciesMap
+     * @return Set<String>
      */
-    private static void addIndirect(ProjectDependency pd) {
-        if (!indirectUsageMap.containsKey(pd.getId())) {
-            indirectUsageMap.put(pd.getId(), new DependencyUsage());
+    public static Set<String> getIndirectDependencyIds(Map<String, ProjectDependency> dependenciesMap) {
+        Set<String> indirectDependencyIds = new HashSet<>();
+        for (ProjectDependency dependency : dependenciesMap.values()) {
+            if (!dependency.getChildDeps().isEmpty()) {
+                indirectDependencyIds.add(dependency.getId());
+            }
         }
-    }
-
-    public static Map<String, DependencyUsage> getIndirectUsageMap() {
-        return indirectUsageMap;
+        return indirectDependencyIds;
     }
 
 }
\ No newline at end of file
@@ -1,11 +1,8 @@
 package jact.depUtils;
 
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
-import static jact.core.HtmlAugmenter.writeHTMLStringToFile;
-
 /**
  * Tracks the usage of a dependency.
  */
@@ -136,15 +133,21 @@ public class ProjectDependency {
         return sb.toString();
     }
 
-    public void writePackagesToFile(String path, DependencyUsage total) {
-        // Iterate through the map entries
+    /**
+     * Gets the package entries of the dependency for its index.html,
+     * packages without a page of their own are listed without a link.
+     *
+     * @param total
+     * @param linkPackages
+     * @return String
+     */
+    public String packagesToHTML(DependencyUsage total, boolean linkPackages) {
+        StringBuilder rows = new StringBuilder();
         for (Map.Entry<String, DependencyUsage> entry : this.packageUsageMap.entrySet()) {
-            try {
-                writeHTMLStringToFile(path + "/index.html", entry.getValue().usageToHTML(entry.getKey(), total, true, false));
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+            String link = linkPackages ? entry.getKey() + "/index.html" : null;
+            rows.append(entry.getValue().usageToHTML(entry.getKey(), link, "el_package", total));
         }
+        return rows.toString();
     }
 
     /**
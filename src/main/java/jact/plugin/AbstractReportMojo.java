@@ -1,26 +1,55 @@
 package jact.plugin;
 
+import jact.core.AttributionPipeline;
+import jact.core.ClassAnalysisCache;
+import jact.core.CoverageAnalyzer;
+import jact.core.DependencyHtmlDetail;
+import jact.core.ReportModel;
+import jact.core.StagedReport;
+import jact.daemon.DaemonClient;
+import jact.daemon.ReportRequest;
+import jact.depUtils.DependencyFilter;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependencies;
+import jact.depUtils.ProjectDependency;
+import jact.shard.ShardedReportGenerator;
+import jact.utils.InputFingerprints;
+import jact.utils.OutputCompression;
+import jact.utils.ResourceStager;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.shared.dependency.graph.DependencyCollectorBuilder;
+import org.apache.maven.shared.dependency.graph.DependencyCollectorBuilderException;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static jact.utils.FileSystemUtils.scanClassesDirectory;
 
 
 public abstract class AbstractReportMojo extends AbstractMojo {
-    private static final String jactReportPath = "./target/jact-report/";
-    private static String localRepoPath;
-    private static String projectGroupId;
-    private static String artifactId;
-    private static String version;
-    private static Map<String, Set<String>> packageClassMap = new HashMap<>();
+    private static final String jactReportPath = ProjectDependencies.JACT_REPORT_PATH;
+    private static final String jactReportDirectory = "jact-report/";
+    private static final String stateFileName = ".jact-state.properties";
+    // Inputs whose changes are handled incrementally by the report generation
+    private static final List<String> reportInputs = Arrays.asList("jacocoExec", "classes", "shadedJar",
+            "dependencies", "pom");
     /**
      * Gives access to the Maven project information.
      */
@@ -32,6 +61,18 @@ public abstract class AbstractReportMojo extends AbstractMojo {
     @Parameter(defaultValue = "${session}", required = true, readonly = true)
     private MavenSession session;
 
+    /**
+     * Collects the verbose dependency graph of the current build.
+     */
+    @Component(hint = "default")
+    private DependencyCollectorBuilder dependencyCollectorBuilder;
+
+    /**
+     * The version of this plugin, resources are cached per version.
+     */
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
     @Parameter(property = "shadedJarName")
     private String shadedJarName;
 
@@ -47,6 +88,124 @@ public abstract class AbstractReportMojo extends AbstractMojo {
     @Parameter(property = "includeSummary", defaultValue = "false")
     private String includeSummary;
 
+    /**
+     * Detail of the dependency pages in the HTML report: `summary` lists the
+     * packages of each dependency, `package` adds a page per package listing
+     * its classes and `full` includes the JaCoCo class pages.
+     */
+    @Parameter(property = "dependencyHtmlDetail", defaultValue = "full")
+    private String dependencyHtmlDetail;
+
+    /**
+     * Write the XML report through a streaming GZIP encoder (`jact_report.xml.gz`).
+     */
+    @Parameter(property = "compressOutput", defaultValue = "false")
+    private String compressOutput;
+
+    /**
+     * Deflate level (1-9) used when `compressOutput` is enabled.
+     */
+    @Parameter(property = "compressionLevel", defaultValue = "6")
+    private String compressionLevel;
+
+    /**
+     * Buffer size in bytes for the compressed report streams.
+     */
+    @Parameter(property = "compressionBufferSize", defaultValue = "65536")
+    private String compressionBufferSize;
+
+    /**
+     * Compatibility mode: resolve the dependencies through a generated
+     * `lockfile.json` (nested maven-lockfile build) instead of the
+     * dependency graph of the current build.
+     */
+    @Parameter(property = "useLockfile", defaultValue = "false")
+    private String useLockfile;
+
+    /**
+     * Comma separated list of JaCoCo exec files or glob patterns
+     * (e.g. `target/jacoco-*.exec`), merged in memory before the analysis.
+     */
+    @Parameter(property = "jacocoExecFiles", defaultValue = "./target/jacoco.exec")
+    private String jacocoExecFiles;
+
+    /**
+     * Regenerate the report even if all inputs are unchanged.
+     */
+    @Parameter(property = "forceRegeneration", defaultValue = "false")
+    private String forceRegeneration;
+
+    /**
+     * Generate the report in a long-lived local JACT daemon (started on
+     * demand) which keeps the dependency jar index and the JIT warm.
+     */
+    @Parameter(property = "useDaemon", defaultValue = "false")
+    private String useDaemon;
+
+    /**
+     * Seconds without requests after which the daemon exits.
+     */
+    @Parameter(property = "daemonIdleTimeout", defaultValue = "900")
+    private String daemonIdleTimeout;
+
+    /**
+     * Maximum heap of the daemon JVM (-Xmx).
+     */
+    @Parameter(property = "daemonMaxHeap", defaultValue = "1g")
+    private String daemonMaxHeap;
+
+    /**
+     * Comma separated dependency patterns (`groupId:artifactId[:version]`
+     * with `*` and `?` wildcards) and package prefixes to report. All
+     * dependencies and packages are reported if empty.
+     */
+    @Parameter(property = "includes", defaultValue = "")
+    private String includes;
+
+    /**
+     * Comma separated dependency patterns and package prefixes left out
+     * of the report. The classes of excluded dependency jars are not
+     * analyzed, the report only shows their aggregated class totals.
+     */
+    @Parameter(property = "excludes", defaultValue = "")
+    private String excludes;
+
+    /**
+     * Cache the analysis of the dependency classes in the local repository,
+     * dependency classes without execution data are then not analyzed again.
+     */
+    @Parameter(property = "cacheClassAnalysis", defaultValue = "true")
+    private String cacheClassAnalysis;
+
+    /**
+     * Number of local worker JVMs the dependencies are partitioned across,
+     * the reports of the shards are merged into the report. 1 generates
+     * the report in-process.
+     */
+    @Parameter(property = "shards", defaultValue = "1")
+    private String shards;
+
+    /**
+     * Maximum heap of each shard worker JVM (-Xmx).
+     */
+    @Parameter(property = "shardMaxHeap", defaultValue = "1g")
+    private String shardMaxHeap;
+
+    /**
+     * Directory the report is generated in before it is published into
+     * the report directory, e.g. on a tmpfs. By default the report is
+     * staged next to the report directory.
+     */
+    @Parameter(property = "stagingDir")
+    private String stagingDir;
+
+    // The staging directory while the report is generated
+    private String outputDirectory;
+    private Map<String, ProjectDependency> resolvedDependencies;
+    private final Map<String, ProjectDependency> resolvedFilteredDependencies = new HashMap<>();
+    private List<File> resolvedExecFiles;
+    private Map<String, Set<String>> projectPackagesAndClasses;
+
     @Override
     public final void execute()
             throws MojoExecutionException, MojoFailureException {
@@ -54,21 +213,430 @@ public abstract class AbstractReportMojo extends AbstractMojo {
             getLog().info("Skipping plugin execution...");
             return;
         }
-        this.doExecute();
+        if (!checksUpToDate()) {
+            generateStaged(true);
+            return;
+        }
+        InputFingerprints fingerprints = fingerprintInputs();
+        if (!Boolean.parseBoolean(this.forceRegeneration) && fingerprints.isUpToDate()) {
+            getLog().info("JACT report is up-to-date, skipping generation: the JaCoCo execution data, Uber-jar, project classes, " +
+                    "dependencies, plugin version and parameters are unchanged since the previous build.");
+            return;
+        }
+        if (!fingerprints.getChangedInputs().isEmpty()) {
+            getLog().info("Generating the JACT report, changed inputs: " + String.join(", ", fingerprints.getChangedInputs()));
+        }
+        // If the plugin version, goal or parameters changed no pages of the previous report are reused
+        generateStaged(fingerprints.getChangedInputs().stream().allMatch(AbstractReportMojo::isReportInput));
+        // A failed generation leaves the previous report and its state file untouched
+        try {
+            fingerprints.save();
+        } catch (IOException e) {
+            getLog().warn("Could not write the JACT state file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Generates the report in the staging directory and publishes it
+     * into the report directory once it is complete.
+     *
+     * @param reusePages whether unchanged pages of the previous report are reused
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    private void generateStaged(boolean reusePages) throws MojoExecutionException, MojoFailureException {
+        if (!stagesReport()) {
+            this.doExecute();
+            return;
+        }
+        StagedReport stagedReport = StagedReport.create(new File(getReportDirectory()),
+                this.stagingDir == null || this.stagingDir.isEmpty() ? null : new File(this.stagingDir));
+        try {
+            stagedReport.prepare(reusePages);
+            this.outputDirectory = stagedReport.getStagingPath();
+            generate();
+            stagedReport.publish();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error staging the JACT report: " + e.getMessage(), e);
+        } finally {
+            this.outputDirectory = null;
+            stagedReport.discard();
+        }
+    }
+
+    private void generate() throws MojoExecutionException, MojoFailureException {
+        if (Integer.parseInt(this.shards) > 1 && !getReportFormats().isEmpty()) {
+            if (getDependencyFilter().isEmpty()) {
+                generateInShards();
+            } else {
+                getLog().info("Sharded generation does not support includes/excludes, generating the report in-process.");
+                this.doExecute();
+            }
+        } else if (Boolean.parseBoolean(this.useDaemon) && !getReportFormats().isEmpty()) {
+            if (getDependencyFilter().isEmpty()) {
+                generateInDaemon();
+            } else {
+                getLog().info("The JACT daemon does not support includes/excludes, generating the report in-process.");
+                this.doExecute();
+            }
+        } else {
+            this.doExecute();
+        }
+    }
+
+    /**
+     * Whether a changed input is handled incrementally, inputs of
+     * several files or modules are fingerprinted as `<input>:<name>`.
+     *
+     * @param input
+     * @return boolean
+     */
+    private static boolean isReportInput(String input) {
+        return reportInputs.contains(input.split(":")[0]);
+    }
+
+    /**
+     * Resolves the exec files and glob patterns of `jacocoExecFiles`.
+     *
+     * @return List<File>
+     * @throws MojoExecutionException
+     */
+    private List<File> resolveExecFiles() throws MojoExecutionException {
+        if (this.resolvedExecFiles == null) {
+            this.resolvedExecFiles = resolveExecFiles(getProject().getBasedir());
+        }
+        return this.resolvedExecFiles;
+    }
+
+    /**
+     * Resolves the exec files and glob patterns of
+     * `jacocoExecFiles` relative to a (module) directory.
+     *
+     * @param baseDir
+     * @return List<File>
+     * @throws MojoExecutionException
+     */
+    protected List<File> resolveExecFiles(File baseDir) throws MojoExecutionException {
+        try {
+            return CoverageAnalyzer.resolveExecFiles(baseDir, this.jacocoExecFiles);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error resolving the JaCoCo exec files: " + this.jacocoExecFiles, e);
+        }
+    }
+
+    /**
+     * Fingerprints all inputs of the report generation.
+     *
+     * @return InputFingerprints
+     * @throws MojoExecutionException
+     */
+    private InputFingerprints fingerprintInputs() throws MojoExecutionException {
+        InputFingerprints fingerprints = InputFingerprints.load(new File(getReportDirectory() + stateFileName));
+        fingerprints.addValue("goal", getClass().getName());
+        fingerprints.addValue("pluginVersion", this.pluginVersion);
+        fingerprints.addValue("shadedJarName", getOutputJarName());
+        fingerprints.addValue("skipTestDependencies", this.skipTestDependencies);
+        fingerprints.addValue("includeSummary", this.includeSummary);
+        fingerprints.addValue("dependencyHtmlDetail", this.dependencyHtmlDetail);
+        fingerprints.addValue("compressOutput", this.compressOutput);
+        fingerprints.addValue("compressionLevel", this.compressionLevel);
+        fingerprints.addValue("compressionBufferSize", this.compressionBufferSize);
+        fingerprints.addValue("useLockfile", this.useLockfile);
+        fingerprints.addValue("includes", this.includes);
+        fingerprints.addValue("excludes", this.excludes);
+        addInputFingerprints(fingerprints);
+        return fingerprints;
+    }
+
+    /**
+     * Fingerprints the execution data, classes and dependencies
+     * the report is generated from.
+     *
+     * @param fingerprints
+     * @throws MojoExecutionException
+     */
+    protected void addInputFingerprints(InputFingerprints fingerprints) throws MojoExecutionException {
+        try {
+            for (File execFile : resolveExecFiles()) {
+                fingerprints.addFile("jacocoExec:" + execFile.getPath(), execFile);
+            }
+            fingerprints.addFile("shadedJar", getOutputJar());
+            // The project packages and classes are scanned from the classes directory
+            addClassFiles(fingerprints, "classes", new File(this.project.getBuild().getOutputDirectory()));
+            if (getUseLockfileProperty()) {
+                // The lockfile is generated from the project POM
+                fingerprints.addFile("pom", this.project.getFile());
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error fingerprinting the report inputs", e);
+        }
+        if (!getUseLockfileProperty()) {
+            fingerprints.addValue("dependencies", declaredDependencies(this.project));
+        }
+    }
+
+    /**
+     * Gets the declared and managed dependencies of a project, read from
+     * its effective model without resolving the dependency graph. The
+     * graph is resolved as a stage of the report generation. Changes of
+     * transitive dependencies change the Uber-jar, which is fingerprinted.
+     *
+     * @param mavenProject
+     * @return String
+     */
+    protected static String declaredDependencies(MavenProject mavenProject) {
+        List<String> dependencySet = new ArrayList<>();
+        for (Object dependency : mavenProject.getDependencies()) {
+            dependencySet.add(dependencyKey((Dependency) dependency));
+        }
+        Collections.sort(dependencySet);
+        List<String> managedSet = new ArrayList<>();
+        if (mavenProject.getDependencyManagement() != null) {
+            for (Dependency dependency : mavenProject.getDependencyManagement().getDependencies()) {
+                managedSet.add(dependencyKey(dependency));
+            }
+        }
+        Collections.sort(managedSet);
+        return String.join(",", dependencySet) + ";managed=" + String.join(",", managedSet);
+    }
+
+    private static String dependencyKey(Dependency dependency) {
+        StringBuilder key = new StringBuilder(dependency.getManagementKey())
+                .append(':').append(dependency.getVersion())
+                .append(':').append(dependency.getScope())
+                .append(':').append(dependency.isOptional());
+        List<String> exclusions = new ArrayList<>();
+        for (Exclusion exclusion : dependency.getExclusions()) {
+            exclusions.add(exclusion.getGroupId() + ":" + exclusion.getArtifactId());
+        }
+        Collections.sort(exclusions);
+        if (!exclusions.isEmpty()) {
+            key.append(":excludes=").append(String.join("|", exclusions));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Fingerprints every class file of a classes directory as
+     * `<key>:<relative path>`. Like the other input files, a class
+     * file is hashed when its size or modification time changed, a
+     * recompiled class with the same bytecode is unchanged.
+     *
+     * @param fingerprints
+     * @param key
+     * @param classesDirectory
+     * @throws IOException
+     */
+    protected static void addClassFiles(InputFingerprints fingerprints, String key, File classesDirectory)
+            throws IOException {
+        collectClassFiles(fingerprints, key + ":", classesDirectory);
+    }
+
+    private static void collectClassFiles(InputFingerprints fingerprints, String path, File directory)
+            throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                collectClassFiles(fingerprints, path + file.getName() + "/", file);
+            } else if (file.getName().endsWith(".class")) {
+                fingerprints.addFile(path + file.getName(), file);
+            }
+        }
     }
 
     protected abstract void doExecute()
             throws MojoExecutionException, MojoFailureException;
 
+    /**
+     * Whether the generation is skipped when all inputs are unchanged,
+     * goals whose inputs are not files of the build always run.
+     *
+     * @return boolean
+     */
+    protected boolean checksUpToDate() {
+        return true;
+    }
+
+    /**
+     * Whether the report is generated in a staging directory and
+     * published once complete, goals updating their report
+     * continuously write into the report directory.
+     *
+     * @return boolean
+     */
+    protected boolean stagesReport() {
+        return true;
+    }
+
+    /**
+     * Gets the report formats of this goal that can be generated by
+     * the daemon, goals without any formats are always run in-process.
+     *
+     * @return List<String>
+     */
+    protected List<String> getReportFormats() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Creates the request of the report, the dependency graph and the
+     * project classes are resolved in the build.
+     *
+     * @return ReportRequest
+     * @throws MojoExecutionException
+     */
+    private ReportRequest createReportRequest() throws MojoExecutionException {
+        ReportRequest request = new ReportRequest();
+        request.getFormats().addAll(getReportFormats());
+        request.getExecFiles().addAll(resolveExecFiles());
+        request.setClassFiles(getOutputJar());
+        request.setLocalRepoPath(getLocalRepoPath());
+        request.setReportPath(getOutputDirectory());
+        request.setProjectId(getProjId());
+        request.setPluginVersion(this.pluginVersion);
+        request.setIncludeSummary(getSummaryProperty());
+        request.setOutputCompression(getOutputCompression());
+        request.setDependencyHtmlDetail(getDependencyHtmlDetail());
+        request.setProjectPackagesAndClasses(getProjectPackagesAndClasses());
+        request.setDependenciesMap(resolveProjectDependencies());
+        return request;
+    }
 
-    public boolean getDepFilterParam() {
+    /**
+     * Sends the inputs of the report to the JACT daemon, starting it if
+     * needed. The analysis and rendering run in the daemon. The report
+     * is generated in-process if the daemon is unavailable.
+     *
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    private void generateInDaemon() throws MojoExecutionException, MojoFailureException {
+        ReportRequest request = createReportRequest();
+        DaemonClient client = new DaemonClient(DaemonClient.stateFile(getLocalRepoPath(), this.pluginVersion));
+        Properties response;
+        try {
+            client.ensureRunning(getPluginClasspath(), this.daemonMaxHeap, Long.parseLong(this.daemonIdleTimeout));
+            response = client.generate(request);
+        } catch (IOException e) {
+            getLog().warn("JACT daemon unavailable (" + e.getMessage() + "), generating the report in-process.");
+            this.doExecute();
+            return;
+        }
+        String status = response.getProperty("status");
+        if ("unavailable".equals(status)) {
+            getLog().warn(response.getProperty("message") + " Generating the report in-process.");
+            this.doExecute();
+        } else if (!"ok".equals(status)) {
+            throw new MojoExecutionException("The JACT daemon failed to generate the report: "
+                    + response.getProperty("message"));
+        } else {
+            getLog().info("JACT: Report generated by the daemon in " + response.getProperty("durationMs")
+                    + " ms: " + response.getProperty("reportPath"));
+        }
+    }
+
+    /**
+     * Generates the report in local worker JVMs, each analyzing and
+     * rendering a shard of the dependencies, and merges the shards.
+     *
+     * @throws MojoExecutionException
+     */
+    private void generateInShards() throws MojoExecutionException {
+        ReportRequest request = createReportRequest();
+        ShardedReportGenerator generator = new ShardedReportGenerator(request, getClassAnalysisCache() != null,
+                Integer.parseInt(this.shards), getPluginClasspath(), this.shardMaxHeap);
+        try {
+            generator.generate();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error generating the sharded JACT report: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the classpath of the plugin, used to start the daemon and the shard workers.
+     *
+     * @return List<File>
+     * @throws MojoExecutionException
+     */
+    private List<File> getPluginClasspath() throws MojoExecutionException {
+        List<File> classpath = new ArrayList<>();
+        ClassLoader classLoader = getClass().getClassLoader();
+        if (!(classLoader instanceof URLClassLoader)) {
+            throw new MojoExecutionException("Cannot determine the classpath of the JACT plugin.");
+        }
+        try {
+            for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+                classpath.add(new File(url.toURI()));
+            }
+        } catch (URISyntaxException e) {
+            throw new MojoExecutionException("Cannot determine the classpath of the JACT plugin.", e);
+        }
+        return classpath;
+    }
+
+
+    /**
+     * Whether test-scope dependencies are left out of the report.
+     *
+     * @return boolean
+     */
+    public boolean getSkipTestDependencies() {
         return Boolean.parseBoolean(this.skipTestDependencies);
     }
 
+    /**
+     * Gets the cache of the dependency class analysis.
+     *
+     * @return ClassAnalysisCache, null if disabled
+     */
+    public ClassAnalysisCache getClassAnalysisCache() {
+        if (!Boolean.parseBoolean(this.cacheClassAnalysis)) {
+            return null;
+        }
+        return ClassAnalysisCache.forLocalRepository(getLocalRepoPath());
+    }
+
+    /**
+     * Gets the filter of the includes and excludes parameters.
+     *
+     * @return DependencyFilter
+     * @throws MojoExecutionException
+     */
+    public DependencyFilter getDependencyFilter() throws MojoExecutionException {
+        try {
+            return new DependencyFilter(this.includes, this.excludes);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
     public static String getJactReportPath() {
         return jactReportPath;
     }
 
+    /**
+     * Gets the directory the report of this goal is written to,
+     * inside the build directory of the project.
+     *
+     * @return String
+     */
+    protected String getReportDirectory() {
+        return new File(this.project.getBuild().getDirectory(), jactReportDirectory).getPath() + File.separator;
+    }
+
+    /**
+     * Gets the directory the report is generated in: the staging
+     * directory during the generation, the report directory otherwise.
+     *
+     * @return String
+     */
+    protected String getOutputDirectory() {
+        return this.outputDirectory != null ? this.outputDirectory : getReportDirectory();
+    }
+
     public String getLocalRepoPath() {
         return this.session.getLocalRepository().getBasedir();
     }
@@ -85,6 +653,10 @@ public abstract class AbstractReportMojo extends AbstractMojo {
         return this.project.getVersion();
     }
 
+    public boolean getUseLockfileProperty() {
+        return Boolean.parseBoolean(this.useLockfile);
+    }
+
     public boolean skipReportGeneration() {
         return Boolean.parseBoolean(this.skipJACT);
     }
@@ -93,6 +665,10 @@ public abstract class AbstractReportMojo extends AbstractMojo {
         return this.project;
     }
 
+    public MavenSession getSession() {
+        return this.session;
+    }
+
     public String getProjId() {
         return getProjectGroupId() + ":" + getProjectArtifactId() + ":" + getProjectVersion();
     }
@@ -101,6 +677,23 @@ public abstract class AbstractReportMojo extends AbstractMojo {
         return Boolean.parseBoolean(this.includeSummary);
     }
 
+    public DependencyHtmlDetail getDependencyHtmlDetail() {
+        return DependencyHtmlDetail.parse(this.dependencyHtmlDetail);
+    }
+
+    public OutputCompression getOutputCompression() {
+        return new OutputCompression(Boolean.parseBoolean(this.compressOutput),
+                Integer.parseInt(this.compressionLevel), Integer.parseInt(this.compressionBufferSize));
+    }
+
+    public ResourceStager getResourceStager() {
+        return ResourceStager.forPluginVersion(getLocalRepoPath(), this.pluginVersion);
+    }
+
+    public File getOutputJar() {
+        return new File(this.project.getBuild().getDirectory(), getOutputJarName() + ".jar");
+    }
+
     public String getOutputJarName() {
         if (shadedJarName == null) {
             shadedJarName = this.project.getBuild().getFinalName() + "-shaded";
@@ -108,32 +701,145 @@ public abstract class AbstractReportMojo extends AbstractMojo {
         return shadedJarName;
     }
 
-    public Map<String, Set<String>> getProjectPackagesAndClasses() {
-        if (packageClassMap.isEmpty()) {
-            collectClassNamesAndPackages();
+    /**
+     * Builds the report model shared by the report formats.
+     * The dependency graph, the project class scan and the indexing
+     * of the dependency jars run as concurrent stages. The coverage
+     * analysis and the package attribution run as a pipeline which
+     * starts attributing packages once the other stages are done.
+     *
+     * @return ReportModel
+     * @throws MojoExecutionException
+     */
+    public ReportModel buildReportModel() throws MojoExecutionException {
+        try (ReportStages stages = new ReportStages(getLog())) {
+            CompletableFuture<Map<String, ProjectDependency>> dependencyGraph =
+                    stages.start("dependency graph", this::resolveProjectDependencies);
+            CompletableFuture<Map<String, Set<String>>> projectClasses =
+                    stages.start("project class scan", () -> {
+                        Map<String, Set<String>> projectPackagesAndClasses = getProjectPackagesAndClasses();
+                        logProjectPackages(projectPackagesAndClasses);
+                        return projectPackagesAndClasses;
+                    });
+            // The jars of filtered dependencies are indexed to leave their packages out
+            CompletableFuture<Map<String, ProjectDependency>> filteredDependencies =
+                    dependencyGraph.thenApply(dependencies -> this.resolvedFilteredDependencies);
+            CompletableFuture<DependencyJarIndex> jarIndex = stages.then("jar indexing", dependencyGraph,
+                    dependencies -> {
+                        Map<String, ProjectDependency> indexed = new HashMap<>(dependencies);
+                        indexed.putAll(this.resolvedFilteredDependencies);
+                        return DependencyJarIndex.build(indexed, getLocalRepoPath());
+                    });
+
+            getLog().info("Analyzing the coverage of the Uber-jar.");
+            List<File> execFiles = resolveExecFiles();
+            if (execFiles.size() > 1) {
+                getLog().info("Merging " + execFiles.size() + " JaCoCo execution data files.");
+            }
+            long start = System.currentTimeMillis();
+            ReportModel reportModel;
+            try {
+                AttributionPipeline.Inputs inputs = new AttributionPipeline.Inputs(execFiles, getOutputJar(),
+                        dependencyGraph, projectClasses, jarIndex)
+                        .withFilter(getDependencyFilter(), filteredDependencies)
+                        .withAnalysisCache(getClassAnalysisCache());
+                reportModel = AttributionPipeline.createModel(inputs, getProjId(), getOutputDirectory());
+            } catch (IOException e) {
+                throw new MojoExecutionException("Error analyzing the JaCoCo coverage", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof MojoExecutionException) {
+                    throw (MojoExecutionException) e.getCause();
+                }
+                throw new MojoExecutionException("Error generating the JACT report", e.getCause());
+            }
+            getLog().info("Stage 'coverage analysis and package attribution' finished in "
+                    + (System.currentTimeMillis() - start) + " ms");
+            return reportModel;
         }
-        return packageClassMap;
     }
 
-    private void collectClassNamesAndPackages() {
-        String classesDirectory = this.getProject().getBuild().getOutputDirectory();
-        scanForClassesAndPackages(new File(classesDirectory), "");
+    private void logProjectPackages(Map<String, Set<String>> projectPackagesAndClasses) {
+        // Print out packages and their classes
+        getLog().info("Packages in project:");
+        for (Map.Entry<String, Set<String>> entry : projectPackagesAndClasses.entrySet()) {
+            getLog().info("- " + entry.getKey());
+            for (String className : entry.getValue()) {
+                getLog().info("  - " + className);
+            }
+        }
     }
 
-    private static void scanForClassesAndPackages(File directory, String parentPackage) {
-        for (File file : directory.listFiles()) {
-            if (file.isDirectory()) {
-                String currentPackage = parentPackage.isEmpty() ? file.getName() : parentPackage + "." + file.getName();
-                scanForClassesAndPackages(file, currentPackage);
-            } else if (file.getName().endsWith(".class")) {
-                // Extract package name from class file
-                String packageName = parentPackage.replace(File.separator, ".");
-                String className = file.getName().replace(".class", "");
+    /**
+     * Creates the project dependencies from the resolved dependency
+     * graph of the current build or, in compatibility mode, from
+     * a generated lockfile. The dependencies are resolved once
+     * per execution.
+     *
+     * @return Map<String, ProjectDependency>
+     * @throws MojoExecutionException
+     */
+    public Map<String, ProjectDependency> resolveProjectDependencies() throws MojoExecutionException {
+        if (this.resolvedDependencies == null) {
+            this.resolvedDependencies = createProjectDependencies();
+        }
+        return this.resolvedDependencies;
+    }
 
-                // Store class name in package map
-                packageClassMap.computeIfAbsent(packageName, k -> new HashSet<>()).add(className);
-            }
+    private Map<String, ProjectDependency> createProjectDependencies() throws MojoExecutionException {
+        if (getUseLockfileProperty()) {
+            getLog().info("Generating the dependency lockfile.");
+            return ProjectDependencies.getAllProjectDependencies(this.project.getBasedir(), getOutputDirectory(),
+                    true, getSkipTestDependencies(), getDependencyFilter(), this.resolvedFilteredDependencies);
+        }
+        Map<String, ProjectDependency> dependencies = ProjectDependencies.getAllProjectDependencies(
+                resolveDependencyGraph(this.project), getSkipTestDependencies(), getDependencyFilter(),
+                this.resolvedFilteredDependencies);
+        if (!this.resolvedFilteredDependencies.isEmpty()) {
+            getLog().info("Filtered dependencies: " + String.join(", ", this.resolvedFilteredDependencies.keySet()));
         }
+        return dependencies;
+    }
+
+    /**
+     * Collects the verbose dependency graph of a project of the current
+     * build. It keeps the dependencies omitted as duplicates (e.g. a
+     * dependency shared by several parents), like the lockfile does.
+     * The graph is collected, not resolved: the goals require the
+     * resolution of the dependencies, so Maven has downloaded their
+     * jars before the goal runs (for the modules of the aggregate
+     * report, when the modules were built).
+     *
+     * @param mavenProject
+     * @return DependencyNode
+     * @throws MojoExecutionException
+     */
+    protected DependencyNode resolveDependencyGraph(MavenProject mavenProject) throws MojoExecutionException {
+        ProjectBuildingRequest buildingRequest =
+                new DefaultProjectBuildingRequest(this.session.getProjectBuildingRequest());
+        buildingRequest.setProject(mavenProject);
+        try {
+            return this.dependencyCollectorBuilder.collectDependencyGraph(buildingRequest, null);
+        } catch (DependencyCollectorBuilderException e) {
+            throw new MojoExecutionException("Error resolving the dependencies of " + mavenProject.getId(), e);
+        }
+    }
+
+    public Map<String, Set<String>> getProjectPackagesAndClasses() {
+        if (this.projectPackagesAndClasses == null) {
+            this.projectPackagesAndClasses =
+                    scanProjectClasses(new File(this.getProject().getBuild().getOutputDirectory()));
+        }
+        return this.projectPackagesAndClasses;
+    }
+
+    /**
+     * Gets the classes of each package in a classes directory.
+     *
+     * @param classesDirectory
+     * @return Map<String, Set<String>>
+     */
+    protected static Map<String, Set<String>> scanProjectClasses(File classesDirectory) {
+        return scanClassesDirectory(classesDirectory);
     }
 
 }
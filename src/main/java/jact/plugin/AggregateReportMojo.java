@@ -0,0 +1,391 @@
+package jact.plugin;
+
+import jact.core.CoverageAnalysis;
+import jact.core.CoverageAnalyzer;
+import jact.core.ReportModel;
+import jact.core.ReportWriters;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependencies;
+import jact.depUtils.ProjectDependency;
+import jact.utils.InputFingerprints;
+import jact.utils.ResourceStager;
+import org.apache.maven.execution.BuildFailure;
+import org.apache.maven.execution.BuildSummary;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.internal.analysis.BundleCoverageImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.core.XmlAugmenter.generateXmlReport;
+import static jact.utils.FileSystemUtils.removeDirectory;
+
+
+/**
+ * JACT Aggregate Report:
+ * Generates one report for all modules of a reactor build, once
+ * all modules are built (in the last module, which waits for the
+ * other modules of a parallel build). The dependency graphs of the modules are
+ * merged into one deduplicated graph, every distinct artifact is indexed
+ * and analyzed once. Along with the combined report a view of each
+ * module (its classes and its dependencies) is written to `modules/`.
+ */
+@Mojo(name = "aggregate-report", defaultPhase = LifecyclePhase.INSTALL, threadSafe = true,
+        requiresDependencyResolution = ResolutionScope.TEST)
+public class AggregateReportMojo extends AbstractReportMojo {
+    private static final String aggregateReportDirectory = "jact-aggregate-report/";
+    private static final String modulesDirectory = "modules/";
+    private static final long awaitIntervalMillis = 500L;
+    // The dependency graph of each reported module, by module
+    private final Map<MavenProject, DependencyNode> moduleGraphs = new LinkedHashMap<>();
+
+    @Override
+    public boolean skipReportGeneration() {
+        if (super.skipReportGeneration()) {
+            return true;
+        }
+        List<MavenProject> projects = getSession().getProjects();
+        if (!projects.get(projects.size() - 1).equals(getProject())) {
+            getLog().info("The JACT aggregate report is generated after the last module of the reactor.");
+            return true;
+        }
+        MavenProject failedModule;
+        try {
+            failedModule = awaitOtherModules();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            getLog().warn("Interrupted waiting for the modules of the reactor, the aggregate report is skipped.");
+            return true;
+        }
+        if (failedModule != null) {
+            getLog().warn("The module " + failedModule.getArtifactId() + " failed, the aggregate report is skipped.");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Waits until the other modules of the reactor are built. In a parallel
+     * build (`-T`) the last module of the reactor can finish before the
+     * modules it does not depend on, whose classes and execution data
+     * are only complete once their build has finished.
+     *
+     * @return MavenProject the first failed module, null if all modules were built
+     * @throws InterruptedException
+     */
+    private MavenProject awaitOtherModules() throws InterruptedException {
+        boolean waiting = false;
+        while (true) {
+            int pending = 0;
+            for (MavenProject reactorProject : getSession().getProjects()) {
+                if (reactorProject.equals(getProject())) {
+                    continue;
+                }
+                BuildSummary summary = getSession().getResult().getBuildSummary(reactorProject);
+                if (summary instanceof BuildFailure) {
+                    return reactorProject;
+                } else if (summary == null) {
+                    pending++;
+                }
+            }
+            if (pending == 0) {
+                return null;
+            }
+            if (!waiting) {
+                getLog().info("Waiting for " + pending + " modules of the reactor to finish.");
+                waiting = true;
+            }
+            Thread.sleep(awaitIntervalMillis);
+        }
+    }
+
+    /**
+     * Gets the report directory inside the build
+     * directory of the top-level project.
+     *
+     * @return String
+     */
+    @Override
+    protected String getReportDirectory() {
+        return new File(getTopLevelProject().getBuild().getDirectory(), aggregateReportDirectory).getPath()
+                + File.separator;
+    }
+
+    @Override
+    protected void addInputFingerprints(InputFingerprints fingerprints) throws MojoExecutionException {
+        try {
+            for (File execFile : getExecFiles()) {
+                fingerprints.addFile("jacocoExec:" + execFile.getPath(), execFile);
+            }
+            for (MavenProject module : getModuleGraphs().keySet()) {
+                addClassFiles(fingerprints, "classes:" + module.getGroupId() + ":" + module.getArtifactId(),
+                        getClassesDirectory(module));
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error fingerprinting the report inputs", e);
+        }
+        for (Map.Entry<MavenProject, DependencyNode> module : getModuleGraphs().entrySet()) {
+            String moduleId = module.getKey().getGroupId() + ":" + module.getKey().getArtifactId();
+            List<String> dependencySet = new ArrayList<>();
+            collectDependencyIds(module.getValue(), dependencySet);
+            Collections.sort(dependencySet);
+            fingerprints.addValue("dependencies:" + moduleId, String.join(",", dependencySet));
+        }
+    }
+
+    @Override
+    public void doExecute() throws MojoExecutionException {
+
+        getLog().info("STARTING: JACT - Java Complete Coverage Tracker (aggregate report)");
+        if (!getDependencyFilter().isEmpty()) {
+            getLog().warn("includes/excludes are not supported by this goal, all dependencies are reported.");
+        }
+        Map<MavenProject, DependencyNode> graphs = getModuleGraphs();
+        getLog().info("Modules in the aggregate report: " + graphs.size());
+        Set<String> reactorIds = new HashSet<>();
+        for (MavenProject reactorProject : getSession().getProjects()) {
+            reactorIds.add(reactorProject.getGroupId() + ":" + reactorProject.getArtifactId() + ":"
+                    + reactorProject.getVersion());
+        }
+
+        ReportModel reportModel;
+        Map<MavenProject, Map<String, Set<String>>> modulePackages = new LinkedHashMap<>();
+        try (ReportStages stages = new ReportStages(getLog())) {
+            Map<String, ProjectDependency> dependencies = ProjectDependencies.getAllProjectDependencies(
+                    new ArrayList<>(graphs.values()), reactorIds, getSkipTestDependencies());
+            getLog().info("Distinct dependencies of all modules: " + dependencies.size());
+            CompletableFuture<DependencyJarIndex> jarIndex = stages.start("jar indexing",
+                    () -> DependencyJarIndex.build(dependencies, getLocalRepoPath()));
+            CompletableFuture<CoverageAnalysis> coverageAnalysis = stages.start("coverage analysis",
+                    () -> analyzeModules(graphs.keySet(), dependencies));
+            Map<String, Set<String>> projectPackages = new HashMap<>();
+            for (MavenProject module : graphs.keySet()) {
+                Map<String, Set<String>> packages = scanProjectClasses(getClassesDirectory(module));
+                modulePackages.put(module, packages);
+                for (Map.Entry<String, Set<String>> entry : packages.entrySet()) {
+                    projectPackages.computeIfAbsent(entry.getKey(), k -> new HashSet<>()).addAll(entry.getValue());
+                }
+            }
+            CoverageAnalysis analysis = ReportStages.join(coverageAnalysis);
+            DependencyJarIndex index = ReportStages.join(jarIndex);
+
+            long start = System.currentTimeMillis();
+            reportModel = ReportModel.create(analysis, dependencies, projectPackages, index,
+                    getTopLevelProjectId(), getOutputDirectory());
+            getLog().info("Stage 'package attribution' finished in " + (System.currentTimeMillis() - start) + " ms");
+
+            // The combined report and the module views are rendered concurrently
+            List<Runnable> reports = new ArrayList<>();
+            addReports("aggregate", reportModel, stages, reports);
+            removeStaleModuleViews(graphs.keySet());
+            for (Map.Entry<MavenProject, DependencyNode> module : graphs.entrySet()) {
+                ReportModel moduleModel = createModuleModel(reportModel, module.getKey(), module.getValue(),
+                        modulePackages.get(module.getKey()), reactorIds, index);
+                addReports(module.getKey().getArtifactId(), moduleModel, stages, reports);
+            }
+            try {
+                ReportWriters.writeAll(reports);
+            } catch (IOException | RuntimeException e) {
+                throw new MojoExecutionException("Error generating the JACT report", e);
+            }
+            getLog().info("JACT: Aggregate Report Successfully Generated!");
+        }
+    }
+
+    /**
+     * Adds the writers of the XML and HTML report of a model.
+     *
+     * @param name
+     * @param reportModel
+     * @param stages
+     * @param reports
+     */
+    private void addReports(String name, ReportModel reportModel, ReportStages stages, List<Runnable> reports) {
+        ResourceStager resourceStager = getResourceStager();
+        reports.add(stages.timed("XML report (" + name + ")",
+                () -> generateXmlReport(reportModel, getOutputCompression(), resourceStager)));
+        reports.add(stages.timed("HTML report (" + name + ")", () -> generateHtmlReport(reportModel,
+                getSummaryProperty(), resourceStager, getDependencyHtmlDetail())));
+    }
+
+    /**
+     * Creates the view of a single module from the aggregate report:
+     * the packages of the module and of its own dependencies, which
+     * were attributed and analyzed once for all modules.
+     *
+     * @param aggregateModel
+     * @param module
+     * @param graph
+     * @param packages
+     * @param reactorIds
+     * @param jarIndex
+     * @return ReportModel
+     */
+    private ReportModel createModuleModel(ReportModel aggregateModel, MavenProject module, DependencyNode graph,
+                                          Map<String, Set<String>> packages, Set<String> reactorIds,
+                                          DependencyJarIndex jarIndex) {
+        Map<String, ProjectDependency> dependencies = ProjectDependencies.getAllProjectDependencies(
+                Collections.singletonList(graph), reactorIds, getSkipTestDependencies());
+        Set<String> modulePackageNames = new HashSet<>();
+        for (ProjectDependency dependency : dependencies.values()) {
+            ProjectDependency aggregateDependency = aggregateModel.getDependenciesMap().get(dependency.getId());
+            if (aggregateDependency != null) {
+                for (IPackageCoverage packageCoverage : aggregateModel.getPackages(aggregateDependency)) {
+                    modulePackageNames.add(packageCoverage.getName());
+                }
+            }
+        }
+        CoverageAnalysis aggregateAnalysis = aggregateModel.getCoverageAnalysis();
+        List<IPackageCoverage> modulePackages = new ArrayList<>();
+        for (IPackageCoverage packageCoverage : aggregateAnalysis.getBundle().getPackages()) {
+            if (modulePackageNames.contains(packageCoverage.getName())
+                    || packages.containsKey(packageCoverage.getName().replace('/', '.'))) {
+                modulePackages.add(packageCoverage);
+            }
+        }
+        CoverageAnalysis moduleAnalysis = new CoverageAnalysis(
+                new BundleCoverageImpl(aggregateAnalysis.getBundle().getName(), modulePackages),
+                aggregateAnalysis.getSessionInfoStore(), aggregateAnalysis.getExecutionDataStore());
+        return ReportModel.create(moduleAnalysis, dependencies, packages, jarIndex,
+                module.getGroupId() + ":" + module.getArtifactId() + ":" + module.getVersion(),
+                getOutputDirectory() + modulesDirectory + module.getArtifactId() + "/");
+    }
+
+    /**
+     * Analyzes the classes of all modules and every distinct
+     * dependency jar once, using the execution data of all modules.
+     *
+     * @param modules
+     * @param dependencies
+     * @return CoverageAnalysis
+     * @throws MojoExecutionException
+     */
+    private CoverageAnalysis analyzeModules(Collection<MavenProject> modules,
+                                            Map<String, ProjectDependency> dependencies)
+            throws MojoExecutionException {
+        List<File> classLocations = new ArrayList<>();
+        for (MavenProject module : modules) {
+            classLocations.add(getClassesDirectory(module));
+        }
+        for (ProjectDependency dependency : dependencies.values()) {
+            classLocations.addAll(getAnalyzedJars(dependency));
+        }
+        List<File> execFiles = getExecFiles();
+        getLog().info("Analyzing " + classLocations.size() + " class locations with "
+                + execFiles.size() + " JaCoCo execution data files.");
+        try {
+            return CoverageAnalyzer.analyzeAll(execFiles, classLocations);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error analyzing the JaCoCo coverage", e);
+        }
+    }
+
+    /**
+     * Gets the jar of a dependency in the local repository, all
+     * jars of the dependency (except sources and javadoc) when
+     * it has a non-standard jar-name.
+     *
+     * @param dependency
+     * @return List<File>
+     */
+    private List<File> getAnalyzedJars(ProjectDependency dependency) {
+        File[] jars = DependencyJarIndex.getDependencyJars(dependency, getLocalRepoPath());
+        if (jars == null) {
+            return Collections.emptyList();
+        }
+        String jarName = dependency.getArtifactId() + "-" + dependency.getVersion() + ".jar";
+        List<File> analyzedJars = new ArrayList<>();
+        for (File jar : jars) {
+            if (jar.getName().equals(jarName)) {
+                return Collections.singletonList(jar);
+            }
+            if (!jar.getName().endsWith("-sources.jar") && !jar.getName().endsWith("-javadoc.jar")) {
+                analyzedJars.add(jar);
+            }
+        }
+        return analyzedJars;
+    }
+
+    /**
+     * Gets the exec files of all modules, resolved relative to
+     * the directory of each module.
+     *
+     * @return List<File>
+     * @throws MojoExecutionException
+     */
+    private List<File> getExecFiles() throws MojoExecutionException {
+        TreeSet<File> execFiles = new TreeSet<>();
+        for (MavenProject module : getModuleGraphs().keySet()) {
+            for (File execFile : resolveExecFiles(module.getBasedir())) {
+                if (execFile.isFile()) {
+                    execFiles.add(execFile);
+                }
+            }
+        }
+        return new ArrayList<>(execFiles);
+    }
+
+    /**
+     * Gets the dependency graph of every module with compiled
+     * classes, the graphs are resolved once per execution.
+     *
+     * @return Map<MavenProject, DependencyNode>
+     * @throws MojoExecutionException
+     */
+    private Map<MavenProject, DependencyNode> getModuleGraphs() throws MojoExecutionException {
+        if (this.moduleGraphs.isEmpty()) {
+            for (MavenProject module : getSession().getProjects()) {
+                if (getClassesDirectory(module).isDirectory()) {
+                    this.moduleGraphs.put(module, resolveDependencyGraph(module));
+                }
+            }
+        }
+        return this.moduleGraphs;
+    }
+
+    private void removeStaleModuleViews(Collection<MavenProject> modules) {
+        Set<String> moduleDirs = new HashSet<>();
+        for (MavenProject module : modules) {
+            moduleDirs.add(module.getArtifactId());
+        }
+        File[] files = new File(getOutputDirectory() + modulesDirectory).listFiles(File::isDirectory);
+        if (files != null) {
+            for (File directory : files) {
+                if (!moduleDirs.contains(directory.getName())) {
+                    removeDirectory(directory);
+                }
+            }
+        }
+    }
+
+    private MavenProject getTopLevelProject() {
+        MavenProject topLevelProject = getSession().getTopLevelProject();
+        return topLevelProject == null ? getProject() : topLevelProject;
+    }
+
+    private String getTopLevelProjectId() {
+        MavenProject topLevelProject = getTopLevelProject();
+        return topLevelProject.getGroupId() + ":" + topLevelProject.getArtifactId() + ":"
+                + topLevelProject.getVersion();
+    }
+
+    private static File getClassesDirectory(MavenProject module) {
+        return new File(module.getBuild().getOutputDirectory());
+    }
+
+    private static void collectDependencyIds(DependencyNode node, List<String> dependencyIds) {
+        for (DependencyNode child : node.getChildren()) {
+            dependencyIds.add(child.getArtifact().getId() + ":" + child.getArtifact().getScope());
+            collectDependencyIds(child, dependencyIds);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package jact.plugin;
+
+import jact.core.LiveCoverage;
+import jact.core.ReportModel;
+import jact.depUtils.DependencyFilter;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependencies;
+import jact.depUtils.ProjectDependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.jacoco.core.tools.ExecDumpClient;
+import org.jacoco.core.tools.ExecFileLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.core.XmlAugmenter.generateXmlReport;
+
+
+/**
+ * JACT Live Report:
+ * Generates the complete coverage report of a running application
+ * through a JaCoCo agent started with `output=tcpserver`. The execution
+ * data is dumped and reset periodically and merged in memory, the
+ * report is regenerated whenever classes were covered since the
+ * previous dump.
+ */
+@Mojo(name = "live-report", threadSafe = true,
+        requiresDependencyResolution = ResolutionScope.TEST)
+public class LiveReportMojo extends AbstractReportMojo {
+    private static final String liveReportDirectory = "jact-live-report/";
+
+    /**
+     * Address of the JaCoCo agent (`address` option of the agent).
+     */
+    @Parameter(property = "liveAddress", defaultValue = "localhost")
+    private String liveAddress;
+
+    /**
+     * Port of the JaCoCo agent (`port` option of the agent).
+     */
+    @Parameter(property = "livePort", defaultValue = "6300")
+    private String livePort;
+
+    /**
+     * Seconds between two dumps of the execution data.
+     */
+    @Parameter(property = "liveInterval", defaultValue = "60")
+    private String liveInterval;
+
+    /**
+     * Number of dumps before the goal finishes, 0 runs until the build is stopped.
+     */
+    @Parameter(property = "liveCycles", defaultValue = "0")
+    private String liveCycles;
+
+    @Override
+    public void doExecute() throws MojoExecutionException {
+
+        getLog().info("STARTING: JACT - Java Complete Coverage Tracker (live)");
+        if (!getDependencyFilter().isEmpty()) {
+            getLog().warn("includes/excludes are not supported by this goal, all dependencies are reported.");
+        }
+        getLog().info("JARNAME: " + getOutputJarName());
+
+        LiveCoverage liveCoverage;
+        try {
+            liveCoverage = LiveCoverage.analyze(getOutputJar());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error analyzing the Uber-jar", e);
+        }
+        DependencyNode dependencyGraph = getUseLockfileProperty() ? null : resolveDependencyGraph(getProject());
+        Map<String, Set<String>> projectPackagesAndClasses = getProjectPackagesAndClasses();
+        DependencyJarIndex jarIndex = null;
+
+        ExecDumpClient client = new ExecDumpClient() {
+            @Override
+            protected void onConnectionFailure(IOException exception) {
+                getLog().warn("Could not connect to the JaCoCo agent: " + exception.getMessage());
+            }
+        };
+        client.setDump(true);
+        client.setReset(true);
+        client.setRetryCount(3);
+        int cycles = Integer.parseInt(this.liveCycles);
+        long intervalMillis = Long.parseLong(this.liveInterval) * 1000L;
+        long nextDump = System.currentTimeMillis();
+        for (int cycle = 1; cycles <= 0 || cycle <= cycles; cycle++) {
+            if (!sleepUntil(nextDump)) {
+                break;
+            }
+            nextDump += intervalMillis;
+            int changedClasses;
+            try {
+                ExecFileLoader dump = client.dump(this.liveAddress, Integer.parseInt(this.livePort));
+                changedClasses = liveCoverage.merge(dump.getSessionInfoStore(), dump.getExecutionDataStore());
+            } catch (IOException e) {
+                throw new MojoExecutionException("Error dumping the execution data from "
+                        + this.liveAddress + ":" + this.livePort, e);
+            }
+            getLog().info("Live dump " + cycle + ": " + changedClasses + " classes with new coverage.");
+            if (changedClasses == 0 && cycle > 1) {
+                continue;
+            }
+            Map<String, ProjectDependency> dependencies = createDependencies(dependencyGraph, cycle == 1);
+            if (jarIndex == null) {
+                jarIndex = DependencyJarIndex.build(dependencies, getLocalRepoPath());
+            }
+            ReportModel reportModel = ReportModel.create(liveCoverage.getAnalysis(), dependencies,
+                    projectPackagesAndClasses, jarIndex, getProjId(), getReportDirectory());
+            renderReports(reportModel);
+            getLog().info("JACT: Live Report Updated: " + getReportDirectory());
+        }
+    }
+
+    /**
+     * Creates the dependencies of a report, every report
+     * attributes the usage to its own dependency objects.
+     * The includes/excludes are not applied by this goal.
+     *
+     * @param dependencyGraph
+     * @param generateLockfile
+     * @return Map<String, ProjectDependency>
+     */
+    private Map<String, ProjectDependency> createDependencies(DependencyNode dependencyGraph,
+                                                              boolean generateLockfile) {
+        if (dependencyGraph == null) {
+            return ProjectDependencies.getAllProjectDependencies(getProject().getBasedir(), getReportDirectory(),
+                    generateLockfile, getSkipTestDependencies(), DependencyFilter.NONE, null);
+        }
+        return ProjectDependencies.getAllProjectDependencies(dependencyGraph, getSkipTestDependencies(),
+                DependencyFilter.NONE, null);
+    }
+
+    private void renderReports(ReportModel reportModel) throws MojoExecutionException {
+        try (ReportStages stages = new ReportStages(getLog())) {
+            CompletableFuture<Void> xmlReport = stages.start("XML report", () -> {
+                generateXmlReport(reportModel, getOutputCompression(), getResourceStager());
+                return null;
+            });
+            CompletableFuture<Void> htmlReport = stages.start("HTML report", () -> {
+                generateHtmlReport(reportModel, getSummaryProperty(), getResourceStager(), getDependencyHtmlDetail());
+                return null;
+            });
+            ReportStages.join(CompletableFuture.allOf(xmlReport, htmlReport));
+        }
+    }
+
+    private static boolean sleepUntil(long time) {
+        long delay = time - System.currentTimeMillis();
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean checksUpToDate() {
+        return false;
+    }
+
+    @Override
+    protected boolean stagesReport() {
+        return false;
+    }
+
+    @Override
+    protected String getReportDirectory() {
+        return new File(getProject().getBuild().getDirectory(), liveReportDirectory).getPath() + File.separator;
+    }
+}
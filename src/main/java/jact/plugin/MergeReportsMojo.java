@@ -0,0 +1,62 @@
+package jact.plugin;
+
+import jact.core.ReportMerger;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * JACT Merge Reports:
+ * Merges the JACT reports produced independently for the same build,
+ * e.g. by the unit, integration and per-platform test jobs, into a
+ * combined XML and HTML report without the execution data.
+ */
+@Mojo(name = "merge-reports", threadSafe = true,
+        requiresDependencyResolution = ResolutionScope.TEST)
+public class MergeReportsMojo extends AbstractReportMojo {
+    private static final String mergedReportDirectory = "jact-merged-report/";
+
+    /**
+     * Comma separated JACT report directories (or their XML reports) to merge.
+     */
+    @Parameter(property = "reports", required = true)
+    private String reports;
+
+    @Override
+    public void doExecute() throws MojoExecutionException {
+        getLog().info("STARTING: JACT - Java Complete Coverage Tracker (merge)");
+        List<File> xmlReports = new ArrayList<>();
+        try {
+            for (String report : this.reports.split(",")) {
+                if (!report.trim().isEmpty()) {
+                    File reportFile = new File(report.trim());
+                    xmlReports.add(ReportMerger.findXmlReport(reportFile.isAbsolute() ? reportFile
+                            : new File(getProject().getBasedir(), report.trim())));
+                }
+            }
+            new ReportMerger(xmlReports, resolveProjectDependencies(), getProjId(), getOutputDirectory())
+                    .generate(true, true, getSummaryProperty(), getOutputCompression(), getDependencyHtmlDetail(),
+                            getResourceStager());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error merging the JACT reports: " + e.getMessage(), e);
+        }
+        getLog().info("JACT: Merged Report Successfully Generated: " + getReportDirectory());
+    }
+
+    @Override
+    protected boolean checksUpToDate() {
+        return false;
+    }
+
+    @Override
+    protected String getReportDirectory() {
+        return new File(getProject().getBuild().getDirectory(), mergedReportDirectory).getPath() + File.separator;
+    }
+}
@@ -0,0 +1,125 @@
+package jact.plugin;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the independent stages of the report generation
+ * concurrently and logs the duration of every stage.
+ * Stages are combined as a DAG of CompletableFutures
+ * which is only joined once all results are required.
+ */
+public class ReportStages implements AutoCloseable {
+    private static final int STAGE_THREADS = 4;
+    private final ExecutorService executor = Executors.newFixedThreadPool(STAGE_THREADS);
+    private final Log log;
+
+    /**
+     * A single stage of the report generation.
+     *
+     * @param <T> the stage result
+     */
+    @FunctionalInterface
+    public interface Stage<T> {
+        T run() throws MojoExecutionException;
+    }
+
+    /**
+     * A stage depending on the result of another stage.
+     *
+     * @param <P> the prerequisite result
+     * @param <T> the stage result
+     */
+    @FunctionalInterface
+    public interface DependentStage<P, T> {
+        T run(P prerequisite) throws MojoExecutionException;
+    }
+
+    public ReportStages(Log log) {
+        this.log = log;
+    }
+
+    /**
+     * Starts a stage without any prerequisites.
+     *
+     * @param name
+     * @param stage
+     * @return CompletableFuture<T>
+     */
+    public <T> CompletableFuture<T> start(String name, Stage<T> stage) {
+        return CompletableFuture.supplyAsync(() -> runTimed(name, stage), this.executor);
+    }
+
+    /**
+     * Starts a stage once the stage it depends on has finished.
+     *
+     * @param name
+     * @param prerequisite
+     * @param stage
+     * @return CompletableFuture<T>
+     */
+    public <P, T> CompletableFuture<T> then(String name, CompletableFuture<P> prerequisite,
+                                            DependentStage<P, T> stage) {
+        return prerequisite.thenApplyAsync(result -> runTimed(name, () -> stage.run(result)), this.executor);
+    }
+
+    /**
+     * Waits for a stage to finish, a failed stage
+     * is rethrown as a MojoExecutionException.
+     *
+     * @param future
+     * @return T
+     * @throws MojoExecutionException
+     */
+    public static <T> T join(CompletableFuture<T> future) throws MojoExecutionException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof MojoExecutionException) {
+                throw (MojoExecutionException) e.getCause();
+            }
+            throw new MojoExecutionException("Error generating the JACT report", e.getCause());
+        }
+    }
+
+    /**
+     * Wraps a task run outside of the stage executor (e.g. a report
+     * writer) to log its duration like a stage.
+     *
+     * @param name
+     * @param task
+     * @return Runnable
+     */
+    public Runnable timed(String name, Runnable task) {
+        return () -> {
+            long start = System.currentTimeMillis();
+            task.run();
+            logDuration(name, start);
+        };
+    }
+
+    private <T> T runTimed(String name, Stage<T> stage) {
+        long start = System.currentTimeMillis();
+        try {
+            T result = stage.run();
+            logDuration(name, start);
+            return result;
+        } catch (MojoExecutionException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void logDuration(String name, long start) {
+        this.log.info("Stage '" + name + "' finished in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdown();
+    }
+}
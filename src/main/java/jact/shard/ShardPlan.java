@@ -0,0 +1,179 @@
+package jact.shard;
+
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependency;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The part of a report generated by one shard: the dependencies whose
+ * packages it analyzes and renders and the package directories of the
+ * Uber-jar it analyzes. The dependencies are partitioned by the number
+ * of their classes in the Uber-jar. Dependencies containing the same
+ * package (split packages) are kept in the same shard, so that every
+ * package is attributed within one shard as in a single report. The
+ * project and the unmatched packages belong to the primary shard.
+ */
+public class ShardPlan {
+    private final int index;
+    private final Set<String> dependencyIds = new TreeSet<>();
+    private final Set<String> packageNames = new HashSet<>();
+    private long classes = 0L;
+
+    ShardPlan(int index) {
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public boolean isPrimary() {
+        return this.index == 0;
+    }
+
+    public Set<String> getDependencyIds() {
+        return this.dependencyIds;
+    }
+
+    public Set<String> getPackageNames() {
+        return this.packageNames;
+    }
+
+    public long getClasses() {
+        return this.classes;
+    }
+
+    /**
+     * Partitions the dependencies into at most the given number of
+     * shards. Groups of dependencies sharing packages are assigned,
+     * largest first, to the shard with the fewest classes. Shards
+     * without any dependencies are left out.
+     *
+     * @param classFiles the Uber-jar
+     * @param dependenciesMap
+     * @param projPackagesAndClassMap
+     * @param jarIndex
+     * @param shardCount
+     * @return List<ShardPlan>, the primary shard first
+     * @throws IOException
+     */
+    public static List<ShardPlan> create(File classFiles, Map<String, ProjectDependency> dependenciesMap,
+                                         Map<String, Set<String>> projPackagesAndClassMap,
+                                         DependencyJarIndex jarIndex, int shardCount) throws IOException {
+        List<ShardPlan> shards = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, shardCount); i++) {
+            shards.add(new ShardPlan(i));
+        }
+        ShardPlan primary = shards.get(0);
+        // Groups of dependencies sharing packages, by the id of their first dependency
+        Map<String, String> groupIds = new HashMap<>();
+        for (String dependencyId : dependenciesMap.keySet()) {
+            groupIds.put(dependencyId, dependencyId);
+        }
+        Map<String, List<String>> packageDependencies = new HashMap<>();
+        Map<String, Integer> packageClasses = readPackageClasses(classFiles);
+        for (Map.Entry<String, Integer> entry : packageClasses.entrySet()) {
+            String packageName = entry.getKey();
+            List<String> candidates = new ArrayList<>();
+            if (!projPackagesAndClassMap.containsKey(packageName)) {
+                for (ProjectDependency dependency : dependenciesMap.values()) {
+                    if (jarIndex.containsPackage(dependency, packageName)) {
+                        candidates.add(dependency.getId());
+                    }
+                }
+            }
+            if (candidates.isEmpty()) {
+                primary.packageNames.add(packageName);
+                primary.classes += entry.getValue();
+                continue;
+            }
+            for (String candidate : candidates.subList(1, candidates.size())) {
+                union(groupIds, candidates.get(0), candidate);
+            }
+            packageDependencies.put(packageName, candidates);
+        }
+
+        Map<String, DependencyGroup> groups = new TreeMap<>();
+        for (String dependencyId : dependenciesMap.keySet()) {
+            groups.computeIfAbsent(find(groupIds, dependencyId), k -> new DependencyGroup())
+                    .dependencyIds.add(dependencyId);
+        }
+        for (Map.Entry<String, List<String>> entry : packageDependencies.entrySet()) {
+            DependencyGroup group = groups.get(find(groupIds, entry.getValue().get(0)));
+            group.packageNames.add(entry.getKey());
+            group.classes += packageClasses.get(entry.getKey());
+        }
+        List<DependencyGroup> sortedGroups = new ArrayList<>(groups.values());
+        // Stable for equal sizes, the groups are ordered by id
+        sortedGroups.sort((a, b) -> Long.compare(b.classes, a.classes));
+        for (DependencyGroup group : sortedGroups) {
+            ShardPlan smallest = shards.get(0);
+            for (ShardPlan shard : shards) {
+                if (shard.classes < smallest.classes) {
+                    smallest = shard;
+                }
+            }
+            smallest.dependencyIds.addAll(group.dependencyIds);
+            smallest.packageNames.addAll(group.packageNames);
+            smallest.classes += group.classes;
+        }
+        shards.removeIf(shard -> !shard.isPrimary() && shard.dependencyIds.isEmpty());
+        return shards;
+    }
+
+    private static class DependencyGroup {
+        private final Set<String> dependencyIds = new TreeSet<>();
+        private final Set<String> packageNames = new HashSet<>();
+        private long classes = 0L;
+    }
+
+    /**
+     * Counts the class entries of each package directory of the Uber-jar.
+     *
+     * @param classFiles
+     * @return Map<String, Integer>
+     * @throws IOException
+     */
+    private static Map<String, Integer> readPackageClasses(File classFiles) throws IOException {
+        Map<String, Integer> packageClasses = new HashMap<>();
+        try (ZipFile zipFile = new ZipFile(classFiles)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.endsWith(".class")) {
+                    int separator = name.lastIndexOf('/');
+                    String packageName = separator < 0 ? "" : name.substring(0, separator).replace('/', '.');
+                    packageClasses.merge(packageName, 1, Integer::sum);
+                }
+            }
+        }
+        return packageClasses;
+    }
+
+    private static String find(Map<String, String> groupIds, String dependencyId) {
+        String groupId = groupIds.get(dependencyId);
+        if (!groupId.equals(dependencyId)) {
+            groupId = find(groupIds, groupId);
+            groupIds.put(dependencyId, groupId);
+        }
+        return groupId;
+    }
+
+    private static void union(Map<String, String> groupIds, String first, String second) {
+        String firstGroup = find(groupIds, first);
+        String secondGroup = find(groupIds, second);
+        if (!firstGroup.equals(secondGroup)) {
+            // The smaller id identifies the group
+            if (firstGroup.compareTo(secondGroup) < 0) {
+                groupIds.put(secondGroup, firstGroup);
+            } else {
+                groupIds.put(firstGroup, secondGroup);
+            }
+        }
+    }
+}
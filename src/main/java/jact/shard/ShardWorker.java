@@ -0,0 +1,213 @@
+package jact.shard;
+
+import jact.core.AttributionPipeline;
+import jact.core.ClassAnalysisCache;
+import jact.core.PackageSummaryCoverage;
+import jact.core.ReportModel;
+import jact.core.ReportWriters;
+import jact.daemon.ReportRequest;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.DependencyUsage;
+import jact.depUtils.ProjectDependency;
+import jact.utils.ResourceStager;
+import org.jacoco.core.analysis.IPackageCoverage;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.core.XmlAugmenter.generateXmlReport;
+
+/**
+ * Generates the report of one shard in its own JVM: only the packages of
+ * the shard are analyzed, attributed and rendered. Besides the XML and
+ * HTML reports of the shard, the worker writes the usage and the owner
+ * of each of its packages (`jact-shard.properties`), from which the
+ * overview pages of the complete report are assembled.
+ */
+public class ShardWorker {
+    static final String SUMMARY_FILE = "jact-shard.properties";
+    private static final String PROJECT_OWNER = "project";
+
+    private ShardWorker() {
+    }
+
+    /**
+     * Generates a shard: ShardWorker <shard request file>
+     *
+     * @param args
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: ShardWorker <shard request file>");
+            System.exit(1);
+        }
+        try {
+            generate(readProperties(new File(args[0])));
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(2);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Generates the report of the shard of a request.
+     *
+     * @param properties the report request and the shard plan
+     * @throws Exception
+     */
+    static void generate(Properties properties) throws Exception {
+        long start = System.currentTimeMillis();
+        ReportRequest request = ReportRequest.fromProperties(properties);
+        boolean primary = Boolean.parseBoolean(properties.getProperty("shard.primary"));
+        Set<String> packageNames = new HashSet<>(split(properties.getProperty("shard.packages", "")));
+        ClassAnalysisCache analysisCache = Boolean.parseBoolean(properties.getProperty("shard.analysisCache"))
+                ? ClassAnalysisCache.forLocalRepository(request.getLocalRepoPath()) : null;
+
+        // All dependencies are indexed, the packages are attributed as in a single report
+        DependencyJarIndex jarIndex = DependencyJarIndex.build(request.getDependenciesMap(),
+                request.getLocalRepoPath());
+        AttributionPipeline.PackageSelector packageSelector = new AttributionPipeline.PackageSelector() {
+            @Override
+            public boolean analyzes(String packageName) {
+                return packageNames.contains(packageName);
+            }
+
+            @Override
+            public boolean reports(String packageName, ProjectDependency owner) {
+                // Packages without classes are analyzed by every shard, but only reported once
+                return primary || packageNames.contains(packageName);
+            }
+        };
+        AttributionPipeline.Inputs inputs = new AttributionPipeline.Inputs(request.getExecFiles(),
+                request.getClassFiles(), CompletableFuture.completedFuture(request.getDependenciesMap()),
+                CompletableFuture.completedFuture(request.getProjectPackagesAndClasses()),
+                CompletableFuture.completedFuture(jarIndex))
+                .withAnalysisCache(analysisCache)
+                .withPackageSelector(packageSelector);
+        ReportModel reportModel = AttributionPipeline.createModel(inputs, request.getProjectId(),
+                request.getReportPath());
+
+        ResourceStager resourceStager = ResourceStager.forPluginVersion(request.getLocalRepoPath(),
+                request.getPluginVersion());
+        List<Runnable> reports = new ArrayList<>();
+        if (request.getFormats().contains(ReportRequest.XML)) {
+            reports.add(() -> generateXmlReport(reportModel, request.getOutputCompression(), resourceStager));
+        }
+        if (request.getFormats().contains(ReportRequest.HTML)) {
+            reports.add(() -> generateHtmlReport(reportModel, false, resourceStager,
+                    request.getDependencyHtmlDetail()));
+        }
+        ReportWriters.writeAll(reports);
+        writeSummary(reportModel, new File(request.getReportPath(), SUMMARY_FILE));
+        System.out.println("JACT: Shard " + properties.getProperty("shard.index") + " generated in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Writes the owner and usage of every analyzed package of the shard.
+     *
+     * @param reportModel
+     * @param summaryFile
+     * @throws IOException
+     */
+    static void writeSummary(ReportModel reportModel, File summaryFile) throws IOException {
+        Map<String, String> owners = new HashMap<>();
+        for (IPackageCoverage packageCoverage : reportModel.getPackages(reportModel.getThisProject())) {
+            owners.put(packageCoverage.getName(), PROJECT_OWNER);
+        }
+        for (ProjectDependency dependency : reportModel.getDependenciesMap().values()) {
+            for (IPackageCoverage packageCoverage : reportModel.getPackages(dependency)) {
+                owners.put(packageCoverage.getName(), dependency.getId());
+            }
+        }
+        Properties summary = new Properties();
+        int index = 0;
+        for (IPackageCoverage packageCoverage : reportModel.getCoverageAnalysis().getBundle().getPackages()) {
+            String prefix = "package." + index++ + ".";
+            summary.setProperty(prefix + "name", packageCoverage.getName());
+            // Unmatched packages and packages without code have no owner
+            summary.setProperty(prefix + "owner", owners.getOrDefault(packageCoverage.getName(), ""));
+            summary.setProperty(prefix + "usage", usageToString(DependencyUsage.fromCoverageNode(packageCoverage)));
+        }
+        summary.setProperty("packages", String.valueOf(index));
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(summaryFile), "UTF-8")) {
+            summary.store(writer, "JACT shard");
+        }
+    }
+
+    /**
+     * Reads the packages written by a shard.
+     *
+     * @param summaryFile
+     * @param renderedReportPath the report directory of the shard
+     * @return List<ReportModel.RenderedPackage>
+     * @throws IOException
+     */
+    static List<ReportModel.RenderedPackage> readSummary(File summaryFile, String renderedReportPath)
+            throws IOException {
+        Properties summary = readProperties(summaryFile);
+        List<ReportModel.RenderedPackage> packages = new ArrayList<>();
+        int count = Integer.parseInt(summary.getProperty("packages", "0"));
+        for (int i = 0; i < count; i++) {
+            String prefix = "package." + i + ".";
+            String owner = summary.getProperty(prefix + "owner");
+            boolean project = PROJECT_OWNER.equals(owner);
+            packages.add(new ReportModel.RenderedPackage(
+                    new PackageSummaryCoverage(summary.getProperty(prefix + "name"),
+                            usageFromString(summary.getProperty(prefix + "usage"))),
+                    project, project || owner.isEmpty() ? null : owner, renderedReportPath));
+        }
+        return packages;
+    }
+
+    private static String usageToString(DependencyUsage usage) {
+        return usage.getMissedInstructions() + "," + usage.getTotalInstructions() + ","
+                + usage.getMissedBranches() + "," + usage.getTotalBranches() + ","
+                + usage.getMissedLines() + "," + usage.getTotalLines() + ","
+                + usage.getMissedCyclomaticComplexity() + "," + usage.getCyclomaticComplexity() + ","
+                + usage.getMissedMethods() + "," + usage.getTotalMethods() + ","
+                + usage.getMissedClasses() + "," + usage.getTotalClasses();
+    }
+
+    private static DependencyUsage usageFromString(String value) throws IOException {
+        String[] counters = value.split(",");
+        if (counters.length != 12) {
+            throw new IOException("Invalid package usage: " + value);
+        }
+        DependencyUsage usage = new DependencyUsage();
+        usage.addMissedInstructions(Long.parseLong(counters[0]));
+        usage.addTotalInstructions(Long.parseLong(counters[1]));
+        usage.addMissedBranches(Long.parseLong(counters[2]));
+        usage.addTotalBranches(Long.parseLong(counters[3]));
+        usage.addMissedLines(Long.parseLong(counters[4]));
+        usage.addTotalLines(Long.parseLong(counters[5]));
+        usage.addMissedCyclomaticComplexity(Long.parseLong(counters[6]));
+        usage.addCyclomaticComplexity(Long.parseLong(counters[7]));
+        usage.addMissedMethods(Long.parseLong(counters[8]));
+        usage.addTotalMethods(Long.parseLong(counters[9]));
+        usage.addMissedClasses(Long.parseLong(counters[10]));
+        usage.addTotalClasses(Long.parseLong(counters[11]));
+        return usage;
+    }
+
+    static Properties readProperties(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8")) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    static List<String> split(String value) {
+        List<String> values = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isEmpty()) {
+                values.add(part);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,212 @@
+package jact.shard;
+
+import jact.core.CoverageAnalysis;
+import jact.core.CoverageAnalyzer;
+import jact.core.ReportModel;
+import jact.core.ReportWriters;
+import jact.daemon.ReportRequest;
+import jact.depUtils.DependencyJarIndex;
+import jact.utils.OutputCompression;
+import jact.utils.ResourceStager;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.internal.analysis.BundleCoverageImpl;
+import org.jacoco.core.tools.ExecFileLoader;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.core.XmlAugmenter.generateXmlReport;
+import static jact.utils.FileSystemUtils.removeDirectory;
+
+/**
+ * Generates a report in several local worker JVMs. The dependencies are
+ * partitioned into shards ({@link ShardPlan}), each shard is analyzed,
+ * attributed and rendered by a {@link ShardWorker} into its own report
+ * directory. The merge assembles the overview totals, the indirect usage
+ * and the index pages from the package summaries of the shards and moves
+ * the rendered package pages into the report. The shards are generated
+ * next to the report, in the `<report directory>-shards` directory.
+ */
+public class ShardedReportGenerator {
+    private static final String SESSIONS_PAGE = "jacoco-sessions.html";
+    private final ReportRequest request;
+    private final boolean analysisCache;
+    private final int shardCount;
+    private final List<File> classpath;
+    private final String maxHeap;
+
+    /**
+     * @param request the report to generate
+     * @param analysisCache whether the workers use the class analysis cache
+     * @param shardCount the maximum number of worker JVMs
+     * @param classpath the classpath of JACT, used to start the workers
+     * @param maxHeap the maximum heap size of each worker, e.g. 1g
+     */
+    public ShardedReportGenerator(ReportRequest request, boolean analysisCache, int shardCount,
+                                  List<File> classpath, String maxHeap) {
+        this.request = request;
+        this.analysisCache = analysisCache;
+        this.shardCount = shardCount;
+        this.classpath = classpath;
+        this.maxHeap = maxHeap;
+    }
+
+    /**
+     * Generates the shards in parallel worker processes and merges them.
+     *
+     * @throws IOException if a shard failed
+     */
+    public void generate() throws IOException {
+        DependencyJarIndex jarIndex = DependencyJarIndex.build(this.request.getDependenciesMap(),
+                this.request.getLocalRepoPath());
+        List<ShardPlan> shards = ShardPlan.create(this.request.getClassFiles(), this.request.getDependenciesMap(),
+                this.request.getProjectPackagesAndClasses(), jarIndex, this.shardCount);
+        for (ShardPlan shard : shards) {
+            System.out.println("JACT: Shard " + shard.getIndex() + ": " + shard.getDependencyIds().size()
+                    + " dependencies, " + shard.getPackageNames().size() + " packages, "
+                    + shard.getClasses() + " classes");
+        }
+
+        File reportDir = new File(this.request.getReportPath()).getAbsoluteFile();
+        File shardsDir = new File(reportDir.getParentFile(), reportDir.getName() + "-shards");
+        removeDirectory(shardsDir);
+        if (!shardsDir.mkdirs()) {
+            throw new IOException("Could not create the shard directory: " + shardsDir);
+        }
+        runWorkers(shards, shardsDir);
+        merge(shards, shardsDir);
+        removeDirectory(shardsDir);
+    }
+
+    /**
+     * Starts a worker for each shard and waits for all of them. The
+     * processors of the machine are divided between the workers.
+     *
+     * @param shards
+     * @param shardsDir
+     * @throws IOException
+     */
+    private void runWorkers(List<ShardPlan> shards, File shardsDir) throws IOException {
+        int processors = Math.max(1, Runtime.getRuntime().availableProcessors() / shards.size());
+        List<Process> processes = new ArrayList<>();
+        try {
+            for (ShardPlan shard : shards) {
+                File requestFile = new File(shardsDir, "shard-" + shard.getIndex() + ".properties");
+                writeShardRequest(shard, shardReportPath(shardsDir, shard), requestFile);
+                processes.add(startWorker(requestFile, processors,
+                        new File(shardsDir, "shard-" + shard.getIndex() + ".log")));
+            }
+            for (int i = 0; i < processes.size(); i++) {
+                int exitCode = processes.get(i).waitFor();
+                if (exitCode != 0) {
+                    throw new IOException("JACT shard " + shards.get(i).getIndex() + " failed (exit code "
+                            + exitCode + "), see " + new File(shardsDir, "shard-" + shards.get(i).getIndex() + ".log"));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the JACT shards.", e);
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    private void writeShardRequest(ShardPlan shard, String shardReportPath, File requestFile) throws IOException {
+        Properties properties = this.request.toProperties();
+        properties.setProperty("reportPath", shardReportPath);
+        // The shard reports are only read by the merge
+        properties.setProperty("includeSummary", "false");
+        properties.setProperty("compressOutput", "false");
+        properties.setProperty("shard.index", String.valueOf(shard.getIndex()));
+        properties.setProperty("shard.primary", String.valueOf(shard.isPrimary()));
+        properties.setProperty("shard.packages", String.join(",", shard.getPackageNames()));
+        properties.setProperty("shard.analysisCache", String.valueOf(this.analysisCache));
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(requestFile), "UTF-8")) {
+            properties.store(writer, "JACT shard request");
+        }
+    }
+
+    private Process startWorker(File requestFile, int processors, File logFile) throws IOException {
+        List<String> paths = new ArrayList<>();
+        for (File file : this.classpath) {
+            paths.add(file.getAbsolutePath());
+        }
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-Xmx" + this.maxHeap);
+        command.add("-XX:ActiveProcessorCount=" + processors);
+        command.add("-cp");
+        command.add(String.join(File.pathSeparator, paths));
+        command.add(ShardWorker.class.getName());
+        command.add(requestFile.getAbsolutePath());
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectErrorStream(true);
+        processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(logFile));
+        processBuilder.redirectInput(ProcessBuilder.Redirect.from(new File(System.getProperty("os.name")
+                .startsWith("Windows") ? "NUL" : "/dev/null")));
+        return processBuilder.start();
+    }
+
+    /**
+     * Assembles the report from the package summaries of the shards.
+     * The XML packages are streamed from the XML reports of the shards,
+     * the HTML package pages are moved from the HTML reports.
+     *
+     * @param shards
+     * @param shardsDir
+     * @throws IOException
+     */
+    private void merge(List<ShardPlan> shards, File shardsDir) throws IOException {
+        long start = System.currentTimeMillis();
+        List<ReportModel.RenderedPackage> renderedPackages = new ArrayList<>();
+        List<File> shardXmlReports = new ArrayList<>();
+        for (ShardPlan shard : shards) {
+            String shardReportPath = shardReportPath(shardsDir, shard);
+            renderedPackages.addAll(ShardWorker.readSummary(new File(shardReportPath, ShardWorker.SUMMARY_FILE),
+                    shardReportPath));
+            shardXmlReports.add(new File(shardReportPath, "jact_report.xml"));
+        }
+        // The packages are ordered by name as in a single report
+        renderedPackages.sort(Comparator.comparing(renderedPackage -> renderedPackage.getPackageCoverage().getName()));
+        List<IPackageCoverage> packages = new ArrayList<>();
+        for (ReportModel.RenderedPackage renderedPackage : renderedPackages) {
+            packages.add(renderedPackage.getPackageCoverage());
+        }
+        ExecFileLoader loader = CoverageAnalyzer.loadExecFiles(this.request.getExecFiles());
+        CoverageAnalysis coverageAnalysis = new CoverageAnalysis(
+                new BundleCoverageImpl(CoverageAnalyzer.BUNDLE_NAME, packages),
+                loader.getSessionInfoStore(), loader.getExecutionDataStore());
+        ReportModel reportModel = ReportModel.assemble(coverageAnalysis, this.request.getDependenciesMap(),
+                renderedPackages, Collections.emptyMap(), this.request.getProjectId(), this.request.getReportPath());
+
+        ResourceStager resourceStager = ResourceStager.forPluginVersion(this.request.getLocalRepoPath(),
+                this.request.getPluginVersion());
+        OutputCompression compression = this.request.getOutputCompression();
+        List<Runnable> reports = new ArrayList<>();
+        if (this.request.getFormats().contains(ReportRequest.XML)) {
+            reports.add(() -> generateXmlReport(reportModel, shardXmlReports, compression, resourceStager));
+        }
+        if (this.request.getFormats().contains(ReportRequest.HTML)) {
+            reports.add(() -> generateHtmlReport(reportModel, this.request.getIncludeSummary(), resourceStager,
+                    this.request.getDependencyHtmlDetail()));
+        }
+        ReportWriters.writeAll(reports);
+        if (this.request.getFormats().contains(ReportRequest.HTML)) {
+            // The merged bundle has no classes, the executed classes are linked on the sessions page of the primary shard
+            Files.copy(Paths.get(shardReportPath(shardsDir, shards.get(0)), SESSIONS_PAGE),
+                    Paths.get(this.request.getReportPath(), SESSIONS_PAGE), StandardCopyOption.REPLACE_EXISTING);
+        }
+        System.out.println("JACT: " + shards.size() + " shards merged in " + (System.currentTimeMillis() - start)
+                + " ms");
+    }
+
+    private static String shardReportPath(File shardsDir, ShardPlan shard) {
+        return new File(shardsDir, "shard-" + shard.getIndex()).getPath() + File.separator;
+    }
+}
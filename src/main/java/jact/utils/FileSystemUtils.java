@@ -2,13 +2,14 @@ package jact.utils;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Utilities for creating/removing and moving directories.
+ * Utilities for creating/removing and moving directories
+ * and for scanning classes directories.
  */
 public class FileSystemUtils {
     public static void copyDirectory(File sourceDir, File destDir) {
@@ -33,6 +34,76 @@ public class FileSystemUtils {
         }
     }
 
+    /**
+     * Links all files of a directory tree into the destination
+     * directory, falling back to copies when hardlinks are not
+     * supported (e.g. across file systems). Linked files share
+     * their content, they must be replaced and never be rewritten.
+     *
+     * @param sourceDir
+     * @param destDir
+     * @throws IOException
+     */
+    public static void linkDirectory(File sourceDir, File destDir) throws IOException {
+        AtomicBoolean linking = new AtomicBoolean(true);
+        transferDirectory(sourceDir.toPath(), destDir.toPath(), (source, target) -> {
+            if (linking.get()) {
+                try {
+                    Files.createLink(target, source);
+                    return;
+                } catch (IOException | UnsupportedOperationException e) {
+                    linking.set(false);
+                }
+            }
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        });
+    }
+
+    /**
+     * Copies a directory tree into the destination directory,
+     * each file is written sequentially.
+     *
+     * @param sourceDir
+     * @param destDir
+     * @throws IOException
+     */
+    public static void copyDirectoryTree(File sourceDir, File destDir) throws IOException {
+        transferDirectory(sourceDir.toPath(), destDir.toPath(),
+                (source, target) -> Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING));
+    }
+
+    private interface FileTransfer {
+        void transfer(Path source, Path target) throws IOException;
+    }
+
+    /**
+     * Creates the directories of the tree while walking it, the
+     * files are then transferred concurrently on the I/O executor.
+     *
+     * @param sourceDir
+     * @param destDir
+     * @param fileTransfer
+     * @throws IOException
+     */
+    private static void transferDirectory(Path sourceDir, Path destDir, FileTransfer fileTransfer) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(sourceDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(destDir.resolve(sourceDir.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        IoExecutors.forEach(files, file -> fileTransfer.transfer(file,
+                destDir.resolve(sourceDir.relativize(file).toString())));
+    }
+
     public static void removeFile(String filePath) {
         File file = new File(filePath);
 
@@ -84,14 +155,10 @@ public class FileSystemUtils {
         System.out.println("Report directory already present.");
     }
 
-    public static void moveDirectory(File sourceDir, String destDirName) {
+    public static void moveDirectory(File sourceDir, String destDirName) throws IOException {
         Path sourcePath = sourceDir.toPath();
         Path destPath = Paths.get(destDirName).resolve(sourcePath.getFileName());
-        try {
-            Files.move(sourcePath, destPath);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Files.move(sourcePath, destPath);
     }
 
     public static String renameFile(String originalFilePath, String newFileName) throws RuntimeException {
@@ -108,4 +175,37 @@ public class FileSystemUtils {
             throw new RuntimeException("File doesn't exist.");
         }
     }
+
+    /**
+     * Gets the classes of each package in a classes directory.
+     *
+     * @param classesDirectory
+     * @return Map<String, Set<String>>
+     */
+    public static Map<String, Set<String>> scanClassesDirectory(File classesDirectory) {
+        Map<String, Set<String>> packagesAndClasses = new HashMap<>();
+        scanForClassesAndPackages(classesDirectory, "", packagesAndClasses);
+        return packagesAndClasses;
+    }
+
+    private static void scanForClassesAndPackages(File directory, String parentPackage,
+                                                  Map<String, Set<String>> packagesAndClasses) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                String currentPackage = parentPackage.isEmpty() ? file.getName() : parentPackage + "." + file.getName();
+                scanForClassesAndPackages(file, currentPackage, packagesAndClasses);
+            } else if (file.getName().endsWith(".class")) {
+                // Extract package name from class file
+                String packageName = parentPackage.replace(File.separator, ".");
+                String className = file.getName().replace(".class", "");
+
+                // Store class name in package map
+                packagesAndClasses.computeIfAbsent(packageName, k -> new HashSet<>()).add(className);
+            }
+        }
+    }
 }
@@ -0,0 +1,255 @@
+package jact.utils;
+
+import java.io.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Fingerprints of the inputs of a report generation, stored in a
+ * small state file for detecting if a report is up-to-date.
+ * Files are fingerprinted by size and modification time first,
+ * their content is only hashed when either of those differ from
+ * the previous fingerprint.
+ */
+public class InputFingerprints {
+    private static final String SIZE_SUFFIX = ".size";
+    private static final String MTIME_SUFFIX = ".mtime";
+    private static final String HASH_SUFFIX = ".sha256";
+    private static final String MISSING = "missing";
+    private final File stateFile;
+    private final Properties previous = new Properties();
+    private final Properties current = new Properties();
+
+    private InputFingerprints(File stateFile) {
+        this.stateFile = stateFile;
+    }
+
+    /**
+     * Loads the fingerprints of the previous generation,
+     * a missing or unreadable state file has no fingerprints.
+     *
+     * @param stateFile
+     * @return InputFingerprints
+     */
+    public static InputFingerprints load(File stateFile) {
+        InputFingerprints fingerprints = new InputFingerprints(stateFile);
+        if (stateFile.exists()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(stateFile), "UTF-8")) {
+                fingerprints.previous.load(reader);
+            } catch (IOException e) {
+                fingerprints.previous.clear();
+            }
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Adds an input value (e.g. a parameter).
+     *
+     * @param key
+     * @param value
+     */
+    public void addValue(String key, String value) {
+        this.current.setProperty(key, String.valueOf(value));
+    }
+
+    /**
+     * Adds an input file. The content is hashed only when the
+     * size or modification time differ from the previous fingerprint.
+     *
+     * @param key
+     * @param file
+     * @throws IOException
+     */
+    public void addFile(String key, File file) throws IOException {
+        if (!file.isFile()) {
+            this.current.setProperty(key + HASH_SUFFIX, MISSING);
+            return;
+        }
+        String size = String.valueOf(file.length());
+        String mtime = String.valueOf(file.lastModified());
+        this.current.setProperty(key + SIZE_SUFFIX, size);
+        this.current.setProperty(key + MTIME_SUFFIX, mtime);
+        String previousHash = this.previous.getProperty(key + HASH_SUFFIX);
+        if (previousHash != null && size.equals(this.previous.getProperty(key + SIZE_SUFFIX))
+                && mtime.equals(this.previous.getProperty(key + MTIME_SUFFIX))) {
+            this.current.setProperty(key + HASH_SUFFIX, previousHash);
+        } else {
+            this.current.setProperty(key + HASH_SUFFIX, hashFile(file));
+        }
+    }
+
+    /**
+     * Gets the inputs that differ from the previous generation,
+     * a file only differs if its content differs.
+     *
+     * @return List<String>
+     */
+    public List<String> getChangedInputs() {
+        Set<String> keys = new TreeSet<>();
+        for (String key : this.current.stringPropertyNames()) {
+            if (!isFileMetadata(key) && !this.current.getProperty(key).equals(this.previous.getProperty(key))) {
+                keys.add(inputName(key));
+            }
+        }
+        for (String key : this.previous.stringPropertyNames()) {
+            if (!isFileMetadata(key) && !this.current.containsKey(key)) {
+                keys.add(inputName(key));
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    public boolean isUpToDate() {
+        return !this.previous.isEmpty() && getChangedInputs().isEmpty();
+    }
+
+    /**
+     * Stores the current fingerprints in the state file. The keys are
+     * sorted and no timestamp is written, the same fingerprints always
+     * give the same state file.
+     *
+     * @throws IOException
+     */
+    public void save() throws IOException {
+        File parent = this.stateFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.stateFile), "UTF-8"))) {
+            writer.write("#JACT input fingerprints\n");
+            for (String key : new TreeSet<>(this.current.stringPropertyNames())) {
+                writer.write(escape(key, true) + "=" + escape(this.current.getProperty(key), false) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Removes the state file so that an interrupted or failed
+     * generation is never considered up-to-date.
+     */
+    public void invalidate() {
+        if (this.stateFile.exists() && !this.stateFile.delete()) {
+            System.out.println("Failed to delete the state file: " + this.stateFile.getPath());
+        }
+    }
+
+    /**
+     * Escapes a key or value in the format read by Properties.load.
+     *
+     * @param text
+     * @param key
+     * @return String
+     */
+    private static String escape(String text, boolean key) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\f':
+                    escaped.append("\\f");
+                    break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    escaped.append('\\').append(c);
+                    break;
+                case ' ':
+                    escaped.append(key || i == 0 ? "\\ " : " ");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static boolean isFileMetadata(String key) {
+        return key.endsWith(SIZE_SUFFIX) || key.endsWith(MTIME_SUFFIX);
+    }
+
+    private static String inputName(String key) {
+        return key.endsWith(HASH_SUFFIX) ? key.substring(0, key.length() - HASH_SUFFIX.length()) : key;
+    }
+
+    /**
+     * Hashes the content of a file or, for a directory, the relative
+     * paths and contents of all files below it.
+     *
+     * @param file
+     * @return String, "missing" if the file does not exist
+     * @throws IOException
+     */
+    public static String hash(File file) throws IOException {
+        if (file.isFile()) {
+            return hashFile(file);
+        }
+        if (!file.isDirectory()) {
+            return MISSING;
+        }
+        Map<String, String> fileHashes = new TreeMap<>();
+        collectFileHashes(file, "", fileHashes);
+        MessageDigest digest = newDigest();
+        for (Map.Entry<String, String> entry : fileHashes.entrySet()) {
+            digest.update((entry.getKey() + "=" + entry.getValue() + "\n").getBytes("UTF-8"));
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void collectFileHashes(File directory, String path, Map<String, String> fileHashes)
+            throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                collectFileHashes(file, path + file.getName() + "/", fileHashes);
+            } else {
+                fileHashes.put(path + file.getName(), hashFile(file));
+            }
+        }
+    }
+
+    private static String hashFile(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(new FileInputStream(file), digest)) {
+            byte[] buffer = new byte[65536];
+            while (in.read(buffer) != -1) {
+                // Reading updates the digest
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,159 @@
+package jact.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the stages dominated by blocking file I/O (jar
+ * scanning, page writing, file moves and links). On JDK 21+ every
+ * task runs on its own virtual thread, detected at runtime since the
+ * plugin targets Java 1.8. Older JVMs use a bounded pool of daemon
+ * platform threads. The platform pool can be forced with
+ * `-Djact.ioThreads=platform`.
+ */
+public class IoExecutors {
+    public static final String MODE_PROPERTY = "jact.ioThreads";
+    public static final String PLATFORM = "platform";
+    public static final String VIRTUAL = "virtual";
+    private static final int PLATFORM_THREADS =
+            Math.max(4, Math.min(16, 2 * Runtime.getRuntime().availableProcessors()));
+    private static final Method VIRTUAL_EXECUTOR = findVirtualExecutor();
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * A task on one item, e.g. a file or a dependency.
+     *
+     * @param <T> the item
+     */
+    @FunctionalInterface
+    public interface IoTask<T> {
+        void run(T item) throws IOException;
+    }
+
+    private IoExecutors() {
+    }
+
+    /**
+     * Whether the JVM supports virtual threads.
+     *
+     * @return boolean
+     */
+    public static boolean supportsVirtualThreads() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Gets the threads new executors use: `virtual` on JDK 21+
+     * unless the platform pool is forced, `platform` otherwise.
+     *
+     * @return String
+     */
+    public static String getMode() {
+        return supportsVirtualThreads() && !PLATFORM.equals(System.getProperty(MODE_PROPERTY)) ? VIRTUAL : PLATFORM;
+    }
+
+    /**
+     * Creates an executor for blocking I/O tasks, it must be shut down.
+     *
+     * @return ExecutorService
+     */
+    public static ExecutorService newExecutor() {
+        if (VIRTUAL.equals(getMode())) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Fall back to the platform pool
+            }
+        }
+        return Executors.newFixedThreadPool(PLATFORM_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "jact-io-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the task for every item and waits for all of them. A single
+     * item is run on the calling thread. The first failure is rethrown
+     * once all tasks have finished.
+     *
+     * @param items
+     * @param task
+     * @throws IOException
+     */
+    public static <T> void forEach(Collection<T> items, IoTask<T> task) throws IOException {
+        if (items.size() <= 1) {
+            for (T item : items) {
+                task.run(item);
+            }
+            return;
+        }
+        ExecutorService executor = newExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(executor.submit(() -> {
+                    task.run(item);
+                    return null;
+                }));
+            }
+            Throwable failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+            }
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new IOException(failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the I/O tasks");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Runs the task for every item and waits for all of them,
+     * a failure is rethrown as an UncheckedIOException.
+     *
+     * @param items
+     * @param task
+     */
+    public static <T> void forEachUnchecked(Collection<T> items, IoTask<T> task) {
+        try {
+            forEach(items, task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Method findVirtualExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
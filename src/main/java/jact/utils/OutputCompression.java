@@ -0,0 +1,113 @@
+package jact.utils;
+
+import java.io.*;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Settings and stream factories for writing (optionally) GZIP
+ * compressed report files. Readers detect compressed files by their
+ * magic bytes, so compressed and plain files can be read the same way.
+ */
+public class OutputCompression {
+    public static final String GZIP_SUFFIX = ".gz";
+    public static final int DEFAULT_LEVEL = 6;
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final boolean enabled;
+    private final int level;
+    private final int bufferSize;
+
+    public OutputCompression(boolean enabled, int level, int bufferSize) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9: " + level);
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Compression buffer size must be positive: " + bufferSize);
+        }
+        this.enabled = enabled;
+        this.level = level;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * No compression, used where no settings are provided.
+     *
+     * @return OutputCompression
+     */
+    public static OutputCompression none() {
+        return new OutputCompression(false, DEFAULT_LEVEL, DEFAULT_BUFFER_SIZE);
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public int getLevel() {
+        return this.level;
+    }
+
+    public int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    /**
+     * Appends the `.gz` suffix to a file name when compression is enabled.
+     *
+     * @param fileName
+     * @return String
+     */
+    public String fileName(String fileName) {
+        return this.enabled ? fileName + GZIP_SUFFIX : fileName;
+    }
+
+    /**
+     * Opens a buffered output stream to the file, streaming
+     * through a GZIP encoder when compression is enabled.
+     *
+     * @param file
+     * @return OutputStream
+     * @throws IOException
+     */
+    public OutputStream openOutput(File file) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file), this.bufferSize);
+        if (!this.enabled) {
+            return out;
+        }
+        final int deflateLevel = this.level;
+        return new GZIPOutputStream(out, this.bufferSize) {
+            {
+                def.setLevel(deflateLevel);
+            }
+        };
+    }
+
+    public Writer openWriter(File file) throws IOException {
+        return new OutputStreamWriter(openOutput(file), "UTF-8");
+    }
+
+    /**
+     * Opens a buffered input stream to the file, decoding it
+     * if it starts with the GZIP magic bytes.
+     *
+     * @param file
+     * @return InputStream
+     * @throws IOException
+     */
+    public static InputStream openInput(File file) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(new FileInputStream(file), DEFAULT_BUFFER_SIZE);
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        if (first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == ((GZIPInputStream.GZIP_MAGIC >> 8) & 0xff)) {
+            return new GZIPInputStream(in, DEFAULT_BUFFER_SIZE);
+        }
+        return in;
+    }
+
+    public static BufferedReader openReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(openInput(file), "UTF-8"));
+    }
+}
@@ -0,0 +1,165 @@
+package jact.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stages the static report resources (report.dtd, the JACT logo and
+ * the jacoco-resources) into the report directory.
+ * Every resource is stored once in a cache directory under its content
+ * digest and the report files are hardlinked to the cached file. Targets
+ * that already link to the cached file are skipped, so repeated builds
+ * in the same workspace do not copy any resources.
+ */
+public class ResourceStager {
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    // Bundled resources read through the classloader, by resource name
+    private static final Map<String, byte[]> bundledResources = new ConcurrentHashMap<>();
+    private final File cacheDirectory;
+
+    public ResourceStager(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Creates a stager using the cache directory of the
+     * given plugin version inside the local repository.
+     *
+     * @param localRepoPath
+     * @param pluginVersion
+     * @return ResourceStager
+     */
+    public static ResourceStager forPluginVersion(String localRepoPath, String pluginVersion) {
+        return new ResourceStager(new File(localRepoPath, ".cache/jact/" + pluginVersion));
+    }
+
+    /**
+     * Stages a resource bundled with the plugin.
+     *
+     * @param resourceName
+     * @param target
+     * @throws IOException
+     */
+    public void stageResource(String resourceName, File target) throws IOException {
+        stageContent(readBundledResource(resourceName), target);
+    }
+
+    /**
+     * Stages the given content, the content is only written
+     * to the cache if no cached file with the same digest exists.
+     *
+     * @param content
+     * @param target
+     * @throws IOException
+     */
+    public void stageContent(byte[] content, File target) throws IOException {
+        File cachedFile = new File(new File(this.cacheDirectory, digest(content)), target.getName());
+        if (!cachedFile.exists()) {
+            writeAtomically(content, cachedFile);
+        }
+        linkFile(cachedFile, target);
+    }
+
+    /**
+     * Stages all files of a (staged) directory into the target
+     * directory by linking them to the same cached files.
+     *
+     * @param sourceDir
+     * @param targetDir
+     * @throws IOException
+     */
+    public void stageDirectory(File sourceDir, File targetDir) throws IOException {
+        File[] files = sourceDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                stageDirectory(file, new File(targetDir, file.getName()));
+            } else {
+                linkFile(file, new File(targetDir, file.getName()));
+            }
+        }
+    }
+
+    /**
+     * Links the target to the source file, falling back to
+     * a copy when hardlinks are not supported. Nothing is done
+     * if the target already is the source file.
+     *
+     * @param source
+     * @param target
+     * @throws IOException
+     */
+    private static void linkFile(File source, File target) throws IOException {
+        Path targetPath = target.toPath();
+        if (target.exists() && Files.isSameFile(source.toPath(), targetPath)) {
+            return;
+        }
+        Files.createDirectories(targetPath.getParent());
+        Files.deleteIfExists(targetPath);
+        try {
+            Files.createLink(targetPath, source.toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeAtomically(byte[] content, File file) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Path tempFile = file.toPath().resolveSibling(file.getName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.write(tempFile, content);
+            // Concurrent builds staging the same digest write the same content
+            Files.move(tempFile, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static byte[] readBundledResource(String resourceName) throws IOException {
+        byte[] content = bundledResources.get(resourceName);
+        if (content == null) {
+            try (InputStream inputStream = ResourceStager.class.getClassLoader().getResourceAsStream(resourceName)) {
+                if (inputStream == null) {
+                    throw new IOException("File not found in plugin resources: " + resourceName);
+                }
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int bytesRead;
+                while ((bytesRead = inputStream.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, bytesRead);
+                }
+                content = outputStream.toByteArray();
+            }
+            bundledResources.put(resourceName, content);
+        }
+        return content;
+    }
+
+    /**
+     * Gets the hex encoded SHA-256 digest of the content.
+     *
+     * @param content
+     * @return String
+     */
+    public static String digest(byte[] content) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance(DIGEST_ALGORITHM).digest(content)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
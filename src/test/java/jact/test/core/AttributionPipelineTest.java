@@ -0,0 +1,332 @@
+package jact.test.core;
+
+import jact.core.AttributionPipeline;
+import jact.core.ClassAnalysisCache;
+import jact.core.CoverageAnalyzer;
+import jact.core.ReportModel;
+import jact.depUtils.DependencyFilter;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.DependencyUsage;
+import jact.depUtils.ProjectDependency;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.analysis.ISourceNode;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.internal.data.CRC64;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttributionPipelineTest {
+    static String testDirectory = "./src/test/java/jact/test/testingPipelineDir/";
+    static String classesDirectory = "./target/classes/";
+    static File uberJar = new File(testDirectory + "app.jar");
+    static File execFile = new File(testDirectory + "jacoco.exec");
+    static Map<String, Set<String>> projectPackages = new HashMap<>();
+
+    @BeforeAll
+    /**
+     * Creates a local repository with the dependencies com.example:utils:1.0
+     * (jact.utils) and com.example:deps:1.0 (jact.depUtils) and an Uber-jar
+     * of the project package jact.core, both dependencies and the unmatched
+     * package jact.daemon. The FileSystemUtils class of jact.utils is only
+     * contained in a nested jar. The exec file covers ProjectDependency.
+     */
+    public static void initReportInputs() throws IOException {
+        createJar(new File(testDirectory + "repo/com/example/utils/1.0/utils-1.0.jar"), "jact/utils");
+        createJar(new File(testDirectory + "repo/com/example/deps/1.0/deps-1.0.jar"), "jact/depUtils");
+        ByteArrayOutputStream nestedJar = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(nestedJar)) {
+            addEntry(out, "jact/utils/FileSystemUtils.class");
+        }
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(uberJar))) {
+            for (String packagePath : Arrays.asList("jact/core", "jact/utils", "jact/depUtils", "jact/daemon")) {
+                for (File classFile : listClasses(packagePath)) {
+                    if (!classFile.getName().equals("FileSystemUtils.class")) {
+                        addEntry(out, packagePath + "/" + classFile.getName());
+                    }
+                }
+            }
+            out.putNextEntry(new ZipEntry("lib/nested.jar"));
+            out.write(nestedJar.toByteArray());
+            out.closeEntry();
+        }
+        byte[] coveredClass = Files.readAllBytes(new File(classesDirectory + "jact/depUtils/ProjectDependency.class").toPath());
+        boolean[] probes = new boolean[1000];
+        Arrays.fill(probes, true);
+        try (FileOutputStream out = new FileOutputStream(execFile)) {
+            ExecutionDataWriter writer = new ExecutionDataWriter(out);
+            writer.visitSessionInfo(new SessionInfo("pipeline", 0, 1));
+            writer.visitClassExecution(new ExecutionData(CRC64.classId(coveredClass), "jact/depUtils/ProjectDependency", probes));
+        }
+        projectPackages.put("jact.core", new HashSet<>(Collections.singletonList("ReportModel")));
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: The dependency inputs are completed after the
+     *                     pipeline has started analyzing the Uber-jar.
+     *     Post-condition: The model attributes the same packages with the same
+     *                     usage as the model of the sequential analysis, the
+     *                     package split over the nested jar is combined.
+     */
+    public void pipelineModelTest() throws Exception {
+        Map<String, ProjectDependency> sequentialDeps = createDependencies();
+        ReportModel expected = ReportModel.create(CoverageAnalyzer.analyze(execFile, uberJar), sequentialDeps,
+                projectPackages, DependencyJarIndex.build(sequentialDeps, testDirectory + "repo"),
+                "com.example:project:1.0", testDirectory + "report/");
+
+        Map<String, ProjectDependency> pipelineDeps = createDependencies();
+        CompletableFuture<Map<String, ProjectDependency>> dependencies = new CompletableFuture<>();
+        CompletableFuture<DependencyJarIndex> jarIndex = dependencies.thenApplyAsync(deps -> {
+            sleep(200);
+            return DependencyJarIndex.build(deps, testDirectory + "repo");
+        });
+        CompletableFuture.runAsync(() -> {
+            sleep(200);
+            dependencies.complete(pipelineDeps);
+        });
+        ReportModel actual = AttributionPipeline.createModel(new AttributionPipeline.Inputs(
+                Collections.singletonList(execFile), uberJar,
+                dependencies, CompletableFuture.completedFuture(projectPackages), jarIndex),
+                "com.example:project:1.0", testDirectory + "report/");
+
+        assertUsageEquals(expected.getProjectUsage(), actual.getProjectUsage());
+        assertUsageEquals(expected.getDependencyUsage(), actual.getDependencyUsage());
+        assertTrue(actual.getDependencyUsage().getTotalInstructions() > actual.getDependencyUsage().getMissedInstructions());
+        assertEquals(Collections.singletonList("jact/core"), packageNames(actual.getPackages(actual.getThisProject())));
+        assertEquals(Collections.singletonList("jact/daemon"), packageNames(actual.getUnmatchedPackages()));
+        for (String id : Arrays.asList("com.example:utils:1.0", "com.example:deps:1.0")) {
+            assertEquals(packageNames(expected.getPackages(sequentialDeps.get(id))),
+                    packageNames(actual.getPackages(pipelineDeps.get(id))));
+            assertUsageEquals(sequentialDeps.get(id).dependencyUsage, pipelineDeps.get(id).dependencyUsage);
+        }
+        assertEquals(expected.getCoverageAnalysis().getBundle().getPackages().size(),
+                actual.getCoverageAnalysis().getBundle().getPackages().size());
+        assertEquals(expected.getCoverageAnalysis().getBundle().getClassCounter(),
+                actual.getCoverageAnalysis().getBundle().getClassCounter());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: The dependency input of the pipeline fails.
+     *     Post-condition: The pipeline stops and reports the failure of the input.
+     */
+    public void failedInputTest() {
+        CompletableFuture<Map<String, ProjectDependency>> dependencies = new CompletableFuture<>();
+        IllegalStateException cause = new IllegalStateException("No dependency graph");
+        dependencies.completeExceptionally(cause);
+        ExecutionException exception = assertThrows(ExecutionException.class, () ->
+                AttributionPipeline.createModel(new AttributionPipeline.Inputs(
+                        Collections.singletonList(execFile), uberJar, dependencies,
+                        CompletableFuture.completedFuture(projectPackages),
+                        CompletableFuture.completedFuture(DependencyJarIndex.build(new HashMap<>(), testDirectory + "repo"))),
+                        "com.example:project:1.0", testDirectory + "failed/"));
+        assertSame(cause, exception.getCause());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: com.example:deps:1.0 and the package jact.daemon
+     *                     are excluded.
+     *     Post-condition: The excluded packages are not analyzed, the filtered
+     *                     usage counts their classes and the classes with
+     *                     execution data.
+     */
+    public void filteredModelTest() throws Exception {
+        Map<String, ProjectDependency> dependencies = createDependencies();
+        Map<String, ProjectDependency> filtered = new HashMap<>();
+        ProjectDependency deps = dependencies.remove("com.example:deps:1.0");
+        filtered.put(deps.getId(), deps);
+        Map<String, ProjectDependency> indexed = new HashMap<>(dependencies);
+        indexed.putAll(filtered);
+
+        AttributionPipeline.Inputs inputs = new AttributionPipeline.Inputs(Collections.singletonList(execFile), uberJar,
+                CompletableFuture.completedFuture(dependencies), CompletableFuture.completedFuture(projectPackages),
+                CompletableFuture.completedFuture(DependencyJarIndex.build(indexed, testDirectory + "repo")))
+                .withFilter(new DependencyFilter("", "com.example:deps:*, jact.daemon"),
+                        CompletableFuture.completedFuture(filtered));
+        ReportModel model = AttributionPipeline.createModel(inputs, "com.example:project:1.0",
+                testDirectory + "filtered/");
+
+        List<String> analyzed = packageNames(new ArrayList<>(model.getCoverageAnalysis().getBundle().getPackages()));
+        assertFalse(analyzed.contains("jact/depUtils"));
+        assertFalse(analyzed.contains("jact/daemon"));
+        assertTrue(model.getUnmatchedPackages().isEmpty());
+
+        DependencyUsage depsUsage = model.getFilteredUsage().get("com.example:deps:1.0");
+        assertEquals(listClasses("jact/depUtils").length, depsUsage.getTotalClasses());
+        assertEquals(depsUsage.getTotalClasses() - 1, depsUsage.getMissedClasses());
+        DependencyUsage packageUsage = model.getFilteredUsage().get(DependencyFilter.FILTERED_PACKAGES);
+        assertEquals(listClasses("jact/daemon").length, packageUsage.getTotalClasses());
+        assertEquals(packageUsage.getTotalClasses(), packageUsage.getMissedClasses());
+        assertEquals(depsUsage.getTotalClasses() + packageUsage.getTotalClasses(),
+                model.getTotalFilteredUsage().getTotalClasses());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: The model is created without the analysis cache,
+     *                     with an empty cache and with the filled cache.
+     *     Post-condition: The dependency classes are cached, every class has
+     *                     the same counters, lines and methods in all models,
+     *                     including the covered class analyzed again.
+     */
+    public void cachedAnalysisTest() throws Exception {
+        ClassAnalysisCache analysisCache = new ClassAnalysisCache(new File(testDirectory + "cache"));
+        Map<String, IClassCoverage> expected = analyzedClasses(createModelWithCache(null));
+        Map<String, IClassCoverage> cold = analyzedClasses(createModelWithCache(analysisCache));
+        assertTrue(new File(testDirectory + "cache").list().length > 0);
+        Map<String, IClassCoverage> warm = analyzedClasses(createModelWithCache(analysisCache));
+
+        assertEquals(expected.keySet(), warm.keySet());
+        assertTrue(expected.get("jact/depUtils/ProjectDependency").getInstructionCounter().getCoveredCount() > 0);
+        for (IClassCoverage expectedClass : expected.values()) {
+            for (IClassCoverage actualClass : Arrays.asList(cold.get(expectedClass.getName()),
+                    warm.get(expectedClass.getName()))) {
+                assertNodeEquals(expectedClass, actualClass);
+                assertEquals(expectedClass.getId(), actualClass.getId());
+                assertEquals(expectedClass.getSourceFileName(), actualClass.getSourceFileName());
+                assertEquals(expectedClass.getMethods().size(), actualClass.getMethods().size());
+                Iterator<IMethodCoverage> actualMethods = actualClass.getMethods().iterator();
+                for (IMethodCoverage expectedMethod : expectedClass.getMethods()) {
+                    IMethodCoverage actualMethod = actualMethods.next();
+                    assertEquals(expectedMethod.getName() + expectedMethod.getDesc(),
+                            actualMethod.getName() + actualMethod.getDesc());
+                    assertNodeEquals(expectedMethod, actualMethod);
+                }
+            }
+        }
+    }
+
+    private static ReportModel createModelWithCache(ClassAnalysisCache analysisCache) throws Exception {
+        Map<String, ProjectDependency> dependencies = createDependencies();
+        AttributionPipeline.Inputs inputs = new AttributionPipeline.Inputs(Collections.singletonList(execFile), uberJar,
+                CompletableFuture.completedFuture(dependencies), CompletableFuture.completedFuture(projectPackages),
+                CompletableFuture.completedFuture(DependencyJarIndex.build(dependencies, testDirectory + "repo")))
+                .withAnalysisCache(analysisCache);
+        return AttributionPipeline.createModel(inputs, "com.example:project:1.0", testDirectory + "cached/");
+    }
+
+    private static Map<String, IClassCoverage> analyzedClasses(ReportModel model) {
+        Map<String, IClassCoverage> classes = new HashMap<>();
+        for (IPackageCoverage packageCoverage : model.getCoverageAnalysis().getBundle().getPackages()) {
+            for (IClassCoverage classCoverage : packageCoverage.getClasses()) {
+                classes.put(classCoverage.getName(), classCoverage);
+            }
+        }
+        return classes;
+    }
+
+    private static void assertNodeEquals(ISourceNode expected, ISourceNode actual) {
+        for (ICoverageNode.CounterEntity entity : ICoverageNode.CounterEntity.values()) {
+            assertEquals(expected.getCounter(entity), actual.getCounter(entity), actual.getName() + " " + entity);
+        }
+        assertEquals(expected.getFirstLine(), actual.getFirstLine());
+        assertEquals(expected.getLastLine(), actual.getLastLine());
+        for (int line = expected.getFirstLine(); line != ISourceNode.UNKNOWN_LINE && line <= expected.getLastLine(); line++) {
+            assertEquals(expected.getLine(line).getStatus(), actual.getLine(line).getStatus());
+            assertEquals(expected.getLine(line).getInstructionCounter(), actual.getLine(line).getInstructionCounter());
+            assertEquals(expected.getLine(line).getBranchCounter(), actual.getLine(line).getBranchCounter());
+        }
+    }
+
+    private static void assertUsageEquals(DependencyUsage expected, DependencyUsage actual) {
+        assertEquals(expected.getTotalInstructions(), actual.getTotalInstructions());
+        assertEquals(expected.getMissedInstructions(), actual.getMissedInstructions());
+        assertEquals(expected.getTotalBranches(), actual.getTotalBranches());
+        assertEquals(expected.getMissedBranches(), actual.getMissedBranches());
+        assertEquals(expected.getTotalLines(), actual.getTotalLines());
+        assertEquals(expected.getMissedLines(), actual.getMissedLines());
+        assertEquals(expected.getCyclomaticComplexity(), actual.getCyclomaticComplexity());
+    }
+
+    private static List<String> packageNames(List<IPackageCoverage> packages) {
+        List<String> names = new ArrayList<>();
+        for (IPackageCoverage packageCoverage : packages) {
+            names.add(packageCoverage.getName());
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private static Map<String, ProjectDependency> createDependencies() {
+        ProjectDependency utils = createDependency("utils");
+        ProjectDependency deps = createDependency("deps");
+        utils.rootDep = true;
+        deps.rootDep = true;
+        Map<String, ProjectDependency> dependencies = new HashMap<>();
+        dependencies.put(utils.getId(), utils);
+        dependencies.put(deps.getId(), deps);
+        return dependencies;
+    }
+
+    private static ProjectDependency createDependency(String artifactId) {
+        ProjectDependency dependency = new ProjectDependency();
+        dependency.setId("com.example:" + artifactId + ":1.0");
+        dependency.setGroupId("com.example");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1.0");
+        dependency.setScope("compile");
+        return dependency;
+    }
+
+    private static void createJar(File jarFile, String packagePath) throws IOException {
+        jarFile.getParentFile().mkdirs();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jarFile))) {
+            for (File classFile : listClasses(packagePath)) {
+                addEntry(out, packagePath + "/" + classFile.getName());
+            }
+        }
+    }
+
+    private static File[] listClasses(String packagePath) {
+        return new File(classesDirectory + packagePath).listFiles((dir, name) -> name.endsWith(".class"));
+    }
+
+    private static void addEntry(ZipOutputStream out, String classPath) throws IOException {
+        out.putNextEntry(new ZipEntry(classPath));
+        out.write(Files.readAllBytes(new File(classesDirectory + classPath).toPath()));
+        out.closeEntry();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package jact.test.core;
+
+import jact.core.CoverageAnalysis;
+import jact.core.CoverageAnalyzer;
+import jact.core.ReportModel;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependency;
+import jact.utils.OutputCompression;
+import jact.utils.ResourceStager;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.core.XmlAugmenter.generateXmlReport;
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentReportTest {
+    static String testDirectory = "./src/test/java/jact/test/testingConcurrentDir/";
+    static String classesDirectory = "./target/classes/";
+    static int executions = 4;
+    static CoverageAnalysis coverageAnalysis;
+    static DependencyJarIndex jarIndex;
+    static Map<String, Set<String>> projectPackages = new HashMap<>();
+
+    @BeforeAll
+    /**
+     * Creates a local repository with two dependencies built from the
+     * compiled plugin classes, com.example:utils:1.0 (jact.utils) with
+     * the indirect dependency com.example:deps:1.0 (jact.depUtils), and
+     * analyzes them together with the project package jact.core.
+     */
+    public static void initReportInputs() throws IOException {
+        createJar("com.example", "utils", "1.0", "jact/utils");
+        createJar("com.example", "deps", "1.0", "jact/depUtils");
+        File execFile = new File(testDirectory + "jacoco.exec");
+        try (FileOutputStream out = new FileOutputStream(execFile)) {
+            new ExecutionDataWriter(out).visitSessionInfo(new SessionInfo("concurrent", 0, 1));
+        }
+        coverageAnalysis = CoverageAnalyzer.analyzeAll(Collections.singletonList(execFile), Arrays.asList(
+                new File(classesDirectory + "jact/core"),
+                new File(testDirectory + "repo/com/example/utils/1.0/utils-1.0.jar"),
+                new File(testDirectory + "repo/com/example/deps/1.0/deps-1.0.jar")));
+        jarIndex = DependencyJarIndex.build(createDependencies(), testDirectory + "repo");
+        projectPackages.put("jact.core", new HashSet<>(Collections.singletonList("ReportModel")));
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: Several report generations of the same inputs
+     *                     run concurrently, each into its own directory.
+     *     Post-condition: All generations succeed and write identical
+     *                     reports.
+     */
+    public void concurrentReportsTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(executions);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < executions; i++) {
+            String reportPath = testDirectory + "report-" + i + "/";
+            futures.add(executor.submit(() -> {
+                ReportModel reportModel = ReportModel.create(coverageAnalysis, createDependencies(),
+                        projectPackages, jarIndex, "com.example:project:1.0", reportPath);
+                ResourceStager resourceStager = new ResourceStager(new File(testDirectory + "cache"));
+                generateXmlReport(reportModel, OutputCompression.none(), resourceStager);
+                generateHtmlReport(reportModel, true, resourceStager);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Map<String, byte[]> expected = readReport(testDirectory + "report-0/");
+        assertTrue(expected.containsKey("index.html"));
+        assertTrue(expected.containsKey("jact_report.xml"));
+        assertTrue(expected.containsKey("dependencies/com.example.utils-v1.0/indirect-dependencies.html"));
+        assertTrue(expected.containsKey("dependencies/com.example.deps-v1.0/jact.depUtils/index.html"));
+        for (int i = 1; i < executions; i++) {
+            Map<String, byte[]> actual = readReport(testDirectory + "report-" + i + "/");
+            assertEquals(expected.keySet(), actual.keySet());
+            for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+                assertArrayEquals(entry.getValue(), actual.get(entry.getKey()), entry.getKey());
+            }
+        }
+    }
+
+    private static Map<String, ProjectDependency> createDependencies() {
+        ProjectDependency utils = createDependency("com.example", "utils", "1.0");
+        ProjectDependency deps = createDependency("com.example", "deps", "1.0");
+        utils.rootDep = true;
+        utils.addChildDep(deps);
+        deps.addParentDep(utils);
+        Map<String, ProjectDependency> dependencies = new HashMap<>();
+        dependencies.put(utils.getId(), utils);
+        dependencies.put(deps.getId(), deps);
+        return dependencies;
+    }
+
+    private static ProjectDependency createDependency(String groupId, String artifactId, String version) {
+        ProjectDependency dependency = new ProjectDependency();
+        dependency.setId(groupId + ":" + artifactId + ":" + version);
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(version);
+        dependency.setScope("compile");
+        return dependency;
+    }
+
+    private static void createJar(String groupId, String artifactId, String version, String packagePath)
+            throws IOException {
+        File directory = new File(testDirectory + "repo/" + groupId.replace('.', '/') + "/" + artifactId + "/" + version);
+        directory.mkdirs();
+        File[] classFiles = new File(classesDirectory + packagePath).listFiles((dir, name) -> name.endsWith(".class"));
+        try (ZipOutputStream out = new ZipOutputStream(
+                new FileOutputStream(new File(directory, artifactId + "-" + version + ".jar")))) {
+            for (File classFile : classFiles) {
+                out.putNextEntry(new ZipEntry(packagePath + "/" + classFile.getName()));
+                out.write(Files.readAllBytes(classFile.toPath()));
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static Map<String, byte[]> readReport(String reportPath) throws IOException {
+        Path root = new File(reportPath).toPath();
+        Map<String, byte[]> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                files.put(root.relativize(path).toString().replace(File.separatorChar, '/'), Files.readAllBytes(path));
+            }
+        }
+        return files;
+    }
+}
@@ -0,0 +1,166 @@
+package jact.test.core;
+
+import jact.core.CoverageAnalysis;
+import jact.core.CoverageAnalyzer;
+import jact.core.DependencyHtmlDetail;
+import jact.core.ReportModel;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependency;
+import jact.utils.ResourceStager;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DependencyHtmlDetailTest {
+    static String testDirectory = "./src/test/java/jact/test/testingHtmlDetailDir/";
+    static String depReportPath = "dependencies/com.example.utils-v1.0/";
+    static CoverageAnalysis coverageAnalysis;
+    static DependencyJarIndex jarIndex;
+
+    @BeforeAll
+    /**
+     * Creates a local repository with the dependency com.example:utils:1.0
+     * built from the compiled jact.utils classes and analyzes it.
+     */
+    public static void initReportInputs() throws IOException {
+        File directory = new File(testDirectory + "repo/com/example/utils/1.0");
+        directory.mkdirs();
+        File jar = new File(directory, "utils-1.0.jar");
+        File[] classFiles = new File("./target/classes/jact/utils").listFiles((dir, name) -> name.endsWith(".class"));
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (File classFile : classFiles) {
+                out.putNextEntry(new ZipEntry("jact/utils/" + classFile.getName()));
+                out.write(Files.readAllBytes(classFile.toPath()));
+                out.closeEntry();
+            }
+        }
+        File execFile = new File(testDirectory + "jacoco.exec");
+        try (FileOutputStream out = new FileOutputStream(execFile)) {
+            new ExecutionDataWriter(out).visitSessionInfo(new SessionInfo("detail", 0, 1));
+        }
+        coverageAnalysis = CoverageAnalyzer.analyzeAll(Collections.singletonList(execFile),
+                Collections.singletonList(jar));
+        jarIndex = DependencyJarIndex.build(createDependencies(), testDirectory + "repo");
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: The parameter is given in any case.
+     *     Post-condition: It is parsed to its detail, unknown
+     *                     values are rejected.
+     */
+    public void parseDetailTest() {
+        assertEquals(DependencyHtmlDetail.SUMMARY, DependencyHtmlDetail.parse("summary"));
+        assertEquals(DependencyHtmlDetail.PACKAGE, DependencyHtmlDetail.parse(" Package "));
+        assertEquals(DependencyHtmlDetail.FULL, DependencyHtmlDetail.parse("FULL"));
+        assertThrows(IllegalArgumentException.class, () -> DependencyHtmlDetail.parse("classes"));
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: The report is generated with each detail.
+     *     Post-condition: Summary lists the package without a page,
+     *                     package adds a JACT page listing the classes
+     *                     and full includes the JaCoCo class pages.
+     */
+    public void dependencyDetailTest() throws IOException {
+        String summaryPath = generate(DependencyHtmlDetail.SUMMARY);
+        String summaryIndex = read(summaryPath + depReportPath + "index.html");
+        assertTrue(summaryIndex.contains("<span class=\"el_package\">jact.utils</span>"));
+        assertFalse(new File(summaryPath + depReportPath + "jact.utils").exists());
+        assertFalse(new File(summaryPath + "jact.utils").exists());
+
+        String packagePath = generate(DependencyHtmlDetail.PACKAGE);
+        assertTrue(read(packagePath + depReportPath + "index.html").contains("href=\"jact.utils/index.html\""));
+        String packagePage = read(packagePath + depReportPath + "jact.utils/index.html");
+        assertTrue(packagePage.contains("<span class=\"el_class\">ResourceStager</span>"));
+        assertTrue(packagePage.contains("\"../jacoco-resources/redbar.gif\""));
+        assertEquals(1, new File(packagePath + depReportPath + "jact.utils").list().length);
+
+        String fullPath = generate(DependencyHtmlDetail.FULL);
+        assertTrue(new File(fullPath + depReportPath + "jact.utils/ResourceStager.html").exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: The dependency graph has a cycle, utils and
+     *                     com.example:other:1.0 are children of each other.
+     *     Post-condition: The report is generated, the inclusive usage
+     *                     does not follow the cycle back to its start.
+     */
+    public void cyclicDependencyTest() throws IOException {
+        Map<String, ProjectDependency> dependencies = createDependencies();
+        ProjectDependency utils = dependencies.get("com.example:utils:1.0");
+        ProjectDependency other = new ProjectDependency();
+        other.setId("com.example:other:1.0");
+        other.setGroupId("com.example");
+        other.setArtifactId("other");
+        other.setVersion("1.0");
+        other.setScope("compile");
+        dependencies.put(other.getId(), other);
+        utils.addChildDep(other);
+        other.addParentDep(utils);
+        other.addChildDep(utils);
+        utils.addParentDep(other);
+
+        String reportPath = generate(DependencyHtmlDetail.SUMMARY, dependencies, "cyclic/");
+        assertTrue(new File(reportPath + depReportPath + "index.html").exists());
+        assertTrue(read(reportPath + "dependencies/index.html").contains("com.example.utils-v1.0"));
+    }
+
+    private static String generate(DependencyHtmlDetail detail) {
+        return generate(detail, createDependencies(), detail + "/");
+    }
+
+    private static String generate(DependencyHtmlDetail detail, Map<String, ProjectDependency> dependencies,
+                                   String reportDir) {
+        String reportPath = testDirectory + reportDir;
+        ReportModel reportModel = ReportModel.create(coverageAnalysis, dependencies, new HashMap<>(),
+                jarIndex, "com.example:project:1.0", reportPath);
+        generateHtmlReport(reportModel, false, new ResourceStager(new File(testDirectory + "cache")), detail);
+        return reportPath;
+    }
+
+    private static String read(String path) throws IOException {
+        return new String(Files.readAllBytes(new File(path).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, ProjectDependency> createDependencies() {
+        ProjectDependency utils = new ProjectDependency();
+        utils.setId("com.example:utils:1.0");
+        utils.setGroupId("com.example");
+        utils.setArtifactId("utils");
+        utils.setVersion("1.0");
+        utils.setScope("compile");
+        utils.rootDep = true;
+        Map<String, ProjectDependency> dependencies = new HashMap<>();
+        dependencies.put(utils.getId(), utils);
+        return dependencies;
+    }
+}
@@ -0,0 +1,94 @@
+package jact.test.core;
+
+import jact.core.CoverageAnalyzer;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecFileMergeTest {
+    static String testDirectory = "./src/test/java/jact/test/testingExecDir/";
+
+    @BeforeAll
+    /**
+     * Creates two exec files of separate test runs, both containing
+     * the class with id 1 with different probes hit.
+     */
+    public static void initExecFiles() throws IOException {
+        new File(testDirectory + "shards").mkdirs();
+        writeExecFile(testDirectory + "jacoco-a.exec", "a",
+                new ExecutionData(1, "com/example/A", new boolean[]{true, false, false}));
+        writeExecFile(testDirectory + "shards/jacoco-b.exec", "b",
+                new ExecutionData(1, "com/example/A", new boolean[]{false, false, true}),
+                new ExecutionData(2, "com/example/B", new boolean[]{true}));
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initExecFiles()`.
+     * Contract:
+     *      Pre-condition: Exec files exist in the test directory
+     *                     and a sub directory.
+     *     Post-condition: Plain paths are kept and glob patterns
+     *                     are expanded, sorted and without duplicates.
+     */
+    public void resolveExecFilesTest() throws IOException {
+        File baseDir = new File(testDirectory);
+        List<File> execFiles = CoverageAnalyzer.resolveExecFiles(baseDir, "*.exec, **/*.exec, jacoco-a.exec");
+        assertEquals(2, execFiles.size());
+        assertTrue(execFiles.get(0).getPath().endsWith("jacoco-a.exec"));
+        assertTrue(execFiles.get(1).getPath().endsWith("shards" + File.separator + "jacoco-b.exec"));
+
+        assertEquals(1, CoverageAnalyzer.resolveExecFiles(baseDir, "./*.exec").size());
+        assertTrue(CoverageAnalyzer.resolveExecFiles(baseDir, "missing/*.exec").isEmpty());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initExecFiles()`.
+     * Contract:
+     *      Pre-condition: Both exec files contain the same class id.
+     *     Post-condition: The probes of the class are combined, the
+     *                     sessions of both files are kept and no
+     *                     merged file is written.
+     */
+    public void mergeExecFilesTest() throws IOException {
+        File baseDir = new File(testDirectory);
+        List<File> execFiles = CoverageAnalyzer.resolveExecFiles(baseDir, "**.exec");
+        ExecFileLoader loader = CoverageAnalyzer.loadExecFiles(execFiles);
+
+        ExecutionDataStore store = loader.getExecutionDataStore();
+        assertArrayEquals(new boolean[]{true, false, true}, store.get(1).getProbes());
+        assertArrayEquals(new boolean[]{true}, store.get(2).getProbes());
+        assertEquals(2, loader.getSessionInfoStore().getInfos().size());
+        assertEquals(2, CoverageAnalyzer.resolveExecFiles(baseDir, "**.exec").size());
+    }
+
+    private static void writeExecFile(String path, String sessionId, ExecutionData... data) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(path)) {
+            ExecutionDataWriter writer = new ExecutionDataWriter(out);
+            writer.visitSessionInfo(new SessionInfo(sessionId, 0, 1));
+            for (ExecutionData executionData : data) {
+                writer.visitClassExecution(executionData);
+            }
+        }
+    }
+}
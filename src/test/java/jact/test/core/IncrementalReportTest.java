@@ -0,0 +1,169 @@
+package jact.test.core;
+
+import jact.core.CoverageAnalysis;
+import jact.core.CoverageAnalyzer;
+import jact.core.DependencyHtmlDetail;
+import jact.core.ReportModel;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependency;
+import jact.utils.ResourceStager;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.internal.data.CRC64;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalReportTest {
+    static String testDirectory = "./src/test/java/jact/test/testingIncrementalDir/";
+    static String classesDirectory = "./target/classes/";
+    static String utilsReportPath = "dependencies/com.example.utils-v1.0/";
+    static String depsReportPath = "dependencies/com.example.deps-v1.0/";
+    static long previousTime = 1000000000000L;
+    static DependencyJarIndex jarIndex;
+
+    @BeforeAll
+    /**
+     * Creates a local repository with two direct dependencies built from
+     * the compiled plugin classes, com.example:utils:1.0 (jact.utils) and
+     * com.example:deps:1.0 (jact.depUtils).
+     */
+    public static void initReportInputs() throws IOException {
+        createJar("utils", "jact/utils");
+        createJar("deps", "jact/depUtils");
+        jarIndex = DependencyJarIndex.build(createDependencies(), testDirectory + "repo");
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: A full detail report is generated, then generated
+     *                     again in the same directory after the coverage
+     *                     of ProjectDependency (com.example:deps) changed.
+     *     Post-condition: Only the pages of com.example:deps are rewritten,
+     *                     the report equals a clean report of the second
+     *                     coverage.
+     */
+    public void incrementalReportTest() throws IOException {
+        String reportPath = testDirectory + "incremental/";
+        generate(reportPath, "first.exec", 0);
+        Map<String, byte[]> firstReport = readReport(reportPath);
+        assertTrue(firstReport.containsKey(depsReportPath + "jact.depUtils/ProjectDependency.html"));
+        for (String page : firstReport.keySet()) {
+            assertTrue(new File(reportPath + page).setLastModified(previousTime));
+        }
+
+        generate(reportPath, "second.exec", 1);
+        Map<String, byte[]> secondReport = readReport(reportPath);
+        assertEquals(firstReport.keySet(), secondReport.keySet());
+        for (String page : secondReport.keySet()) {
+            boolean rewritten = new File(reportPath + page).lastModified() != previousTime;
+            if (page.startsWith(utilsReportPath)) {
+                assertFalse(rewritten, page);
+                assertArrayEquals(firstReport.get(page), secondReport.get(page), page);
+            } else if (page.startsWith(depsReportPath + "jact.depUtils/ProjectDependency")) {
+                assertTrue(rewritten, page);
+            }
+        }
+        assertFalse(Arrays.equals(firstReport.get(depsReportPath + "jact.depUtils/ProjectDependency.html"),
+                secondReport.get(depsReportPath + "jact.depUtils/ProjectDependency.html")));
+
+        String cleanPath = testDirectory + "clean/";
+        generate(cleanPath, "second.exec", 1);
+        Map<String, byte[]> cleanReport = readReport(cleanPath);
+        assertEquals(cleanReport.keySet(), secondReport.keySet());
+        for (Map.Entry<String, byte[]> entry : cleanReport.entrySet()) {
+            assertArrayEquals(entry.getValue(), secondReport.get(entry.getKey()), entry.getKey());
+        }
+    }
+
+    /**
+     * Generates the report with every other probe of ProjectDependency
+     * covered, starting at the given probe.
+     */
+    private static void generate(String reportPath, String execName, int firstProbe) throws IOException {
+        byte[] coveredClass = Files.readAllBytes(
+                new File(classesDirectory + "jact/depUtils/ProjectDependency.class").toPath());
+        boolean[] probes = new boolean[1000];
+        for (int i = firstProbe; i < probes.length; i += 2) {
+            probes[i] = true;
+        }
+        File execFile = new File(testDirectory + execName);
+        try (FileOutputStream out = new FileOutputStream(execFile)) {
+            ExecutionDataWriter writer = new ExecutionDataWriter(out);
+            writer.visitSessionInfo(new SessionInfo("incremental", 0, 1));
+            writer.visitClassExecution(new ExecutionData(CRC64.classId(coveredClass),
+                    "jact/depUtils/ProjectDependency", probes));
+        }
+        CoverageAnalysis coverageAnalysis = CoverageAnalyzer.analyzeAll(Collections.singletonList(execFile),
+                Arrays.asList(new File(testDirectory + "repo/com/example/utils/1.0/utils-1.0.jar"),
+                        new File(testDirectory + "repo/com/example/deps/1.0/deps-1.0.jar")));
+        ReportModel reportModel = ReportModel.create(coverageAnalysis, createDependencies(), new HashMap<>(),
+                jarIndex, "com.example:project:1.0", reportPath);
+        generateHtmlReport(reportModel, false, new ResourceStager(new File(testDirectory + "cache")),
+                DependencyHtmlDetail.FULL);
+    }
+
+    private static Map<String, ProjectDependency> createDependencies() {
+        Map<String, ProjectDependency> dependencies = new HashMap<>();
+        for (String artifactId : Arrays.asList("utils", "deps")) {
+            ProjectDependency dependency = new ProjectDependency();
+            dependency.setId("com.example:" + artifactId + ":1.0");
+            dependency.setGroupId("com.example");
+            dependency.setArtifactId(artifactId);
+            dependency.setVersion("1.0");
+            dependency.setScope("compile");
+            dependency.rootDep = true;
+            dependencies.put(dependency.getId(), dependency);
+        }
+        return dependencies;
+    }
+
+    private static void createJar(String artifactId, String packagePath) throws IOException {
+        File directory = new File(testDirectory + "repo/com/example/" + artifactId + "/1.0");
+        directory.mkdirs();
+        File[] classFiles = new File(classesDirectory + packagePath).listFiles((dir, name) -> name.endsWith(".class"));
+        try (ZipOutputStream out = new ZipOutputStream(
+                new FileOutputStream(new File(directory, artifactId + "-1.0.jar")))) {
+            for (File classFile : classFiles) {
+                out.putNextEntry(new ZipEntry(packagePath + "/" + classFile.getName()));
+                out.write(Files.readAllBytes(classFile.toPath()));
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static Map<String, byte[]> readReport(String reportPath) throws IOException {
+        Path root = new File(reportPath).toPath();
+        Map<String, byte[]> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                files.put(root.relativize(path).toString().replace(File.separatorChar, '/'), Files.readAllBytes(path));
+            }
+        }
+        return files;
+    }
+}
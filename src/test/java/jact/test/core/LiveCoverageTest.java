@@ -0,0 +1,160 @@
+package jact.test.core;
+
+import jact.core.LiveCoverage;
+import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.runtime.RemoteControlReader;
+import org.jacoco.core.runtime.RemoteControlWriter;
+import org.jacoco.core.runtime.RuntimeData;
+import org.jacoco.core.runtime.SystemPropertiesRuntime;
+import org.jacoco.core.tools.ExecDumpClient;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LiveCoverageTest {
+    static String testDirectory = "./src/test/java/jact/test/testingLiveDir/";
+    static String className = "jact.depUtils.DependencyUsage";
+    static File classFile = new File("./target/classes/jact/depUtils/DependencyUsage.class");
+    static File jarFile = new File(testDirectory + "app.jar");
+
+    @BeforeAll
+    /**
+     * Creates the Uber-jar of the running application,
+     * containing the compiled DependencyUsage class.
+     */
+    public static void initJar() throws IOException {
+        jarFile.getParentFile().mkdirs();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jarFile))) {
+            out.putNextEntry(new ZipEntry("jact/depUtils/DependencyUsage.class"));
+            out.write(Files.readAllBytes(classFile.toPath()));
+            out.closeEntry();
+        }
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initJar()`.
+     * Contract:
+     *      Pre-condition: A stand-in for a JaCoCo agent with `output=tcpserver`
+     *                     serves the probes of the instrumented class.
+     *     Post-condition: Every dump resets the probes, a class is only analyzed
+     *                     again when the dump covers probes that were not yet
+     *                     covered and the merged coverage never decreases.
+     */
+    public void liveMergeTest() throws Exception {
+        RuntimeData runtimeData = new RuntimeData();
+        SystemPropertiesRuntime runtime = new SystemPropertiesRuntime();
+        runtime.startup(runtimeData);
+        ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread agentThread = startStandInAgent(serverSocket, runtimeData);
+        try {
+            byte[] instrumented = new Instrumenter(runtime).instrument(Files.readAllBytes(classFile.toPath()), className);
+            Class<?> usageClass = new InstrumentedClassLoader(instrumented).loadClass(className);
+
+            LiveCoverage liveCoverage = LiveCoverage.analyze(jarFile);
+            assertEquals(0, coveredInstructions(liveCoverage));
+
+            ExecDumpClient client = new ExecDumpClient();
+            client.setDump(true);
+            client.setReset(true);
+            int port = serverSocket.getLocalPort();
+
+            assertEquals(0, merge(liveCoverage, client.dump("localhost", port)));
+
+            Object usage = usageClass.getConstructor().newInstance();
+            usageClass.getMethod("addMissedInstructions", long.class).invoke(usage, 1L);
+            assertEquals(1, merge(liveCoverage, client.dump("localhost", port)));
+            long covered = coveredInstructions(liveCoverage);
+            assertTrue(covered > 0);
+
+            // The same probes again: reset by the previous dump but nothing new
+            usageClass.getMethod("addMissedInstructions", long.class).invoke(usage, 1L);
+            assertEquals(0, merge(liveCoverage, client.dump("localhost", port)));
+            assertEquals(covered, coveredInstructions(liveCoverage));
+
+            usageClass.getMethod("percentage", long.class, long.class).invoke(null, 1L, 2L);
+            assertEquals(1, merge(liveCoverage, client.dump("localhost", port)));
+            assertTrue(coveredInstructions(liveCoverage) > covered);
+            assertEquals(4, liveCoverage.getAnalysis().getSessionInfoStore().getInfos().size());
+        } finally {
+            serverSocket.close();
+            agentThread.join(10000L);
+            runtime.shutdown();
+        }
+    }
+
+    private static int merge(LiveCoverage liveCoverage, ExecFileLoader dump) throws IOException {
+        return liveCoverage.merge(dump.getSessionInfoStore(), dump.getExecutionDataStore());
+    }
+
+    private static long coveredInstructions(LiveCoverage liveCoverage) {
+        return liveCoverage.getAnalysis().getBundle().getInstructionCounter().getCoveredCount();
+    }
+
+    /**
+     * Answers the dump commands like the tcpserver output of the agent,
+     * until the server socket is closed.
+     */
+    private static Thread startStandInAgent(ServerSocket serverSocket, RuntimeData runtimeData) {
+        Thread agentThread = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    RemoteControlWriter writer = new RemoteControlWriter(socket.getOutputStream());
+                    RemoteControlReader reader = new RemoteControlReader(socket.getInputStream());
+                    reader.setRemoteCommandVisitor((dump, reset) -> {
+                        if (dump) {
+                            runtimeData.collect(writer, writer, reset);
+                        } else if (reset) {
+                            runtimeData.reset();
+                        }
+                        writer.sendCmdOk();
+                    });
+                    while (reader.read()) {
+                        // Commands until the client closes the connection
+                    }
+                } catch (IOException e) {
+                    // Closed server socket
+                }
+            }
+        });
+        agentThread.start();
+        return agentThread;
+    }
+
+    private static class InstrumentedClassLoader extends ClassLoader {
+        private final byte[] instrumented;
+
+        InstrumentedClassLoader(byte[] instrumented) {
+            super(LiveCoverageTest.class.getClassLoader());
+            this.instrumented = instrumented;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (className.equals(name)) {
+                return defineClass(name, this.instrumented, 0, this.instrumented.length);
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package jact.test.core;
+
+import jact.core.AttributionPipeline;
+import jact.core.DependencyHtmlDetail;
+import jact.core.JactXmlReader;
+import jact.core.ReportMerger;
+import jact.core.ReportModel;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependency;
+import jact.utils.OutputCompression;
+import jact.utils.ResourceStager;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.internal.data.CRC64;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.core.XmlAugmenter.generateXmlReport;
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportMergerTest {
+    static String testDirectory = "./src/test/java/jact/test/testingMergeDir/";
+    static String classesDirectory = "./target/classes/";
+    static File uberJar = new File(testDirectory + "app.jar");
+
+    @BeforeAll
+    /**
+     * Creates a local repository with the dependencies com.example:utils:1.0
+     * (jact.utils) and com.example:deps:1.0 (jact.depUtils), an Uber-jar of
+     * the project package jact.core and both dependencies and the reports
+     * of two test jobs: unit (covering ProjectDependency) and integration
+     * (covering FileSystemUtils).
+     */
+    public static void initReports() throws Exception {
+        createJar(new File(testDirectory + "repo/com/example/utils/1.0/utils-1.0.jar"), "jact/utils");
+        createJar(new File(testDirectory + "repo/com/example/deps/1.0/deps-1.0.jar"), "jact/depUtils");
+        createJar(uberJar, "jact/core", "jact/utils", "jact/depUtils");
+        generateReport("unit", "jact/depUtils/ProjectDependency");
+        generateReport("integration", "jact/utils/FileSystemUtils");
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReports()`.
+     * Contract:
+     *      Pre-condition: The reports of the unit and integration jobs are merged.
+     *     Post-condition: Every package is taken from the report covering it most,
+     *                     the merged report has the sessions of both reports and
+     *                     its HTML pages, the merge directory is removed.
+     */
+    public void mergeReportsTest() throws IOException {
+        new ReportMerger(Arrays.asList(new File(testDirectory + "unit/jact_report.xml"),
+                new File(testDirectory + "integration/jact_report.xml")), new HashMap<>(),
+                "com.example:app:1.0", testDirectory + "merged/").generate(true, true, false,
+                OutputCompression.none(), DependencyHtmlDetail.FULL,
+                ResourceStager.forPluginVersion(testDirectory + "repo", "test"));
+
+        Map<String, Integer> unit = coveredInstructions("unit");
+        Map<String, Integer> integration = coveredInstructions("integration");
+        Map<String, Integer> merged = coveredInstructions("merged");
+        assertTrue(unit.get("jact/depUtils") > integration.get("jact/depUtils"));
+        assertTrue(integration.get("jact/utils") > unit.get("jact/utils"));
+        assertEquals(unit.get("jact/depUtils"), merged.get("jact/depUtils"));
+        assertEquals(integration.get("jact/utils"), merged.get("jact/utils"));
+        assertEquals(unit.keySet(), merged.keySet());
+
+        List<String> sessions = new ArrayList<>();
+        JactXmlReader.read(new File(testDirectory + "merged/jact_report.xml"), new JactXmlReader.Visitor() {
+            @Override
+            public void visitSessionInfo(SessionInfo sessionInfo) {
+                sessions.add(sessionInfo.getId());
+            }
+        });
+        Collections.sort(sessions);
+        assertEquals(Arrays.asList("integration", "unit"), sessions);
+        assertTrue(new File(testDirectory + "merged/index.html").exists());
+        assertTrue(new File(testDirectory + "merged/jact.core/index.html").exists());
+        assertTrue(new File(testDirectory + "merged/dependencies/com.example.utils-v1.0/jact.utils/index.html").exists());
+        assertTrue(new File(testDirectory + "merged/dependencies/com.example.deps-v1.0/jact.depUtils/index.html").exists());
+        assertFalse(new File(testDirectory + "merged-merge").exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReports()`.
+     * Contract:
+     *      Pre-condition: A report of an Uber-jar with other jact.utils classes
+     *                     is merged with the report of the unit job.
+     *     Post-condition: The merge fails, the reports are not of the same build,
+     *                     the merge directory is removed.
+     */
+    public void differentBuildTest() throws Exception {
+        File otherReport = new File(testDirectory + "other/jact_report.xml");
+        otherReport.getParentFile().mkdirs();
+        // Leaves out the classes of jact.utils except FileSystemUtils
+        String xmlReport = new String(Files.readAllBytes(new File(testDirectory + "unit/jact_report.xml").toPath()),
+                "UTF-8").replaceAll("<class name=\"jact/utils/(?!FileSystemUtils\")[^\"]*\"[^>]*?(/>|>.*?</class>)", "");
+        Files.write(otherReport.toPath(), recountPackage(xmlReport).getBytes("UTF-8"));
+
+        IOException exception = assertThrows(IOException.class, () ->
+                new ReportMerger(Arrays.asList(new File(testDirectory + "unit/jact_report.xml"), otherReport),
+                        new HashMap<>(), "com.example:app:1.0", testDirectory + "failed/").generate(true, false,
+                        false, OutputCompression.none(), DependencyHtmlDetail.FULL,
+                        ResourceStager.forPluginVersion(testDirectory + "repo", "test")));
+        assertTrue(exception.getMessage().contains("jact/utils"), exception.getMessage());
+        assertFalse(new File(testDirectory + "failed-merge").exists());
+    }
+
+    // The package counters of jact.utils are replaced by the counters of FileSystemUtils
+    private static String recountPackage(String xmlReport) {
+        int packageStart = xmlReport.indexOf("<package name=\"jact/utils\">");
+        int packageEnd = xmlReport.indexOf("</package>", packageStart);
+        String packageElement = xmlReport.substring(packageStart, packageEnd);
+        int classStart = packageElement.indexOf("<class name=\"jact/utils/FileSystemUtils\"");
+        int classEnd = packageElement.indexOf("</class>", classStart);
+        String classCounters = packageElement.substring(packageElement.lastIndexOf("</method>", classEnd)
+                + "</method>".length(), classEnd);
+        int countersStart = Math.max(packageElement.lastIndexOf("</sourcefile>") + "</sourcefile>".length(),
+                packageElement.lastIndexOf("</class>") + "</class>".length());
+        return xmlReport.substring(0, packageStart + countersStart) + classCounters + xmlReport.substring(packageEnd);
+    }
+
+    private static Map<String, Integer> coveredInstructions(String report) throws IOException {
+        Map<String, Integer> covered = new TreeMap<>();
+        JactXmlReader.read(new File(testDirectory + report + "/jact_report.xml"), new JactXmlReader.Visitor() {
+            @Override
+            public boolean readsDependency(String dependencyId) {
+                return true;
+            }
+
+            @Override
+            public void visitDependency(String dependencyId, List<IPackageCoverage> packages) {
+                visitProjectPackages(packages);
+            }
+
+            @Override
+            public boolean readsProjectPackages() {
+                return true;
+            }
+
+            @Override
+            public void visitProjectPackages(List<IPackageCoverage> packages) {
+                for (IPackageCoverage packageCoverage : packages) {
+                    covered.put(packageCoverage.getName(), packageCoverage.getInstructionCounter().getCoveredCount());
+                }
+            }
+        });
+        return covered;
+    }
+
+    private static void generateReport(String job, String coveredClass) throws Exception {
+        File execFile = new File(testDirectory + job + ".exec");
+        byte[] classBytes = Files.readAllBytes(new File(classesDirectory + coveredClass + ".class").toPath());
+        boolean[] probes = new boolean[1000];
+        Arrays.fill(probes, true);
+        try (FileOutputStream out = new FileOutputStream(execFile)) {
+            ExecutionDataWriter writer = new ExecutionDataWriter(out);
+            writer.visitSessionInfo(new SessionInfo(job, 0, 1));
+            writer.visitClassExecution(new ExecutionData(CRC64.classId(classBytes), coveredClass, probes));
+        }
+        Map<String, ProjectDependency> dependencies = new HashMap<>();
+        for (String artifactId : Arrays.asList("utils", "deps")) {
+            ProjectDependency dependency = new ProjectDependency();
+            dependency.setId("com.example:" + artifactId + ":1.0");
+            dependency.setGroupId("com.example");
+            dependency.setArtifactId(artifactId);
+            dependency.setVersion("1.0");
+            dependency.setScope("compile");
+            dependency.rootDep = true;
+            dependencies.put(dependency.getId(), dependency);
+        }
+        Map<String, Set<String>> projectPackages = new HashMap<>();
+        projectPackages.put("jact.core", new HashSet<>(Collections.singletonList("ReportModel")));
+        ReportModel reportModel = AttributionPipeline.createModel(new AttributionPipeline.Inputs(
+                Collections.singletonList(execFile), uberJar,
+                CompletableFuture.completedFuture(dependencies), CompletableFuture.completedFuture(projectPackages),
+                CompletableFuture.completedFuture(DependencyJarIndex.build(dependencies, testDirectory + "repo"))),
+                "com.example:app:1.0", testDirectory + job + "/");
+        ResourceStager resourceStager = ResourceStager.forPluginVersion(testDirectory + "repo", "test");
+        generateXmlReport(reportModel, OutputCompression.none(), resourceStager);
+        generateHtmlReport(reportModel, false, resourceStager, DependencyHtmlDetail.FULL);
+    }
+
+    private static void createJar(File jarFile, String... packagePaths) throws IOException {
+        jarFile.getParentFile().mkdirs();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jarFile))) {
+            for (String packagePath : packagePaths) {
+                for (File classFile : new File(classesDirectory + packagePath).listFiles((dir, name) -> name.endsWith(".class"))) {
+                    out.putNextEntry(new ZipEntry(packagePath + "/" + classFile.getName()));
+                    out.write(Files.readAllBytes(classFile.toPath()));
+                    out.closeEntry();
+                }
+            }
+        }
+    }
+}
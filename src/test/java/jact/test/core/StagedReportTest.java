@@ -0,0 +1,107 @@
+package jact.test.core;
+
+import jact.core.StagedReport;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StagedReportTest {
+    static String testDirectory = "./src/test/java/jact/test/testingStagedDir/";
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: Nothing.
+     * Contract:
+     *      Pre-condition: A report with dependency pages is published, a second
+     *                     report reusing the pages is staged.
+     *     Post-condition: Only the dependency pages and the page digests are
+     *                     staged, the previous report is untouched until the
+     *                     second report is published and replaces it.
+     */
+    public void publishReportTest() throws IOException {
+        File report = new File(testDirectory + "same/jact-report");
+        StagedReport first = StagedReport.create(report, null);
+        first.prepare(true);
+        write(first.getStagingPath() + "index.html", "first");
+        write(first.getStagingPath() + ".jact-pages.properties", "digests");
+        write(first.getStagingPath() + "dependencies/index.html", "dependencies");
+        write(first.getStagingPath() + "dependencies/com.example.a-v1.0/index.html", "a");
+        write(first.getStagingPath() + "jact.core/index.html", "package");
+        first.publish();
+        first.discard();
+        assertFalse(new File(first.getStagingPath()).exists());
+        assertEquals("first", read(new File(report, "index.html")));
+
+        StagedReport second = StagedReport.create(report, null);
+        second.prepare(true);
+        File linkedPage = new File(second.getStagingPath() + "dependencies/com.example.a-v1.0/index.html");
+        assertEquals("a", read(linkedPage));
+        assertEquals("digests", read(new File(second.getStagingPath() + ".jact-pages.properties")));
+        assertFalse(new File(second.getStagingPath() + "index.html").exists());
+        assertFalse(new File(second.getStagingPath() + "dependencies/index.html").exists());
+        assertFalse(new File(second.getStagingPath() + "jact.core").exists());
+        write(second.getStagingPath() + "index.html", "second");
+        assertEquals("first", read(new File(report, "index.html")));
+
+        second.publish();
+        assertEquals("second", read(new File(report, "index.html")));
+        assertEquals("a", read(new File(report, "dependencies/com.example.a-v1.0/index.html")));
+        assertFalse(new File(report, "jact.core").exists());
+        assertFalse(new File(report.getPath() + ".previous").exists());
+        assertFalse(new File(second.getStagingPath()).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: Nothing.
+     * Contract:
+     *      Pre-condition: A report is staged in another directory, the pages
+     *                     are not reused, a publish was interrupted before.
+     *     Post-condition: The interrupted report is restored before staging,
+     *                     the staged report replaces it.
+     */
+    public void stagingDirectoryTest() throws IOException {
+        File report = new File(testDirectory + "other/jact-report");
+        write(report.getPath() + ".previous/index.html", "interrupted");
+        write(report.getPath() + ".previous/.jact-pages.properties", "digests");
+        write(report.getPath() + ".previous/dependencies/com.example.a-v1.0/index.html", "a");
+
+        StagedReport stagedReport = StagedReport.create(report, new File(testDirectory + "staging"));
+        stagedReport.prepare(false);
+        assertEquals("interrupted", read(new File(report, "index.html")));
+        assertTrue(new File(stagedReport.getStagingPath()).getParentFile().getPath()
+                .endsWith("testingStagedDir" + File.separator + "staging"));
+        assertFalse(new File(stagedReport.getStagingPath() + "dependencies").exists());
+        write(stagedReport.getStagingPath() + "index.html", "staged");
+        stagedReport.publish();
+        stagedReport.discard();
+
+        assertEquals("staged", read(new File(report, "index.html")));
+        assertFalse(new File(report, "dependencies").exists());
+        assertFalse(new File(stagedReport.getStagingPath()).exists());
+        assertFalse(new File(report.getPath() + ".publish").exists());
+    }
+
+    private static void write(String path, String content) throws IOException {
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,212 @@
+package jact.test.daemon;
+
+import jact.core.DependencyHtmlDetail;
+import jact.daemon.DaemonClient;
+import jact.daemon.ReportDaemon;
+import jact.daemon.ReportRequest;
+import jact.depUtils.ProjectDependency;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportDaemonTest {
+    static String testDirectory = "./src/test/java/jact/test/testingDaemonDir/";
+    static File jarFile = new File(testDirectory + "repo/com/example/utils/1.0/utils-1.0.jar");
+    static File execFile = new File(testDirectory + "jacoco.exec");
+
+    @BeforeAll
+    /**
+     * Creates a local repository with the dependency com.example:utils:1.0
+     * built from the compiled jact.utils classes, the jar is also used
+     * as the Uber-jar of the report.
+     */
+    public static void initReportInputs() throws IOException {
+        jarFile.getParentFile().mkdirs();
+        File[] classFiles = new File("./target/classes/jact/utils").listFiles((dir, name) -> name.endsWith(".class"));
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jarFile))) {
+            for (File classFile : classFiles) {
+                out.putNextEntry(new ZipEntry("jact/utils/" + classFile.getName()));
+                out.write(Files.readAllBytes(classFile.toPath()));
+                out.closeEntry();
+            }
+        }
+        try (FileOutputStream out = new FileOutputStream(execFile)) {
+            new ExecutionDataWriter(out).visitSessionInfo(new SessionInfo("daemon", 0, 1));
+        }
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: A request with a dependency graph (including
+     *                     a skipped child placeholder) and project packages.
+     *     Post-condition: The request read from its properties has the
+     *                     same inputs and dependency graph.
+     */
+    public void requestPropertiesTest() {
+        ReportRequest request = createRequest("report/");
+        ProjectDependency child = new ProjectDependency();
+        child.setId("com.example:child:2.0");
+        child.setGroupId("com.example");
+        child.setArtifactId("child");
+        child.setVersion("2.0");
+        child.setScope("runtime");
+        ProjectDependency utils = request.getDependenciesMap().get("com.example:utils:1.0");
+        utils.addChildDep(child);
+        utils.addChildDep(new ProjectDependency());
+        child.addParentDep(utils);
+        request.getDependenciesMap().put(child.getId(), child);
+
+        ReportRequest read = ReportRequest.fromProperties(request.toProperties());
+        assertEquals(Arrays.asList(ReportRequest.XML, ReportRequest.HTML), read.getFormats());
+        assertEquals(execFile.getAbsoluteFile(), read.getExecFiles().get(0));
+        assertEquals(DependencyHtmlDetail.SUMMARY, read.getDependencyHtmlDetail());
+        assertEquals(Collections.singleton("Main"), read.getProjectPackagesAndClasses().get("com.example.app"));
+        ProjectDependency readUtils = read.getDependenciesMap().get("com.example:utils:1.0");
+        ProjectDependency readChild = read.getDependenciesMap().get("com.example:child:2.0");
+        assertTrue(readUtils.rootDep);
+        assertFalse(readChild.rootDep);
+        assertEquals("runtime", readChild.getScope());
+        assertEquals(2, readUtils.getChildDeps().size());
+        assertSame(readChild, readUtils.getChildDeps().get(readChild.getId()));
+        assertTrue(readChild.getParentDeps().containsKey(readUtils.getId()));
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: A daemon is running.
+     *     Post-condition: The client generates the report through the
+     *                     daemon (twice, the second reusing its caches)
+     *                     and stops it, which removes the state file.
+     */
+    public void daemonGenerateTest() throws Exception {
+        File stateFile = new File(testDirectory + "daemon/daemon.properties");
+        ReportDaemon daemon = new ReportDaemon(stateFile, 60000L);
+        daemon.bind();
+        Thread serveThread = new Thread(daemon::serve);
+        serveThread.start();
+
+        DaemonClient client = new DaemonClient(stateFile);
+        assertTrue(client.isRunning());
+        for (int i = 0; i < 2; i++) {
+            Properties response = client.generate(createRequest("report/"));
+            assertEquals("ok", response.getProperty("status"), response.getProperty("message"));
+            assertTrue(new File(testDirectory + "report/index.html").exists());
+            assertTrue(new File(testDirectory + "report/jact_report.xml").exists());
+            assertTrue(new File(testDirectory + "report/dependencies/com.example.utils-v1.0/index.html").exists());
+        }
+
+        ReportRequest missingJar = createRequest("missing/");
+        missingJar.setClassFiles(new File(testDirectory + "missing.jar"));
+        assertEquals("error", client.generate(missingJar).getProperty("status"));
+
+        client.stop();
+        serveThread.join(60000L);
+        assertFalse(serveThread.isAlive());
+        assertFalse(stateFile.exists());
+        assertFalse(client.isRunning());
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: The daemon generated a report from a classes
+     *                     directory, then a class in a nested package is
+     *                     recompiled in place with the modification times
+     *                     of the class and its directories restored.
+     *     Post-condition: The class is analyzed again, the report of the
+     *                     second request contains its new method.
+     */
+    public void recompiledClassTest() throws Exception {
+        File classesDir = new File(testDirectory + "classes");
+        File classFile = new File(classesDir, "com/example/app/Main.class");
+        ReportRequest request = createRequest("recompiled/");
+        request.setClassFiles(classesDir);
+        ReportDaemon daemon = new ReportDaemon(new File(testDirectory + "recompiled.properties"), 60000L);
+
+        writeClass(classFile, "first");
+        daemon.generate(request);
+        String firstReport = new String(Files.readAllBytes(
+                new File(testDirectory + "recompiled/jact_report.xml").toPath()), "UTF-8");
+        assertTrue(firstReport.contains("<method name=\"first\""));
+        assertFalse(firstReport.contains("<method name=\"second\""));
+
+        writeClass(classFile, "second");
+        daemon.generate(request);
+        String secondReport = new String(Files.readAllBytes(
+                new File(testDirectory + "recompiled/jact_report.xml").toPath()), "UTF-8");
+        assertTrue(secondReport.contains("<method name=\"second\""));
+        assertFalse(secondReport.contains("<method name=\"first\""));
+    }
+
+    /**
+     * Compiles the class com.example.app.Main with a single method,
+     * the modification times of the class file and of all its parent
+     * directories up to the classes directory are kept the same.
+     */
+    private static void writeClass(File classFile, String methodName) throws IOException {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "com/example/app/Main", null, "java/lang/Object", null);
+        MethodVisitor method = classWriter.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, methodName, "()V",
+                null, null);
+        method.visitCode();
+        method.visitInsn(Opcodes.RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        classWriter.visitEnd();
+        classFile.getParentFile().mkdirs();
+        Files.write(classFile.toPath(), classWriter.toByteArray());
+        for (File file = classFile; file != null && !file.getName().equals("testingDaemonDir");
+             file = file.getParentFile()) {
+            assertTrue(file.setLastModified(1000000000000L));
+        }
+    }
+
+    private static ReportRequest createRequest(String reportDir) {
+        ReportRequest request = new ReportRequest();
+        request.getFormats().addAll(Arrays.asList(ReportRequest.XML, ReportRequest.HTML));
+        request.getExecFiles().add(execFile.getAbsoluteFile());
+        request.setClassFiles(jarFile);
+        request.setLocalRepoPath(testDirectory + "repo");
+        request.setReportPath(testDirectory + reportDir);
+        request.setProjectId("com.example:app:1.0");
+        request.setPluginVersion("test");
+        request.setDependencyHtmlDetail(DependencyHtmlDetail.SUMMARY);
+        request.getProjectPackagesAndClasses().put("com.example.app", new HashSet<>(Collections.singleton("Main")));
+        ProjectDependency utils = new ProjectDependency();
+        utils.setId("com.example:utils:1.0");
+        utils.setGroupId("com.example");
+        utils.setArtifactId("utils");
+        utils.setVersion("1.0");
+        utils.setScope("compile");
+        utils.rootDep = true;
+        Map<String, ProjectDependency> dependencies = new HashMap<>();
+        dependencies.put(utils.getId(), utils);
+        request.setDependenciesMap(dependencies);
+        return request;
+    }
+}
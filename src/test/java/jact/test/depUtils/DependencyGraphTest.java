@@ -0,0 +1,356 @@
+package jact.test.depUtils;
+
+import jact.depUtils.DependencyFilter;
+import jact.depUtils.ProjectDependency;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.apache.maven.shared.dependency.graph.traversal.DependencyNodeVisitor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static jact.depUtils.ProjectDependencies.getAllProjectDependencies;
+import static jact.depUtils.ProjectDependencies.getIndirectDependencyIds;
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static junit.framework.TestCase.*;
+
+public class DependencyGraphTest {
+    public static Map<String, ProjectDependency> dependencies;
+    static String testDirectory = "./src/test/java/jact/test/testingGraphDir/";
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @BeforeAll
+    /**
+     * Generates the dependencies from an in-memory dependency
+     * graph (as resolved by maven-dependency-tree):
+     * project
+     *  +- com.google.guava:guava:33.0.0-jre
+     *  |   +- com.google.guava:failureaccess:1.0.2
+     *  |   \- com.google.code.findbugs:jsr305:3.0.2
+     *  +- org.apache.commons:commons-math3:3.6.1
+     *  +- junit:junit:4.13.2 (test)
+     *  |   \- org.hamcrest:hamcrest-core:1.3 (test)
+     *  \- javax.servlet:servlet-api:2.5 (provided)
+     */
+    public static void initGraphDependencies() {
+        TestNode root = node("jonas.test.project", "test-project", "1.0", null);
+        TestNode guava = root.add(node("com.google.guava", "guava", "33.0.0-jre", "compile"));
+        guava.add(node("com.google.guava", "failureaccess", "1.0.2", "compile"));
+        guava.add(node("com.google.code.findbugs", "jsr305", "3.0.2", "compile"));
+        root.add(node("org.apache.commons", "commons-math3", "3.6.1", "compile"));
+        TestNode junit = root.add(node("junit", "junit", "4.13.2", "test"));
+        junit.add(node("org.hamcrest", "hamcrest-core", "1.3", "test"));
+        root.add(node("javax.servlet", "servlet-api", "2.5", "provided"));
+        dependencies = getAllProjectDependencies(root, true);
+    }
+
+    @Test
+    /**
+     * Requirements: See `initGraphDependencies()`.
+     * Contract:
+     *      Pre-condition: The dependencies are generated
+     *                     from the dependency graph.
+     *     Post-condition: Test- and provided-scope dependencies
+     *                     are skipped, the remaining dependencies
+     *                     have correct field values.
+     */
+    public void graphDependenciesTest() {
+        assertEquals(4, dependencies.size());
+        assertFalse(dependencies.containsKey("junit:junit:4.13.2"));
+        assertFalse(dependencies.containsKey("javax.servlet:servlet-api:2.5"));
+
+        ProjectDependency guava = dependencies.get("com.google.guava:guava:33.0.0-jre");
+        assertEquals("com.google.guava", guava.getGroupId());
+        assertEquals("guava", guava.getArtifactId());
+        assertEquals("33.0.0-jre", guava.getVersion());
+        assertEquals("compile", guava.getScope());
+        assertTrue(guava.rootDep);
+    }
+
+    @Test
+    /**
+     * Requirements: See `initGraphDependencies()`.
+     * Contract:
+     *      Pre-condition: The dependencies are generated
+     *                     from the dependency graph.
+     *     Post-condition: Child dependencies reference their parent,
+     *                     only dependencies with children have an
+     *                     indirect usage entry.
+     */
+    public void graphParentAndChildrenTest() {
+        ProjectDependency guava = dependencies.get("com.google.guava:guava:33.0.0-jre");
+        assertEquals(2, guava.getChildDeps().size());
+        for (ProjectDependency child : guava.getChildDeps().values()) {
+            assertFalse(child.rootDep);
+            assertTrue(child.getParentDeps().containsKey(guava.getId()));
+        }
+        assertTrue(getIndirectDependencyIds(dependencies).contains(guava.getId()));
+        assertFalse(getIndirectDependencyIds(dependencies).contains("org.apache.commons:commons-math3:3.6.1"));
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: Two reactor modules share a dependency and
+     *                     the second module depends on the first:
+     *                     core
+     *                      +- com.google.guava:guava:33.0.0-jre
+     *                      \- org.apache.commons:commons-math3:3.6.1
+     *                     app
+     *                      +- jonas.test:core:1.0
+     *                      |   \- org.apache.commons:commons-math3:3.6.1
+     *                      \- com.google.guava:guava:33.0.0-jre
+     *                          \- com.google.guava:failureaccess:1.0.2
+     *     Post-condition: Every dependency is created once, the reactor
+     *                     module is not a dependency and its dependencies
+     *                     are direct dependencies.
+     */
+    public void reactorGraphDependenciesTest() {
+        TestNode core = node("jonas.test", "core", "1.0", null);
+        core.add(node("com.google.guava", "guava", "33.0.0-jre", "compile"));
+        core.add(node("org.apache.commons", "commons-math3", "3.6.1", "compile"));
+        TestNode app = node("jonas.test", "app", "1.0", null);
+        app.add(node("jonas.test", "core", "1.0", "compile"))
+                .add(node("org.apache.commons", "commons-math3", "3.6.1", "compile"));
+        app.add(node("com.google.guava", "guava", "33.0.0-jre", "compile"))
+                .add(node("com.google.guava", "failureaccess", "1.0.2", "compile"));
+        Set<String> reactorIds = new HashSet<>(Arrays.asList("jonas.test:core:1.0", "jonas.test:app:1.0"));
+
+        Map<String, ProjectDependency> reactorDependencies =
+                getAllProjectDependencies(Arrays.asList(core, app), reactorIds, true);
+        assertEquals(3, reactorDependencies.size());
+        assertFalse(reactorDependencies.containsKey("jonas.test:core:1.0"));
+        assertTrue(reactorDependencies.get("org.apache.commons:commons-math3:3.6.1").rootDep);
+        ProjectDependency guava = reactorDependencies.get("com.google.guava:guava:33.0.0-jre");
+        assertTrue(guava.rootDep);
+        assertTrue(guava.getChildDeps().containsKey("com.google.guava:failureaccess:1.0.2"));
+    }
+
+    @Test
+    /**
+     * Requirements: See `initGraphDependencies()`.
+     * Contract:
+     *      Pre-condition: The dependencies are generated with the
+     *                     excludes `com.google.guava:guava` and
+     *                     `org.apache.*:*:3.6.?`.
+     *     Post-condition: The excluded dependencies are left out of the
+     *                     graph and recorded as filtered, the children of
+     *                     guava become direct dependencies.
+     */
+    public void graphFilterTest() {
+        TestNode root = node("jonas.test.project", "test-project", "1.0", null);
+        TestNode guava = root.add(node("com.google.guava", "guava", "33.0.0-jre", "compile"));
+        guava.add(node("com.google.guava", "failureaccess", "1.0.2", "compile"));
+        root.add(node("org.apache.commons", "commons-math3", "3.6.1", "compile"));
+        Map<String, ProjectDependency> filtered = new HashMap<>();
+
+        Map<String, ProjectDependency> included = getAllProjectDependencies(root, true,
+                new DependencyFilter("", "com.google.guava:guava, org.apache.*:*:3.6.?"), filtered);
+        assertEquals(1, included.size());
+        assertTrue(included.get("com.google.guava:failureaccess:1.0.2").rootDep);
+        assertEquals(new HashSet<>(Arrays.asList("com.google.guava:guava:33.0.0-jre",
+                "org.apache.commons:commons-math3:3.6.1")), filtered.keySet());
+
+        DependencyFilter packageFilter = new DependencyFilter("com.google", "com.google.common.cache.*");
+        assertTrue(packageFilter.includesPackage("com.google.common"));
+        assertFalse(packageFilter.includesPackage("com.google.common.cache"));
+        assertFalse(packageFilter.includesPackage("com.googlex"));
+        assertTrue(packageFilter.includesDependency("junit", "junit", "4.13.2"));
+        assertTrue(DependencyFilter.NONE.isEmpty());
+        try {
+            new DependencyFilter("a:b:c:d", "");
+            fail("Invalid dependency pattern accepted");
+        } catch (IllegalArgumentException expected) {
+            // The pattern has more than three parts
+        }
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: A dependency is shared by two parents, the verbose
+     *                     graph omits it under the second one, and a lockfile
+     *                     lists it under both:
+     *                     project
+     *                      +- com.example:a:1.0
+     *                      |   \- com.example:shared:1.0
+     *                      |       \- com.example:leaf:1.0
+     *                      +- com.example:b:1.0
+     *                      |   \- (com.example:shared:1.0 - omitted for duplicate)
+     *                      \- com.example:c:1.0
+     *                          \- (com.example:shared:0.9 - omitted for conflict with 1.0)
+     *     Post-condition: The shared dependency has both parents in the graph
+     *                     and the lockfile results, which are equal. The
+     *                     omitted conflict adds its parent to the winner.
+     */
+    public void sharedDependencyTest() throws IOException {
+        TestNode root = node("com.example", "project", "1.0", null);
+        TestNode shared = root.add(node("com.example", "a", "1.0", "compile"))
+                .add(node("com.example", "shared", "1.0", "compile"));
+        shared.add(node("com.example", "leaf", "1.0", "compile"));
+        root.add(node("com.example", "b", "1.0", "compile"))
+                .add(node("com.example", "shared", "1.0", "compile").omittedFor("1.0"));
+        Map<String, ProjectDependency> graphDependencies = getAllProjectDependencies(root, true);
+
+        new File(testDirectory).mkdirs();
+        String lockfile = "{\"dependencies\": ["
+                + lockfileEntry("a", null, lockfileEntry("shared", "com.example:a:1.0",
+                lockfileEntry("leaf", "com.example:shared:1.0")))
+                + ", " + lockfileEntry("b", null, lockfileEntry("shared", "com.example:b:1.0",
+                lockfileEntry("leaf", "com.example:shared:1.0")))
+                + "]}";
+        Files.write(new File(testDirectory + "lockfile.json").toPath(), lockfile.getBytes(StandardCharsets.UTF_8));
+        Map<String, ProjectDependency> lockfileDependencies =
+                getAllProjectDependencies(new File("."), testDirectory, false, true);
+
+        assertEquals(4, graphDependencies.size());
+        assertEquals(new HashSet<>(Arrays.asList("com.example:a:1.0", "com.example:b:1.0")),
+                graphDependencies.get("com.example:shared:1.0").getParentDeps().keySet());
+        assertEquals(lockfileDependencies.keySet(), graphDependencies.keySet());
+        for (ProjectDependency expected : lockfileDependencies.values()) {
+            ProjectDependency actual = graphDependencies.get(expected.getId());
+            assertEquals(expected.getId(), expected.rootDep, actual.rootDep);
+            assertEquals(expected.getId(), expected.getParentDeps().keySet(), actual.getParentDeps().keySet());
+            assertEquals(expected.getId(), expected.getChildDeps().keySet(), actual.getChildDeps().keySet());
+        }
+
+        root.add(node("com.example", "c", "1.0", "compile"))
+                .add(node("com.example", "shared", "0.9", "compile").omittedFor("1.0"));
+        Map<String, ProjectDependency> conflictDependencies = getAllProjectDependencies(root, true);
+        assertEquals(5, conflictDependencies.size());
+        assertFalse(conflictDependencies.containsKey("com.example:shared:0.9"));
+        assertTrue(conflictDependencies.get("com.example:shared:1.0").getParentDeps().containsKey("com.example:c:1.0"));
+        assertTrue(conflictDependencies.get("com.example:c:1.0").getChildDeps().containsKey("com.example:shared:1.0"));
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: The verbose graph omits a dependency of its own
+     *                     descendant for a cycle:
+     *                     project
+     *                      \- com.example:a:1.0
+     *                          \- com.example:b:1.0
+     *                              \- (com.example:a:1.0 - omitted for cycle)
+     *     Post-condition: The omitted node is not a child of its descendant,
+     *                     the graph has no cycle.
+     */
+    public void cyclicGraphTest() {
+        TestNode root = node("com.example", "project", "1.0", null);
+        TestNode a = root.add(node("com.example", "a", "1.0", "compile"));
+        a.add(node("com.example", "b", "1.0", "compile"))
+                .add(node("com.example", "a", "1.0", "compile").omitted("omitted for cycle"));
+
+        Map<String, ProjectDependency> cyclicDependencies = getAllProjectDependencies(root, true);
+        assertEquals(2, cyclicDependencies.size());
+        ProjectDependency b = cyclicDependencies.get("com.example:b:1.0");
+        assertTrue(b.getChildDeps().isEmpty());
+        assertTrue(cyclicDependencies.get("com.example:a:1.0").getParentDeps().isEmpty());
+        assertTrue(cyclicDependencies.get("com.example:a:1.0").rootDep);
+    }
+
+    private static String lockfileEntry(String artifactId, String parent, String... children) {
+        return "{\"groupId\": \"com.example\", \"artifactId\": \"" + artifactId + "\", \"version\": \"1.0\", "
+                + "\"scope\": \"compile\", \"selectedVersion\": \"1.0\", \"id\": \"com.example:" + artifactId + ":1.0\", "
+                + (parent == null ? "" : "\"parent\": \"" + parent + "\", ")
+                + "\"children\": [" + String.join(", ", children) + "]}";
+    }
+
+    private static TestNode node(String groupId, String artifactId, String version, String scope) {
+        return new TestNode(new DefaultArtifact(groupId, artifactId, version, scope, "jar", null,
+                new DefaultArtifactHandler("jar")));
+    }
+
+    private static class TestNode implements DependencyNode {
+        private final Artifact artifact;
+        private final List<DependencyNode> children = new ArrayList<>();
+        private DependencyNode parent;
+        // Why the node was omitted from a verbose graph, null if it was not
+        private String omission;
+
+        TestNode(Artifact artifact) {
+            this.artifact = artifact;
+        }
+
+        TestNode omittedFor(String winnerVersion) {
+            return omitted(winnerVersion.equals(this.artifact.getVersion())
+                    ? "omitted for duplicate" : "omitted for conflict with " + winnerVersion);
+        }
+
+        TestNode omitted(String omission) {
+            this.omission = omission;
+            return this;
+        }
+
+        TestNode add(TestNode child) {
+            child.parent = this;
+            this.children.add(child);
+            return child;
+        }
+
+        public Artifact getArtifact() {
+            return this.artifact;
+        }
+
+        public List<DependencyNode> getChildren() {
+            return this.children;
+        }
+
+        public boolean accept(DependencyNodeVisitor visitor) {
+            if (visitor.visit(this)) {
+                for (DependencyNode child : this.children) {
+                    if (!child.accept(visitor)) {
+                        break;
+                    }
+                }
+            }
+            return visitor.endVisit(this);
+        }
+
+        public DependencyNode getParent() {
+            return this.parent;
+        }
+
+        public String getPremanagedVersion() {
+            return null;
+        }
+
+        public String getPremanagedScope() {
+            return null;
+        }
+
+        public String getVersionConstraint() {
+            return null;
+        }
+
+        public String toNodeString() {
+            if (this.omission == null) {
+                return this.artifact.toString();
+            }
+            // The format of the verbose nodes of maven-dependency-tree
+            return "(" + this.artifact + " - " + this.omission + ")";
+        }
+
+        public Boolean getOptional() {
+            return false;
+        }
+
+        public List<Exclusion> getExclusions() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package jact.test.depUtils;
+
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependency;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jact.depUtils.PackageToDependencyResolver.packageToDependency;
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static junit.framework.TestCase.*;
+
+public class DependencyJarIndexTest {
+    static String testRepoDir = "./src/test/java/jact/test/testingRepoDir";
+    static Map<String, ProjectDependency> dependencies = new HashMap<>();
+    static DependencyJarIndex jarIndex;
+
+    @BeforeAll
+    /**
+     * Creates a local repository containing two dependency
+     * jars with known class entries and indexes them.
+     */
+    public static void initJarIndex() throws IOException {
+        addDependency("com.example", "first", "1.0", "com/example/first/A.class", "com/example/first/sub/B.class");
+        addDependency("org.example", "second", "2.0", "org/example/second/C.class", "META-INF/MANIFEST.MF");
+        jarIndex = DependencyJarIndex.build(dependencies, testRepoDir);
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testRepoDir));
+        assertFalse(new File(testRepoDir).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initJarIndex()`.
+     * Contract:
+     *      Pre-condition: The dependency jars are indexed.
+     *     Post-condition: Packages are found in the jar of their
+     *                     dependency only, non-class entries
+     *                     are not indexed.
+     */
+    public void containsPackageTest() {
+        ProjectDependency first = dependencies.get("com.example:first:1.0");
+        ProjectDependency second = dependencies.get("org.example:second:2.0");
+        assertTrue(jarIndex.containsPackage(first, "com.example.first"));
+        assertTrue(jarIndex.containsPackage(first, "com.example.first.sub"));
+        assertFalse(jarIndex.containsPackage(first, "org.example.second"));
+        assertTrue(jarIndex.containsPackage(second, "org.example.second"));
+        assertFalse(jarIndex.containsPackage(second, "META-INF"));
+    }
+
+    @Test
+    /**
+     * Requirements: See `initJarIndex()`.
+     * Contract:
+     *      Pre-condition: The dependency jars are indexed.
+     *     Post-condition: Packages are resolved to their dependency,
+     *                     unknown packages are not matched.
+     */
+    public void packageToDependencyTest() {
+        assertEquals("org.example:second:2.0",
+                packageToDependency("org.example.second", dependencies, jarIndex).getId());
+        assertEquals("com.example:first:1.0",
+                packageToDependency("com.example.first.sub", dependencies, jarIndex).getId());
+        assertNull(packageToDependency("net.unknown", dependencies, jarIndex).getId());
+    }
+
+    private static void addDependency(String groupId, String artifactId, String version,
+                                      String... entries) throws IOException {
+        ProjectDependency dependency = new ProjectDependency();
+        dependency.setId(groupId + ":" + artifactId + ":" + version);
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(version);
+        dependencies.put(dependency.getId(), dependency);
+
+        File directory = new File(testRepoDir + "/" + groupId.replace('.', '/') + "/" + artifactId + "/" + version);
+        directory.mkdirs();
+        try (ZipOutputStream out = new ZipOutputStream(
+                new FileOutputStream(new File(directory, artifactId + "-" + version + ".jar")))) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package jact.test.depUtils;
+
+import jact.depUtils.DependencyTreeFile;
+import jact.depUtils.ProjectDependency;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+
+import static jact.depUtils.ProjectDependencies.getAllProjectDependencies;
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DependencyTreeFileTest {
+    static String testDirectory = "./src/test/java/jact/test/testingTreeDir/";
+    static File treeFile = new File(testDirectory + "dependency-tree.txt");
+
+    @BeforeAll
+    /**
+     * Writes the output of `mvn dependency:tree -DoutputFile` of a project
+     * with a classifier, an optional dependency and a node omitted by the
+     * verbose output.
+     */
+    public static void writeTreeFile() throws IOException {
+        new File(testDirectory).mkdirs();
+        Files.write(treeFile.toPath(), Arrays.asList(
+                "jonas.test.project:test-project:jar:1.0",
+                "+- com.google.guava:guava:jar:33.0.0-jre:compile",
+                "|  +- com.google.guava:failureaccess:jar:1.0.2:compile",
+                "|  \\- (com.google.code.findbugs:jsr305:jar:3.0.2:compile - omitted for duplicate)",
+                "+- org.apache.commons:commons-math3:jar:tests:3.6.1:compile (optional)",
+                "\\- junit:junit:jar:4.13.2:test",
+                "   \\- org.hamcrest:hamcrest-core:jar:1.3:test"), StandardCharsets.UTF_8);
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `writeTreeFile()`.
+     * Contract:
+     *      Pre-condition: The tree file is read and the dependencies are
+     *                     created from it.
+     *     Post-condition: The root is the project, the dependencies are created
+     *                     with their scope, version and parent as from the
+     *                     dependency graph of a build.
+     */
+    public void treeFileDependenciesTest() throws IOException {
+        DependencyNode root = DependencyTreeFile.read(treeFile);
+        assertEquals("test-project", root.getArtifact().getArtifactId());
+        assertEquals(3, root.getChildren().size());
+
+        Map<String, ProjectDependency> dependencies = getAllProjectDependencies(root, true);
+        assertEquals(3, dependencies.size());
+        assertFalse(dependencies.containsKey("junit:junit:4.13.2"));
+        assertFalse(dependencies.containsKey("com.google.code.findbugs:jsr305:3.0.2"));
+        assertTrue(dependencies.get("org.apache.commons:commons-math3:3.6.1").rootDep);
+        ProjectDependency failureaccess = dependencies.get("com.google.guava:failureaccess:1.0.2");
+        assertEquals("compile", failureaccess.getScope());
+        assertFalse(failureaccess.rootDep);
+        assertTrue(failureaccess.getParentDeps().containsKey("com.google.guava:guava:33.0.0-jre"));
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: A tree file with a dependency indented below
+     *                     a missing parent.
+     *     Post-condition: Reading the file fails with the line number.
+     */
+    public void invalidTreeFileTest() throws IOException {
+        File invalidFile = new File(testDirectory + "invalid-tree.txt");
+        Files.write(invalidFile.toPath(), Arrays.asList(
+                "jonas.test.project:test-project:jar:1.0",
+                "|  \\- com.google.guava:failureaccess:jar:1.0.2:compile"), StandardCharsets.UTF_8);
+        IOException exception = assertThrows(IOException.class, () -> DependencyTreeFile.read(invalidFile));
+        assertTrue(exception.getMessage().contains(":2:"));
+    }
+}
@@ -12,7 +12,7 @@ import java.util.List;
 import java.util.Map;
 
 import static jact.depUtils.ProjectDependencies.getAllProjectDependencies;
-import static jact.depUtils.ProjectDependencies.getIndirectUsageMap;
+import static jact.depUtils.ProjectDependencies.getIndirectDependencyIds;
 import static jact.depUtils.ProjectDependency.depToDirName;
 import static jact.utils.FileSystemUtils.removeDirectory;
 import static junit.framework.TestCase.assertEquals;
@@ -207,15 +207,14 @@ public class ProjectDependenciesTest {
      *                     dependencies to a list of ProjectDependency
      *                     objects.
      *     Post-condition: All ProjectDependencies with children
-     *                     have a corresponding entry in the
-     *                     indirectUsageMap.
+     *                     are indirect dependency ids.
      */
     public void indirectReportPathsTest() {
-        assertEquals(4, getIndirectUsageMap().size());
-        assertTrue(getIndirectUsageMap().containsKey("com.google.guava:guava:33.0.0-jre"));
-        assertTrue(getIndirectUsageMap().containsKey("junit:junit:4.13.2"));
-        assertTrue(getIndirectUsageMap().containsKey("org.junit.jupiter:junit-jupiter-api:5.10.2"));
-        assertTrue(getIndirectUsageMap().containsKey("org.junit.platform:junit-platform-commons:1.10.2"));
+        assertEquals(4, getIndirectDependencyIds(dependencies).size());
+        assertTrue(getIndirectDependencyIds(dependencies).contains("com.google.guava:guava:33.0.0-jre"));
+        assertTrue(getIndirectDependencyIds(dependencies).contains("junit:junit:4.13.2"));
+        assertTrue(getIndirectDependencyIds(dependencies).contains("org.junit.jupiter:junit-jupiter-api:5.10.2"));
+        assertTrue(getIndirectDependencyIds(dependencies).contains("org.junit.platform:junit-platform-commons:1.10.2"));
     }
 
 }
@@ -0,0 +1,204 @@
+package jact.test.shard;
+
+import jact.core.AttributionPipeline;
+import jact.core.DependencyHtmlDetail;
+import jact.core.ReportModel;
+import jact.daemon.ReportRequest;
+import jact.depUtils.DependencyJarIndex;
+import jact.depUtils.ProjectDependency;
+import jact.shard.ShardPlan;
+import jact.shard.ShardedReportGenerator;
+import jact.utils.OutputCompression;
+import jact.utils.ResourceStager;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.internal.data.CRC64;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jact.core.HtmlAugmenter.generateHtmlReport;
+import static jact.core.XmlAugmenter.generateXmlReport;
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedReportTest {
+    static String testDirectory = "./src/test/java/jact/test/testingShardDir/";
+    static String classesDirectory = "./target/classes/";
+    static File uberJar = new File(testDirectory + "app.jar");
+    static File execFile = new File(testDirectory + "jacoco.exec");
+    static List<String> dependencyPackages = Arrays.asList("jact/utils", "jact/depUtils", "jact/daemon");
+
+    @BeforeAll
+    /**
+     * Creates a local repository with the dependencies com.example:utils:1.0
+     * (jact.utils), com.example:deps:1.0 (jact.depUtils) and
+     * com.example:daemon:1.0 (jact.daemon) and an Uber-jar of the project
+     * package jact.core, the dependencies and the unmatched package
+     * jact.plugin. The exec file covers ProjectDependency.
+     */
+    public static void initReportInputs() throws IOException {
+        for (String packagePath : dependencyPackages) {
+            String artifactId = artifactId(packagePath);
+            File jarFile = new File(testDirectory + "repo/com/example/" + artifactId + "/1.0/" + artifactId + "-1.0.jar");
+            jarFile.getParentFile().mkdirs();
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jarFile))) {
+                addClasses(out, packagePath);
+            }
+        }
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(uberJar))) {
+            for (String packagePath : Arrays.asList("jact/core", "jact/utils", "jact/depUtils", "jact/daemon",
+                    "jact/plugin")) {
+                addClasses(out, packagePath);
+            }
+        }
+        byte[] coveredClass = Files.readAllBytes(new File(classesDirectory + "jact/depUtils/ProjectDependency.class").toPath());
+        boolean[] probes = new boolean[1000];
+        Arrays.fill(probes, true);
+        try (FileOutputStream out = new FileOutputStream(execFile)) {
+            ExecutionDataWriter writer = new ExecutionDataWriter(out);
+            writer.visitSessionInfo(new SessionInfo("shards", 0, 1));
+            writer.visitClassExecution(new ExecutionData(CRC64.classId(coveredClass), "jact/depUtils/ProjectDependency", probes));
+        }
+    }
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: The dependencies are partitioned into 2 shards.
+     *     Post-condition: Every dependency and its packages belong to exactly
+     *                     one shard, the project and unmatched packages
+     *                     belong to the primary shard.
+     */
+    public void shardPlanTest() throws IOException {
+        ReportRequest request = createRequest("plan/");
+        List<ShardPlan> shards = ShardPlan.create(uberJar, request.getDependenciesMap(),
+                request.getProjectPackagesAndClasses(),
+                DependencyJarIndex.build(request.getDependenciesMap(), testDirectory + "repo"), 2);
+        assertEquals(2, shards.size());
+        assertTrue(shards.get(0).isPrimary());
+        assertTrue(shards.get(0).getPackageNames().containsAll(Arrays.asList("jact.core", "jact.plugin")));
+
+        Set<String> dependencyIds = new HashSet<>();
+        Set<String> packageNames = new HashSet<>();
+        for (ShardPlan shard : shards) {
+            for (String dependencyId : shard.getDependencyIds()) {
+                assertTrue(dependencyIds.add(dependencyId));
+            }
+            for (String packageName : shard.getPackageNames()) {
+                assertTrue(packageNames.add(packageName));
+            }
+        }
+        assertEquals(request.getDependenciesMap().keySet(), dependencyIds);
+        assertEquals(5, packageNames.size());
+    }
+
+    @Test
+    /**
+     * Requirements: See `initReportInputs()`.
+     * Contract:
+     *      Pre-condition: The report is generated in-process and in 2 worker
+     *                     JVMs started with the class path of the test.
+     *     Post-condition: The merged report has the same overview and
+     *                     dependency pages and the same XML elements as the
+     *                     in-process report, the shard directory is removed.
+     */
+    public void shardedReportTest() throws Exception {
+        ReportRequest single = createRequest("single/");
+        ReportModel reportModel = AttributionPipeline.createModel(new AttributionPipeline.Inputs(
+                single.getExecFiles(), uberJar, CompletableFuture.completedFuture(single.getDependenciesMap()),
+                CompletableFuture.completedFuture(single.getProjectPackagesAndClasses()),
+                CompletableFuture.completedFuture(DependencyJarIndex.build(single.getDependenciesMap(),
+                        testDirectory + "repo"))),
+                single.getProjectId(), single.getReportPath());
+        ResourceStager resourceStager = ResourceStager.forPluginVersion(testDirectory + "repo", "test");
+        generateXmlReport(reportModel, OutputCompression.none(), resourceStager);
+        generateHtmlReport(reportModel, false, resourceStager, DependencyHtmlDetail.FULL);
+
+        List<File> classpath = new ArrayList<>();
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            classpath.add(new File(path));
+        }
+        new ShardedReportGenerator(createRequest("sharded/"), false, 2, classpath, "256m").generate();
+
+        assertFalse(new File(testDirectory + "sharded-shards").exists());
+        List<String> pages = new ArrayList<>(Arrays.asList("index.html", "jact.core/index.html"));
+        for (String packagePath : dependencyPackages) {
+            String dependencyDir = "dependencies/com.example." + artifactId(packagePath) + "-v1.0/";
+            pages.add(dependencyDir + "index.html");
+            pages.add(dependencyDir + packagePath.replace('/', '.') + "/index.html");
+        }
+        for (String page : pages) {
+            assertEquals(read(testDirectory + "single/" + page), read(testDirectory + "sharded/" + page), page);
+        }
+        assertFalse(new File(testDirectory + "sharded/jact.plugin").exists());
+        assertEquals(xmlElements(testDirectory + "single/jact_report.xml"),
+                xmlElements(testDirectory + "sharded/jact_report.xml"));
+    }
+
+    // The dependency groups are written in the order of the shards
+    private static List<String> xmlElements(String xmlReport) throws IOException {
+        List<String> elements = new ArrayList<>(Arrays.asList(read(xmlReport).split("><")));
+        Collections.sort(elements);
+        return elements;
+    }
+
+    private static String read(String path) throws IOException {
+        return new String(Files.readAllBytes(new File(path).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static ReportRequest createRequest(String reportDir) {
+        ReportRequest request = new ReportRequest();
+        request.getFormats().addAll(Arrays.asList(ReportRequest.XML, ReportRequest.HTML));
+        request.getExecFiles().add(execFile.getAbsoluteFile());
+        request.setClassFiles(uberJar);
+        request.setLocalRepoPath(testDirectory + "repo");
+        request.setReportPath(testDirectory + reportDir);
+        request.setProjectId("com.example:app:1.0");
+        request.setPluginVersion("test");
+        request.getProjectPackagesAndClasses().put("jact.core", new HashSet<>(Collections.singleton("ReportModel")));
+        Map<String, ProjectDependency> dependencies = new HashMap<>();
+        for (String packagePath : dependencyPackages) {
+            ProjectDependency dependency = new ProjectDependency();
+            dependency.setId("com.example:" + artifactId(packagePath) + ":1.0");
+            dependency.setGroupId("com.example");
+            dependency.setArtifactId(artifactId(packagePath));
+            dependency.setVersion("1.0");
+            dependency.setScope("compile");
+            dependency.rootDep = true;
+            dependencies.put(dependency.getId(), dependency);
+        }
+        request.setDependenciesMap(dependencies);
+        return request;
+    }
+
+    private static String artifactId(String packagePath) {
+        return packagePath.equals("jact/depUtils") ? "deps" : packagePath.substring("jact/".length());
+    }
+
+    private static void addClasses(ZipOutputStream out, String packagePath) throws IOException {
+        for (File classFile : new File(classesDirectory + packagePath).listFiles((dir, name) -> name.endsWith(".class"))) {
+            out.putNextEntry(new ZipEntry(packagePath + "/" + classFile.getName()));
+            out.write(Files.readAllBytes(classFile.toPath()));
+            out.closeEntry();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package jact.test.utils;
 
+import jact.utils.ResourceStager;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -7,13 +8,14 @@ import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.IOException;
 
-import static jact.utils.CommandExecutor.copyPNGImage;
 import static jact.utils.FileSystemUtils.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FileSystemUtilsTest {
 
     static String testDirectory = "./src/test/java/jact/test/testingDir/";
+    static ResourceStager resourceStager = new ResourceStager(new File(testDirectory + "cache"));
 
     @AfterAll
     public static void cleanUpTestDirs() {
@@ -52,7 +54,7 @@ public class FileSystemUtilsTest {
         createDir(testDirectory + "createdDir");
         assertTrue(new File(testDirectory + "createdDir").exists());
         Assertions.assertFalse(new File(testDirectory + "createdDir" + "/jact-logo.png").exists());
-        copyPNGImage("jact-logo.png", testDirectory + "createdDir");
+        resourceStager.stageResource("jact-logo.png", new File(testDirectory + "createdDir", "jact-logo.png"));
         assertTrue(new File(testDirectory + "createdDir" + "/jact-logo.png").exists());
 
         // Recursive deletion of files contained in the directory
@@ -74,7 +76,7 @@ public class FileSystemUtilsTest {
     public void copyAndMoveDirectoryTest() throws IOException {
         createDir(testDirectory + "createdDir");
         assertTrue(new File(testDirectory + "createdDir").exists());
-        copyPNGImage("jact-logo.png", testDirectory + "createdDir");
+        resourceStager.stageResource("jact-logo.png", new File(testDirectory + "createdDir", "jact-logo.png"));
         assertTrue(new File(testDirectory + "createdDir" + "/jact-logo.png").exists());
 
         // Recursive deletion of files contained in the directory
@@ -84,6 +86,9 @@ public class FileSystemUtilsTest {
         Assertions.assertFalse(new File(testDirectory + "createdDir").exists());
         assertTrue(new File(testDirectory + "/movedDir" + "/createdDir").exists());
         assertTrue(new File(testDirectory + "/movedDir" + "/createdDir" + "/jact-logo.png").exists());
+        // A failed move is reported instead of silently leaving the directory behind
+        assertThrows(IOException.class,
+                () -> moveDirectory(new File(testDirectory + "createdDir"), testDirectory + "movedDir"));
 
 
         // Remove the moved directory
@@ -104,7 +109,7 @@ public class FileSystemUtilsTest {
     public void renameFileTest() throws IOException {
         createDir(testDirectory + "createdDir");
         assertTrue(new File(testDirectory + "createdDir").exists());
-        copyPNGImage("jact-logo.png", testDirectory + "createdDir");
+        resourceStager.stageResource("jact-logo.png", new File(testDirectory + "createdDir", "jact-logo.png"));
         assertTrue(new File(testDirectory + "createdDir" + "/jact-logo.png").exists());
 
         renameFile(testDirectory + "createdDir" + "/jact-logo.png", "new-name-jact-logo.png");
@@ -0,0 +1,103 @@
+package jact.test.utils;
+
+import jact.utils.InputFingerprints;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputFingerprintsTest {
+    static String testDirectory = "./src/test/java/jact/test/testingFingerprintDir/";
+    static File stateFile = new File(testDirectory + "state.properties");
+    static File inputFile = new File(testDirectory + "jacoco.exec");
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: The fingerprints of an input file and a
+     *                     parameter are stored in a state file.
+     *     Post-condition: Unchanged inputs are up-to-date, a touched file
+     *                     with the same content is still up-to-date while
+     *                     changed content or parameters are reported.
+     */
+    public void upToDateTest() throws IOException {
+        new File(testDirectory).mkdirs();
+        Files.write(inputFile.toPath(), "probes".getBytes(StandardCharsets.UTF_8));
+
+        InputFingerprints first = InputFingerprints.load(stateFile);
+        first.addValue("level", "6");
+        first.addFile("exec", inputFile);
+        assertFalse(first.isUpToDate());
+        first.save();
+
+        assertTrue(fingerprint("6").isUpToDate());
+
+        // Same content, different modification time
+        assertTrue(inputFile.setLastModified(inputFile.lastModified() - 10000));
+        assertTrue(fingerprint("6").isUpToDate());
+
+        assertEquals(Collections.singletonList("level"), fingerprint("9").getChangedInputs());
+
+        Files.write(inputFile.toPath(), "changed probes".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Collections.singletonList("exec"), fingerprint("6").getChangedInputs());
+
+        first.invalidate();
+        assertFalse(stateFile.exists());
+        assertFalse(fingerprint("6").isUpToDate());
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: The same fingerprints, with keys and values
+     *                     that need escaping, are saved twice.
+     *     Post-condition: Both state files are identical, sorted by key,
+     *                     without a timestamp and are loaded unchanged.
+     */
+    public void deterministicStateTest() throws IOException {
+        File sortedStateFile = new File(testDirectory + "sorted.properties");
+        List<byte[]> saved = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            InputFingerprints fingerprints = InputFingerprints.load(sortedStateFile);
+            fingerprints.addValue("z", "last");
+            fingerprints.addValue("a key:with=specials", " C:\\dir\\file #1\n");
+            fingerprints.addValue("m", "\u00e4\u00f6");
+            fingerprints.save();
+            saved.add(Files.readAllBytes(sortedStateFile.toPath()));
+            if (i == 0) {
+                assertEquals(3, fingerprints.getChangedInputs().size());
+            } else {
+                assertTrue(fingerprints.isUpToDate());
+            }
+        }
+        assertArrayEquals(saved.get(0), saved.get(1));
+        List<String> lines = Files.readAllLines(sortedStateFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+        assertEquals("#JACT input fingerprints", lines.get(0));
+        assertTrue(lines.get(1).startsWith("a\\ key"));
+        assertTrue(lines.get(2).startsWith("m="));
+        assertTrue(lines.get(3).startsWith("z="));
+    }
+
+    private static InputFingerprints fingerprint(String level) throws IOException {
+        InputFingerprints fingerprints = InputFingerprints.load(stateFile);
+        fingerprints.addValue("level", level);
+        fingerprints.addFile("exec", inputFile);
+        return fingerprints;
+    }
+}
@@ -0,0 +1,68 @@
+package jact.test.utils;
+
+import jact.utils.IoExecutors;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IoExecutorsTest {
+    static String testDirectory = "./src/test/java/jact/test/testingIoDir/";
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        System.clearProperty(IoExecutors.MODE_PROPERTY);
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: Nothing.
+     * Contract:
+     *      Pre-condition: Files are written by tasks on the I/O executor
+     *                     (virtual threads on JDK 21+) and on the forced
+     *                     platform pool, one of the tasks fails.
+     *     Post-condition: All tasks have run, the failure is rethrown
+     *                     once all of them have finished.
+     */
+    public void forEachTest() throws IOException {
+        assertEquals(IoExecutors.supportsVirtualThreads() ? IoExecutors.VIRTUAL : IoExecutors.PLATFORM,
+                IoExecutors.getMode());
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(i);
+        }
+        for (String mode : Arrays.asList(IoExecutors.getMode(), IoExecutors.PLATFORM)) {
+            System.setProperty(IoExecutors.MODE_PROPERTY, mode);
+            File directory = new File(testDirectory + "forEach-" + mode);
+            directory.mkdirs();
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            IoExecutors.forEach(items, item -> {
+                threads.add(Thread.currentThread().getName());
+                Files.write(new File(directory, item + ".txt").toPath(), String.valueOf(item).getBytes(StandardCharsets.UTF_8));
+            });
+            assertEquals(50, directory.list().length);
+            assertFalse(threads.contains(Thread.currentThread().getName()));
+
+            Set<Integer> finished = ConcurrentHashMap.newKeySet();
+            IOException exception = assertThrows(IOException.class, () -> IoExecutors.forEach(items, item -> {
+                if (item == 7) {
+                    throw new IOException("Failed item " + item);
+                }
+                finished.add(item);
+            }));
+            assertEquals("Failed item 7", exception.getMessage());
+            assertEquals(49, finished.size());
+        }
+        System.clearProperty(IoExecutors.MODE_PROPERTY);
+    }
+}
@@ -0,0 +1,85 @@
+package jact.test.utils;
+
+import jact.utils.OutputCompression;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static jact.utils.FileSystemUtils.createDir;
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutputCompressionTest {
+
+    static String testDirectory = "./src/test/java/jact/test/testingCompressionDir/";
+    static String content = "<report name=\"JACT\"><group name=\"Dependencies\"></group></report>";
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        Assertions.assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Requirements: Nothing.
+     * Contract:
+     *     Pre-condition:  A report file is written with compression enabled.
+     *     Post-condition: The file carries the `.gz` suffix, is GZIP encoded
+     *                     and reads back to the original content.
+     */
+    public void compressedRoundTripTest() throws IOException {
+        createDir(testDirectory);
+        OutputCompression compression = new OutputCompression(true, 9, 1024);
+        File file = new File(compression.fileName(testDirectory + "report.xml"));
+        assertTrue(file.getName().endsWith("report.xml.gz"));
+
+        try (Writer writer = compression.openWriter(file)) {
+            writer.write(content);
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            assertEquals(0x1f, in.read());
+            assertEquals(0x8b, in.read());
+        }
+        try (BufferedReader reader = OutputCompression.openReader(file)) {
+            assertEquals(content, reader.readLine());
+        }
+    }
+
+    @Test
+    /**
+     * Requirements: Nothing.
+     * Contract:
+     *     Pre-condition:  A report file is written without compression.
+     *     Post-condition: The file name is unchanged and the plain
+     *                     content is read back by the same reader.
+     */
+    public void uncompressedRoundTripTest() throws IOException {
+        createDir(testDirectory);
+        OutputCompression compression = OutputCompression.none();
+        File file = new File(compression.fileName(testDirectory + "plain.xml"));
+        assertTrue(file.getName().endsWith("plain.xml"));
+
+        try (Writer writer = compression.openWriter(file)) {
+            writer.write(content);
+        }
+        try (BufferedReader reader = OutputCompression.openReader(file)) {
+            assertEquals(content, reader.readLine());
+        }
+    }
+
+    @Test
+    /**
+     * Requirements: Nothing.
+     * Contract:
+     *     Pre-condition:  Invalid compression settings are provided.
+     *     Post-condition: The settings are rejected.
+     */
+    public void invalidSettingsTest() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OutputCompression(true, 0, 1024));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OutputCompression(true, 6, 0));
+    }
+}
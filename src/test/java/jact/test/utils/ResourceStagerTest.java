@@ -0,0 +1,69 @@
+package jact.test.utils;
+
+import jact.utils.ResourceStager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static jact.utils.FileSystemUtils.removeDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceStagerTest {
+    static String testDirectory = "./src/test/java/jact/test/testingStagingDir/";
+    static ResourceStager resourceStager = new ResourceStager(new File(testDirectory + "cache"));
+
+    @AfterAll
+    public static void cleanUpTestDirs() {
+        removeDirectory(new File(testDirectory));
+        assertFalse(new File(testDirectory).exists());
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: The report.dtd resource is bundled
+     *                     with the plugin.
+     *     Post-condition: The staged file has the bundled content
+     *                     and staging it again leaves the same
+     *                     file in place.
+     */
+    public void stageBundledResourceTest() throws IOException {
+        File target = new File(testDirectory + "report/report.dtd");
+        resourceStager.stageResource("xml-resources/report.dtd", target);
+        assertTrue(target.exists());
+        long modified = target.lastModified();
+        Object fileKey = Files.readAttributes(target.toPath(),
+                java.nio.file.attribute.BasicFileAttributes.class).fileKey();
+
+        resourceStager.stageResource("xml-resources/report.dtd", target);
+        assertEquals(modified, target.lastModified());
+        assertEquals(fileKey, Files.readAttributes(target.toPath(),
+                java.nio.file.attribute.BasicFileAttributes.class).fileKey());
+    }
+
+    @Test
+    /**
+     * Contract:
+     *      Pre-condition: Content is staged into one directory.
+     *     Post-condition: The content is cached under its digest and
+     *                     the staged directory is linked into another
+     *                     directory with identical content.
+     */
+    public void stageContentAndDirectoryTest() throws IOException {
+        byte[] content = "body { color: red; }".getBytes(StandardCharsets.UTF_8);
+        File target = new File(testDirectory + "report/jacoco-resources/report.css");
+        resourceStager.stageContent(content, target);
+        assertTrue(new File(testDirectory + "cache/" + ResourceStager.digest(content) + "/report.css").exists());
+
+        File linkedDir = new File(testDirectory + "report/dependencies/jacoco-resources");
+        resourceStager.stageDirectory(target.getParentFile(), linkedDir);
+        File linkedFile = new File(linkedDir, "report.css");
+        assertTrue(Files.isSameFile(target.toPath(), linkedFile.toPath())
+                || new String(Files.readAllBytes(linkedFile.toPath()), StandardCharsets.UTF_8)
+                .equals("body { color: red; }"));
+    }
+}